@@ -23,6 +23,11 @@ import org.gradle.api.tasks.TaskOutputs;
 public interface TaskOutputsInternal extends TaskOutputs {
     Spec<? super TaskInternal> getUpToDateSpec();
 
+    /**
+     * Returns whether the outputs of the task may be stored in and restored from the task output cache.
+     */
+    boolean isCacheAllowed();
+
     FileCollection getPreviousFiles();
 
     void setHistory(TaskExecutionHistory history);
@@ -16,6 +16,7 @@
 package org.gradle.api.internal.changedetection;
 
 import org.gradle.api.internal.TaskExecutionHistory;
+import org.gradle.api.internal.tasks.cache.TaskCacheKey;
 import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 
 import java.util.Collection;
@@ -33,6 +34,18 @@ public interface TaskArtifactState {
 
     IncrementalTaskInputs getInputChanges();
 
+    /**
+     * Returns whether the outputs of the task may be restored from the task output cache instead of executing the task.
+     */
+    boolean isAllowedToUseCachedResults();
+
+    /**
+     * Calculates the key under which the outputs of the task are stored in the task output cache.
+     *
+     * @return the cache key, or null if the outputs of the task cannot be cached.
+     */
+    TaskCacheKey calculateCacheKey();
+
     /**
      * Called before the task is to be executed. Note that {@link #isUpToDate(java.util.Collection)} may not necessarily have been called.
      */
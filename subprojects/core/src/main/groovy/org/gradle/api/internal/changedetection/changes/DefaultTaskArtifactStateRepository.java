@@ -21,6 +21,7 @@ import org.gradle.api.internal.TaskExecutionHistory;
 import org.gradle.api.internal.TaskInternal;
 import org.gradle.api.internal.changedetection.TaskArtifactState;
 import org.gradle.api.internal.changedetection.TaskArtifactStateRepository;
+import org.gradle.api.internal.tasks.ContextAwareTaskAction;
 import org.gradle.api.internal.changedetection.rules.TaskStateChange;
 import org.gradle.api.internal.changedetection.rules.TaskStateChanges;
 import org.gradle.api.internal.changedetection.rules.TaskUpToDateState;
@@ -28,10 +29,19 @@ import org.gradle.api.internal.changedetection.state.FileCollectionSnapshotter;
 import org.gradle.api.internal.changedetection.state.TaskExecution;
 import org.gradle.api.internal.changedetection.state.TaskHistoryRepository;
 import org.gradle.api.internal.file.FileCollectionFactory;
+import org.gradle.api.internal.tasks.cache.ClassImplementationHasher;
+import org.gradle.api.internal.tasks.cache.DefaultTaskCacheKeyBuilder;
+import org.gradle.api.internal.tasks.cache.TaskCacheKey;
+import org.gradle.api.internal.tasks.cache.TaskCacheKeyBuilder;
 import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.internal.reflect.Instantiator;
+import org.gradle.util.GradleVersion;
 
+import java.io.File;
 import java.util.Collection;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 public class DefaultTaskArtifactStateRepository implements TaskArtifactStateRepository {
 
@@ -41,6 +51,7 @@ public class DefaultTaskArtifactStateRepository implements TaskArtifactStateRepo
     private final FileCollectionSnapshotter discoveredInputsSnapshotter;
     private final Instantiator instantiator;
     private final FileCollectionFactory fileCollectionFactory;
+    private final ClassImplementationHasher classImplementationHasher = new ClassImplementationHasher();
 
     public DefaultTaskArtifactStateRepository(TaskHistoryRepository taskHistoryRepository, Instantiator instantiator,
                                               FileCollectionSnapshotter outputFilesSnapshotter, FileCollectionSnapshotter inputFilesSnapshotter,
@@ -105,6 +116,38 @@ public class DefaultTaskArtifactStateRepository implements TaskArtifactStateRepo
             return collectChangedMessages(null, getStates().getRebuildChanges());
         }
 
+        public boolean isAllowedToUseCachedResults() {
+            return task.getOutputs().isCacheAllowed();
+        }
+
+        public TaskCacheKey calculateCacheKey() {
+            if (!task.getOutputs().isCacheAllowed()) {
+                return null;
+            }
+            TaskUpToDateState states = getStates();
+            TaskExecution execution = history.getCurrentExecution();
+            TaskCacheKeyBuilder builder = new DefaultTaskCacheKeyBuilder();
+            builder.putString(GradleVersion.current().getVersion());
+            builder.putString(execution.getTaskClass());
+            builder.putHashValue(classImplementationHasher.hash(task.getClass()));
+            for (ContextAwareTaskAction action : task.getTaskActions()) {
+                Class<?> actionClass = action.getActionClass();
+                builder.putString(actionClass.getName());
+                builder.putHashValue(classImplementationHasher.hash(actionClass));
+            }
+            SortedMap<String, Object> inputProperties = new TreeMap<String, Object>(execution.getInputProperties());
+            for (Map.Entry<String, Object> entry : inputProperties.entrySet()) {
+                builder.putString(entry.getKey());
+                builder.putObject(entry.getValue());
+            }
+            states.getCurrentInputFilesSnapshot().appendToCacheKey(builder);
+            // Cached outputs are restored by position, so the declaration order of the output files is significant
+            for (File outputFile : task.getOutputs().getFiles()) {
+                builder.putString(outputFile.getAbsolutePath());
+            }
+            return builder.build();
+        }
+
         public FileCollection getOutputFiles() {
             TaskExecution lastExecution = history.getPreviousExecution();
             if (lastExecution != null && lastExecution.getOutputFilesSnapshot() != null) {
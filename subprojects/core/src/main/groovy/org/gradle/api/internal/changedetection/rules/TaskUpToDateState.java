@@ -17,6 +17,7 @@
 package org.gradle.api.internal.changedetection.rules;
 
 import org.gradle.api.internal.TaskInternal;
+import org.gradle.api.internal.changedetection.state.FileCollectionSnapshot;
 import org.gradle.api.internal.changedetection.state.FileCollectionSnapshotter;
 import org.gradle.api.internal.changedetection.state.FilesSnapshotSet;
 import org.gradle.api.internal.changedetection.state.TaskExecution;
@@ -84,6 +85,10 @@ public class TaskUpToDateState {
         return directInputFileChanges.getCurrent().getSnapshot();
     }
 
+    public FileCollectionSnapshot getCurrentInputFilesSnapshot() {
+        return directInputFileChanges.getCurrent();
+    }
+
     public void newInputs(Set<File> discoveredInputs) {
         discoveredInputsListener.newInputs(discoveredInputs);
     }
@@ -66,16 +66,25 @@ abstract class AbstractFileCollectionSnapshotter implements FileCollectionSnapsh
 
         cacheAccess.useCache("Create file snapshot", new Runnable() {
             public void run() {
+                List<FileTreeElement> regularFiles = new ArrayList<FileTreeElement>();
+                List<String> regularFilePaths = new ArrayList<String>();
                 for (FileTreeElement fileDetails : preCheck.getFileTreeElements()) {
                     String absolutePath = getInternedAbsolutePath(fileDetails.getFile());
                     if (!snapshots.containsKey(absolutePath)) {
                         if (fileDetails.isDirectory()) {
                             snapshots.put(absolutePath, DirSnapshot.getInstance());
                         } else {
-                            snapshots.put(absolutePath, new FileHashSnapshot(snapshotter.snapshot(fileDetails).getHash(), fileDetails.getLastModified()));
+                            // Reserve the entry, the file is hashed below together with the other files
+                            snapshots.put(absolutePath, null);
+                            regularFiles.add(fileDetails);
+                            regularFilePaths.add(absolutePath);
                         }
                     }
                 }
+                List<FileSnapshot> fileSnapshots = snapshotter.snapshot(regularFiles);
+                for (int i = 0; i < regularFiles.size(); i++) {
+                    snapshots.put(regularFilePaths.get(i), new FileHashSnapshot(fileSnapshots.get(i).getHash(), regularFiles.get(i).getLastModified()));
+                }
                 for (File missingFile : preCheck.getMissingFiles()) {
                     String absolutePath = getInternedAbsolutePath(missingFile);
                     if (!snapshots.containsKey(absolutePath)) {
@@ -63,45 +63,38 @@ public class CacheBackedTaskHistoryRepository implements TaskHistoryRepository {
             }
 
             public void update() {
-                cacheAccess.useCache("Update task history", new Runnable() {
-                    public void run() {
-                        history.configurations.add(0, currentExecution);
-                        if (currentExecution.inputFilesSnapshotId == null && currentExecution.inputFilesSnapshot != null) {
-                            currentExecution.inputFilesSnapshotId = snapshotRepository.add(currentExecution.inputFilesSnapshot);
-                        }
-                        if (currentExecution.outputFilesSnapshotId == null && currentExecution.outputFilesSnapshot != null) {
-                            currentExecution.outputFilesSnapshotId = snapshotRepository.add(currentExecution.outputFilesSnapshot);
-                        }
-                        if (currentExecution.discoveredFilesSnapshotId == null && currentExecution.discoveredFilesSnapshot != null) {
-                            currentExecution.discoveredFilesSnapshotId = snapshotRepository.add(currentExecution.discoveredFilesSnapshot);
-                        }
-                        while (history.configurations.size() > TaskHistory.MAX_HISTORY_ENTRIES) {
-                            LazyTaskExecution execution = history.configurations.remove(history.configurations.size() - 1);
-                            if (execution.inputFilesSnapshotId != null) {
-                                snapshotRepository.remove(execution.inputFilesSnapshotId);
-                            }
-                            if (execution.outputFilesSnapshotId != null) {
-                                snapshotRepository.remove(execution.outputFilesSnapshotId);
-                            }
-                            if (execution.discoveredFilesSnapshotId != null) {
-                                snapshotRepository.remove(execution.discoveredFilesSnapshotId);
-                            }
-                        }
-                        history.beforeSerialized();
-                        taskHistoryCache.put(task.getPath(), history);
+                // The task history caches buffer their writes, so the cache does not need to be locked here
+                history.configurations.add(0, currentExecution);
+                if (currentExecution.inputFilesSnapshotId == null && currentExecution.inputFilesSnapshot != null) {
+                    currentExecution.inputFilesSnapshotId = snapshotRepository.add(currentExecution.inputFilesSnapshot);
+                }
+                if (currentExecution.outputFilesSnapshotId == null && currentExecution.outputFilesSnapshot != null) {
+                    currentExecution.outputFilesSnapshotId = snapshotRepository.add(currentExecution.outputFilesSnapshot);
+                }
+                if (currentExecution.discoveredFilesSnapshotId == null && currentExecution.discoveredFilesSnapshot != null) {
+                    currentExecution.discoveredFilesSnapshotId = snapshotRepository.add(currentExecution.discoveredFilesSnapshot);
+                }
+                while (history.configurations.size() > TaskHistory.MAX_HISTORY_ENTRIES) {
+                    LazyTaskExecution execution = history.configurations.remove(history.configurations.size() - 1);
+                    if (execution.inputFilesSnapshotId != null) {
+                        snapshotRepository.remove(execution.inputFilesSnapshotId);
                     }
-                });
+                    if (execution.outputFilesSnapshotId != null) {
+                        snapshotRepository.remove(execution.outputFilesSnapshotId);
+                    }
+                    if (execution.discoveredFilesSnapshotId != null) {
+                        snapshotRepository.remove(execution.discoveredFilesSnapshotId);
+                    }
+                }
+                history.beforeSerialized();
+                taskHistoryCache.put(task.getPath(), history);
             }
 
             @Override
             public void finished(boolean wasUpToDate) {
                 if (wasUpToDate && history.modified) {
-                    cacheAccess.useCache("Update task history", new Runnable() {
-                        public void run() {
-                            history.beforeSerialized();
-                            taskHistoryCache.put(task.getPath(), history);
-                        }
-                    });
+                    history.beforeSerialized();
+                    taskHistoryCache.put(task.getPath(), history);
                 }
             }
         };
@@ -17,7 +17,8 @@ package org.gradle.api.internal.changedetection.state;
 
 import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.internal.cache.StringInterner;
-import org.gradle.api.internal.hash.Hasher;
+import org.gradle.api.internal.hash.FileHasher;
+import org.gradle.api.internal.hash.ParallelHasher;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.cache.PersistentStore;
 import org.gradle.internal.hash.HashUtil;
@@ -29,18 +30,33 @@ import org.gradle.internal.serialize.HashValueSerializer;
 import org.gradle.internal.serialize.Serializer;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class CachingFileSnapshotter implements FileSnapshotter {
     private final PersistentIndexedCache<String, FileInfo> cache;
-    private final Hasher hasher;
+    private final ParallelHasher hasher;
     private final StringInterner stringInterner;
 
-    public CachingFileSnapshotter(Hasher hasher, PersistentStore store, StringInterner stringInterner) {
+    public CachingFileSnapshotter(FileHasher hasher, PersistentStore store, StringInterner stringInterner) {
+        this(new ParallelHasher(hasher), store, stringInterner);
+    }
+
+    public CachingFileSnapshotter(ParallelHasher hasher, PersistentStore store, StringInterner stringInterner) {
         this.hasher = hasher;
-        this.cache = store.createCache("fileHashes", String.class, new FileInfoSerializer());
+        // Hashes created by different algorithms are kept in separate caches
+        this.cache = store.createCache(getCacheName(hasher.getAlgorithm()), String.class, new FileInfoSerializer());
         this.stringInterner = stringInterner;
     }
 
+    /**
+     * Returns the name of the cache that holds the file hashes created by the given algorithm.
+     */
+    public static String getCacheName(String algorithm) {
+        return InMemoryTaskArtifactCache.FILE_HASHES_CACHE + "-" + algorithm.toLowerCase();
+    }
+
     @Override
     public FileSnapshot snapshot(TextResource resource) {
         File file = resource.getFile();
@@ -69,11 +85,39 @@ public class CachingFileSnapshotter implements FileSnapshotter {
         return snapshot(file.getFile(), file.getSize(), file.getLastModified());
     }
 
+    @Override
+    public List<FileSnapshot> snapshot(List<? extends FileTreeElement> fileDetails) {
+        FileSnapshot[] snapshots = new FileSnapshot[fileDetails.size()];
+        List<Integer> missedIndexes = new ArrayList<Integer>();
+        List<File> missedFiles = new ArrayList<File>();
+        for (int i = 0; i < snapshots.length; i++) {
+            FileTreeElement details = fileDetails.get(i);
+            FileInfo info = cache.get(details.getFile().getAbsolutePath());
+            if (isUpToDate(info, details.getSize(), details.getLastModified())) {
+                snapshots[i] = info;
+            } else {
+                missedIndexes.add(i);
+                missedFiles.add(details.getFile());
+            }
+        }
+
+        // Only the hashing happens concurrently, the cache is accessed from this thread only
+        List<HashValue> hashes = hasher.hash(missedFiles);
+        for (int i = 0; i < hashes.size(); i++) {
+            int index = missedIndexes.get(i);
+            FileTreeElement details = fileDetails.get(index);
+            FileInfo info = new FileInfo(hashes.get(i), details.getSize(), details.getLastModified());
+            cache.put(stringInterner.intern(details.getFile().getAbsolutePath()), info);
+            snapshots[index] = info;
+        }
+        return Arrays.asList(snapshots);
+    }
+
     private FileInfo snapshot(File file, long length, long timestamp) {
         String absolutePath = file.getAbsolutePath();
         FileInfo info = cache.get(absolutePath);
 
-        if (info != null && length == info.length && timestamp == info.timestamp) {
+        if (isUpToDate(info, length, timestamp)) {
             return info;
         }
 
@@ -83,6 +127,10 @@ public class CachingFileSnapshotter implements FileSnapshotter {
         return info;
     }
 
+    private boolean isUpToDate(FileInfo info, long length, long timestamp) {
+        return info != null && length == info.length && timestamp == info.timestamp;
+    }
+
     public static class FileInfo implements FileSnapshot {
         private final HashValue hash;
         private final long timestamp;
@@ -97,6 +145,14 @@ public class CachingFileSnapshotter implements FileSnapshotter {
         public HashValue getHash() {
             return hash;
         }
+
+        public long getLength() {
+            return length;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
     }
 
     private static class FileInfoSerializer implements Serializer<FileInfo> {
@@ -18,6 +18,7 @@ package org.gradle.api.internal.changedetection.state;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.MapMaker;
+import org.gradle.api.Nullable;
 import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.FileVisitor;
@@ -27,6 +28,7 @@ import org.gradle.api.internal.file.collections.FileTreeAdapter;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 
+import java.io.File;
 import java.util.Collection;
 import java.util.concurrent.ConcurrentMap;
 
@@ -34,20 +36,43 @@ import java.util.concurrent.ConcurrentMap;
 public class CachingTreeVisitor {
     private final static Logger LOG = Logging.getLogger(CachingTreeVisitor.class);
     private ConcurrentMap<String, Collection<FileTreeElement>> cachedTrees = new MapMaker().weakValues().makeMap();
+    private final WatchedDirectoryTreeCache watchedTrees;
+
+    public CachingTreeVisitor() {
+        this(null);
+    }
+
+    /**
+     * @param watchedTrees retains scans across builds, or null to retain them for the current build only.
+     */
+    public CachingTreeVisitor(@Nullable WatchedDirectoryTreeCache watchedTrees) {
+        this.watchedTrees = watchedTrees;
+    }
 
     public Collection<FileTreeElement> visitTreeForSnapshotting(FileTreeInternal fileTree, boolean allowReuse) {
         if (isDirectoryFileTree(fileTree)) {
             DirectoryFileTree directoryFileTree = DirectoryFileTree.class.cast(((FileTreeAdapter) fileTree).getTree());
             if (isEligibleForCaching(directoryFileTree)) {
-                final String absolutePath = directoryFileTree.getDir().getAbsolutePath();
+                final File dir = directoryFileTree.getDir();
+                final String absolutePath = dir.getAbsolutePath();
                 Collection<FileTreeElement> cachedTree = allowReuse ? cachedTrees.get(absolutePath) : null;
+                if (cachedTree == null && allowReuse && watchedTrees != null) {
+                    cachedTree = watchedTrees.get(dir);
+                    if (cachedTree != null) {
+                        cachedTrees.put(absolutePath, cachedTree);
+                    }
+                }
                 if (cachedTree != null) {
                     recordCacheHit(directoryFileTree);
                     return cachedTree;
                 } else {
                     recordCacheMiss(directoryFileTree, allowReuse);
+                    long version = watchedTrees != null ? watchedTrees.beforeScan(dir) : -1;
                     cachedTree = doVisitTree(fileTree);
                     cachedTrees.put(absolutePath, cachedTree);
+                    if (watchedTrees != null) {
+                        watchedTrees.put(dir, version, cachedTree);
+                    }
                     return cachedTree;
                 }
             }
@@ -87,7 +112,10 @@ public class CachingTreeVisitor {
 
             @Override
             public void visitFile(FileVisitDetails fileDetails) {
-                fileTreeElements.add(fileDetails);
+                // Written for a moment while the watcher is synchronized, not part of the tree
+                if (!fileDetails.getName().startsWith(WatchedDirectoryTreeCache.COOKIE_PREFIX)) {
+                    fileTreeElements.add(fileDetails);
+                }
             }
         });
         return fileTreeElements.build();
@@ -96,4 +124,14 @@ public class CachingTreeVisitor {
     public void clearCache() {
         cachedTrees.clear();
     }
+
+    /**
+     * Discards the scans retained across builds that the given task outputs may change, as the changes may not be reported by the watcher before a
+     * later task scans them.
+     */
+    public void outputsWillChange(Iterable<File> outputs) {
+        if (watchedTrees != null) {
+            watchedTrees.invalidate(outputs);
+        }
+    }
 }
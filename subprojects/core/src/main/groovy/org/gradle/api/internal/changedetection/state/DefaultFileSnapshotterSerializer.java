@@ -19,14 +19,9 @@ package org.gradle.api.internal.changedetection.state;
 import org.gradle.api.internal.cache.StringInterner;
 import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.Encoder;
-import org.gradle.internal.serialize.HashValueSerializer;
 import org.gradle.internal.serialize.Serializer;
 
-import java.util.HashMap;
-import java.util.Map;
-
 class DefaultFileSnapshotterSerializer implements Serializer<FileCollectionSnapshotImpl> {
-    private final HashValueSerializer hashValueSerializer = new HashValueSerializer();
     private final StringInterner stringInterner;
 
     public DefaultFileSnapshotterSerializer(StringInterner stringInterner) {
@@ -34,38 +29,15 @@ class DefaultFileSnapshotterSerializer implements Serializer<FileCollectionSnaps
     }
 
     public FileCollectionSnapshotImpl read(Decoder decoder) throws Exception {
-        Map<String, IncrementalFileSnapshot> snapshots = new HashMap<String, IncrementalFileSnapshot>();
-        FileCollectionSnapshotImpl snapshot = new FileCollectionSnapshotImpl(snapshots);
         int snapshotsCount = decoder.readSmallInt();
-        for (int i = 0; i < snapshotsCount; i++) {
-            String key = stringInterner.intern(decoder.readString());
-            byte fileSnapshotKind = decoder.readByte();
-            if (fileSnapshotKind == 1) {
-                snapshots.put(key, DirSnapshot.getInstance());
-            } else if (fileSnapshotKind == 2) {
-                snapshots.put(key, MissingFileSnapshot.getInstance());
-            } else if (fileSnapshotKind == 3) {
-                snapshots.put(key, new FileHashSnapshot(hashValueSerializer.read(decoder)));
-            } else {
-                throw new RuntimeException("Unable to read serialized file collection snapshot. Unrecognized value found in the data stream.");
-            }
-        }
-        return snapshot;
+        byte[] entries = decoder.readBinary();
+        // Entries are decoded on demand
+        return new FileCollectionSnapshotImpl(new EncodedFileSnapshots(snapshotsCount, entries, stringInterner));
     }
 
     public void write(Encoder encoder, FileCollectionSnapshotImpl value) throws Exception {
-        encoder.writeSmallInt(value.snapshots.size());
-        for (String key : value.snapshots.keySet()) {
-            encoder.writeString(key);
-            IncrementalFileSnapshot incrementalFileSnapshot = value.snapshots.get(key);
-            if (incrementalFileSnapshot instanceof DirSnapshot) {
-                encoder.writeByte((byte) 1);
-            } else if (incrementalFileSnapshot instanceof MissingFileSnapshot) {
-                encoder.writeByte((byte) 2);
-            } else if (incrementalFileSnapshot instanceof FileHashSnapshot) {
-                encoder.writeByte((byte) 3);
-                hashValueSerializer.write(encoder, ((FileHashSnapshot) incrementalFileSnapshot).hash);
-            }
-        }
+        EncodedFileSnapshots encodedSnapshots = value.encode(stringInterner);
+        encoder.writeSmallInt(encodedSnapshots.size());
+        encoder.writeBinary(encodedSnapshots.getEntries());
     }
 }
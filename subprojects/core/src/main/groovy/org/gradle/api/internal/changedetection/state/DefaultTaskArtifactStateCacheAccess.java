@@ -15,23 +15,50 @@
  */
 package org.gradle.api.internal.changedetection.state;
 
+import com.google.common.collect.ImmutableSet;
 import org.gradle.api.invocation.Gradle;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.PersistentCache;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.cache.PersistentIndexedCacheParameters;
 import org.gradle.cache.internal.CacheDecorator;
+import org.gradle.cache.internal.FileLock;
 import org.gradle.cache.internal.FileLockManager;
+import org.gradle.cache.internal.MultiProcessSafePersistentIndexedCache;
+import org.gradle.internal.Cast;
+import org.gradle.internal.Factories;
 import org.gradle.internal.Factory;
 import org.gradle.internal.serialize.Serializer;
 
 import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
 public class DefaultTaskArtifactStateCacheAccess implements TaskArtifactStateCacheAccess, Closeable {
+    // Writes to the task history are buffered, and written in batches
+    private static final Set<String> WRITE_BEHIND_CACHES = ImmutableSet.of("fileSnapshots", "taskArtifacts");
+    private static final int MAX_PENDING_WRITES = 2000;
+    private static final Object REMOVED = new Object();
+
     private final CacheDecorator inMemoryDecorator;
+    private final CacheDecorator writeBehindDecorator = new CacheDecorator() {
+        public <K, V> MultiProcessSafePersistentIndexedCache<K, V> decorate(String cacheId, String cacheName, MultiProcessSafePersistentIndexedCache<K, V> original) {
+            WriteBehindIndexedCache<K, V> writeBehindCache = new WriteBehindIndexedCache<K, V>(inMemoryDecorator.decorate(cacheId, cacheName, original));
+            writeBehindCaches.add(writeBehindCache);
+            return writeBehindCache;
+        }
+    };
     private final PersistentCache cache;
+    // In the order the caches were created, so that file snapshots are written before the task history that refers to them
+    private final List<WriteBehindIndexedCache<?, ?>> writeBehindCaches = new CopyOnWriteArrayList<WriteBehindIndexedCache<?, ?>>();
+    private final AtomicInteger pendingWrites = new AtomicInteger();
 
     public DefaultTaskArtifactStateCacheAccess(Gradle gradle, CacheRepository cacheRepository, CacheDecorator decorator) {
         this.inMemoryDecorator = decorator;
@@ -43,21 +70,41 @@ public class DefaultTaskArtifactStateCacheAccess implements TaskArtifactStateCac
     }
 
     public void close() {
-        cache.close();
+        try {
+            if (pendingWrites.get() > 0) {
+                cache.useCache("Write task history", new Runnable() {
+                    public void run() {
+                        writePendingWrites();
+                    }
+                });
+            }
+        } finally {
+            cache.close();
+        }
     }
 
     public <K, V> PersistentIndexedCache<K, V> createCache(final String cacheName, final Class<K> keyType, final Serializer<V> valueSerializer) {
         PersistentIndexedCacheParameters<K, V> parameters = new PersistentIndexedCacheParameters<K, V>(cacheName, keyType, valueSerializer)
-                .cacheDecorator(inMemoryDecorator);
+                .cacheDecorator(WRITE_BEHIND_CACHES.contains(cacheName) ? writeBehindDecorator : inMemoryDecorator);
         return cache.createCache(parameters);
     }
 
-    public <T> T useCache(String operationDisplayName, Factory<? extends T> action) {
-        return cache.useCache(operationDisplayName, action);
+    public <T> T useCache(String operationDisplayName, final Factory<? extends T> action) {
+        return cache.useCache(operationDisplayName, new Factory<T>() {
+            public T create() {
+                try {
+                    return action.create();
+                } finally {
+                    if (pendingWrites.get() >= MAX_PENDING_WRITES) {
+                        writePendingWrites();
+                    }
+                }
+            }
+        });
     }
 
     public void useCache(String operationDisplayName, Runnable action) {
-        cache.useCache(operationDisplayName, action);
+        useCache(operationDisplayName, Factories.toFactory(action));
     }
 
     public <T> T longRunningOperation(String operationDisplayName, Factory<? extends T> action) {
@@ -67,4 +114,102 @@ public class DefaultTaskArtifactStateCacheAccess implements TaskArtifactStateCac
     public void longRunningOperation(String operationDisplayName, Runnable action) {
         cache.longRunningOperation(operationDisplayName, action);
     }
-}
\ No newline at end of file
+
+    /**
+     * Must be called while the cache is in use.
+     */
+    private void writePendingWrites() {
+        for (WriteBehindIndexedCache<?, ?> writeBehindCache : writeBehindCaches) {
+            writeBehindCache.writePendingWrites();
+        }
+    }
+
+    /**
+     * Buffers the writes to a cache, so that they can be made without the cache lock, and written to the backing cache in batches.
+     * A value that is written several times before it is flushed is only written once. Should the process crash before the writes
+     * are flushed, the task history of the affected tasks is lost, and the tasks are executed again in the next build.
+     *
+     * <p>The writes are also flushed when the cache is closed, which happens before the cache lock is released, so that other processes see them.</p>
+     */
+    private class WriteBehindIndexedCache<K, V> implements MultiProcessSafePersistentIndexedCache<K, V> {
+        private final MultiProcessSafePersistentIndexedCache<K, V> delegate;
+        private final Map<K, Object> pending = new HashMap<K, Object>();
+
+        WriteBehindIndexedCache(MultiProcessSafePersistentIndexedCache<K, V> delegate) {
+            this.delegate = delegate;
+        }
+
+        public void close() {
+            // Called with the cache lock held, when the lock is released because another process wants it or when the cache is closed
+            try {
+                writePendingWrites();
+            } finally {
+                delegate.close();
+            }
+        }
+
+        public void onStartWork(String operationDisplayName, FileLock.State currentCacheState) {
+            delegate.onStartWork(operationDisplayName, currentCacheState);
+        }
+
+        public void onEndWork(FileLock.State currentCacheState) {
+            delegate.onEndWork(currentCacheState);
+        }
+
+        public V get(K key) {
+            synchronized (this) {
+                Object value = pending.get(key);
+                if (value != null) {
+                    return value == REMOVED ? null : Cast.<V>uncheckedCast(value);
+                }
+            }
+            return delegate.get(key);
+        }
+
+        public void put(K key, V value) {
+            buffer(key, value);
+        }
+
+        public void remove(K key) {
+            buffer(key, REMOVED);
+        }
+
+        private void buffer(K key, Object value) {
+            synchronized (this) {
+                if (pending.put(key, value) != null) {
+                    return;
+                }
+            }
+            pendingWrites.incrementAndGet();
+        }
+
+        void writePendingWrites() {
+            Map<K, Object> writes;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                // Write in key order, which keeps the writes to the backing BTree close together
+                writes = pending.keySet().iterator().next() instanceof Comparable ? new TreeMap<K, Object>(pending) : new HashMap<K, Object>(pending);
+            }
+            for (Map.Entry<K, Object> entry : writes.entrySet()) {
+                if (entry.getValue() == REMOVED) {
+                    delegate.remove(entry.getKey());
+                } else {
+                    delegate.put(entry.getKey(), Cast.<V>uncheckedCast(entry.getValue()));
+                }
+            }
+            // Values are only discarded once written, so reads see them in the meantime. Keep those that have been replaced since
+            int written = 0;
+            synchronized (this) {
+                for (Map.Entry<K, Object> entry : writes.entrySet()) {
+                    if (pending.get(entry.getKey()) == entry.getValue()) {
+                        pending.remove(entry.getKey());
+                        written++;
+                    }
+                }
+            }
+            pendingWrites.addAndGet(-written);
+        }
+    }
+}
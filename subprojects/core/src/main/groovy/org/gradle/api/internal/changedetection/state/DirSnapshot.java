@@ -16,6 +16,8 @@
 
 package org.gradle.api.internal.changedetection.state;
 
+import org.gradle.api.internal.tasks.cache.TaskCacheKeyBuilder;
+
 class DirSnapshot implements IncrementalFileSnapshot {
     private static DirSnapshot instance = new DirSnapshot();
 
@@ -34,4 +36,9 @@ class DirSnapshot implements IncrementalFileSnapshot {
     public boolean isContentUpToDate(IncrementalFileSnapshot snapshot) {
         return snapshot instanceof DirSnapshot;
     }
+
+    @Override
+    public void appendToCacheKey(TaskCacheKeyBuilder builder) {
+        builder.putByte((byte) 1);
+    }
 }
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Maps;
+import org.gradle.api.internal.cache.StringInterner;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.HashValueSerializer;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * The entries of a {@link FileCollectionSnapshotImpl} in their compact serialized form. Entries are sorted by path, and each path is
+ * stored as the length of the prefix it shares with the previous path followed by the remaining characters. The entries can be
+ * decoded one at a time, so that a comparison can stop at the first difference without decoding the remaining entries.
+ */
+class EncodedFileSnapshots {
+    private static final byte DIR_SNAPSHOT = 1;
+    private static final byte MISSING_FILE_SNAPSHOT = 2;
+    private static final byte FILE_HASH_SNAPSHOT = 3;
+
+    private static final HashValueSerializer HASH_VALUE_SERIALIZER = new HashValueSerializer();
+
+    private final int size;
+    private final byte[] entries;
+    private final StringInterner stringInterner;
+
+    EncodedFileSnapshots(int size, byte[] entries, StringInterner stringInterner) {
+        this.size = size;
+        this.entries = entries;
+        this.stringInterner = stringInterner;
+    }
+
+    public static EncodedFileSnapshots encode(Map<String, IncrementalFileSnapshot> snapshots, StringInterner stringInterner) {
+        String[] paths = snapshots.keySet().toArray(new String[0]);
+        Arrays.sort(paths);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        KryoBackedEncoder encoder = new KryoBackedEncoder(outputStream);
+        try {
+            String previousPath = "";
+            for (String path : paths) {
+                int sharedPrefix = sharedPrefixLength(previousPath, path);
+                encoder.writeSmallInt(sharedPrefix);
+                encoder.writeString(path.substring(sharedPrefix));
+                writeSnapshot(encoder, snapshots.get(path));
+                previousPath = path;
+            }
+            encoder.flush();
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        return new EncodedFileSnapshots(paths.length, outputStream.toByteArray(), stringInterner);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte[] getEntries() {
+        return entries;
+    }
+
+    public Map<String, IncrementalFileSnapshot> decode() {
+        Map<String, IncrementalFileSnapshot> snapshots = Maps.newHashMapWithExpectedSize(size);
+        Iterator<Map.Entry<String, IncrementalFileSnapshot>> iterator = iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, IncrementalFileSnapshot> entry = iterator.next();
+            snapshots.put(entry.getKey(), entry.getValue());
+        }
+        return snapshots;
+    }
+
+    /**
+     * Returns an iterator that decodes the entries as they are requested, in path order.
+     */
+    public Iterator<Map.Entry<String, IncrementalFileSnapshot>> iterator() {
+        final Decoder decoder = new KryoBackedDecoder(new ByteArrayInputStream(entries));
+        return new AbstractIterator<Map.Entry<String, IncrementalFileSnapshot>>() {
+            private int remaining = size;
+            private String previousPath = "";
+
+            @Override
+            protected Map.Entry<String, IncrementalFileSnapshot> computeNext() {
+                if (remaining == 0) {
+                    return endOfData();
+                }
+                remaining--;
+                try {
+                    int sharedPrefix = decoder.readSmallInt();
+                    String path = stringInterner.intern(previousPath.substring(0, sharedPrefix).concat(decoder.readString()));
+                    previousPath = path;
+                    return Maps.immutableEntry(path, readSnapshot(decoder));
+                } catch (Exception e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+        };
+    }
+
+    private static int sharedPrefixLength(String previous, String current) {
+        int max = Math.min(previous.length(), current.length());
+        int length = 0;
+        while (length < max && previous.charAt(length) == current.charAt(length)) {
+            length++;
+        }
+        return length;
+    }
+
+    private static void writeSnapshot(Encoder encoder, IncrementalFileSnapshot snapshot) throws Exception {
+        if (snapshot instanceof DirSnapshot) {
+            encoder.writeByte(DIR_SNAPSHOT);
+        } else if (snapshot instanceof MissingFileSnapshot) {
+            encoder.writeByte(MISSING_FILE_SNAPSHOT);
+        } else if (snapshot instanceof FileHashSnapshot) {
+            encoder.writeByte(FILE_HASH_SNAPSHOT);
+            HASH_VALUE_SERIALIZER.write(encoder, ((FileHashSnapshot) snapshot).hash);
+        } else {
+            throw new IllegalArgumentException("Unsupported file snapshot type: " + snapshot);
+        }
+    }
+
+    private static IncrementalFileSnapshot readSnapshot(Decoder decoder) throws Exception {
+        byte fileSnapshotKind = decoder.readByte();
+        switch (fileSnapshotKind) {
+            case DIR_SNAPSHOT:
+                return DirSnapshot.getInstance();
+            case MISSING_FILE_SNAPSHOT:
+                return MissingFileSnapshot.getInstance();
+            case FILE_HASH_SNAPSHOT:
+                return new FileHashSnapshot(HASH_VALUE_SERIALIZER.read(decoder));
+            default:
+                throw new RuntimeException("Unable to read serialized file collection snapshot. Unrecognized value found in the data stream.");
+        }
+    }
+}
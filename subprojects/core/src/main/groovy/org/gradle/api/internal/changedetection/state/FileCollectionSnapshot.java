@@ -18,6 +18,7 @@ package org.gradle.api.internal.changedetection.state;
 
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.FileTreeElement;
+import org.gradle.api.internal.tasks.cache.TaskCacheKeyBuilder;
 import org.gradle.util.ChangeListener;
 
 import java.io.File;
@@ -56,6 +57,11 @@ public interface FileCollectionSnapshot {
 
     FilesSnapshotSet getSnapshot();
 
+    /**
+     * Appends the paths and contents of the files in this snapshot to the given cache key, in a stable order.
+     */
+    void appendToCacheKey(TaskCacheKeyBuilder builder);
+
     interface ChangeIterator<T> {
         boolean next(ChangeListener<T> listener);
     }
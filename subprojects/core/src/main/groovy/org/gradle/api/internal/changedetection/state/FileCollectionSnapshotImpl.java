@@ -16,22 +16,81 @@
 
 package org.gradle.api.internal.changedetection.state;
 
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
+import com.google.common.collect.PeekingIterator;
+import org.gradle.api.internal.cache.StringInterner;
+import org.gradle.api.internal.tasks.cache.TaskCacheKeyBuilder;
 import org.gradle.util.ChangeListener;
 
 import java.io.File;
 import java.util.*;
 
 class FileCollectionSnapshotImpl implements FileCollectionSnapshot {
-    final Map<String, IncrementalFileSnapshot> snapshots;
+    private static final Comparator<Map.Entry<String, IncrementalFileSnapshot>> PATH_ORDER = new Comparator<Map.Entry<String, IncrementalFileSnapshot>>() {
+        public int compare(Map.Entry<String, IncrementalFileSnapshot> o1, Map.Entry<String, IncrementalFileSnapshot> o2) {
+            return o1.getKey().compareTo(o2.getKey());
+        }
+    };
+
+    private volatile Map<String, IncrementalFileSnapshot> snapshots;
+    // Set when this snapshot has been loaded from the cache, until its entries are needed in a map
+    private volatile EncodedFileSnapshots encodedSnapshots;
+    // The entries of the map in path order, sorted when they are first needed
+    private volatile List<Map.Entry<String, IncrementalFileSnapshot>> sortedEntries;
 
     public FileCollectionSnapshotImpl(Map<String, IncrementalFileSnapshot> snapshots) {
         this.snapshots = snapshots;
     }
 
+    public FileCollectionSnapshotImpl(EncodedFileSnapshots encodedSnapshots) {
+        this.encodedSnapshots = encodedSnapshots;
+    }
+
+    public Map<String, IncrementalFileSnapshot> getSnapshots() {
+        Map<String, IncrementalFileSnapshot> snapshots = this.snapshots;
+        if (snapshots == null) {
+            synchronized (this) {
+                snapshots = this.snapshots;
+                if (snapshots == null) {
+                    snapshots = encodedSnapshots.decode();
+                    this.snapshots = snapshots;
+                    encodedSnapshots = null;
+                }
+            }
+        }
+        return snapshots;
+    }
+
+    EncodedFileSnapshots encode(StringInterner stringInterner) {
+        EncodedFileSnapshots encodedSnapshots = this.encodedSnapshots;
+        if (encodedSnapshots != null) {
+            return encodedSnapshots;
+        }
+        return EncodedFileSnapshots.encode(getSnapshots(), stringInterner);
+    }
+
+    /**
+     * Returns the entries of this snapshot in path order. Entries that have not been decoded yet are decoded as they are requested.
+     * Otherwise the entries are sorted once and the result is kept for later comparisons.
+     */
+    private Iterator<Map.Entry<String, IncrementalFileSnapshot>> sortedEntries() {
+        EncodedFileSnapshots encodedSnapshots = this.encodedSnapshots;
+        if (encodedSnapshots != null) {
+            return encodedSnapshots.iterator();
+        }
+        List<Map.Entry<String, IncrementalFileSnapshot>> sortedEntries = this.sortedEntries;
+        if (sortedEntries == null) {
+            sortedEntries = new ArrayList<Map.Entry<String, IncrementalFileSnapshot>>(getSnapshots().entrySet());
+            Collections.sort(sortedEntries, PATH_ORDER);
+            this.sortedEntries = sortedEntries;
+        }
+        return Collections.unmodifiableList(sortedEntries).iterator();
+    }
+
     public List<File> getFiles() {
         List<File> files = Lists.newArrayList();
-        for (Map.Entry<String, IncrementalFileSnapshot> entry : snapshots.entrySet()) {
+        for (Map.Entry<String, IncrementalFileSnapshot> entry : getSnapshots().entrySet()) {
             if (!(entry.getValue() instanceof DirSnapshot)) {
                 files.add(new File(entry.getKey()));
             }
@@ -42,7 +101,7 @@ class FileCollectionSnapshotImpl implements FileCollectionSnapshot {
     public FilesSnapshotSet getSnapshot() {
         return new FilesSnapshotSet() {
             public FileSnapshot findSnapshot(File file) {
-                IncrementalFileSnapshot s = snapshots.get(file.getAbsolutePath());
+                IncrementalFileSnapshot s = getSnapshots().get(file.getAbsolutePath());
                 if (s instanceof FileSnapshot) {
                     return (FileSnapshot) s;
                 }
@@ -51,41 +110,55 @@ class FileCollectionSnapshotImpl implements FileCollectionSnapshot {
         };
     }
 
+    @Override
+    public void appendToCacheKey(TaskCacheKeyBuilder builder) {
+        Iterator<Map.Entry<String, IncrementalFileSnapshot>> entries = sortedEntries();
+        while (entries.hasNext()) {
+            Map.Entry<String, IncrementalFileSnapshot> entry = entries.next();
+            builder.putString(entry.getKey());
+            entry.getValue().appendToCacheKey(builder);
+        }
+    }
+
+    /**
+     * Compares the entries of both snapshots in path order, so that neither snapshot needs to be fully decoded to find the first change.
+     */
     @Override
     public ChangeIterator<String> iterateContentChangesSince(FileCollectionSnapshot oldSnapshot, final Set<ChangeFilter> filters) {
         FileCollectionSnapshotImpl oldSnapshotImpl = (FileCollectionSnapshotImpl) oldSnapshot;
-        final Map<String, IncrementalFileSnapshot> otherSnapshots = new HashMap<String, IncrementalFileSnapshot>(oldSnapshotImpl.snapshots);
-        final Iterator<String> currentFiles = snapshots.keySet().iterator();
+        final PeekingIterator<Map.Entry<String, IncrementalFileSnapshot>> currentEntries = Iterators.peekingIterator(sortedEntries());
+        final PeekingIterator<Map.Entry<String, IncrementalFileSnapshot>> previousEntries = Iterators.peekingIterator(oldSnapshotImpl.sortedEntries());
         final boolean includeAdded = !filters.contains(ChangeFilter.IgnoreAddedFiles);
 
         return new ChangeIterator<String>() {
-            private Iterator<String> removedFiles;
-
             public boolean next(ChangeListener<String> listener) {
-                while (currentFiles.hasNext()) {
-                    String currentFile = currentFiles.next();
-                    IncrementalFileSnapshot otherFile = otherSnapshots.remove(currentFile);
-                    if (otherFile == null) {
+                while (currentEntries.hasNext() || previousEntries.hasNext()) {
+                    int order;
+                    if (!previousEntries.hasNext()) {
+                        order = -1;
+                    } else if (!currentEntries.hasNext()) {
+                        order = 1;
+                    } else {
+                        order = currentEntries.peek().getKey().compareTo(previousEntries.peek().getKey());
+                    }
+
+                    if (order < 0) {
+                        String currentFile = currentEntries.next().getKey();
                         if (includeAdded) {
                             listener.added(currentFile);
                             return true;
                         }
-                    } else if (!snapshots.get(currentFile).isContentUpToDate(otherFile)) {
-                        listener.changed(currentFile);
+                    } else if (order > 0) {
+                        listener.removed(previousEntries.next().getKey());
                         return true;
+                    } else {
+                        Map.Entry<String, IncrementalFileSnapshot> currentFile = currentEntries.next();
+                        if (!currentFile.getValue().isContentUpToDate(previousEntries.next().getValue())) {
+                            listener.changed(currentFile.getKey());
+                            return true;
+                        }
                     }
                 }
-
-                // Create a single iterator to use for all of the removed files
-                if (removedFiles == null) {
-                    removedFiles = otherSnapshots.keySet().iterator();
-                }
-
-                if (removedFiles.hasNext()) {
-                    listener.removed(removedFiles.next());
-                    return true;
-                }
-
                 return false;
             }
         };
@@ -93,12 +166,14 @@ class FileCollectionSnapshotImpl implements FileCollectionSnapshot {
 
     @Override
     public FileCollectionSnapshot updateFrom(FileCollectionSnapshot newSnapshot) {
+        Map<String, IncrementalFileSnapshot> snapshots = getSnapshots();
         if (snapshots.isEmpty()) {
             // Nothing to update
             return this;
         }
         FileCollectionSnapshotImpl newSnapshotImpl = (FileCollectionSnapshotImpl) newSnapshot;
-        if (newSnapshotImpl.snapshots.isEmpty()) {
+        Map<String, IncrementalFileSnapshot> updatedSnapshots = newSnapshotImpl.getSnapshots();
+        if (updatedSnapshots.isEmpty()) {
             // Everything has been removed
             return newSnapshotImpl;
         }
@@ -106,7 +181,7 @@ class FileCollectionSnapshotImpl implements FileCollectionSnapshot {
         // Update entries from new snapshot
         Map<String, IncrementalFileSnapshot> newSnapshots = new HashMap<String, IncrementalFileSnapshot>(snapshots.size());
         for (String path : snapshots.keySet()) {
-            IncrementalFileSnapshot newValue = newSnapshotImpl.snapshots.get(path);
+            IncrementalFileSnapshot newValue = updatedSnapshots.get(path);
             if (newValue != null) {
                 newSnapshots.put(path, newValue);
             }
@@ -118,8 +193,8 @@ class FileCollectionSnapshotImpl implements FileCollectionSnapshot {
     public FileCollectionSnapshot applyAllChangesSince(FileCollectionSnapshot oldSnapshot, FileCollectionSnapshot target) {
         FileCollectionSnapshotImpl oldSnapshotImpl = (FileCollectionSnapshotImpl) oldSnapshot;
         FileCollectionSnapshotImpl targetImpl = (FileCollectionSnapshotImpl) target;
-        Map<String, IncrementalFileSnapshot> newSnapshots = new HashMap<String, IncrementalFileSnapshot>(targetImpl.snapshots);
-        diff(snapshots, oldSnapshotImpl.snapshots, newSnapshots);
+        Map<String, IncrementalFileSnapshot> newSnapshots = new HashMap<String, IncrementalFileSnapshot>(targetImpl.getSnapshots());
+        diff(getSnapshots(), oldSnapshotImpl.getSnapshots(), newSnapshots);
         return new FileCollectionSnapshotImpl(newSnapshots);
     }
 
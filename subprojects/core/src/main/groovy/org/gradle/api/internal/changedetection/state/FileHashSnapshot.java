@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.changedetection.state;
 
+import org.gradle.api.internal.tasks.cache.TaskCacheKeyBuilder;
 import org.gradle.internal.hash.HashValue;
 
 class FileHashSnapshot implements IncrementalFileSnapshot, FileSnapshot {
@@ -57,4 +58,10 @@ class FileHashSnapshot implements IncrementalFileSnapshot, FileSnapshot {
     public HashValue getHash() {
         return hash;
     }
+
+    @Override
+    public void appendToCacheKey(TaskCacheKeyBuilder builder) {
+        builder.putByte((byte) 3);
+        builder.putHashValue(hash);
+    }
 }
@@ -33,9 +33,11 @@ import java.util.Set;
 
 public class InMemoryTaskArtifactCache implements CacheDecorator {
     private final static Logger LOG = Logging.getLogger(InMemoryTaskArtifactCache.class);
+    static final String FILE_HASHES_CACHE = "fileHashes";
     private final static Object NULL = new Object();
     private static final Map<String, Integer> CACHE_CAPS = new CacheCapSizer().calculateCaps();
     private static final Set<String> WEAK_REFERENCE_CACHES = ImmutableSet.copyOf(new String[]{"fileSnapshots"});
+    private static final Set<String> PACKED_FILE_INFO_CACHES = ImmutableSet.copyOf(new String[]{FILE_HASHES_CACHE});
 
     static class CacheCapSizer {
         private static final Map<String, Integer> DEFAULT_CAP_SIZES = new HashMap<String, Integer>();
@@ -43,8 +45,9 @@ public class InMemoryTaskArtifactCache implements CacheDecorator {
         static {
             DEFAULT_CAP_SIZES.put("fileSnapshots", 10000);
             DEFAULT_CAP_SIZES.put("taskArtifacts", 2000);
-            DEFAULT_CAP_SIZES.put("fileHashes", 400000);
+            DEFAULT_CAP_SIZES.put(FILE_HASHES_CACHE, 1000000);
             DEFAULT_CAP_SIZES.put("compilationState", 1000);
+            DEFAULT_CAP_SIZES.put("taskDurations", 10000);
         }
 
         final HeapProportionalCacheSizer sizer;
@@ -134,23 +137,32 @@ public class InMemoryTaskArtifactCache implements CacheDecorator {
             if (theData != null) {
                 LOG.info("In-memory cache of {}: Size{{}}, {}", cacheId, theData.size() , theData.stats());
             } else {
-                Integer maxSize = CACHE_CAPS.get(cacheName);
+                String cacheKind = getCacheKind(cacheName);
+                Integer maxSize = CACHE_CAPS.get(cacheKind);
                 assert maxSize != null : "Unknown cache.";
                 LOG.info("Creating In-memory cache of {}: MaxSize{{}}", cacheId, maxSize);
-                LoggingEvictionListener evictionListener = new LoggingEvictionListener(cacheId, maxSize);
-                CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().removalListener(evictionListener);
-                if (WEAK_REFERENCE_CACHES.contains(cacheName)) {
-                    builder.weakValues();
+                if (PACKED_FILE_INFO_CACHES.contains(cacheKind)) {
+                    theData = new PackedFileInfoCache(cacheId, maxSize, NULL);
+                } else {
+                    LoggingEvictionListener evictionListener = new LoggingEvictionListener(cacheId, maxSize);
+                    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().removalListener(evictionListener);
+                    if (WEAK_REFERENCE_CACHES.contains(cacheKind)) {
+                        builder.weakValues();
+                    }
+                    theData = builder.build();
+                    evictionListener.setCache(theData);
                 }
-                theData = builder.build();
-
-                evictionListener.setCache(theData);
                 this.cache.put(cacheId, theData);
             }
         }
         return theData;
     }
 
+    private static String getCacheKind(String cacheName) {
+        // There is a file hash cache per hash algorithm, all sized alike
+        return cacheName.startsWith(FILE_HASHES_CACHE + "-") ? FILE_HASHES_CACHE : cacheName;
+    }
+
     private static class LoggingEvictionListener implements RemovalListener<Object, Object> {
         private static Logger logger = Logging.getLogger(LoggingEvictionListener.class);
         private static final String EVICTION_MITIGATION_MESSAGE = "\nPerformance may suffer from in-memory cache misses. Increase max heap size of Gradle build process to reduce cache misses.";
@@ -16,6 +16,8 @@
 
 package org.gradle.api.internal.changedetection.state;
 
+import org.gradle.api.internal.tasks.cache.TaskCacheKeyBuilder;
+
 class MissingFileSnapshot implements IncrementalFileSnapshot {
     private static MissingFileSnapshot instance = new MissingFileSnapshot();
 
@@ -34,4 +36,9 @@ class MissingFileSnapshot implements IncrementalFileSnapshot {
     public boolean isContentUpToDate(IncrementalFileSnapshot snapshot) {
         return snapshot instanceof MissingFileSnapshot;
     }
+
+    @Override
+    public void appendToCacheKey(TaskCacheKeyBuilder builder) {
+        builder.putByte((byte) 2);
+    }
 }
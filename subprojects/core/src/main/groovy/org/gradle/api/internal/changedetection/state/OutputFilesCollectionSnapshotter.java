@@ -21,6 +21,7 @@ import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.internal.cache.StringInterner;
 import org.gradle.api.internal.file.FileTreeElementHasher;
+import org.gradle.api.internal.tasks.cache.TaskCacheKeyBuilder;
 import org.gradle.internal.serialize.DefaultSerializerRegistry;
 import org.gradle.internal.serialize.SerializerRegistry;
 import org.gradle.util.ChangeListener;
@@ -125,6 +126,14 @@ public class OutputFilesCollectionSnapshotter implements FileCollectionSnapshott
             return filesSnapshot.getSnapshot();
         }
 
+        @Override
+        public void appendToCacheKey(TaskCacheKeyBuilder builder) {
+            for (String root : roots) {
+                builder.putString(root);
+            }
+            filesSnapshot.appendToCacheKey(builder);
+        }
+
         @Override
         public FileCollectionSnapshot updateFrom(FileCollectionSnapshot newSnapshot) {
             OutputFilesSnapshot newOutputsSnapshot = (OutputFilesSnapshot) newSnapshot;
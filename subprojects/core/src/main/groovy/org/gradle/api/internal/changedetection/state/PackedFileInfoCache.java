@@ -0,0 +1,274 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state;
+
+import com.google.common.cache.AbstractCache;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.hash.HashValue;
+
+import java.util.Arrays;
+
+/**
+ * An in-memory cache of {@link CachingFileSnapshotter.FileInfo} values keyed by absolute path, that stores its entries in a handful of
+ * primitive arrays rather than as objects on the heap.
+ *
+ * <p>Each entry is keyed by a 64-bit hash of its path, plus the path's {@link String#hashCode()} as a check value, so the paths themselves are not retained.
+ * An entry found for the wrong path would also have to match the length and timestamp of the file before it is used. The entries form an open addressing hash
+ * table using linear probing. When full, entries are evicted using the CLOCK approximation of least recently used.</p>
+ *
+ * <p>Values that cannot be packed are not cached.</p>
+ */
+class PackedFileInfoCache extends AbstractCache<Object, Object> {
+    private static final Logger LOGGER = Logging.getLogger(PackedFileInfoCache.class);
+    private static final HashFunction PATH_HASH = Hashing.murmur3_128();
+    private static final int MIN_CAPACITY = 1024;
+    private static final int MAX_HASH_SIZE = 17;
+    private static final byte EMPTY = 0;
+    private static final byte PRESENT = 1;
+    private static final byte ABSENT = 2;
+    private static final byte STATE_MASK = 3;
+    private static final byte REFERENCED = 4;
+
+    private final String cacheId;
+    private final int maxEntries;
+    private final Object absentValue;
+    private final StatsCounter statsCounter = new SimpleStatsCounter();
+    private final int logInterval;
+    private int evictionCounter;
+
+    private int mask;
+    private int size;
+    private int hand;
+    private long[] keys;
+    private int[] checks;
+    private long[] lengths;
+    private long[] timestamps;
+    private byte[] hashes;
+    private byte[] hashLengths;
+    private byte[] flags;
+
+    /**
+     * @param absentValue The value that marks a key that is known to be absent from the backing cache.
+     */
+    PackedFileInfoCache(String cacheId, int maxEntries, Object absentValue) {
+        this.cacheId = cacheId;
+        this.maxEntries = maxEntries;
+        this.absentValue = absentValue;
+        this.logInterval = Math.max(1, maxEntries / 10);
+        allocate(MIN_CAPACITY);
+    }
+
+    @Override
+    public synchronized Object getIfPresent(Object key) {
+        String path = (String) key;
+        int slot = find(PATH_HASH.hashUnencodedChars(path).asLong(), path.hashCode());
+        if (flags[slot] == EMPTY) {
+            statsCounter.recordMisses(1);
+            return null;
+        }
+        statsCounter.recordHits(1);
+        flags[slot] |= REFERENCED;
+        if ((flags[slot] & STATE_MASK) == ABSENT) {
+            return absentValue;
+        }
+        int offset = slot * MAX_HASH_SIZE;
+        HashValue hash = new HashValue(Arrays.copyOfRange(hashes, offset, offset + hashLengths[slot]));
+        return new CachingFileSnapshotter.FileInfo(hash, lengths[slot], timestamps[slot]);
+    }
+
+    @Override
+    public synchronized void put(Object key, Object value) {
+        String path = (String) key;
+        long pathHash = PATH_HASH.hashUnencodedChars(path).asLong();
+        int check = path.hashCode();
+        if (value == absentValue) {
+            flags[insert(pathHash, check)] = ABSENT | REFERENCED;
+            return;
+        }
+
+        CachingFileSnapshotter.FileInfo info = (CachingFileSnapshotter.FileInfo) value;
+        byte[] hash = info.getHash().asByteArray();
+        if (hash.length > MAX_HASH_SIZE) {
+            remove(pathHash, check);
+            return;
+        }
+        int slot = insert(pathHash, check);
+        System.arraycopy(hash, 0, hashes, slot * MAX_HASH_SIZE, hash.length);
+        hashLengths[slot] = (byte) hash.length;
+        lengths[slot] = info.getLength();
+        timestamps[slot] = info.getTimestamp();
+        flags[slot] = PRESENT | REFERENCED;
+    }
+
+    @Override
+    public synchronized void invalidate(Object key) {
+        String path = (String) key;
+        remove(PATH_HASH.hashUnencodedChars(path).asLong(), path.hashCode());
+    }
+
+    @Override
+    public synchronized void invalidateAll() {
+        allocate(MIN_CAPACITY);
+    }
+
+    @Override
+    public synchronized long size() {
+        return size;
+    }
+
+    @Override
+    public synchronized CacheStats stats() {
+        return statsCounter.snapshot();
+    }
+
+    private int home(long pathHash) {
+        return (int) (pathHash ^ (pathHash >>> 32)) & mask;
+    }
+
+    /**
+     * Returns the slot holding the given key, or the empty slot where it would be inserted.
+     */
+    private int find(long pathHash, int check) {
+        int slot = home(pathHash);
+        while (flags[slot] != EMPTY && (keys[slot] != pathHash || checks[slot] != check)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int insert(long pathHash, int check) {
+        int slot = find(pathHash, check);
+        if (flags[slot] != EMPTY) {
+            return slot;
+        }
+        if (size >= maxEntries) {
+            evict();
+            slot = find(pathHash, check);
+        } else if (size >= (mask + 1) / 4 * 3) {
+            allocate((mask + 1) * 2);
+            slot = find(pathHash, check);
+        }
+        keys[slot] = pathHash;
+        checks[slot] = check;
+        size++;
+        return slot;
+    }
+
+    private void remove(long pathHash, int check) {
+        int slot = find(pathHash, check);
+        if (flags[slot] != EMPTY) {
+            removeSlot(slot);
+        }
+    }
+
+    private void evict() {
+        while (true) {
+            hand = (hand + 1) & mask;
+            if (flags[hand] == EMPTY) {
+                continue;
+            }
+            if ((flags[hand] & REFERENCED) != 0) {
+                flags[hand] &= ~REFERENCED;
+                continue;
+            }
+            removeSlot(hand);
+            break;
+        }
+        statsCounter.recordEviction();
+        if (evictionCounter % logInterval == 0) {
+            LOGGER.info("Cache entries evicted. In-memory cache of {}: Size{{}} MaxSize{{}}, {}", cacheId, size, maxEntries, statsCounter.snapshot());
+        }
+        evictionCounter++;
+    }
+
+    /**
+     * Removes the entry in the given slot, and moves later entries of the same probe sequence back to fill the gap.
+     */
+    private void removeSlot(int slot) {
+        int gap = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (flags[next] == EMPTY) {
+                break;
+            }
+            int home = home(keys[next]);
+            boolean reachable = gap <= next ? gap < home && home <= next : gap < home || home <= next;
+            if (reachable) {
+                continue;
+            }
+            copy(next, gap);
+            gap = next;
+        }
+        flags[gap] = EMPTY;
+        size--;
+    }
+
+    private void copy(int from, int to) {
+        keys[to] = keys[from];
+        checks[to] = checks[from];
+        lengths[to] = lengths[from];
+        timestamps[to] = timestamps[from];
+        System.arraycopy(hashes, from * MAX_HASH_SIZE, hashes, to * MAX_HASH_SIZE, MAX_HASH_SIZE);
+        hashLengths[to] = hashLengths[from];
+        flags[to] = flags[from];
+    }
+
+    private void allocate(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldChecks = checks;
+        long[] oldLengths = lengths;
+        long[] oldTimestamps = timestamps;
+        byte[] oldHashes = hashes;
+        byte[] oldHashLengths = hashLengths;
+        byte[] oldFlags = flags;
+        boolean rehash = oldFlags != null && capacity > oldFlags.length;
+
+        mask = capacity - 1;
+        size = 0;
+        hand = 0;
+        keys = new long[capacity];
+        checks = new int[capacity];
+        lengths = new long[capacity];
+        timestamps = new long[capacity];
+        hashes = new byte[capacity * MAX_HASH_SIZE];
+        hashLengths = new byte[capacity];
+        flags = new byte[capacity];
+
+        if (!rehash) {
+            return;
+        }
+        for (int i = 0; i < oldFlags.length; i++) {
+            if (oldFlags[i] == EMPTY) {
+                continue;
+            }
+            int slot = find(oldKeys[i], oldChecks[i]);
+            keys[slot] = oldKeys[i];
+            checks[slot] = oldChecks[i];
+            lengths[slot] = oldLengths[i];
+            timestamps[slot] = oldTimestamps[i];
+            System.arraycopy(oldHashes, i * MAX_HASH_SIZE, hashes, slot * MAX_HASH_SIZE, MAX_HASH_SIZE);
+            hashLengths[slot] = oldHashLengths[i];
+            flags[slot] = oldFlags[i];
+            size++;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state;
+
+import org.gradle.api.Task;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.internal.Factory;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the execution time of each task, alongside the task history, so it can be used to estimate the duration of the next execution of the task.
+ * Durations are recorded in memory while the build runs, and are persisted in one go by {@link #persist()}.
+ */
+public class TaskDurationHistory {
+    private final TaskArtifactStateCacheAccess cacheAccess;
+    private final PersistentIndexedCache<String, Long> cache;
+    private final Map<String, Long> recordedDurations = new ConcurrentHashMap<String, Long>();
+
+    public TaskDurationHistory(TaskArtifactStateCacheAccess cacheAccess) {
+        this.cacheAccess = cacheAccess;
+        this.cache = cacheAccess.createCache("taskDurations", String.class, BaseSerializerFactory.LONG_SERIALIZER);
+    }
+
+    /**
+     * Returns the estimated duration in milliseconds of those of the given tasks that have executed previously.
+     */
+    public Map<Task, Long> getEstimatedDurations(final Collection<? extends Task> tasks) {
+        return cacheAccess.useCache("read task durations", new Factory<Map<Task, Long>>() {
+            @Override
+            public Map<Task, Long> create() {
+                Map<Task, Long> durations = new HashMap<Task, Long>();
+                for (Task task : tasks) {
+                    Long duration = cache.get(task.getPath());
+                    if (duration != null) {
+                        durations.put(task, duration);
+                    }
+                }
+                return durations;
+            }
+        });
+    }
+
+    /**
+     * Records the duration of an execution of the given task. Only executions that actually ran the task's actions should be recorded.
+     */
+    public void recordDuration(Task task, long durationMillis) {
+        recordedDurations.put(task.getPath(), durationMillis);
+    }
+
+    public void persist() {
+        if (recordedDurations.isEmpty()) {
+            return;
+        }
+        cacheAccess.useCache("store task durations", new Runnable() {
+            @Override
+            public void run() {
+                for (Map.Entry<String, Long> entry : recordedDurations.entrySet()) {
+                    // Average with the previous estimate, to smooth out the odd slow or fast execution
+                    Long previous = cache.get(entry.getKey());
+                    long duration = previous == null ? entry.getValue() : (previous + entry.getValue()) / 2;
+                    cache.put(entry.getKey(), duration);
+                }
+            }
+        });
+        recordedDurations.clear();
+    }
+}
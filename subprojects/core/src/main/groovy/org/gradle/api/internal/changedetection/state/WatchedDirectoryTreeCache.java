@@ -0,0 +1,355 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state;
+
+import org.gradle.api.Action;
+import org.gradle.api.Nullable;
+import org.gradle.api.file.FileTreeElement;
+import org.gradle.api.internal.file.FileSystemSubset;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.filewatch.FileWatcher;
+import org.gradle.internal.filewatch.FileWatcherEvent;
+import org.gradle.internal.filewatch.FileWatcherFactory;
+import org.gradle.internal.filewatch.FileWatcherListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Retains directory scans for the lifetime of the process. A scan is reused until a file system change is reported for its directory by a {@link FileWatcher}.
+ *
+ * <p>A directory is watched before it is scanned, so that changes made during the scan discard the result. Nothing is reused when file watching is not
+ * available, or after the watcher has failed or stopped.</p>
+ *
+ * <p>The watcher reports changes asynchronously, so a change made between builds may not have been reported yet when the next build starts. Before
+ * any task runs, {@link #synchronize()} writes a cookie file into each directory with a retained scan, and keeps the scan only once the event for the
+ * cookie has been reported, as the events for a directory are reported in order. Scans must skip files whose name starts with {@link #COOKIE_PREFIX}.</p>
+ */
+public class WatchedDirectoryTreeCache implements Stoppable {
+    private static final Logger LOGGER = Logging.getLogger(WatchedDirectoryTreeCache.class);
+    private static final int DEFAULT_MAX_ELEMENTS = 500000;
+    private static final long DEFAULT_SYNC_TIMEOUT_MILLIS = 1000;
+    public static final String COOKIE_PREFIX = ".gradle-watch-cookie-";
+
+    private final FileWatcherFactory fileWatcherFactory;
+    private final int maxElements;
+    private final long syncTimeoutMillis;
+    private final AtomicLong cookieCounter = new AtomicLong();
+    private final Set<String> pendingCookies = new HashSet<String>();
+    private final Map<String, Entry> entries = new HashMap<String, Entry>();
+    private final LinkedHashMap<String, Entry> retained = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    private int retainedElements;
+    private FileWatcher watcher;
+    private boolean unavailable;
+
+    public WatchedDirectoryTreeCache(FileWatcherFactory fileWatcherFactory) {
+        this(fileWatcherFactory, DEFAULT_MAX_ELEMENTS, DEFAULT_SYNC_TIMEOUT_MILLIS);
+    }
+
+    WatchedDirectoryTreeCache(FileWatcherFactory fileWatcherFactory, int maxElements, long syncTimeoutMillis) {
+        this.fileWatcherFactory = fileWatcherFactory;
+        this.maxElements = maxElements;
+        this.syncTimeoutMillis = syncTimeoutMillis;
+    }
+
+    /**
+     * Returns the retained scan of the given directory, or null when there is none or it may be out of date.
+     */
+    @Nullable
+    public synchronized Collection<FileTreeElement> get(File dir) {
+        if (watcher == null || !watcher.isRunning()) {
+            return null;
+        }
+        Entry entry = retained.get(dir.getAbsolutePath());
+        return entry == null ? null : entry.tree;
+    }
+
+    /**
+     * Waits for the changes made so far to the directories with a retained scan to be reported, and discards the scans of the directories for which
+     * this takes too long. Should be called at the start of a build, before any directory is scanned.
+     */
+    public void synchronize() {
+        Map<String, File> cookies = new LinkedHashMap<String, File>();
+        synchronized (this) {
+            if (watcher == null || !watcher.isRunning()) {
+                return;
+            }
+            for (String path : retained.keySet()) {
+                File cookie = new File(path, COOKIE_PREFIX + cookieCounter.incrementAndGet());
+                cookies.put(path, cookie);
+                pendingCookies.add(cookie.getAbsolutePath());
+            }
+        }
+        if (cookies.isEmpty()) {
+            return;
+        }
+
+        try {
+            for (File cookie : cookies.values()) {
+                try {
+                    if (!cookie.createNewFile()) {
+                        discardPending(cookie);
+                    }
+                } catch (IOException e) {
+                    LOGGER.debug("Could not write cookie file {}.", cookie, e);
+                    discardPending(cookie);
+                }
+            }
+
+            // Wait for all cookies at once, so that a slow directory does not hold up the others
+            long deadline = System.currentTimeMillis() + syncTimeoutMillis;
+            synchronized (this) {
+                while (containsAny(pendingCookies, cookies.values()) && watcher.isRunning()) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    wait(remaining);
+                }
+                for (Map.Entry<String, File> cookie : cookies.entrySet()) {
+                    if (pendingCookies.remove(cookie.getValue().getAbsolutePath())) {
+                        LOGGER.debug("Changes to {} were not reported in time, its scan will not be reused.", cookie.getKey());
+                        invalidate(cookie.getKey());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } finally {
+            synchronized (this) {
+                for (File cookie : cookies.values()) {
+                    pendingCookies.remove(cookie.getAbsolutePath());
+                }
+            }
+            for (File cookie : cookies.values()) {
+                cookie.delete();
+            }
+        }
+    }
+
+    private synchronized void discardPending(File cookie) {
+        pendingCookies.remove(cookie.getAbsolutePath());
+        invalidate(cookie.getParentFile().getAbsolutePath());
+    }
+
+    private static boolean containsAny(Set<String> pendingCookies, Collection<File> cookies) {
+        for (File cookie : cookies) {
+            if (pendingCookies.contains(cookie.getAbsolutePath())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Starts watching the given directory, in preparation for scanning it.
+     *
+     * @return a version to pass to {@link #put(File, long, Collection)} once the scan is complete, or -1 when the scan cannot be retained.
+     */
+    public long beforeScan(File dir) {
+        String path = dir.getAbsolutePath();
+        FileWatcher watcher;
+        synchronized (this) {
+            if (!startWatcher() || !dir.isDirectory()) {
+                return -1;
+            }
+            Entry entry = entries.get(path);
+            if (entry != null) {
+                return entry.version;
+            }
+            watcher = this.watcher;
+        }
+
+        // Register outside the lock, as the watcher holds its own lock while delivering events
+        try {
+            watcher.watch(FileSystemSubset.builder().add(dir).build());
+        } catch (IOException e) {
+            LOGGER.debug("Could not watch {}, it will not be retained.", dir, e);
+            return -1;
+        }
+
+        synchronized (this) {
+            Entry entry = entries.get(path);
+            if (entry == null) {
+                entry = new Entry();
+                entries.put(path, entry);
+            }
+            return entry.version;
+        }
+    }
+
+    /**
+     * Retains the scan of the given directory, unless a change has been reported since the scan started.
+     */
+    public synchronized void put(File dir, long version, Collection<FileTreeElement> tree) {
+        String path = dir.getAbsolutePath();
+        Entry entry = entries.get(path);
+        if (version < 0 || entry == null || entry.version != version) {
+            return;
+        }
+        discard(path, entry);
+        entry.tree = tree;
+        retained.put(path, entry);
+        retainedElements += tree.size();
+
+        Iterator<Map.Entry<String, Entry>> iterator = retained.entrySet().iterator();
+        while (retainedElements > maxElements && iterator.hasNext()) {
+            Entry eldest = iterator.next().getValue();
+            iterator.remove();
+            retainedElements -= eldest.tree.size();
+            eldest.tree = null;
+        }
+    }
+
+    /**
+     * Discards the retained scans of the given files, and of the directories that contain them or are contained by them. Called before a task
+     * changes its outputs, as the changes may not be reported before a later task scans the outputs.
+     */
+    public synchronized void invalidate(Iterable<File> files) {
+        for (File file : files) {
+            String path = file.getAbsolutePath();
+            String prefix = path + File.separatorChar;
+            for (String root : entries.keySet()) {
+                if (root.equals(path) || root.startsWith(prefix) || path.startsWith(root + File.separatorChar)) {
+                    invalidate(root);
+                }
+            }
+        }
+    }
+
+    /**
+     * Discards all retained scans, for example when the build may have changed files that are not reported yet.
+     */
+    public synchronized void invalidateAll() {
+        for (Entry entry : entries.values()) {
+            entry.version++;
+            entry.tree = null;
+        }
+        retained.clear();
+        retainedElements = 0;
+    }
+
+    @Override
+    public void stop() {
+        FileWatcher watcher;
+        synchronized (this) {
+            invalidateAll();
+            unavailable = true;
+            watcher = this.watcher;
+        }
+        if (watcher != null) {
+            watcher.stop();
+        }
+    }
+
+    private boolean startWatcher() {
+        if (watcher != null) {
+            return watcher.isRunning() || !unavailable;
+        }
+        if (unavailable) {
+            return false;
+        }
+        try {
+            watcher = fileWatcherFactory.watch(new Action<Throwable>() {
+                @Override
+                public void execute(Throwable throwable) {
+                    LOGGER.debug("Stopped watching for file system changes.", throwable);
+                    onWatcherFailed();
+                }
+            }, new FileWatcherListener() {
+                @Override
+                public void onChange(FileWatcher watcher, FileWatcherEvent event) {
+                    WatchedDirectoryTreeCache.this.onChange(event);
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            LOGGER.debug("Could not watch for file system changes, directory scans will not be retained.", e);
+            unavailable = true;
+            return false;
+        }
+    }
+
+    private synchronized void onWatcherFailed() {
+        unavailable = true;
+        invalidateAll();
+        notifyAll();
+    }
+
+    private synchronized void onChange(FileWatcherEvent event) {
+        File file = event.getFile();
+        if (event.getType() == FileWatcherEvent.Type.UNDEFINED || file == null) {
+            // Events were lost, including possibly those of cookie files. Release the waiter, which will find the scans discarded
+            invalidateAll();
+            pendingCookies.clear();
+            notifyAll();
+            return;
+        }
+        if (file.getName().startsWith(COOKIE_PREFIX)) {
+            if (pendingCookies.remove(file.getAbsolutePath())) {
+                notifyAll();
+            }
+            return;
+        }
+
+        String path = file.getAbsolutePath();
+        for (File current = file; current != null; current = current.getParentFile()) {
+            invalidate(current.getAbsolutePath());
+        }
+        if (event.getType() != FileWatcherEvent.Type.MODIFY) {
+            // A directory containing watched directories may have been moved or deleted
+            String prefix = path + File.separatorChar;
+            for (String root : entries.keySet()) {
+                if (root.startsWith(prefix)) {
+                    invalidate(root);
+                }
+            }
+        }
+    }
+
+    private void invalidate(String path) {
+        Entry entry = entries.get(path);
+        if (entry != null) {
+            entry.version++;
+            discard(path, entry);
+        }
+    }
+
+    private void discard(String path, Entry entry) {
+        if (entry.tree != null) {
+            retained.remove(path);
+            retainedElements -= entry.tree.size();
+            entry.tree = null;
+        }
+    }
+
+    private static class Entry {
+        long version;
+        Collection<FileTreeElement> tree;
+    }
+}
@@ -20,8 +20,14 @@ import org.gradle.internal.hash.HashValue;
 
 import java.io.File;
 
-public class DefaultHasher implements Hasher {
+public class DefaultHasher implements FileHasher {
+    public static final String ALGORITHM = "MD5";
+
     public HashValue hash(File file) {
-        return HashUtil.createHash(file, "MD5");
+        return HashUtil.createHash(file, ALGORITHM);
+    }
+
+    public String getAlgorithm() {
+        return ALGORITHM;
     }
 }
\ No newline at end of file
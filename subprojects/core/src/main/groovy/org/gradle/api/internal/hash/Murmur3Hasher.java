@@ -0,0 +1,47 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.hash;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.internal.hash.HashValue;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Hashes file contents with the 128-bit variant of MurmurHash3. This is not a cryptographic hash, but is considerably
+ * faster than MD5 and good enough to detect changes to file contents.
+ */
+public class Murmur3Hasher implements FileHasher {
+    public static final String ALGORITHM = "MURMUR3_128";
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    public HashValue hash(File file) {
+        try {
+            return new HashValue(Files.hash(file, HASH_FUNCTION).asBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Failed to create %s hash for file %s.", ALGORITHM, file.getAbsolutePath()), e);
+        }
+    }
+
+    public String getAlgorithm() {
+        return ALGORITHM;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.hash;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.internal.hash.HashValue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Hashes batches of files, spreading the work over a bounded pool of threads. Small batches are hashed on the calling thread.
+ */
+public class ParallelHasher implements Stoppable {
+    private static final int MIN_FILES_PER_JOB = 8;
+
+    private final FileHasher hasher;
+    private final String algorithm;
+    private final int parallelism;
+    private final StoppableExecutor executor;
+
+    /**
+     * Creates a hasher that hashes all files on the calling thread.
+     */
+    public ParallelHasher(FileHasher hasher) {
+        this.hasher = hasher;
+        this.algorithm = hasher.getAlgorithm();
+        this.parallelism = 1;
+        this.executor = null;
+    }
+
+    public ParallelHasher(FileHasher hasher, ExecutorFactory executorFactory, int parallelism) {
+        this.hasher = hasher;
+        this.algorithm = hasher.getAlgorithm();
+        this.parallelism = parallelism;
+        this.executor = parallelism > 1 ? executorFactory.create("file hasher", parallelism) : null;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public HashValue hash(File file) {
+        return hasher.hash(file);
+    }
+
+    /**
+     * Hashes the given files.
+     *
+     * @return the hashes, in the same order as the given files.
+     */
+    public List<HashValue> hash(final List<File> files) {
+        final HashValue[] hashes = new HashValue[files.size()];
+        if (executor == null || files.size() < 2 * MIN_FILES_PER_JOB) {
+            hashRange(files, hashes, 0, files.size());
+            return Arrays.asList(hashes);
+        }
+
+        // Use a few jobs per thread, so that a job with some large files does not hold up the whole batch
+        int filesPerJob = Math.max(MIN_FILES_PER_JOB, files.size() / (parallelism * 4) + 1);
+        List<Future<?>> jobs = new ArrayList<Future<?>>();
+        for (int start = 0; start < files.size(); start += filesPerJob) {
+            final int from = start;
+            final int to = Math.min(start + filesPerJob, files.size());
+            jobs.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    hashRange(files, hashes, from, to);
+                }
+            }));
+        }
+        waitFor(jobs);
+        return Arrays.asList(hashes);
+    }
+
+    private void hashRange(List<File> files, HashValue[] hashes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            hashes[i] = hasher.hash(files.get(i));
+        }
+    }
+
+    private static void waitFor(List<Future<?>> jobs) {
+        try {
+            for (Future<?> job : jobs) {
+                job.get();
+            }
+        } catch (ExecutionException e) {
+            cancel(jobs);
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        } catch (InterruptedException e) {
+            cancel(jobs);
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private static void cancel(List<Future<?>> jobs) {
+        for (Future<?> job : jobs) {
+            job.cancel(false);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (executor != null) {
+            executor.stop();
+        }
+    }
+}
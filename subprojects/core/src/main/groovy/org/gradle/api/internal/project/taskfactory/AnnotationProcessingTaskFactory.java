@@ -208,7 +208,7 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
     }
 
     private static class StandardTaskAction implements Action<Task> {
-        private final Method method;
+        protected final Method method;
 
         public StandardTaskAction(Method method) {
             this.method = method;
@@ -241,6 +241,10 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
             this.taskArtifactState = context == null ? null : context.getTaskArtifactState();
         }
 
+        public Class<?> getActionClass() {
+            return method.getDeclaringClass();
+        }
+
         protected void doExecute(Task task, String methodName) {
             JavaReflectionUtil.method(task, Object.class, methodName, IncrementalTaskInputs.class).invoke(task, taskArtifactState.getInputChanges());
             taskArtifactState = null;
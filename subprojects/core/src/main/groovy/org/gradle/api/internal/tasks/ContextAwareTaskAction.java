@@ -21,4 +21,9 @@ import org.gradle.api.Task;
 
 public interface ContextAwareTaskAction extends Action<Task> {
     void contextualise(TaskExecutionContext context);
+
+    /**
+     * Returns the class that implements the behaviour of this action.
+     */
+    Class<?> getActionClass();
 }
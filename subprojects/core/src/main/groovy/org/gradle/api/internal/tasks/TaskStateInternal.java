@@ -83,6 +83,14 @@ public class TaskStateInternal implements TaskState {
         upToDate = true;
     }
 
+    /**
+     * Marks this task as skipped because its outputs were restored from the task output cache.
+     */
+    public void cached() {
+        skipped("FROM-CACHE");
+        didWork = true;
+    }
+
     public boolean getExecuting() {
         return executing;
     }
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.cache;
+
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.internal.hash.HashValue;
+
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Hashes the byte code of a class and of its superclasses, to detect changes to the implementation of a task or of a task action.
+ * Classes that are generated at runtime to decorate a type, and classes loaded by the bootstrap class loader, are not hashed.
+ * The classes used by the hashed classes are not taken into account.
+ */
+public class ClassImplementationHasher {
+    private static final String DECORATED_CLASS_SUFFIX = "_Decorated";
+
+    private final ConcurrentMap<Class<?>, HashValue> hashes = new ConcurrentHashMap<Class<?>, HashValue>();
+
+    /**
+     * Returns the hash of the given class.
+     *
+     * @throws IllegalArgumentException when the byte code of the class or one of its superclasses is not available, for example because it was generated at runtime.
+     */
+    public HashValue hash(Class<?> type) {
+        HashValue hash = hashes.get(type);
+        if (hash == null) {
+            hash = calculateHash(type);
+            hashes.put(type, hash);
+        }
+        return hash;
+    }
+
+    private HashValue calculateHash(Class<?> type) {
+        StringBuilder classHashes = new StringBuilder();
+        for (Class<?> current = type; current != null && current.getClassLoader() != null; current = current.getSuperclass()) {
+            String resourceName = current.getName().replace('.', '/') + ".class";
+            InputStream byteCode = current.getClassLoader().getResourceAsStream(resourceName);
+            if (byteCode == null) {
+                if (current.getName().endsWith(DECORATED_CLASS_SUFFIX)) {
+                    continue;
+                }
+                throw new IllegalArgumentException(String.format("Could not find the byte code of %s.", current));
+            }
+            classHashes.append(current.getName()).append(':').append(HashUtil.createHash(byteCode, "MD5").asHexString()).append(';');
+        }
+        return HashUtil.createHash(classHashes.toString(), "MD5");
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.cache;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.internal.hash.HashValue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+
+public class DefaultTaskCacheKeyBuilder implements TaskCacheKeyBuilder {
+    private final Hasher hasher = Hashing.md5().newHasher();
+
+    @Override
+    public TaskCacheKeyBuilder putByte(byte value) {
+        hasher.putByte(value);
+        return this;
+    }
+
+    @Override
+    public TaskCacheKeyBuilder putBytes(byte[] bytes) {
+        hasher.putInt(bytes.length);
+        hasher.putBytes(bytes);
+        return this;
+    }
+
+    @Override
+    public TaskCacheKeyBuilder putString(CharSequence value) {
+        hasher.putInt(value.length());
+        hasher.putString(value, Charsets.UTF_8);
+        return this;
+    }
+
+    @Override
+    public TaskCacheKeyBuilder putHashValue(HashValue hashValue) {
+        return putBytes(hashValue.asByteArray());
+    }
+
+    @Override
+    public TaskCacheKeyBuilder putObject(Object value) {
+        if (value == null) {
+            return putByte((byte) 0);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            ObjectOutputStream objectStream = new ObjectOutputStream(bytes);
+            objectStream.writeObject(value);
+            objectStream.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Unable to calculate cache key from value '%s'.", value), e);
+        }
+        putByte((byte) 1);
+        return putBytes(bytes.toByteArray());
+    }
+
+    @Override
+    public TaskCacheKey build() {
+        final String hashCode = hasher.hash().toString();
+        return new TaskCacheKey() {
+            @Override
+            public String getHashCode() {
+                return hashCode;
+            }
+
+            @Override
+            public String toString() {
+                return hashCode;
+            }
+        };
+    }
+}
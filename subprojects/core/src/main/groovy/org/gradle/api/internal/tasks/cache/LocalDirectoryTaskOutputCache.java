@@ -0,0 +1,192 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.cache;
+
+import org.gradle.api.UncheckedIOException;
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.internal.FileLockManager;
+import org.gradle.internal.Factory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * A {@link TaskOutputCache} that stores each entry as a file named after its key in a directory under the Gradle user home.
+ *
+ * <p>Entries are touched when they are loaded, and the least recently used entries are removed when the cache is closed and has grown beyond its maximum size.</p>
+ */
+public class LocalDirectoryTaskOutputCache implements TaskOutputCache, Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalDirectoryTaskOutputCache.class);
+    private static final String TEMP_FILE_SUFFIX = ".part";
+
+    private final CacheRepository cacheRepository;
+    private final long maxSizeInBytes;
+    private PersistentCache persistentCache;
+
+    public LocalDirectoryTaskOutputCache(CacheRepository cacheRepository, long maxSizeInBytes) {
+        this.cacheRepository = cacheRepository;
+        this.maxSizeInBytes = maxSizeInBytes;
+    }
+
+    private synchronized PersistentCache getCache() {
+        if (persistentCache == null) {
+            persistentCache = cacheRepository
+                .cache("task-cache")
+                .withDisplayName("task output cache")
+                .withLockOptions(mode(FileLockManager.LockMode.None)) // Lock on demand
+                .open();
+        }
+        return persistentCache;
+    }
+
+    @Override
+    public boolean load(final TaskCacheKey key, final TaskOutputReader reader) throws IOException {
+        final PersistentCache cache = getCache();
+        final File file = cache.useCache("load task output from cache", new Factory<File>() {
+            @Override
+            public File create() {
+                File file = getFile(cache, key);
+                if (!file.isFile()) {
+                    return null;
+                }
+                // Mark the entry as recently used, so that it survives eviction
+                file.setLastModified(System.currentTimeMillis());
+                return file;
+            }
+        });
+        if (file == null) {
+            return false;
+        }
+        InputStream input = new BufferedInputStream(new FileInputStream(file));
+        try {
+            reader.readFrom(input);
+        } finally {
+            input.close();
+        }
+        return true;
+    }
+
+    @Override
+    public void store(final TaskCacheKey key, TaskOutputWriter writer) throws IOException {
+        final PersistentCache cache = getCache();
+        // Write outside of the lock, then move the complete entry into place
+        final File tempFile = File.createTempFile(key.getHashCode(), TEMP_FILE_SUFFIX, cache.getBaseDir());
+        try {
+            OutputStream output = new BufferedOutputStream(new FileOutputStream(tempFile));
+            try {
+                writer.writeTo(output);
+            } finally {
+                output.close();
+            }
+            cache.useCache("store task output in cache", new Runnable() {
+                @Override
+                public void run() {
+                    File file = getFile(cache, key);
+                    if (file.exists() && !file.delete()) {
+                        throw new UncheckedIOException(String.format("Could not delete previous cache entry %s.", file));
+                    }
+                    if (!tempFile.renameTo(file)) {
+                        throw new UncheckedIOException(String.format("Could not move cache entry %s to %s.", tempFile, file));
+                    }
+                }
+            });
+        } finally {
+            if (tempFile.exists()) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    private static File getFile(PersistentCache cache, TaskCacheKey key) {
+        return new File(cache.getBaseDir(), key.getHashCode());
+    }
+
+    @Override
+    public String getDescription() {
+        return "local directory cache (max size " + maxSizeInBytes / (1024 * 1024) + " MB)";
+    }
+
+    public void close() {
+        synchronized (this) {
+            if (persistentCache == null) {
+                return;
+            }
+        }
+        try {
+            persistentCache.useCache("evict task output cache entries", new Runnable() {
+                @Override
+                public void run() {
+                    evictLeastRecentlyUsedEntries(persistentCache.getBaseDir());
+                }
+            });
+        } finally {
+            persistentCache.close();
+        }
+    }
+
+    private void evictLeastRecentlyUsedEntries(File baseDir) {
+        File[] files = baseDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        List<File> entries = new ArrayList<File>(files.length);
+        long totalSize = 0;
+        for (File file : files) {
+            if (isCacheEntry(file)) {
+                entries.add(file);
+                totalSize += file.length();
+            }
+        }
+        if (totalSize <= maxSizeInBytes) {
+            return;
+        }
+        File[] sortedEntries = entries.toArray(new File[0]);
+        Arrays.sort(sortedEntries, new Comparator<File>() {
+            @Override
+            public int compare(File left, File right) {
+                long leftLastModified = left.lastModified();
+                long rightLastModified = right.lastModified();
+                return leftLastModified < rightLastModified ? -1 : (leftLastModified == rightLastModified ? 0 : 1);
+            }
+        });
+        int evicted = 0;
+        for (File entry : sortedEntries) {
+            if (totalSize <= maxSizeInBytes) {
+                break;
+            }
+            long length = entry.length();
+            if (entry.delete()) {
+                totalSize -= length;
+                evicted++;
+            }
+        }
+        LOGGER.info("Evicted {} entries from task output cache, remaining size {} bytes.", evicted, totalSize);
+    }
+
+    private static boolean isCacheEntry(File file) {
+        // Skip the lock and properties files of the persistent cache, and any unfinished entries
+        return file.isFile() && file.getName().matches("[0-9a-f]+");
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.cache;
+
+import org.gradle.internal.hash.HashValue;
+
+/**
+ * Accumulates the inputs of a task into a {@link TaskCacheKey}.
+ */
+public interface TaskCacheKeyBuilder {
+    TaskCacheKeyBuilder putByte(byte value);
+
+    TaskCacheKeyBuilder putBytes(byte[] bytes);
+
+    TaskCacheKeyBuilder putString(CharSequence value);
+
+    TaskCacheKeyBuilder putHashValue(HashValue hashValue);
+
+    /**
+     * Appends the serialized form of the given value. The value must be {@link java.io.Serializable}.
+     */
+    TaskCacheKeyBuilder putObject(Object value);
+
+    TaskCacheKey build();
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.cache;
+
+import java.io.IOException;
+
+/**
+ * A store for the packed outputs of task executions, addressed by {@link TaskCacheKey}.
+ */
+public interface TaskOutputCache {
+    /**
+     * Loads the entry with the given key, if present.
+     *
+     * @return true if an entry was found and handed to the reader, false otherwise.
+     */
+    boolean load(TaskCacheKey key, TaskOutputReader reader) throws IOException;
+
+    /**
+     * Stores a new entry with the given key, replacing any existing entry.
+     */
+    void store(TaskCacheKey key, TaskOutputWriter writer) throws IOException;
+
+    String getDescription();
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.cache;
+
+import org.gradle.BuildAdapter;
+import org.gradle.BuildResult;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects per-task usage of the {@link TaskOutputCache} and reports it at the end of the build.
+ */
+public class TaskOutputCacheStatistics extends BuildAdapter {
+    private static final Logger LOGGER = Logging.getLogger(TaskOutputCacheStatistics.class);
+
+    public enum Outcome {
+        HIT, MISS, NOT_CACHEABLE, FAILED
+    }
+
+    private final List<TaskRecord> records = new ArrayList<TaskRecord>();
+
+    public synchronized void record(String taskPath, Outcome outcome, long loadTimeMillis, long storeTimeMillis) {
+        records.add(new TaskRecord(taskPath, outcome, loadTimeMillis, storeTimeMillis));
+    }
+
+    public synchronized int getCount(Outcome outcome) {
+        int count = 0;
+        for (TaskRecord record : records) {
+            if (record.outcome == outcome) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void buildFinished(BuildResult result) {
+        report();
+    }
+
+    synchronized void report() {
+        if (records.isEmpty()) {
+            return;
+        }
+        long totalLoadTime = 0;
+        long totalStoreTime = 0;
+        for (TaskRecord record : records) {
+            totalLoadTime += record.loadTimeMillis;
+            totalStoreTime += record.storeTimeMillis;
+            LOGGER.info("Task output cache {} for {} (load took {} ms, store took {} ms).", record.outcome, record.taskPath, record.loadTimeMillis, record.storeTimeMillis);
+        }
+        LOGGER.lifecycle(String.format("Task output cache: %d hits, %d misses, %d not cacheable, %d failed (load took %d ms, store took %d ms).",
+            getCount(Outcome.HIT), getCount(Outcome.MISS), getCount(Outcome.NOT_CACHEABLE), getCount(Outcome.FAILED), totalLoadTime, totalStoreTime));
+        records.clear();
+    }
+
+    private static class TaskRecord {
+        private final String taskPath;
+        private final Outcome outcome;
+        private final long loadTimeMillis;
+        private final long storeTimeMillis;
+
+        private TaskRecord(String taskPath, Outcome outcome, long loadTimeMillis, long storeTimeMillis) {
+            this.taskPath = taskPath;
+            this.outcome = outcome;
+            this.loadTimeMillis = loadTimeMillis;
+            this.storeTimeMillis = storeTimeMillis;
+        }
+    }
+}
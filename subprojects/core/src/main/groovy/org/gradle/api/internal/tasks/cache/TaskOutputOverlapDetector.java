@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.cache;
+
+import org.gradle.api.Task;
+import org.gradle.api.internal.TaskInternal;
+import org.gradle.api.invocation.Gradle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Detects tasks whose outputs overlap with the outputs of another task in the task graph: tasks that declare the same output location
+ * as another task, or a location inside or around an output location of another task. The outputs of such a task cannot be packed
+ * into or restored from the task output cache without capturing or destroying the files of the other task.
+ */
+public class TaskOutputOverlapDetector {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskOutputOverlapDetector.class);
+
+    private Gradle indexedBuild;
+    private NavigableMap<String, Set<Task>> outputOwners;
+    private boolean outputsUnknown;
+
+    /**
+     * Returns true when the outputs of the given task overlap with the outputs of another task in the task graph, or when this
+     * cannot be determined.
+     */
+    public boolean hasOverlappingOutputs(TaskInternal task) {
+        synchronized (this) {
+            if (indexedBuild != task.getProject().getGradle()) {
+                index(task.getProject().getGradle());
+            }
+            if (outputsUnknown) {
+                return true;
+            }
+            for (File outputFile : task.getOutputs().getFiles()) {
+                String path = outputFile.getAbsolutePath();
+                if (ownedByOtherTask(outputOwners.get(path), task)) {
+                    return true;
+                }
+                String prefix = path + File.separator;
+                if (ownedByOtherTask(outputOwners.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values(), task)) {
+                    return true;
+                }
+                for (File parent = outputFile.getParentFile(); parent != null; parent = parent.getParentFile()) {
+                    if (ownedByOtherTask(outputOwners.get(parent.getAbsolutePath()), task)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    private void index(Gradle build) {
+        indexedBuild = build;
+        outputOwners = new TreeMap<String, Set<Task>>();
+        outputsUnknown = false;
+        for (Task task : build.getTaskGraph().getAllTasks()) {
+            try {
+                for (File outputFile : task.getOutputs().getFiles()) {
+                    String path = outputFile.getAbsolutePath();
+                    Set<Task> owners = outputOwners.get(path);
+                    if (owners == null) {
+                        owners = new HashSet<Task>();
+                        outputOwners.put(path, owners);
+                    }
+                    owners.add(task);
+                }
+            } catch (Exception e) {
+                LOGGER.info("Could not determine the outputs of {}, no task outputs will be cached.", task, e);
+                outputsUnknown = true;
+                return;
+            }
+        }
+    }
+
+    private static boolean ownedByOtherTask(Set<Task> owners, Task task) {
+        return owners != null && (owners.size() > 1 || !owners.contains(task));
+    }
+
+    private static boolean ownedByOtherTask(Collection<Set<Task>> ownerSets, Task task) {
+        for (Set<Task> owners : ownerSets) {
+            if (ownedByOtherTask(owners, task)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
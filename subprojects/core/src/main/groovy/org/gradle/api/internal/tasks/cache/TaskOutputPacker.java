@@ -0,0 +1,35 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.cache;
+
+import org.gradle.api.internal.TaskOutputsInternal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Converts the output files of a task to and from the binary form kept in a {@link TaskOutputCache}.
+ */
+public interface TaskOutputPacker {
+    void pack(TaskOutputsInternal taskOutputs, OutputStream output) throws IOException;
+
+    /**
+     * Replaces the current output files of the task with the packed ones.
+     */
+    void unpack(TaskOutputsInternal taskOutputs, InputStream input) throws IOException;
+}
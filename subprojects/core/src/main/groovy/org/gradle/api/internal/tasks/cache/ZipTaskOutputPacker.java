@@ -0,0 +1,130 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.cache;
+
+import com.google.common.io.ByteStreams;
+import org.gradle.api.internal.TaskOutputsInternal;
+import org.gradle.util.GFileUtils;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Packs task outputs into a ZIP stream. Each output root is stored under its index in the task's output files, so that entries
+ * can be restored to the same locations. A root that is a file is stored as an entry named {@code <index>}, a root that is
+ * a directory as {@code <index>/} followed by its contents.
+ */
+public class ZipTaskOutputPacker implements TaskOutputPacker {
+    @Override
+    public void pack(TaskOutputsInternal taskOutputs, OutputStream output) throws IOException {
+        ZipOutputStream zipOutput = new ZipOutputStream(output);
+        List<File> roots = getRoots(taskOutputs);
+        for (int i = 0; i < roots.size(); i++) {
+            File root = roots.get(i);
+            String rootName = String.valueOf(i);
+            if (root.isDirectory()) {
+                packDirectory(root, rootName + "/", zipOutput);
+            } else if (root.isFile()) {
+                packFile(root, rootName, zipOutput);
+            }
+        }
+        zipOutput.finish();
+    }
+
+    private static void packDirectory(File directory, String entryName, ZipOutputStream zipOutput) throws IOException {
+        zipOutput.putNextEntry(new ZipEntry(entryName));
+        zipOutput.closeEntry();
+        File[] children = directory.listFiles();
+        if (children == null) {
+            throw new IOException(String.format("Could not list contents of directory '%s'.", directory));
+        }
+        // Sort children so that equal outputs produce equal entries
+        Arrays.sort(children);
+        for (File child : children) {
+            if (child.isDirectory()) {
+                packDirectory(child, entryName + child.getName() + "/", zipOutput);
+            } else {
+                packFile(child, entryName + child.getName(), zipOutput);
+            }
+        }
+    }
+
+    private static void packFile(File file, String entryName, ZipOutputStream zipOutput) throws IOException {
+        ZipEntry entry = new ZipEntry(entryName);
+        entry.setTime(file.lastModified());
+        zipOutput.putNextEntry(entry);
+        InputStream input = new FileInputStream(file);
+        try {
+            ByteStreams.copy(input, zipOutput);
+        } finally {
+            input.close();
+        }
+        zipOutput.closeEntry();
+    }
+
+    @Override
+    public void unpack(TaskOutputsInternal taskOutputs, InputStream input) throws IOException {
+        List<File> roots = getRoots(taskOutputs);
+        for (File root : roots) {
+            GFileUtils.deleteQuietly(root);
+        }
+        ZipInputStream zipInput = new ZipInputStream(input);
+        ZipEntry entry;
+        while ((entry = zipInput.getNextEntry()) != null) {
+            String name = entry.getName();
+            int separator = name.indexOf('/');
+            String rootName = separator < 0 ? name : name.substring(0, separator);
+            int index;
+            try {
+                index = Integer.parseInt(rootName);
+            } catch (NumberFormatException e) {
+                throw new IOException(String.format("Unexpected entry '%s' in cached task output.", name));
+            }
+            if (index < 0 || index >= roots.size()) {
+                throw new IOException(String.format("Cached task output entry '%s' does not match any output of the task.", name));
+            }
+            if (name.contains("..")) {
+                throw new IOException(String.format("Cached task output entry '%s' points outside of the output of the task.", name));
+            }
+            File root = roots.get(index);
+            File target = separator < 0 ? root : new File(root, name.substring(separator + 1));
+            if (entry.isDirectory()) {
+                GFileUtils.mkdirs(target);
+            } else {
+                GFileUtils.mkdirs(target.getParentFile());
+                OutputStream output = new FileOutputStream(target);
+                try {
+                    ByteStreams.copy(zipInput, output);
+                } finally {
+                    output.close();
+                }
+                if (entry.getTime() != -1) {
+                    target.setLastModified(entry.getTime());
+                }
+            }
+        }
+    }
+
+    private static List<File> getRoots(TaskOutputsInternal taskOutputs) {
+        return new ArrayList<File>(taskOutputs.getFiles().getFiles());
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.execution;
+
+import org.gradle.api.internal.TaskInternal;
+import org.gradle.api.internal.changedetection.TaskArtifactState;
+import org.gradle.api.internal.tasks.TaskExecuter;
+import org.gradle.api.internal.tasks.TaskExecutionContext;
+import org.gradle.api.internal.tasks.TaskStateInternal;
+import org.gradle.api.internal.tasks.cache.TaskCacheKey;
+import org.gradle.api.internal.tasks.cache.TaskOutputCache;
+import org.gradle.api.internal.tasks.cache.TaskOutputCacheStatistics;
+import org.gradle.api.internal.tasks.cache.TaskOutputOverlapDetector;
+import org.gradle.api.internal.tasks.cache.TaskOutputPacker;
+import org.gradle.api.internal.tasks.cache.TaskOutputReader;
+import org.gradle.api.internal.tasks.cache.TaskOutputWriter;
+import org.gradle.util.Clock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A {@link TaskExecuter} which restores the outputs of out-of-date tasks from a {@link TaskOutputCache} instead of executing them,
+ * and stores the outputs of executed tasks in the cache. Only the tasks that allow it with {@link org.gradle.api.tasks.TaskOutputs#cacheIf(org.gradle.api.specs.Spec)},
+ * and whose outputs do not overlap with the outputs of other tasks, are cached.
+ *
+ * <p>Problems with the cache never fail the build: the task is executed, or its outputs are not stored.</p>
+ */
+public class SkipCachedTaskExecuter implements TaskExecuter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SkipCachedTaskExecuter.class);
+
+    private final TaskOutputCache taskOutputCache;
+    private final TaskOutputPacker taskOutputPacker;
+    private final TaskOutputCacheStatistics statistics;
+    private final TaskOutputOverlapDetector overlapDetector;
+    private final TaskExecuter delegate;
+
+    public SkipCachedTaskExecuter(TaskOutputCache taskOutputCache, TaskOutputPacker taskOutputPacker, TaskOutputCacheStatistics statistics, TaskOutputOverlapDetector overlapDetector, TaskExecuter delegate) {
+        this.taskOutputCache = taskOutputCache;
+        this.taskOutputPacker = taskOutputPacker;
+        this.statistics = statistics;
+        this.overlapDetector = overlapDetector;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(final TaskInternal task, TaskStateInternal state, TaskExecutionContext context) {
+        TaskArtifactState taskState = context.getTaskArtifactState();
+        TaskCacheKey cacheKey = calculateCacheKey(task, taskState);
+        if (cacheKey != null && overlapDetector.hasOverlappingOutputs(task)) {
+            LOGGER.info("Not caching {} because its outputs overlap with the outputs of another task.", task);
+            cacheKey = null;
+        }
+        if (cacheKey == null) {
+            statistics.record(task.getPath(), TaskOutputCacheStatistics.Outcome.NOT_CACHEABLE, 0, 0);
+            delegate.execute(task, state, context);
+            return;
+        }
+
+        long loadTime = 0;
+        if (taskState.isAllowedToUseCachedResults()) {
+            Clock clock = new Clock();
+            try {
+                boolean found = taskOutputCache.load(cacheKey, new TaskOutputReader() {
+                    @Override
+                    public void readFrom(InputStream input) throws IOException {
+                        taskOutputPacker.unpack(task.getOutputs(), input);
+                    }
+                });
+                loadTime = clock.getTimeInMs();
+                if (found) {
+                    LOGGER.info("Restored outputs of {} from {} with cache key {} (took {} ms).", task, taskOutputCache.getDescription(), cacheKey, loadTime);
+                    statistics.record(task.getPath(), TaskOutputCacheStatistics.Outcome.HIT, loadTime, 0);
+                    state.cached();
+                    return;
+                }
+            } catch (Exception e) {
+                // Outputs may have been partially restored, so the task is executed from scratch
+                LOGGER.warn("Could not load cached output for {} with cache key {}, executing task instead.", task, cacheKey, e);
+                statistics.record(task.getPath(), TaskOutputCacheStatistics.Outcome.FAILED, clock.getTimeInMs(), 0);
+                delegate.execute(task, state, context);
+                return;
+            }
+        }
+
+        delegate.execute(task, state, context);
+        if (state.getFailure() != null) {
+            statistics.record(task.getPath(), TaskOutputCacheStatistics.Outcome.MISS, loadTime, 0);
+            return;
+        }
+
+        Clock clock = new Clock();
+        try {
+            taskOutputCache.store(cacheKey, new TaskOutputWriter() {
+                @Override
+                public void writeTo(OutputStream output) throws IOException {
+                    taskOutputPacker.pack(task.getOutputs(), output);
+                }
+            });
+            statistics.record(task.getPath(), TaskOutputCacheStatistics.Outcome.MISS, loadTime, clock.getTimeInMs());
+        } catch (Exception e) {
+            LOGGER.warn("Could not store output of {} in task output cache with cache key {}.", task, cacheKey, e);
+            statistics.record(task.getPath(), TaskOutputCacheStatistics.Outcome.FAILED, loadTime, clock.getTimeInMs());
+        }
+    }
+
+    private static TaskCacheKey calculateCacheKey(TaskInternal task, TaskArtifactState taskState) {
+        try {
+            return taskState.calculateCacheKey();
+        } catch (Exception e) {
+            LOGGER.info("Could not calculate cache key for {}, the task will not be cached.", task, e);
+            return null;
+        }
+    }
+}
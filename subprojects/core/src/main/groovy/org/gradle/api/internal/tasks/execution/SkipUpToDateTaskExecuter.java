@@ -66,6 +66,7 @@ public class SkipUpToDateTaskExecuter implements TaskExecuter {
 
             taskArtifactState.beforeTask();
             treeVisitor.clearCache();
+            treeVisitor.outputsWillChange(task.getOutputs().getFiles());
             try {
                 executer.execute(task, state, context);
                 if (state.getFailure() == null) {
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.tasks;
+
+import org.gradle.api.Incubating;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares that the associated task must not be executed in parallel with other tasks of the same project.
+ *
+ * <p>
+ * This only has an effect when tasks are parallelized based on their declared outputs, enabled with the {@code org.gradle.parallel.intra.outputs} system property.
+ * In this mode, any task that declares output files is executed in parallel with other tasks of the same project, as long as their outputs do not overlap.
+ * A task should carry this annotation when it changes data that may be read by other tasks, such as shared data structures or files that are not declared as its outputs.
+ * </p>
+ *
+ * <h3>Inheritance</h3>
+ * <p>
+ * This annotation is inherited. A task class that extends from a non-parallelizable task class is also not parallelizable.
+ *
+ * @see ParallelizableTask
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Inherited
+@Incubating
+public @interface NonParallelizableTask {
+}
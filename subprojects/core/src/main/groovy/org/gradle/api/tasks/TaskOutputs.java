@@ -17,6 +17,7 @@
 package org.gradle.api.tasks;
 
 import groovy.lang.Closure;
+import org.gradle.api.Incubating;
 import org.gradle.api.Task;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.specs.Spec;
@@ -51,6 +52,32 @@ public interface TaskOutputs {
      */
     void upToDateWhen(Spec<? super Task> upToDateSpec);
 
+    /**
+     * <p>Allows the outputs of this task to be stored in and restored from the task output cache, if the given closure returns true.
+     * The closure is executed at task execution time and is passed the task as a parameter. The outputs of a task are only cached when
+     * at least one such predicate is registered, and all of them return true.</p>
+     *
+     * <p>Only tasks whose outputs are determined by their inputs and implementation should be cached. The outputs of a task are not
+     * cached when they overlap with the outputs of another task in the build.</p>
+     *
+     * @param cacheClosure The closure to use to determine whether the outputs of the task can be cached.
+     */
+    @Incubating
+    void cacheIf(Closure cacheClosure);
+
+    /**
+     * <p>Allows the outputs of this task to be stored in and restored from the task output cache, if the given spec is satisfied.
+     * The spec is evaluated at task execution time. The outputs of a task are only cached when at least one such predicate is registered,
+     * and all of them are satisfied.</p>
+     *
+     * <p>Only tasks whose outputs are determined by their inputs and implementation should be cached. The outputs of a task are not
+     * cached when they overlap with the outputs of another task in the build.</p>
+     *
+     * @param cacheSpec The spec to use to determine whether the outputs of the task can be cached.
+     */
+    @Incubating
+    void cacheIf(Spec<? super Task> cacheSpec);
+
     /**
      * Returns true if this task has declared any outputs. Note that a task may be able to produce output files and
      * still have an empty set of output files.
@@ -30,7 +30,7 @@ import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.serialize.Serializer;
 
 import java.io.File;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
@@ -43,6 +43,10 @@ import static org.gradle.cache.internal.FileLockManager.LockMode.Shared;
 public class DefaultCacheAccess implements CacheCoordinator {
 
     private final static Logger LOG = Logging.getLogger(DefaultCacheAccess.class);
+    /**
+     * When set to true, indexed caches access their backing files through memory mapped regions.
+     */
+    public static final String MEMORY_MAPPED_PROPERTY = "org.gradle.cache.internal.btree.mmap";
 
     private final String cacheDisplayName;
     private final File lockTarget;
@@ -50,7 +54,8 @@ public class DefaultCacheAccess implements CacheCoordinator {
     private final FileLockManager lockManager;
     private final CacheInitializationAction initializationAction;
     private final FileAccess fileAccess = new UnitOfWorkFileAccess();
-    private final Set<MultiProcessSafePersistentIndexedCache> caches = new HashSet<MultiProcessSafePersistentIndexedCache>();
+    // In the order the caches were created, which is the order they are closed in
+    private final Set<MultiProcessSafePersistentIndexedCache> caches = new LinkedHashSet<MultiProcessSafePersistentIndexedCache>();
     private final Lock lock = new ReentrantLock();
     private final Condition condition = lock.newCondition();
     private Thread owner;
@@ -339,7 +344,7 @@ public class DefaultCacheAccess implements CacheCoordinator {
     }
 
     <K, V> BTreePersistentIndexedCache<K, V> doCreateCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
-        return new BTreePersistentIndexedCache<K, V>(cacheFile, keySerializer, valueSerializer);
+        return new BTreePersistentIndexedCache<K, V>(cacheFile, keySerializer, valueSerializer, Boolean.getBoolean(MEMORY_MAPPED_PROPERTY));
     }
 
     private boolean onStartWork() {
@@ -28,6 +28,7 @@ import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.specs.Specs;
+import org.gradle.api.tasks.NonParallelizableTask;
 import org.gradle.api.tasks.ParallelizableTask;
 import org.gradle.execution.MultipleBuildFailures;
 import org.gradle.execution.TaskFailureHandler;
@@ -57,6 +58,7 @@ import java.util.concurrent.locks.ReentrantLock;
 public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
 
     public static final String INTRA_PROJECT_TOGGLE = "org.gradle.parallel.intra";
+    public static final String INTRA_PROJECT_OUTPUTS_TOGGLE = "org.gradle.parallel.intra.outputs";
 
     private final static Logger LOGGER = Logging.getLogger(DefaultTaskExecutionPlan.class);
 
@@ -77,21 +79,43 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
     private final Set<TaskInternal> runningTasks = Sets.newIdentityHashSet();
     private final Map<Task, Set<String>> canonicalizedOutputCache = Maps.newIdentityHashMap();
     private final Map<Task, Boolean> isParallelSafeCache = Maps.newIdentityHashMap();
+    private final Map<TaskInfo, Long> criticalPathDurations = Maps.newIdentityHashMap();
+    private final Map<TaskInfo, Integer> planPositions = Maps.newIdentityHashMap();
+    private final Multimap<TaskInfo, TaskInfo> dependentTasks = ArrayListMultimap.create();
+    private final Set<TaskInfo> waitingTasks = Sets.newIdentityHashSet();
+    private final TreeSet<TaskInfo> readyTasks = new TreeSet<TaskInfo>(new Comparator<TaskInfo>() {
+        public int compare(TaskInfo left, TaskInfo right) {
+            int result = criticalPathDurations.get(right).compareTo(criticalPathDurations.get(left));
+            return result != 0 ? result : planPositions.get(left).compareTo(planPositions.get(right));
+        }
+    });
+    private boolean readyTasksStale;
     private boolean tasksCancelled;
 
     private final boolean intraProjectParallelization;
+    private final boolean parallelizeByOutputs;
 
     public DefaultTaskExecutionPlan(BuildCancellationToken cancellationToken, boolean intraProjectParallelization) {
+        this(cancellationToken, intraProjectParallelization, false);
+    }
+
+    /**
+     * @param parallelizeByOutputs when true, any task that declares output files is parallelizable unless its type is annotated with {@link NonParallelizableTask}. Implies intra project parallelization.
+     */
+    public DefaultTaskExecutionPlan(BuildCancellationToken cancellationToken, boolean intraProjectParallelization, boolean parallelizeByOutputs) {
         this.cancellationToken = cancellationToken;
-        this.intraProjectParallelization = intraProjectParallelization;
+        this.intraProjectParallelization = intraProjectParallelization || parallelizeByOutputs;
+        this.parallelizeByOutputs = parallelizeByOutputs;
 
-        if (intraProjectParallelization) {
+        if (parallelizeByOutputs) {
+            LOGGER.info("intra project task parallelization based on task outputs is enabled");
+        } else if (intraProjectParallelization) {
             LOGGER.info("intra project task parallelization is enabled");
         }
     }
 
     public DefaultTaskExecutionPlan(BuildCancellationToken cancellationToken) {
-        this(cancellationToken, Boolean.getBoolean(INTRA_PROJECT_TOGGLE));
+        this(cancellationToken, Boolean.getBoolean(INTRA_PROJECT_TOGGLE), Boolean.getBoolean(INTRA_PROJECT_OUTPUTS_TOGGLE));
     }
 
     public void addToTaskGraph(Collection<? extends Task> tasks) {
@@ -433,6 +457,11 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
             projectsWithRunningNonParallelizableTasks.clear();
             canonicalizedOutputCache.clear();
             isParallelSafeCache.clear();
+            criticalPathDurations.clear();
+            planPositions.clear();
+            dependentTasks.clear();
+            waitingTasks.clear();
+            readyTasks.clear();
             runningTasks.clear();
         } finally {
             lock.unlock();
@@ -443,6 +472,105 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
         return new ArrayList<Task>(executionPlan.keySet());
     }
 
+    /**
+     * Prioritizes the ready tasks that are on the longest remaining path through the task graph, given the estimated duration of tasks.
+     * Tasks without an estimate are assumed to take the average estimated time. When there are no estimates, tasks are executed in plan order.
+     * Must be called after the execution plan has been determined.
+     *
+     * <p>The ready tasks are kept ordered by priority, and a task is added to them once the tasks it depends on are complete, so that picking a task does not
+     * require visiting the whole execution queue.</p>
+     *
+     * @return the estimated duration of the critical path through the task graph, in milliseconds.
+     */
+    public long useEstimatedDurations(Map<? extends Task, Long> estimatedDurations) {
+        criticalPathDurations.clear();
+        planPositions.clear();
+        dependentTasks.clear();
+        waitingTasks.clear();
+        readyTasks.clear();
+        if (estimatedDurations.isEmpty()) {
+            return 0;
+        }
+        long totalDuration = 0;
+        for (Long duration : estimatedDurations.values()) {
+            totalDuration += duration;
+        }
+        long defaultDuration = totalDuration / estimatedDurations.size();
+
+        // The queue holds each task after the tasks it depends on, so visit it backwards to see the tasks that depend on a task first
+        long criticalPathDuration = 0;
+        ListIterator<TaskInfo> iterator = executionQueue.listIterator(executionQueue.size());
+        while (iterator.hasPrevious()) {
+            TaskInfo taskInfo = iterator.previous();
+            long remaining = 0;
+            for (TaskInfo successor : Iterables.concat(taskInfo.getDependencyPredecessors(), taskInfo.getFinalizers())) {
+                Long successorDuration = criticalPathDurations.get(successor);
+                if (successorDuration != null) {
+                    remaining = Math.max(remaining, successorDuration);
+                }
+            }
+            Long duration = estimatedDurations.get(taskInfo.getTask());
+            long pathDuration = (duration == null ? defaultDuration : duration) + remaining;
+            criticalPathDurations.put(taskInfo, pathDuration);
+            criticalPathDuration = Math.max(criticalPathDuration, pathDuration);
+        }
+
+        int position = 0;
+        for (TaskInfo taskInfo : executionQueue) {
+            planPositions.put(taskInfo, position++);
+            for (TaskInfo dependency : Iterables.concat(taskInfo.getMustSuccessors(), taskInfo.getDependencySuccessors())) {
+                dependentTasks.put(dependency, taskInfo);
+            }
+        }
+        readyTasksStale = true;
+        return criticalPathDuration;
+    }
+
+    /**
+     * Sorts the tasks in the execution queue that have not started into ready and waiting tasks. Tasks that are picked stay in the queue when prioritizing,
+     * as they are no longer ready. Used initially, and when the state of tasks may have changed other than by completing.
+     */
+    private void sortReadyTasks() {
+        waitingTasks.clear();
+        readyTasks.clear();
+        for (TaskInfo taskInfo : executionQueue) {
+            if (taskInfo.isReady()) {
+                if (taskInfo.allDependenciesComplete()) {
+                    readyTasks.add(taskInfo);
+                } else {
+                    waitingTasks.add(taskInfo);
+                }
+            }
+        }
+        readyTasksStale = false;
+    }
+
+    private void dependencyComplete(TaskInfo taskInfo) {
+        for (TaskInfo dependent : dependentTasks.get(taskInfo)) {
+            if (waitingTasks.contains(dependent) && dependent.allDependenciesComplete()) {
+                waitingTasks.remove(dependent);
+                readyTasks.add(dependent);
+            }
+        }
+    }
+
+    private TaskInfo nextReadyTask() {
+        if (readyTasksStale) {
+            sortReadyTasks();
+        }
+        Iterator<TaskInfo> iterator = readyTasks.iterator();
+        while (iterator.hasNext()) {
+            TaskInfo taskInfo = iterator.next();
+            if (!taskInfo.isReady()) {
+                iterator.remove();
+            } else if (canRunWithWithCurrentlyExecutedTasks(taskInfo)) {
+                iterator.remove();
+                return taskInfo;
+            }
+        }
+        return null;
+    }
+
     public void useFilter(Spec<? super Task> filter) {
         this.filter = filter;
     }
@@ -462,15 +590,20 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
                 }
                 TaskInfo nextMatching = null;
                 boolean allTasksComplete = true;
-                Iterator<TaskInfo> iterator = executionQueue.iterator();
-                while (iterator.hasNext()) {
-                    TaskInfo taskInfo = iterator.next();
-                    allTasksComplete = allTasksComplete && taskInfo.isComplete();
-                    if (taskInfo.isReady() && taskInfo.allDependenciesComplete() && canRunWithWithCurrentlyExecutedTasks(taskInfo)) {
-                        nextMatching = taskInfo;
-                        iterator.remove();
-                        break;
+                if (criticalPathDurations.isEmpty()) {
+                    Iterator<TaskInfo> iterator = executionQueue.iterator();
+                    while (iterator.hasNext()) {
+                        TaskInfo taskInfo = iterator.next();
+                        allTasksComplete = allTasksComplete && taskInfo.isComplete();
+                        if (taskInfo.isReady() && taskInfo.allDependenciesComplete() && canRunWithWithCurrentlyExecutedTasks(taskInfo)) {
+                            nextMatching = taskInfo;
+                            iterator.remove();
+                            break;
+                        }
                     }
+                } else {
+                    nextMatching = nextReadyTask();
+                    allTasksComplete = nextMatching == null && readyTasks.isEmpty() && waitingTasks.isEmpty();
                 }
                 if (allTasksComplete) {
                     return null;
@@ -488,6 +621,7 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
                         return nextMatching;
                     } else {
                         nextMatching.skipExecution();
+                        dependencyComplete(nextMatching);
                         condition.signalAll();
                     }
                 }
@@ -594,6 +728,9 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
     }
 
     private boolean detectIsParallelizable(TaskInternal task) {
+        if (parallelizeByOutputs) {
+            return detectIsParallelizableByOutputs(task);
+        }
         if (task.getClass().isAnnotationPresent(ParallelizableTask.class)) {
             if (task.isHasCustomActions()) {
                 LOGGER.info("Unable to parallelize task {} due to presence of custom actions (e.g. doFirst()/doLast())", task.getPath());
@@ -605,6 +742,18 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
         return false;
     }
 
+    private boolean detectIsParallelizableByOutputs(TaskInternal task) {
+        if (task.getClass().isAnnotationPresent(NonParallelizableTask.class)) {
+            return false;
+        }
+        // Overlapping outputs are what prevent conflicting tasks from running together, so a task without outputs cannot be checked
+        if (canonicalizedOutputPaths(task).isEmpty()) {
+            LOGGER.info("Unable to parallelize task {} as it does not declare any output files", task.getPath());
+            return false;
+        }
+        return true;
+    }
+
     private void recordTaskStarted(TaskInfo taskInfo) {
         TaskInternal task = taskInfo.getTask();
         String projectPath = task.getProject().getPath();
@@ -637,6 +786,7 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
 
             taskInfo.finishExecution();
             recordTaskCompleted(taskInfo);
+            dependencyComplete(taskInfo);
             condition.signalAll();
         } finally {
             lock.unlock();
@@ -663,6 +813,7 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
         }
         if (node.isMustNotRun() || node.isRequired()) {
             node.enforceRun();
+            readyTasksStale = true;
         }
     }
 
@@ -695,6 +846,9 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
                 aborted = true;
             }
         }
+        if (aborted) {
+            readyTasksStale = true;
+        }
         return aborted;
     }
 
@@ -24,6 +24,7 @@ import org.gradle.api.execution.TaskExecutionListener;
 import org.gradle.api.execution.internal.InternalTaskExecutionListener;
 import org.gradle.api.execution.internal.TaskOperationInternal;
 import org.gradle.api.internal.TaskInternal;
+import org.gradle.api.internal.changedetection.state.TaskDurationHistory;
 import org.gradle.api.internal.tasks.TaskExecuter;
 import org.gradle.api.internal.tasks.TaskStateInternal;
 import org.gradle.api.internal.tasks.execution.DefaultTaskExecutionContext;
@@ -44,6 +45,8 @@ import org.gradle.util.Clock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
@@ -58,6 +61,8 @@ public class DefaultTaskGraphExecuter implements TaskGraphExecuter {
     private final TaskPlanExecutor taskPlanExecutor;
     // This currently needs to be lazy, as it uses state that is not available when the graph is created
     private final Factory<? extends TaskExecuter> taskExecuter;
+    // Lazy for the same reason, null when tasks should be executed in plan order
+    private final Factory<? extends TaskDurationHistory> taskDurationHistory;
     private final TimeProvider timeProvider;
     private final ListenerBroadcast<TaskExecutionGraphListener> graphListeners;
     private final ListenerBroadcast<TaskExecutionListener> taskListeners;
@@ -67,8 +72,14 @@ public class DefaultTaskGraphExecuter implements TaskGraphExecuter {
     private TaskGraphState taskGraphState = TaskGraphState.EMPTY;
 
     public DefaultTaskGraphExecuter(ListenerManager listenerManager, TaskPlanExecutor taskPlanExecutor, Factory<? extends TaskExecuter> taskExecuter, BuildCancellationToken cancellationToken, TimeProvider timeProvider, BuildOperationExecutor buildOperationExecutor) {
+        this(listenerManager, taskPlanExecutor, taskExecuter, null, cancellationToken, timeProvider, buildOperationExecutor);
+    }
+
+    public DefaultTaskGraphExecuter(ListenerManager listenerManager, TaskPlanExecutor taskPlanExecutor, Factory<? extends TaskExecuter> taskExecuter, @Nullable Factory<? extends TaskDurationHistory> taskDurationHistory,
+                                    BuildCancellationToken cancellationToken, TimeProvider timeProvider, BuildOperationExecutor buildOperationExecutor) {
         this.taskPlanExecutor = taskPlanExecutor;
         this.taskExecuter = taskExecuter;
+        this.taskDurationHistory = taskDurationHistory;
         this.timeProvider = timeProvider;
         this.buildOperationExecutor = buildOperationExecutor;
         graphListeners = listenerManager.createAnonymousBroadcaster(TaskExecutionGraphListener.class);
@@ -106,11 +117,22 @@ public class DefaultTaskGraphExecuter implements TaskGraphExecuter {
         ensurePopulated();
 
         graphListeners.getSource().graphPopulated(this);
+        TaskDurationHistory durationHistory = taskDurationHistory == null ? null : taskDurationHistory.create();
+        long estimatedDuration = 0;
+        if (durationHistory != null) {
+            estimatedDuration = taskExecutionPlan.useEstimatedDurations(durationHistory.getEstimatedDurations(taskExecutionPlan.getTasks()));
+        }
         try {
-            taskPlanExecutor.process(taskExecutionPlan, new EventFiringTaskWorker(taskExecuter.create(), buildOperationExecutor.getCurrentOperationId()));
+            taskPlanExecutor.process(taskExecutionPlan, new EventFiringTaskWorker(taskExecuter.create(), buildOperationExecutor.getCurrentOperationId(), durationHistory));
             logger.debug("Timing: Executing the DAG took " + clock.getTime());
         } finally {
             taskExecutionPlan.clear();
+            if (durationHistory != null) {
+                if (estimatedDuration > 0) {
+                    logger.info("Estimated critical path of the task graph was {}, actual execution took {}.", Clock.prettyTime(estimatedDuration), clock.getTime());
+                }
+                durationHistory.persist();
+            }
         }
     }
 
@@ -185,10 +207,12 @@ public class DefaultTaskGraphExecuter implements TaskGraphExecuter {
     private class EventFiringTaskWorker implements Action<TaskInternal> {
         private final TaskExecuter taskExecuter;
         private final Object parentOperationId;
+        private final TaskDurationHistory durationHistory;
 
-        public EventFiringTaskWorker(TaskExecuter taskExecuter, Object parentOperationId) {
+        public EventFiringTaskWorker(TaskExecuter taskExecuter, Object parentOperationId, @Nullable TaskDurationHistory durationHistory) {
             this.taskExecuter = taskExecuter;
             this.parentOperationId = parentOperationId;
+            this.durationHistory = durationHistory;
         }
 
         @Override
@@ -205,6 +229,9 @@ public class DefaultTaskGraphExecuter implements TaskGraphExecuter {
             } finally {
                 long endTime = timeProvider.getCurrentTime();
                 internalTaskListeners.getSource().afterExecute(taskOperation, new OperationResult(startTime, endTime, task.getState().getFailure()));
+                if (durationHistory != null && state.getExecuted() && !state.getSkipped() && state.getFailure() == null) {
+                    durationHistory.recordDuration(task, endTime - startTime);
+                }
             }
         }
     }
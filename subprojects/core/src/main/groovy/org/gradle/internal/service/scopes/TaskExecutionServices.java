@@ -26,7 +26,15 @@ import org.gradle.api.internal.changedetection.state.*;
 import org.gradle.api.internal.file.FileCollectionFactory;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.hash.DefaultHasher;
+import org.gradle.api.internal.hash.FileHasher;
+import org.gradle.api.internal.hash.Murmur3Hasher;
+import org.gradle.api.internal.hash.ParallelHasher;
 import org.gradle.api.internal.tasks.TaskExecuter;
+import org.gradle.api.internal.tasks.cache.LocalDirectoryTaskOutputCache;
+import org.gradle.api.internal.tasks.cache.TaskOutputCache;
+import org.gradle.api.internal.tasks.cache.TaskOutputCacheStatistics;
+import org.gradle.api.internal.tasks.cache.TaskOutputOverlapDetector;
+import org.gradle.api.internal.tasks.cache.ZipTaskOutputPacker;
 import org.gradle.api.internal.tasks.execution.*;
 import org.gradle.api.invocation.Gradle;
 import org.gradle.cache.CacheRepository;
@@ -41,13 +49,20 @@ import org.gradle.internal.nativeplatform.filesystem.FileSystem;
 import org.gradle.internal.operations.BuildOperationProcessor;
 import org.gradle.internal.operations.DefaultBuildOperationProcessor;
 import org.gradle.internal.operations.DefaultBuildOperationQueueFactory;
+import org.gradle.internal.os.OperatingSystem;
 import org.gradle.internal.reflect.Instantiator;
 import org.gradle.internal.serialize.DefaultSerializerRegistry;
 import org.gradle.internal.serialize.SerializerRegistry;
 
 public class TaskExecutionServices {
+    private static final String TASK_OUTPUT_CACHE_PROPERTY = "org.gradle.cache.tasks";
+    private static final String TASK_OUTPUT_CACHE_MAX_SIZE_PROPERTY = "org.gradle.cache.tasks.maxsize";
+    private static final long DEFAULT_TASK_OUTPUT_CACHE_MAX_SIZE_MB = 5 * 1024;
+    private static final String FILE_HASHING_THREADS_PROPERTY = "org.gradle.internal.snapshot.hashing.threads";
+    private static final String FILE_HASHING_ALGORITHM_PROPERTY = "org.gradle.internal.snapshot.hashing.algorithm";
+    private static final String WATCH_DIRECTORY_TREES_PROPERTY = "org.gradle.internal.snapshot.watch";
 
-    TaskExecuter createTaskExecuter(TaskArtifactStateRepository repository, ListenerManager listenerManager, Gradle gradle, CachingTreeVisitor treeVisitor) {
+    TaskExecuter createTaskExecuter(TaskArtifactStateRepository repository, ListenerManager listenerManager, Gradle gradle, CachingTreeVisitor treeVisitor, TaskOutputCache taskOutputCache) {
         // TODO - need a more comprehensible way to only collect inputs for the outer build
         //      - we are trying to ignore buildSrc here, but also avoid weirdness with use of GradleBuild tasks
         boolean isOuterBuild = gradle.getParent() == null;
@@ -55,6 +70,17 @@ public class TaskExecutionServices {
             ? listenerManager.getBroadcaster(TaskInputsListener.class)
             : TaskInputsListener.NOOP;
 
+        TaskExecuter executer = new PostExecutionAnalysisTaskExecuter(
+            new ExecuteActionsTaskExecuter(
+                listenerManager.getBroadcaster(TaskActionListener.class)
+            )
+        );
+        if (Boolean.getBoolean(TASK_OUTPUT_CACHE_PROPERTY)) {
+            TaskOutputCacheStatistics statistics = new TaskOutputCacheStatistics();
+            gradle.addBuildListener(statistics);
+            executer = new SkipCachedTaskExecuter(taskOutputCache, new ZipTaskOutputPacker(), statistics, new TaskOutputOverlapDetector(), executer);
+        }
+
         return new ExecuteAtMostOnceTaskExecuter(
             new SkipOnlyIfTaskExecuter(
                 new SkipTaskWithNoActionsExecuter(
@@ -64,11 +90,7 @@ public class TaskExecutionServices {
                             new SkipUpToDateTaskExecuter(
                                 repository,
                                 treeVisitor,
-                                new PostExecutionAnalysisTaskExecuter(
-                                    new ExecuteActionsTaskExecuter(
-                                        listenerManager.getBroadcaster(TaskActionListener.class)
-                                    )
-                                )
+                                executer
                             )
                         )
                     )
@@ -87,14 +109,48 @@ public class TaskExecutionServices {
         return new DefaultTaskArtifactStateCacheAccess(gradle, cacheRepository, decorator);
     }
 
-    FileSnapshotter createFileSnapshotter(TaskArtifactStateCacheAccess cacheAccess, StringInterner stringInterner) {
-        return new CachingFileSnapshotter(new DefaultHasher(), cacheAccess, stringInterner);
+    TaskOutputCache createTaskOutputCache(CacheRepository cacheRepository) {
+        long maxSizeInMegabytes = Long.getLong(TASK_OUTPUT_CACHE_MAX_SIZE_PROPERTY, DEFAULT_TASK_OUTPUT_CACHE_MAX_SIZE_MB);
+        return new LocalDirectoryTaskOutputCache(cacheRepository, maxSizeInMegabytes * 1024 * 1024);
     }
 
-    CachingTreeVisitor createTreeVisitor() {
+    ParallelHasher createParallelHasher(StartParameter startParameter, ExecutorFactory executorFactory) {
+        // Defaults to one hashing thread per worker
+        int parallelism = Integer.getInteger(FILE_HASHING_THREADS_PROPERTY, startParameter.getMaxWorkerCount());
+        return new ParallelHasher(createFileHasher(), executorFactory, parallelism);
+    }
+
+    private static FileHasher createFileHasher() {
+        // File hashes are only used to detect changes, so a fast non-cryptographic hash is used by default
+        String algorithm = System.getProperty(FILE_HASHING_ALGORITHM_PROPERTY, Murmur3Hasher.ALGORITHM);
+        if (algorithm.equalsIgnoreCase(DefaultHasher.ALGORITHM)) {
+            return new DefaultHasher();
+        }
+        if (algorithm.equalsIgnoreCase(Murmur3Hasher.ALGORITHM)) {
+            return new Murmur3Hasher();
+        }
+        throw new IllegalArgumentException(String.format("Value '%s' given for %s system property is invalid (must be one of %s, %s)",
+            algorithm, FILE_HASHING_ALGORITHM_PROPERTY, Murmur3Hasher.ALGORITHM, DefaultHasher.ALGORITHM));
+    }
+
+    FileSnapshotter createFileSnapshotter(TaskArtifactStateCacheAccess cacheAccess, StringInterner stringInterner, ParallelHasher hasher) {
+        return new CachingFileSnapshotter(hasher, cacheAccess, stringInterner);
+    }
+
+    CachingTreeVisitor createTreeVisitor(GradleBuildEnvironment environment, WatchedDirectoryTreeCache watchedDirectoryTreeCache) {
+        // Directory scans are only retained across builds by the daemon. The JDK polls for changes on macOS, so they may be reported too late to be relied on
+        if (environment.isLongLivingProcess() && !OperatingSystem.current().isMacOsX() && !"false".equals(System.getProperty(WATCH_DIRECTORY_TREES_PROPERTY))) {
+            // Created when the task graph is executed, before any task runs
+            watchedDirectoryTreeCache.synchronize();
+            return new CachingTreeVisitor(watchedDirectoryTreeCache);
+        }
         return new CachingTreeVisitor();
     }
 
+    TaskDurationHistory createTaskDurationHistory(TaskArtifactStateCacheAccess cacheAccess) {
+        return new TaskDurationHistory(cacheAccess);
+    }
+
     TaskArtifactStateRepository createTaskArtifactStateRepository(Instantiator instantiator, TaskArtifactStateCacheAccess cacheAccess, StartParameter startParameter, FileSnapshotter fileSnapshotter,
                                                                   StringInterner stringInterner, FileResolver fileResolver, FileSystem fileSystem, FileCollectionFactory fileCollectionFactory, CachingTreeVisitor treeVisitor) {
         FileCollectionSnapshotter fileCollectionSnapshotter = new DefaultFileCollectionSnapshotter(fileSnapshotter, cacheAccess, stringInterner, fileResolver, treeVisitor);
@@ -16,8 +16,9 @@
 
 package org.gradle.api.internal.changedetection.state
 
+import org.gradle.api.file.FileTreeElement
 import org.gradle.api.internal.cache.StringInterner
-import org.gradle.api.internal.hash.Hasher
+import org.gradle.api.internal.hash.FileHasher
 import org.gradle.cache.PersistentIndexedCache
 import org.gradle.internal.hash.HashUtil
 import org.gradle.internal.resource.TextResource
@@ -28,7 +29,8 @@ import spock.lang.Specification
 class CachingFileSnapshotterTest extends Specification {
     @Rule
     TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
-    def target = Mock(Hasher)
+    static final String ALGORITHM = "TEST"
+    def target = Mock(FileHasher)
     def cache = Mock(PersistentIndexedCache)
     def cacheAccess = Mock(TaskArtifactStateCacheAccess)
     def hash = HashUtil.createHash("hello", "md5")
@@ -37,7 +39,8 @@ class CachingFileSnapshotterTest extends Specification {
 
     def setup() {
         file.write("some-content")
-        1 * cacheAccess.createCache("fileHashes", _, _) >> cache
+        1 * cacheAccess.createCache("fileHashes-test", _, _) >> cache
+        _ * target.algorithm >> ALGORITHM
         hasher = new CachingFileSnapshotter(target, cacheAccess, new StringInterner());
     }
 
@@ -95,6 +98,12 @@ class CachingFileSnapshotterTest extends Specification {
         0 * _._
     }
 
+    def usesSeparateCacheForEachAlgorithm() {
+        expect:
+        CachingFileSnapshotter.getCacheName("MD5") == "fileHashes-md5"
+        CachingFileSnapshotter.getCacheName("MURMUR3_128") == "fileHashes-murmur3_128"
+    }
+
     def doesNotHashFileWhenTimestampAndLengthHaveNotChanged() {
         when:
         def result = hasher.snapshot(file)
@@ -136,4 +145,31 @@ class CachingFileSnapshotterTest extends Specification {
         1 * resource.text >> "hello"
         0 * _._
     }
+
+    def hashesOnlyFilesWithChangedMetadataWhenSnapshottingMultipleFiles() {
+        def changedFile = tmpDir.createFile("changed")
+        changedFile.write("other-content")
+        def changedHash = HashUtil.createHash("other", "md5")
+
+        when:
+        def result = hasher.snapshot([fileDetails(file), fileDetails(changedFile)])
+
+        then:
+        result*.hash == [hash, changedHash]
+
+        and:
+        1 * cache.get(file.getAbsolutePath()) >> new CachingFileSnapshotter.FileInfo(hash, file.length(), file.lastModified())
+        1 * cache.get(changedFile.getAbsolutePath()) >> new CachingFileSnapshotter.FileInfo(hash, 1024, changedFile.lastModified())
+        1 * target.hash(changedFile) >> changedHash
+        1 * cache.put(changedFile.getAbsolutePath(), _)
+        0 * _._
+    }
+
+    private FileTreeElement fileDetails(File file) {
+        return Stub(FileTreeElement) {
+            getFile() >> file
+            getSize() >> file.length()
+            getLastModified() >> file.lastModified()
+        }
+    }
 }
@@ -21,6 +21,10 @@ import org.gradle.api.internal.file.FileTreeInternal
 import org.gradle.api.internal.file.TestFiles
 import org.gradle.api.internal.file.collections.DefaultDirectoryFileTreeFactory
 import org.gradle.api.internal.file.collections.DefaultFileCollectionResolveContext
+import org.gradle.internal.filewatch.FileWatcher
+import org.gradle.internal.filewatch.FileWatcherEvent
+import org.gradle.internal.filewatch.FileWatcherFactory
+import org.gradle.internal.filewatch.FileWatcherListener
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.gradle.util.UsesNativeServices
 import org.junit.Rule
@@ -113,6 +117,47 @@ class CachingTreeVisitorTest extends Specification {
         treeVisitor.cachedTrees.size() == 1
     }
 
+    def "never sees the cookie files written while the watcher is synchronized"() {
+        given:
+        FileWatcherListener listener = null
+        def watcher = Stub(FileWatcher) {
+            isRunning() >> true
+        }
+        def watcherFactory = Stub(FileWatcherFactory) {
+            watch(_, _) >> { onError, FileWatcherListener l ->
+                listener = l
+                return watcher
+            }
+        }
+        def watchedTrees = new WatchedDirectoryTreeCache(watcherFactory, 1000, 5000)
+        treeVisitor = new CachingTreeVisitor(watchedTrees)
+        createSampleFiles()
+        def fileTree = resolveAsFileTrees()[0]
+        def filteredFileTree = resolveAsFileTrees(null, "**/*")[0]
+        treeVisitor.visitTreeForSnapshotting(fileTree, true)
+
+        when:
+        def thread = Thread.start { watchedTrees.synchronize() }
+        def scans = []
+        while (thread.alive) {
+            scans << treeVisitor.visitTreeForSnapshotting(fileTree, false)
+            scans << treeVisitor.visitTreeForSnapshotting(filteredFileTree, false)
+            def cookie = testDir.testDirectory.listFiles().find { it.name.startsWith(WatchedDirectoryTreeCache.COOKIE_PREFIX) }
+            if (cookie != null) {
+                // Scan again while the cookie is known to exist
+                scans << treeVisitor.visitTreeForSnapshotting(fileTree, false)
+                scans << treeVisitor.visitTreeForSnapshotting(filteredFileTree, false)
+                listener.onChange(watcher, FileWatcherEvent.create(cookie))
+            }
+            thread.join(10)
+        }
+
+        then:
+        !scans.empty
+        scans.every { scan -> scan.every { !it.name.startsWith(WatchedDirectoryTreeCache.COOKIE_PREFIX) } }
+        scans.every { it.count { !it.isDirectory() } == 5 }
+    }
+
     private def createSampleFiles() {
         [testDir.createFile("a/file1.txt"),
          testDir.createFile("a/b/file2.txt"),
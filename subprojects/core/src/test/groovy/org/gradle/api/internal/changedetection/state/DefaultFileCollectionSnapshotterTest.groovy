@@ -37,6 +37,13 @@ public class DefaultFileCollectionSnapshotterTest extends Specification {
     public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
 
     def setup() {
+        fileSnapshotter.snapshot(_ as List) >> { List<FileTreeElement> fileTreeElements ->
+            return fileTreeElements.collect { fileTreeElement ->
+                Stub(FileSnapshot) {
+                    getHash() >> HashUtil.sha1(fileTreeElement.file)
+                }
+            }
+        }
         fileSnapshotter.snapshot(_) >> { FileTreeElement fileTreeElement ->
             return Stub(FileSnapshot) {
                 getHash() >> HashUtil.sha1(fileTreeElement.file)
@@ -19,6 +19,7 @@ package org.gradle.api.internal.changedetection.state
 import org.gradle.api.internal.cache.StringInterner
 import org.gradle.internal.hash.HashUtil
 import org.gradle.internal.serialize.SerializerSpec
+import org.gradle.util.ChangeListener
 
 class DefaultFileSnapshotterSerializerTest extends SerializerSpec {
 
@@ -38,4 +39,77 @@ class DefaultFileSnapshotterSerializerTest extends SerializerSpec {
         out.snapshots['2'] instanceof MissingFileSnapshot
         ((FileHashSnapshot) out.snapshots['3']).hash == hash
     }
+
+    def "reads and writes paths that share a prefix"() {
+        when:
+        def hash = HashUtil.createHash("foo", "md5")
+        FileCollectionSnapshotImpl out = serialize(new FileCollectionSnapshotImpl([
+            "/src/main/b": new FileHashSnapshot(hash),
+            "/src/main": DirSnapshot.getInstance(),
+            "/src/main/a/b": MissingFileSnapshot.getInstance(),
+            "/src": DirSnapshot.getInstance(),
+            "/other": DirSnapshot.getInstance()]), serializer)
+
+        then:
+        out.snapshots.keySet() == ["/src/main/b", "/src/main", "/src/main/a/b", "/src", "/other"] as Set
+        out.snapshots['/src/main/a/b'] instanceof MissingFileSnapshot
+        ((FileHashSnapshot) out.snapshots['/src/main/b']).hash == hash
+    }
+
+    def "detects changes against a snapshot that has been read"() {
+        def listener = Mock(ChangeListener)
+        def previous = serialize(new FileCollectionSnapshotImpl([
+            "/a": DirSnapshot.getInstance(),
+            "/a/changed": new FileHashSnapshot(HashUtil.createHash("foo", "md5")),
+            "/a/removed": new FileHashSnapshot(HashUtil.createHash("foo", "md5")),
+            "/a/unchanged": new FileHashSnapshot(HashUtil.createHash("foo", "md5"))]), serializer)
+        def current = new FileCollectionSnapshotImpl([
+            "/a": DirSnapshot.getInstance(),
+            "/a/added": MissingFileSnapshot.getInstance(),
+            "/a/changed": new FileHashSnapshot(HashUtil.createHash("bar", "md5")),
+            "/a/unchanged": new FileHashSnapshot(HashUtil.createHash("foo", "md5"))])
+
+        when:
+        def changes = current.iterateContentChangesSince(previous, [] as Set)
+        while (changes.next(listener)) {
+        }
+
+        then:
+        1 * listener.added("/a/added")
+        1 * listener.changed("/a/changed")
+        1 * listener.removed("/a/removed")
+        0 * _
+    }
+
+    def "detects changes between snapshots whose entries are not in path order each time they are compared"() {
+        def listener = Mock(ChangeListener)
+        def previous = new FileCollectionSnapshotImpl([
+            "/a/unchanged": new FileHashSnapshot(HashUtil.createHash("foo", "md5")),
+            "/a/removed": new FileHashSnapshot(HashUtil.createHash("foo", "md5")),
+            "/a": DirSnapshot.getInstance()])
+        def current = new FileCollectionSnapshotImpl([
+            "/a/unchanged": new FileHashSnapshot(HashUtil.createHash("foo", "md5")),
+            "/a/added": MissingFileSnapshot.getInstance(),
+            "/a": DirSnapshot.getInstance()])
+
+        when:
+        def changes = current.iterateContentChangesSince(previous, [] as Set)
+        while (changes.next(listener)) {
+        }
+
+        then:
+        1 * listener.added("/a/added")
+        1 * listener.removed("/a/removed")
+        0 * _
+
+        when:
+        changes = current.iterateContentChangesSince(previous, [] as Set)
+        while (changes.next(listener)) {
+        }
+
+        then:
+        1 * listener.added("/a/added")
+        1 * listener.removed("/a/removed")
+        0 * _
+    }
 }
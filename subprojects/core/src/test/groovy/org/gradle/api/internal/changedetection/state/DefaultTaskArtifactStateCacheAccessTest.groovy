@@ -19,8 +19,12 @@ import org.gradle.api.internal.GradleInternal
 import org.gradle.cache.CacheBuilder
 import org.gradle.cache.CacheRepository
 import org.gradle.cache.PersistentCache
+import org.gradle.cache.PersistentIndexedCacheParameters
+import org.gradle.cache.internal.FileLock
 import org.gradle.cache.internal.FileLockManager
+import org.gradle.cache.internal.MultiProcessSafePersistentIndexedCache
 import org.gradle.cache.internal.filelock.LockOptionsBuilder
+import org.gradle.internal.serialize.BaseSerializerFactory
 import spock.lang.Specification
 
 class DefaultTaskArtifactStateCacheAccessTest extends Specification {
@@ -41,4 +45,134 @@ class DefaultTaskArtifactStateCacheAccessTest extends Specification {
         1 * cacheBuilder.open() >> backingCache
         0 * _._
     }
+
+    def "buffers writes to the task history until closed"() {
+        given:
+        def backingCache = Mock(PersistentCache)
+        def backingIndexedCache = Mock(MultiProcessSafePersistentIndexedCache)
+        def cacheAccess = openCacheAccess(backingCache)
+        backingCache.createCache({ it.cacheName == "taskArtifacts" }) >> { PersistentIndexedCacheParameters parameters -> decorate(parameters, backingIndexedCache) }
+        def taskHistory = cacheAccess.createCache("taskArtifacts", String, BaseSerializerFactory.STRING_SERIALIZER)
+
+        when:
+        taskHistory.put("b", "1")
+        taskHistory.put("a", "1")
+        taskHistory.put("b", "2")
+        taskHistory.remove("c")
+        def values = ["a", "b", "c"].collect { taskHistory.get(it) }
+
+        then:
+        values == ["1", "2", null]
+        0 * backingIndexedCache._
+
+        when:
+        cacheAccess.close()
+
+        then:
+        1 * backingCache.useCache(_, _ as Runnable) >> { String name, Runnable action -> action.run() }
+
+        then:
+        1 * backingIndexedCache.put("a", "1")
+
+        then:
+        1 * backingIndexedCache.put("b", "2")
+
+        then:
+        1 * backingIndexedCache.remove("c")
+
+        then:
+        1 * backingCache.close()
+        0 * backingIndexedCache._
+    }
+
+    def "reads values that have not been written from the backing cache"() {
+        given:
+        def backingCache = Mock(PersistentCache)
+        def backingIndexedCache = Mock(MultiProcessSafePersistentIndexedCache)
+        def cacheAccess = openCacheAccess(backingCache)
+        backingCache.createCache(_) >> { PersistentIndexedCacheParameters parameters -> decorate(parameters, backingIndexedCache) }
+        def taskHistory = cacheAccess.createCache("taskArtifacts", String, BaseSerializerFactory.STRING_SERIALIZER)
+
+        when:
+        def value = taskHistory.get("a")
+
+        then:
+        value == "value"
+        1 * backingIndexedCache.get("a") >> "value"
+    }
+
+    def "does not buffer writes to other caches"() {
+        given:
+        def backingCache = Mock(PersistentCache)
+        def backingIndexedCache = Mock(MultiProcessSafePersistentIndexedCache)
+        def cacheAccess = openCacheAccess(backingCache)
+        backingCache.createCache(_) >> { PersistentIndexedCacheParameters parameters -> decorate(parameters, backingIndexedCache) }
+        def fileHashes = cacheAccess.createCache("fileHashes", String, BaseSerializerFactory.STRING_SERIALIZER)
+
+        when:
+        fileHashes.put("a", "1")
+
+        then:
+        1 * backingIndexedCache.put("a", "1")
+
+        when:
+        cacheAccess.close()
+
+        then:
+        0 * backingCache.useCache(_, _)
+        1 * backingCache.close()
+    }
+
+    def "writes buffered writes when the backing cache is closed to release the lock"() {
+        given:
+        def backingCache = Mock(PersistentCache)
+        def backingIndexedCache = Mock(MultiProcessSafePersistentIndexedCache)
+        def cacheAccess = openCacheAccess(backingCache)
+        MultiProcessSafePersistentIndexedCache taskHistory
+        backingCache.createCache(_) >> { PersistentIndexedCacheParameters parameters -> taskHistory = decorate(parameters, backingIndexedCache) }
+        cacheAccess.createCache("taskArtifacts", String, BaseSerializerFactory.STRING_SERIALIZER)
+        def state = Stub(FileLock.State)
+
+        when:
+        taskHistory.put("a", "1")
+        taskHistory.onStartWork("build", state)
+
+        then:
+        1 * backingIndexedCache.onStartWork("build", state)
+        0 * backingIndexedCache._
+
+        when:
+        taskHistory.close()
+        taskHistory.onEndWork(state)
+
+        then:
+        1 * backingIndexedCache.put("a", "1")
+
+        then:
+        1 * backingIndexedCache.close()
+
+        then:
+        1 * backingIndexedCache.onEndWork(state)
+        0 * backingIndexedCache._
+
+        when:
+        cacheAccess.close()
+
+        then:
+        0 * backingCache.useCache(_, _)
+        1 * backingCache.close()
+    }
+
+    private static MultiProcessSafePersistentIndexedCache decorate(PersistentIndexedCacheParameters parameters, MultiProcessSafePersistentIndexedCache original) {
+        return parameters.cacheDecorator.decorate("id", parameters.cacheName, original)
+    }
+
+    private DefaultTaskArtifactStateCacheAccess openCacheAccess(PersistentCache backingCache) {
+        CacheBuilder cacheBuilder = Stub()
+        cacheBuilder.withDisplayName(_) >> cacheBuilder
+        cacheBuilder.withLockOptions(_) >> cacheBuilder
+        cacheBuilder.open() >> backingCache
+        cacheRepository.cache(gradle, "taskArtifacts") >> cacheBuilder
+        return new DefaultTaskArtifactStateCacheAccess(gradle, cacheRepository, new NoOpDecorator())
+    }
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state
+
+import org.gradle.internal.hash.HashValue
+import spock.lang.Specification
+
+class PackedFileInfoCacheTest extends Specification {
+    def absent = new Object()
+    def cache = new PackedFileInfoCache("cacheId", 10000, absent)
+
+    def "returns entries that have been put"() {
+        def hash = HashValue.parse("0123456789abcdef0123456789abcdef")
+
+        when:
+        cache.put("/path/file", new CachingFileSnapshotter.FileInfo(hash, 12, 34))
+        def info = cache.getIfPresent("/path/file")
+
+        then:
+        info.hash == hash
+        info.length == 12
+        info.timestamp == 34
+
+        and:
+        cache.getIfPresent("/path/other") == null
+        cache.size() == 1
+    }
+
+    def "returns absent value for keys known to be absent"() {
+        when:
+        cache.put("/path/file", absent)
+
+        then:
+        cache.getIfPresent("/path/file").is(absent)
+    }
+
+    def "can replace and remove entries"() {
+        given:
+        def entries = (0..<5000).collect { "/path/file" + it }
+        entries.eachWithIndex { path, i -> cache.put(path, info(i)) }
+
+        when:
+        entries.eachWithIndex { path, i ->
+            if (i % 3 == 0) {
+                cache.invalidate(path)
+            } else if (i % 3 == 1) {
+                cache.put(path, info(i + 1))
+            }
+        }
+
+        then:
+        entries.eachWithIndex { path, i ->
+            def info = cache.getIfPresent(path)
+            switch (i % 3) {
+                case 0: assert info == null; break
+                case 1: assert info.length == i + 1; break
+                case 2: assert info.length == i; break
+            }
+        }
+        cache.size() == 5000 - 1667
+    }
+
+    def "evicts entries when full"() {
+        given:
+        cache = new PackedFileInfoCache("cacheId", 1000, absent)
+
+        when:
+        (0..<3000).each { cache.put("/path/file" + it, info(it)) }
+
+        then:
+        cache.size() == 1000
+        cache.stats().evictionCount() == 2000
+        cache.getIfPresent("/path/file2999").length == 2999
+    }
+
+    def "invalidates all entries"() {
+        given:
+        (0..<2000).each { cache.put("/path/file" + it, info(it)) }
+
+        when:
+        cache.invalidateAll()
+
+        then:
+        cache.size() == 0
+        cache.getIfPresent("/path/file1") == null
+    }
+
+    private static CachingFileSnapshotter.FileInfo info(long length) {
+        return new CachingFileSnapshotter.FileInfo(HashValue.parse("abc" + length), length, 1000)
+    }
+}
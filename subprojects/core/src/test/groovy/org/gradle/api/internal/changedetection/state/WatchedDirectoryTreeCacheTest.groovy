@@ -0,0 +1,237 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state
+
+import org.gradle.api.file.FileTreeElement
+import org.gradle.internal.filewatch.FileWatcher
+import org.gradle.internal.filewatch.FileWatcherEvent
+import org.gradle.internal.filewatch.FileWatcherFactory
+import org.gradle.internal.filewatch.FileWatcherListener
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class WatchedDirectoryTreeCacheTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def watcher = Mock(FileWatcher)
+    def watcherFactory = Mock(FileWatcherFactory)
+    FileWatcherListener listener
+    def cache = new WatchedDirectoryTreeCache(watcherFactory, 10, 5000)
+    def dir = tmpDir.createDir("dir")
+    def tree = [Stub(FileTreeElement), Stub(FileTreeElement)]
+
+    def setup() {
+        _ * watcherFactory.watch(_, _) >> { onError, listener ->
+            this.listener = listener
+            return watcher
+        }
+        _ * watcher.running >> true
+    }
+
+    def "reuses scan until a change is reported for the directory"() {
+        when:
+        def version = cache.beforeScan(dir)
+        cache.put(dir, version, tree)
+
+        then:
+        1 * watcher.watch({ it.contains(dir) })
+        reuse(dir).is(tree)
+
+        when:
+        listener.onChange(watcher, FileWatcherEvent.modify(new File(dir, "some/file.txt")))
+
+        then:
+        cache.get(dir) == null
+
+        when:
+        cache.put(dir, cache.beforeScan(dir), tree)
+
+        then:
+        0 * watcher.watch(_)
+        reuse(dir).is(tree)
+    }
+
+    def "does not retain scan when a change is reported while scanning"() {
+        when:
+        def version = cache.beforeScan(dir)
+        listener.onChange(watcher, FileWatcherEvent.create(new File(dir, "file.txt")))
+        cache.put(dir, version, tree)
+
+        then:
+        cache.get(dir) == null
+    }
+
+    def "discards scans when a containing directory is removed"() {
+        given:
+        cache.put(dir, cache.beforeScan(dir), tree)
+
+        when:
+        listener.onChange(watcher, FileWatcherEvent.delete(tmpDir.testDirectory))
+
+        then:
+        cache.get(dir) == null
+    }
+
+    def "discards all scans when events are lost or on request"() {
+        given:
+        def other = tmpDir.createDir("other")
+        cache.put(dir, cache.beforeScan(dir), tree)
+        cache.put(other, cache.beforeScan(other), tree)
+
+        when:
+        listener.onChange(watcher, FileWatcherEvent.undefined())
+
+        then:
+        cache.get(dir) == null
+        cache.get(other) == null
+
+        when:
+        cache.put(dir, cache.beforeScan(dir), tree)
+        cache.invalidateAll()
+
+        then:
+        cache.get(dir) == null
+    }
+
+    def "does not reuse scans when watcher is not running"() {
+        given:
+        cache.put(dir, cache.beforeScan(dir), tree)
+
+        when:
+        def result = cache.get(dir)
+
+        then:
+        _ * watcher.running >> false
+        result == null
+    }
+
+    def "does not retain scans when file watching is not available"() {
+        given:
+        def cache = new WatchedDirectoryTreeCache(watcherFactory)
+
+        when:
+        def version = cache.beforeScan(dir)
+        cache.put(dir, version, tree)
+
+        then:
+        1 * watcherFactory.watch(_, _) >> { throw new UnsupportedOperationException() }
+        version == -1
+        cache.get(dir) == null
+    }
+
+    def "discards least recently used scans when too many elements are retained"() {
+        given:
+        def dirs = (0..5).collect { tmpDir.createDir("dir" + it) }
+
+        when:
+        dirs.each { cache.put(it, cache.beforeScan(it), tree) }
+
+        then:
+        dirs.findAll { cache.get(it) != null } == dirs.subList(1, 6)
+    }
+
+    def "does not reuse scan when a change is reported before the cookie file"() {
+        given:
+        cache.put(dir, cache.beforeScan(dir), tree)
+
+        when:
+        def result = reuse(dir) { listener.onChange(watcher, FileWatcherEvent.modify(new File(dir, "file.txt"))) }
+
+        then:
+        result == null
+        cache.get(dir) == null
+    }
+
+    def "does not reuse scan when the cookie file is not reported in time"() {
+        given:
+        def cache = new WatchedDirectoryTreeCache(watcherFactory, 10, 100)
+        cache.put(dir, cache.beforeScan(dir), tree)
+
+        when:
+        cache.synchronize()
+
+        then:
+        cache.get(dir) == null
+        dir.list() as List == []
+    }
+
+    def "waits for the cookie files of all directories at once"() {
+        given:
+        def cache = new WatchedDirectoryTreeCache(watcherFactory, 10, 500)
+        def dirs = (0..3).collect { tmpDir.createDir("dir" + it) }
+        dirs.each { cache.put(it, cache.beforeScan(it), tree) }
+
+        when:
+        def start = System.currentTimeMillis()
+        cache.synchronize()
+
+        then:
+        System.currentTimeMillis() - start < 4 * 500
+        dirs.every { cache.get(it) == null }
+    }
+
+    def "discards scans that overlap the given outputs"() {
+        given:
+        def nested = tmpDir.createDir("dir/nested")
+        def other = tmpDir.createDir("other")
+        def parent = tmpDir.createDir("parent")
+        [dir, nested, other, parent].each { cache.put(it, cache.beforeScan(it), tree) }
+
+        when:
+        cache.invalidate([new File(dir, "nested"), new File(parent, "child/file.txt")])
+
+        then:
+        cache.get(dir) == null
+        cache.get(nested) == null
+        cache.get(parent) == null
+        cache.get(other).is(tree)
+    }
+
+    /**
+     * Reads the retained scan of the given directory after synchronizing with the watcher, reporting the cookie files written by the cache once any
+     * other events have been reported.
+     */
+    private Collection<FileTreeElement> reuse(File dir, Closure otherEvents = {}) {
+        def thread = Thread.start { cache.synchronize() }
+        Set<File> reported = []
+        while (thread.alive) {
+            def cookies = cookieFiles()
+            if (!cookies.empty && reported.empty) {
+                otherEvents.call()
+            }
+            cookies.each {
+                if (reported.add(it)) {
+                    listener.onChange(watcher, FileWatcherEvent.create(it))
+                }
+            }
+            thread.join(10)
+        }
+        assert cookieFiles().empty
+        return cache.get(dir)
+    }
+
+    private List<File> cookieFiles() {
+        def cookies = []
+        tmpDir.testDirectory.eachFileRecurse {
+            if (it.name.startsWith(WatchedDirectoryTreeCache.COOKIE_PREFIX)) {
+                cookies << it
+            }
+        }
+        return cookies
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.hash
+
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.hash.HashUtil
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class ParallelHasherTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def executorFactory = new DefaultExecutorFactory()
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    def "hashes files in order using #parallelism threads"() {
+        def files = (1..100).collect { index ->
+            def file = tmpDir.file("file${index}")
+            file.text = "content ${index}"
+            file
+        }
+        def hasher = new ParallelHasher(new DefaultHasher(), executorFactory, parallelism)
+
+        when:
+        def hashes = hasher.hash(files)
+
+        then:
+        hashes == files.collect { HashUtil.createHash(it, "MD5") }
+        hashes.unique(false).size() == files.size()
+
+        cleanup:
+        hasher.stop()
+
+        where:
+        parallelism << [1, 4]
+    }
+
+    def "propagates failure to hash a file"() {
+        def failure = new RuntimeException("broken")
+        def target = Stub(FileHasher) {
+            hash(_) >> { throw failure }
+        }
+        def hasher = new ParallelHasher(target, executorFactory, 4)
+        def files = (1..100).collect { tmpDir.file("file") }
+
+        when:
+        hasher.hash(files)
+
+        then:
+        def e = thrown(RuntimeException)
+        e.is(failure)
+
+        cleanup:
+        hasher.stop()
+    }
+}
@@ -90,6 +90,28 @@ class DefaultTaskOutputsTest extends Specification {
         outputs.upToDateSpec.isSatisfiedBy(task)
     }
 
+    public void cachingIsNotAllowedByDefault() {
+        expect:
+        !outputs.cacheAllowed
+    }
+
+    public void cachingIsAllowedWhenAllCacheIfPredicatesAreSatisfied() {
+        boolean cacheable = true
+
+        when:
+        outputs.cacheIf { true }
+        outputs.cacheIf { cacheable }
+
+        then:
+        outputs.cacheAllowed
+
+        when:
+        cacheable = false
+
+        then:
+        !outputs.cacheAllowed
+    }
+
     public void getPreviousFilesDelegatesToTaskHistory() {
         TaskExecutionHistory history = Mock()
         FileCollection outputFiles = Mock()
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.cache
+
+import org.gradle.api.DefaultTask
+import org.gradle.api.tasks.Copy
+import spock.lang.Specification
+
+import java.lang.reflect.Proxy
+
+class ClassImplementationHasherTest extends Specification {
+    def hasher = new ClassImplementationHasher()
+
+    def "hashes the byte code of a class and its superclasses"() {
+        expect:
+        hasher.hash(Copy) == new ClassImplementationHasher().hash(Copy)
+        hasher.hash(Copy) != hasher.hash(DefaultTask)
+    }
+
+    def "fails when the byte code of a class is not available"() {
+        def type = Proxy.getProxyClass(getClass().classLoader, Runnable)
+
+        when:
+        hasher.hash(type)
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message == "Could not find the byte code of ${type}."
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.cache
+
+import org.gradle.api.Project
+import org.gradle.api.execution.TaskExecutionGraph
+import org.gradle.api.internal.TaskInternal
+import org.gradle.api.internal.TaskOutputsInternal
+import org.gradle.api.internal.file.collections.SimpleFileCollection
+import org.gradle.api.invocation.Gradle
+import spock.lang.Specification
+
+class TaskOutputOverlapDetectorTest extends Specification {
+    def root = new File("root").absoluteFile
+    def gradle = Mock(Gradle)
+    def taskGraph = Mock(TaskExecutionGraph)
+    def tasks = []
+    def detector = new TaskOutputOverlapDetector()
+
+    def setup() {
+        _ * gradle.taskGraph >> taskGraph
+        _ * taskGraph.allTasks >> { tasks }
+    }
+
+    def "outputs do not overlap when tasks declare distinct locations"() {
+        def task = task("build/classes/main", "build/tmp/compile")
+        task("build/classes/test")
+        task("build/classes-other")
+
+        expect:
+        !detector.hasOverlappingOutputs(task)
+    }
+
+    def "outputs overlap when another task declares the same location, or a location inside or around it"() {
+        def task = task("build/classes")
+        task(otherOutput)
+
+        expect:
+        detector.hasOverlappingOutputs(task)
+
+        where:
+        otherOutput << ["build/classes", "build/classes/main", "build"]
+    }
+
+    def "outputs overlap when the outputs of another task cannot be determined"() {
+        def task = task("build/classes")
+        def broken = Mock(TaskInternal)
+        def brokenOutputs = Mock(TaskOutputsInternal)
+        _ * broken.outputs >> brokenOutputs
+        _ * brokenOutputs.files >> { throw new RuntimeException("broken") }
+        tasks << broken
+
+        expect:
+        detector.hasOverlappingOutputs(task)
+    }
+
+    private TaskInternal task(String... outputs) {
+        def task = Mock(TaskInternal)
+        def project = Mock(Project)
+        def taskOutputs = Mock(TaskOutputsInternal)
+        _ * task.project >> project
+        _ * project.gradle >> gradle
+        _ * task.outputs >> taskOutputs
+        _ * taskOutputs.files >> new SimpleFileCollection(outputs.collect { new File(root, it) })
+        tasks << task
+        return task
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.cache
+
+import org.gradle.api.file.FileCollection
+import org.gradle.api.internal.TaskOutputsInternal
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class ZipTaskOutputPackerTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def taskOutputs = Mock(TaskOutputsInternal)
+    def outputFiles = Mock(FileCollection)
+    def packer = new ZipTaskOutputPacker()
+
+    def setup() {
+        _ * taskOutputs.files >> outputFiles
+    }
+
+    def "restores output files and directories to their original locations"() {
+        def outputDir = tmpDir.createDir("classes")
+        outputDir.file("org/gradle/A.class").text = "A"
+        outputDir.file("org/gradle/B.class").text = "B"
+        outputDir.createDir("empty")
+        def outputFile = tmpDir.file("report.txt")
+        outputFile.text = "report"
+        _ * outputFiles.files >> ([outputDir, outputFile] as LinkedHashSet)
+        def packed = new ByteArrayOutputStream()
+
+        when:
+        packer.pack(taskOutputs, packed)
+        outputDir.deleteDir()
+        outputFile.text = "stale"
+
+        and:
+        packer.unpack(taskOutputs, new ByteArrayInputStream(packed.toByteArray()))
+
+        then:
+        outputDir.file("org/gradle/A.class").text == "A"
+        outputDir.file("org/gradle/B.class").text == "B"
+        outputDir.file("empty").directory
+        outputFile.text == "report"
+    }
+
+    def "removes stale files from output directories when unpacking"() {
+        def outputDir = tmpDir.createDir("classes")
+        outputDir.file("A.class").text = "A"
+        _ * outputFiles.files >> ([outputDir] as LinkedHashSet)
+        def packed = new ByteArrayOutputStream()
+
+        when:
+        packer.pack(taskOutputs, packed)
+        outputDir.file("Stale.class").text = "stale"
+        packer.unpack(taskOutputs, new ByteArrayInputStream(packed.toByteArray()))
+
+        then:
+        outputDir.file("A.class").text == "A"
+        !outputDir.file("Stale.class").exists()
+    }
+
+    def "does not restore outputs that did not exist"() {
+        def missing = tmpDir.file("missing")
+        _ * outputFiles.files >> ([missing] as LinkedHashSet)
+        def packed = new ByteArrayOutputStream()
+
+        when:
+        packer.pack(taskOutputs, packed)
+        missing.text = "created later"
+        packer.unpack(taskOutputs, new ByteArrayInputStream(packed.toByteArray()))
+
+        then:
+        !missing.exists()
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.execution
+
+import org.gradle.api.internal.TaskInternal
+import org.gradle.api.internal.TaskOutputsInternal
+import org.gradle.api.internal.changedetection.TaskArtifactState
+import org.gradle.api.internal.tasks.TaskExecuter
+import org.gradle.api.internal.tasks.TaskExecutionContext
+import org.gradle.api.internal.tasks.TaskStateInternal
+import org.gradle.api.internal.tasks.cache.TaskCacheKey
+import org.gradle.api.internal.tasks.cache.TaskOutputCache
+import org.gradle.api.internal.tasks.cache.TaskOutputCacheStatistics
+import org.gradle.api.internal.tasks.cache.TaskOutputOverlapDetector
+import org.gradle.api.internal.tasks.cache.TaskOutputPacker
+import spock.lang.Specification
+
+import static org.gradle.api.internal.tasks.cache.TaskOutputCacheStatistics.Outcome.*
+
+class SkipCachedTaskExecuterTest extends Specification {
+    def delegate = Mock(TaskExecuter)
+    def task = Mock(TaskInternal)
+    def outputs = Mock(TaskOutputsInternal)
+    def taskState = Mock(TaskStateInternal)
+    def taskContext = Mock(TaskExecutionContext)
+    def taskArtifactState = Mock(TaskArtifactState)
+    def taskOutputCache = Mock(TaskOutputCache)
+    def taskOutputPacker = Mock(TaskOutputPacker)
+    def statistics = new TaskOutputCacheStatistics()
+    def cacheKey = Mock(TaskCacheKey)
+    def overlapDetector = Mock(TaskOutputOverlapDetector)
+
+    def executer = new SkipCachedTaskExecuter(taskOutputCache, taskOutputPacker, statistics, overlapDetector, delegate)
+
+    def setup() {
+        _ * task.path >> ":task"
+        _ * task.outputs >> outputs
+        _ * taskContext.taskArtifactState >> taskArtifactState
+        _ * taskOutputCache.description >> "test cache"
+    }
+
+    def "skip task when cached results exist"() {
+        def input = new ByteArrayInputStream(new byte[0])
+
+        when:
+        executer.execute(task, taskState, taskContext)
+
+        then:
+        1 * taskArtifactState.calculateCacheKey() >> cacheKey
+        1 * taskArtifactState.isAllowedToUseCachedResults() >> true
+        1 * taskOutputCache.load(cacheKey, _) >> { key, reader ->
+            reader.readFrom(input)
+            true
+        }
+        1 * taskOutputPacker.unpack(outputs, input)
+        1 * taskState.cached()
+        0 * delegate._
+        0 * taskOutputCache.store(_, _)
+
+        and:
+        statistics.getCount(HIT) == 1
+    }
+
+    def "executes task and stores outputs when no cached result is available"() {
+        def output = new ByteArrayOutputStream()
+
+        when:
+        executer.execute(task, taskState, taskContext)
+
+        then:
+        1 * taskArtifactState.calculateCacheKey() >> cacheKey
+        1 * taskArtifactState.isAllowedToUseCachedResults() >> true
+        1 * taskOutputCache.load(cacheKey, _) >> false
+
+        then:
+        1 * delegate.execute(task, taskState, taskContext)
+        _ * taskState.failure >> null
+
+        then:
+        1 * taskOutputCache.store(cacheKey, _) >> { key, writer ->
+            writer.writeTo(output)
+        }
+        1 * taskOutputPacker.pack(outputs, output)
+        0 * taskState.cached()
+
+        and:
+        statistics.getCount(MISS) == 1
+    }
+
+    def "does not store outputs when task fails"() {
+        when:
+        executer.execute(task, taskState, taskContext)
+
+        then:
+        1 * taskArtifactState.calculateCacheKey() >> cacheKey
+        1 * taskArtifactState.isAllowedToUseCachedResults() >> true
+        1 * taskOutputCache.load(cacheKey, _) >> false
+
+        then:
+        1 * delegate.execute(task, taskState, taskContext)
+        _ * taskState.failure >> new RuntimeException()
+        0 * taskOutputCache.store(_, _)
+    }
+
+    def "does not load from cache when not allowed to use cached results"() {
+        when:
+        executer.execute(task, taskState, taskContext)
+
+        then:
+        1 * taskArtifactState.calculateCacheKey() >> cacheKey
+        1 * taskArtifactState.isAllowedToUseCachedResults() >> false
+        0 * taskOutputCache.load(_, _)
+
+        then:
+        1 * delegate.execute(task, taskState, taskContext)
+        _ * taskState.failure >> null
+
+        then:
+        1 * taskOutputCache.store(cacheKey, _)
+    }
+
+    def "executes task without caching when no cache key can be calculated"() {
+        when:
+        executer.execute(task, taskState, taskContext)
+
+        then:
+        1 * taskArtifactState.calculateCacheKey() >> { throw new RuntimeException("not serializable") }
+        1 * delegate.execute(task, taskState, taskContext)
+        0 * taskOutputCache._
+
+        and:
+        statistics.getCount(NOT_CACHEABLE) == 1
+    }
+
+    def "executes task without caching when its outputs overlap with the outputs of another task"() {
+        when:
+        executer.execute(task, taskState, taskContext)
+
+        then:
+        1 * taskArtifactState.calculateCacheKey() >> cacheKey
+        1 * overlapDetector.hasOverlappingOutputs(task) >> true
+        1 * delegate.execute(task, taskState, taskContext)
+        0 * taskOutputCache._
+        0 * taskOutputPacker._
+
+        and:
+        statistics.getCount(NOT_CACHEABLE) == 1
+    }
+
+    def "executes task when loading from cache fails"() {
+        when:
+        executer.execute(task, taskState, taskContext)
+
+        then:
+        1 * taskArtifactState.calculateCacheKey() >> cacheKey
+        1 * taskArtifactState.isAllowedToUseCachedResults() >> true
+        1 * taskOutputCache.load(cacheKey, _) >> { throw new IOException("corrupt") }
+
+        then:
+        1 * delegate.execute(task, taskState, taskContext)
+        0 * taskState.cached()
+
+        and:
+        statistics.getCount(FAILED) == 1
+    }
+}
@@ -18,6 +18,7 @@ package org.gradle.api.internal.tasks.execution
 
 import org.gradle.api.Action
 import org.gradle.api.Task
+import org.gradle.api.file.FileCollection
 import org.gradle.api.internal.TaskExecutionHistory
 import org.gradle.api.internal.TaskInternal
 import org.gradle.api.internal.TaskOutputsInternal
@@ -32,6 +33,7 @@ import spock.lang.Specification
 public class SkipUpToDateTaskExecuterTest extends Specification {
     def delegate = Mock(TaskExecuter)
     def outputs = Mock(TaskOutputsInternal)
+    def outputFiles = Mock(FileCollection)
     def task = Mock(TaskInternal)
     def taskState = Mock(TaskStateInternal)
     def taskContext = Mock(TaskExecutionContext)
@@ -66,10 +68,12 @@ public class SkipUpToDateTaskExecuterTest extends Specification {
         then:
         1 * taskArtifactState.beforeTask()
         1 * taskArtifactState.getExecutionHistory() >> executionHistory
-        1 * task.outputs >> outputs
+        2 * task.outputs >> outputs
         1 * outputs.setHistory(executionHistory)
         1 * taskContext.setTaskArtifactState(taskArtifactState)
         1 * treeVisitor.clearCache()
+        1 * outputs.files >> outputFiles
+        1 * treeVisitor.outputsWillChange(outputFiles)
 
         then:
         1 * delegate.execute(task, taskState, taskContext)
@@ -95,10 +99,12 @@ public class SkipUpToDateTaskExecuterTest extends Specification {
         then:
         1 * taskArtifactState.beforeTask()
         1 * taskArtifactState.getExecutionHistory() >> executionHistory
-        1 * task.outputs >> outputs
+        2 * task.outputs >> outputs
         1 * outputs.setHistory(executionHistory)
         1 * taskContext.setTaskArtifactState(taskArtifactState)
         1 * treeVisitor.clearCache()
+        1 * outputs.files >> outputFiles
+        1 * treeVisitor.outputsWillChange(outputFiles)
 
         then:
         1 * delegate.execute(task, taskState, taskContext)
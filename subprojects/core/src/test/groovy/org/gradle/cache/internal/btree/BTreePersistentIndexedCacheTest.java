@@ -293,6 +293,40 @@ public class BTreePersistentIndexedCacheTest {
         cache.close();
     }
 
+    @Test
+    public void persistsEntriesWhenMemoryMapped() {
+        cache = new BTreePersistentIndexedCache<String, Integer>(cacheFile, stringSerializer, integerSerializer, true);
+
+        List<Integer> values = new ArrayList<Integer>();
+        for (int i = 0; i < 2000; i++) {
+            values.add(i);
+        }
+        checkAdds(values);
+        cache.remove("key_5");
+        verifyAndCloseCache();
+
+        long length = cacheFile.length();
+        cache = new BTreePersistentIndexedCache<String, Integer>(cacheFile, stringSerializer, integerSerializer, false);
+        assertNull(cache.get("key_5"));
+        assertThat(cache.get("key_1999"), equalTo(1999));
+        verifyAndCloseCache();
+        assertThat(cacheFile.length(), equalTo(length));
+
+        cache = new BTreePersistentIndexedCache<String, Integer>(cacheFile, stringSerializer, integerSerializer, true);
+        checkAdds(2000, 2001);
+        assertThat(cache.get("key_0"), equalTo(0));
+        verifyAndCloseCache();
+    }
+
+    @Test
+    public void doesNotGrowSmallMemoryMappedCachesAhead() {
+        cache = new BTreePersistentIndexedCache<String, Integer>(cacheFile, stringSerializer, integerSerializer, true);
+
+        checkAdds(1, 2, 3);
+        assertThat(cacheFile.length(), lessThan(4096L));
+        verifyAndCloseCache();
+    }
+
     private void checkAdds(Integer... values) {
         checkAdds(Arrays.asList(values));
     }
@@ -21,6 +21,7 @@ import org.gradle.api.Project
 import org.gradle.api.Task
 import org.gradle.api.internal.project.DefaultProject
 import org.gradle.api.tasks.Delete
+import org.gradle.api.tasks.NonParallelizableTask
 import org.gradle.api.tasks.OutputDirectory
 import org.gradle.api.tasks.OutputFile
 import org.gradle.api.tasks.ParallelizableTask
@@ -348,4 +349,78 @@ class DefaultTaskExecutionPlanParallelTaskHandlingTest extends Specification {
         then:
         noMoreTasksCurrentlyAvailableForExecution()
     }
+
+    static class WithOutputFile extends DefaultTask {
+        @OutputFile
+        File outputFile
+    }
+
+    @NonParallelizableTask
+    static class NonParallelWithOutputFile extends WithOutputFile {}
+
+    static class NonParallelChild extends NonParallelWithOutputFile {}
+
+    Task taskWithOutputFile(String taskName, Class<? extends WithOutputFile> type, File file) {
+        root.task(taskName, type: type) {
+            outputFile = file
+        }
+    }
+
+    def "tasks with distinct outputs are executed in parallel when parallelizing by outputs"() {
+        given:
+        executionPlan = new DefaultTaskExecutionPlan(Stub(BuildCancellationToken), false, true)
+        Task a = taskWithOutputFile("a", WithOutputFile, file("a"))
+        Task b = taskWithOutputFile("b", WithOutputFile, file("b")).doLast {}
+
+        when:
+        addToGraphAndPopulate(a, b)
+
+        then:
+        startTasks(2)
+    }
+
+    def "tasks with overlapping outputs are not executed in parallel when parallelizing by outputs"() {
+        given:
+        executionPlan = new DefaultTaskExecutionPlan(Stub(BuildCancellationToken), false, true)
+        Task a = taskWithOutputDirectory("a", file("outputDir"))
+        Task b = taskWithOutputFile("b", WithOutputFile, file("outputDir").file("output"))
+
+        when:
+        addToGraphAndPopulate(a, b)
+        startTasks(1)
+
+        then:
+        noMoreTasksCurrentlyAvailableForExecution()
+    }
+
+    def "tasks without outputs are not executed in parallel when parallelizing by outputs"() {
+        given:
+        executionPlan = new DefaultTaskExecutionPlan(Stub(BuildCancellationToken), false, true)
+        Task a = taskWithOutputFile("a", WithOutputFile, file("a"))
+        Task b = root.task("b", type: Parallel)
+
+        when:
+        addToGraphAndPopulate(a, b)
+        startTasks(1)
+
+        then:
+        noMoreTasksCurrentlyAvailableForExecution()
+    }
+
+    def "non-parallelizable tasks are not executed in parallel when parallelizing by outputs"() {
+        given:
+        executionPlan = new DefaultTaskExecutionPlan(Stub(BuildCancellationToken), false, true)
+        Task a = taskWithOutputFile("a", WithOutputFile, file("a"))
+        Task b = taskWithOutputFile("b", type, file("b"))
+
+        when:
+        addToGraphAndPopulate(a, b)
+        startTasks(1)
+
+        then:
+        noMoreTasksCurrentlyAvailableForExecution()
+
+        where:
+        type << [NonParallelWithOutputFile, NonParallelChild]
+    }
 }
@@ -760,6 +760,110 @@ public class DefaultTaskExecutionPlanTest extends Specification {
         executes(b)
     }
 
+    def "executes ready tasks on the longest estimated path first"() {
+        given:
+        Task a = task("a")
+        Task b = task("b")
+        Task c = task("c", dependsOn: [b])
+
+        when:
+        addToGraphAndPopulate([a, c])
+        def criticalPath = executionPlan.useEstimatedDurations([(a): 10L, (b): 5L, (c): 20L])
+
+        then:
+        criticalPath == 25
+        executionPlan.tasks == [a, b, c]
+        executedTasks == [b, c, a]
+    }
+
+    def "tasks without an estimate are assumed to take the average estimated time"() {
+        given:
+        Task a = task("a")
+        Task b = task("b")
+        Task c = task("c", dependsOn: [b])
+
+        when:
+        addToGraphAndPopulate([a, c])
+        def criticalPath = executionPlan.useEstimatedDurations([(a): 30L, (b): 10L])
+
+        then:
+        criticalPath == 30
+        executedTasks == [a, b, c]
+    }
+
+    def "executes tasks in plan order when there are no estimates"() {
+        given:
+        Task a = task("a")
+        Task b = task("b")
+        Task c = task("c", dependsOn: [b])
+
+        when:
+        addToGraphAndPopulate([a, c])
+        def criticalPath = executionPlan.useEstimatedDurations([:])
+
+        then:
+        criticalPath == 0
+        executedTasks == [a, b, c]
+    }
+
+    def "executes a prioritized task once all of its dependencies are complete"() {
+        given:
+        Task a = task("a")
+        Task b = task("b")
+        Task c = task("c", dependsOn: [a, b])
+        Task d = task("d")
+
+        when:
+        addToGraphAndPopulate([c, d])
+        executionPlan.useEstimatedDurations([(a): 10L, (b): 5L, (c): 20L, (d): 15L])
+
+        then:
+        executedTasks == [a, b, c, d]
+    }
+
+    def "does not attempt to execute prioritized tasks whose dependencies failed to execute"() {
+        RuntimeException failure = new RuntimeException()
+        Task a = task("a", failure: failure)
+        Task b = task("b", dependsOn: [a])
+        Task c = task("c")
+        addToGraphAndPopulate([b, c])
+
+        when:
+        executionPlan.useEstimatedDurations([(a): 10L, (b): 10L, (c): 5L])
+        executionPlan.useFailureHandler(createIgnoreTaskFailureHandler(a))
+
+        then:
+        executedTasks == [a, c]
+
+        when:
+        executionPlan.awaitCompletion()
+
+        then:
+        RuntimeException e = thrown()
+        e == failure
+    }
+
+    def "stops returning prioritized tasks on task failure"() {
+        RuntimeException failure = new RuntimeException("failure")
+        Task a = task("a", failure: failure)
+        Task b = task("b")
+        Task c = task("c", dependsOn: [b])
+        addToGraphAndPopulate([a, c])
+
+        when:
+        executionPlan.useEstimatedDurations([(a): 30L, (b): 10L, (c): 10L])
+
+        then:
+        executedTasks == [a]
+
+        when:
+        executionPlan.awaitCompletion()
+
+        then:
+        RuntimeException e = thrown()
+        e == failure
+    }
+
     def "does not build graph for or execute filtered tasks"() {
         given:
         Task a = filteredTask("a")
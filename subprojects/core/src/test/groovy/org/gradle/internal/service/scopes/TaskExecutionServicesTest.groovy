@@ -18,8 +18,10 @@ package org.gradle.internal.service.scopes
 import org.gradle.StartParameter
 import org.gradle.api.internal.cache.StringInterner
 import org.gradle.api.internal.changedetection.state.InMemoryTaskArtifactCache
+import org.gradle.api.internal.changedetection.state.WatchedDirectoryTreeCache
 import org.gradle.api.internal.file.FileCollectionFactory
 import org.gradle.api.internal.file.FileResolver
+import org.gradle.api.internal.hash.ParallelHasher
 import org.gradle.api.internal.tasks.TaskExecuter
 import org.gradle.api.internal.tasks.execution.ExecuteAtMostOnceTaskExecuter
 import org.gradle.api.invocation.Gradle
@@ -34,10 +36,14 @@ import org.gradle.internal.operations.BuildOperationProcessor
 import org.gradle.internal.operations.DefaultBuildOperationProcessor
 import org.gradle.internal.reflect.Instantiator
 import org.gradle.internal.service.DefaultServiceRegistry
+import org.gradle.internal.service.ServiceCreationException
 import org.gradle.internal.service.ServiceRegistry
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
 import spock.lang.Specification
 
 class TaskExecutionServicesTest extends Specification {
+    @Rule SetSystemProperties systemProperties = new SetSystemProperties()
     final ServiceRegistry parent = Mock()
     final Gradle gradle = Mock()
     final def services = new DefaultServiceRegistry(parent).addProvider(new TaskExecutionServices())
@@ -53,11 +59,13 @@ class TaskExecutionServicesTest extends Specification {
         _ * parent.get(CacheRepository) >> cacheRepository
         _ * parent.get(Instantiator) >> Mock(Instantiator)
         _ * parent.get(InMemoryTaskArtifactCache) >> Mock(InMemoryTaskArtifactCache)
+        _ * parent.get(WatchedDirectoryTreeCache) >> Mock(WatchedDirectoryTreeCache)
         _ * parent.get(StartParameter) >> Mock(StartParameter)
         _ * parent.get(FileResolver) >> Mock(FileResolver)
         _ * parent.get(FileSystem) >> Mock(FileSystem)
         _ * parent.get(FileCollectionFactory) >> Mock(FileCollectionFactory)
         _ * parent.get(StringInterner) >> new StringInterner()
+        _ * parent.get(ExecutorFactory) >> Mock(ExecutorFactory)
         _ * cacheRepository.cache(gradle, 'taskArtifacts') >> cacheBuilder
         _ * cacheBuilder.withDisplayName(!null) >> cacheBuilder
         _ * cacheBuilder.withLockOptions(!null) >> cacheBuilder
@@ -77,4 +85,18 @@ class TaskExecutionServicesTest extends Specification {
         services.get(BuildOperationProcessor) instanceof DefaultBuildOperationProcessor
         services.get(BuildOperationProcessor).is(services.get(BuildOperationProcessor))
     }
+
+    def "fails when the file hashing algorithm is unknown"() {
+        given:
+        System.setProperty("org.gradle.internal.snapshot.hashing.algorithm", "SHA-3")
+        _ * parent.get(StartParameter) >> Mock(StartParameter)
+        _ * parent.get(ExecutorFactory) >> Mock(ExecutorFactory)
+
+        when:
+        services.get(ParallelHasher)
+
+        then:
+        def e = thrown(ServiceCreationException)
+        e.cause.message == "Value 'SHA-3' given for org.gradle.internal.snapshot.hashing.algorithm system property is invalid (must be one of MURMUR3_128, MD5)"
+    }
 }
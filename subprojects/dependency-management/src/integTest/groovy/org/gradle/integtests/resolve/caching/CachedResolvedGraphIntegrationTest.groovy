@@ -0,0 +1,116 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.integtests.resolve.caching
+
+import org.gradle.integtests.fixtures.AbstractHttpDependencyResolutionTest
+
+class CachedResolvedGraphIntegrationTest extends AbstractHttpDependencyResolutionTest {
+
+    def setup() {
+        def repo = mavenHttpRepo("repo")
+        def leaf = repo.module("org", "leaf", "1.0").publish().allowAll()
+        def excluded = repo.module("org", "excluded", "1.0").publish().allowAll()
+        def middle = repo.module("org", "middle", "1.0").dependsOn(leaf).dependsOn(excluded).publish().allowAll()
+        repo.module("org", "leaf", "2.0").publish().allowAll()
+        repo.module("org", "top", "1.0").dependsOn(middle).publish().allowAll()
+        def withSources = repo.module("org", "other", "1.0")
+        withSources.artifact(classifier: "sources")
+        withSources.publish().allowAll()
+
+        buildFile << """
+repositories {
+    maven { url '${repo.uri}' }
+}
+configurations {
+    parent
+    compile.extendsFrom parent
+}
+dependencies {
+    parent 'org:leaf:2.0'
+    compile('org:top:1.0') {
+        exclude module: 'excluded'
+    }
+    compile 'org:other:1.0:sources'
+    compile files('lib.jar')
+}
+task dump << {
+    def result = configurations.compile.incoming.resolutionResult
+    def lines = []
+    result.allComponents.each { component ->
+        lines << "component \${component.id} -> \${component.dependencies.collect { it.requested.toString() + '=' + it.selected.id }.sort()}"
+    }
+    def resolved = configurations.compile.resolvedConfiguration
+    resolved.firstLevelModuleDependencies.each { dependency ->
+        lines << "first-level \${dependency.name} -> \${dependency.children*.name.sort()}"
+        lines << "first-level artifacts \${dependency.name} -> \${dependency.moduleArtifacts*.file*.name.sort()}"
+    }
+    def top = configurations.compile.dependencies.find { it.name == 'top' }
+    lines << "selected by top \${resolved.getFirstLevelModuleDependencies({ it == top } as org.gradle.api.specs.Spec)*.name}"
+    resolved.resolvedArtifacts.each { artifact ->
+        lines << "artifact \${artifact.id.componentIdentifier} \${artifact.name} \${artifact.classifier} \${artifact.file.name}"
+    }
+    configurations.compile.files.each { file ->
+        lines << "file \${file.name}"
+    }
+    file('result.txt').text = lines.sort().join('\\n')
+}
+"""
+    }
+
+    def "restored graph matches a fresh resolve"() {
+        when:
+        executer.withArgument("--debug")
+        run "dump"
+
+        then:
+        !output.contains("Using cached resolved graph for configuration ':compile'")
+
+        when:
+        def fresh = file("result.txt").text
+        executer.withArgument("--debug")
+        run "dump"
+
+        then:
+        output.contains("Using cached resolved graph for configuration ':compile'")
+        file("result.txt").text == fresh
+        fresh.contains("component org:top:1.0 -> [org:middle:1.0=org:middle:1.0]")
+        fresh.contains("component org:middle:1.0 -> [org:leaf:1.0=org:leaf:2.0]")
+        !fresh.contains("excluded")
+        fresh.contains("selected by top [org:top:1.0]")
+        fresh.contains("artifact org:other:1.0 other sources other-1.0-sources.jar")
+        fresh.contains("file lib.jar")
+    }
+
+    def "resolves again when the declared dependencies change"() {
+        given:
+        run "dump"
+
+        when:
+        buildFile << """
+dependencies {
+    compile 'org:excluded:1.0'
+}
+"""
+        executer.withArgument("--debug")
+        run "dump"
+
+        then:
+        !output.contains("Using cached resolved graph for configuration ':compile'")
+        file("result.txt").text.contains("first-level org:excluded:1.0 -> []")
+    }
+}
@@ -18,6 +18,7 @@ package org.gradle.api.internal.artifacts;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphVisitor;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DependencyArtifactsVisitor;
 import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository;
+import org.gradle.internal.resolve.resolver.ArtifactResolver;
 
 import java.util.List;
 
@@ -27,4 +28,11 @@ public interface ArtifactDependencyResolver {
                  GlobalDependencyResolutionRules metadataHandler,
                  DependencyGraphVisitor graphVisitor,
                  DependencyArtifactsVisitor artifactsVisitor);
+
+    /**
+     * Creates a resolver for the artifacts of components that were resolved from the given repositories, without resolving the dependency graph.
+     */
+    ArtifactResolver createArtifactResolver(ResolveContext resolveContext,
+                                            List<? extends ResolutionAwareRepository> repositories,
+                                            GlobalDependencyResolutionRules metadataHandler);
 }
@@ -21,6 +21,7 @@ import org.gradle.api.artifacts.component.ComponentArtifactIdentifier;
 import org.gradle.internal.Factory;
 import org.gradle.internal.component.model.IvyArtifactName;
 
+import javax.annotation.Nullable;
 import java.io.File;
 
 public class DefaultResolvedArtifact implements ResolvedArtifact {
@@ -29,6 +30,7 @@ public class DefaultResolvedArtifact implements ResolvedArtifact {
     private final ComponentArtifactIdentifier artifactId;
     private Factory<File> artifactSource;
     private File file;
+    private RuntimeException failure;
 
     public DefaultResolvedArtifact(ResolvedModuleVersion owner, IvyArtifactName artifact, ComponentArtifactIdentifier artifactId, Factory<File> artifactSource) {
         this.owner = owner;
@@ -85,10 +87,34 @@ public class DefaultResolvedArtifact implements ResolvedArtifact {
         return artifact.getClassifier();
     }
 
+    /**
+     * Returns the source of the file of this artifact, or null when the file has already been resolved or could not be resolved.
+     */
+    @Nullable
+    public Factory<File> getArtifactSource() {
+        return artifactSource;
+    }
+
+    /**
+     * Returns true when the file of this artifact has been resolved successfully.
+     */
+    public boolean isResolved() {
+        return file != null;
+    }
+
     public File getFile() {
         if (file == null) {
-            file = artifactSource.create();
-            artifactSource = null;
+            if (failure != null) {
+                throw failure;
+            }
+            try {
+                file = artifactSource.create();
+            } catch (RuntimeException e) {
+                failure = e;
+                throw e;
+            } finally {
+                artifactSource = null;
+            }
         }
         return file;
     }
@@ -50,4 +50,11 @@ public interface CacheLockingManager extends ArtifactCacheMetaData, CacheAccess
      * @return Metadata store location
      */
     File createMetaDataStore();
+
+    /**
+     * Returns the root directory for the store of cached external resources that are not artifacts, such as Maven meta-data.
+     *
+     * @return Resource store location
+     */
+    File getResourceStoreDirectory();
 }
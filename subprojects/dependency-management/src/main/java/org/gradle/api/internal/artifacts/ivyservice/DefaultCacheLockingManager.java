@@ -81,6 +81,10 @@ public class DefaultCacheLockingManager implements CacheLockingManager, Closeabl
         return new File(createCacheRelativeDir(CacheLayout.META_DATA), "descriptors");
     }
 
+    public File getResourceStoreDirectory() {
+        return new File(createCacheRelativeDir(CacheLayout.META_DATA), "resources");
+    }
+
     private File createCacheRelativeDir(CacheLayout cacheLayout) {
         return cacheLayout.getPath(cache.getBaseDir());
     }
@@ -16,11 +16,18 @@
 
 package org.gradle.api.internal.artifacts.ivyservice;
 
+import org.gradle.api.artifacts.ModuleDependency;
 import org.gradle.api.artifacts.ResolveException;
+import org.gradle.api.artifacts.ResolvedArtifact;
+import org.gradle.api.artifacts.UnresolvedDependency;
+import org.gradle.api.artifacts.component.ComponentArtifactIdentifier;
 import org.gradle.api.artifacts.dsl.RepositoryHandler;
 import org.gradle.api.artifacts.result.ResolvedComponentResult;
 import org.gradle.api.internal.artifacts.*;
 import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.DefaultModuleResolutionFilter;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ArtifactDownloadScheduler;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DefaultArtifactSet;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DefaultResolvedArtifactsBuilder;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DependencyArtifactsVisitor;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ResolvedArtifactResults;
@@ -30,52 +37,105 @@ import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.Composit
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphVisitor;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.oldresult.*;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.projectresult.DefaultResolvedLocalComponentsResultBuilder;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.projectresult.ResolvedLocalComponentsResult;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.projectresult.ResolvedLocalComponentsResultBuilder;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.projectresult.ResolvedLocalComponentsResultGraphVisitor;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ResolutionResultBuilder;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ResolutionResultDependencyGraphVisitor;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.StreamingResolutionResultBuilder;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.CachedResolvedGraph;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolutionResultsStoreFactory;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolvedGraphCache;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolvedGraphRecorder;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.StoreSet;
 import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository;
 import org.gradle.api.internal.cache.BinaryStore;
 import org.gradle.api.internal.cache.Store;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.gradle.internal.Factory;
 import org.gradle.internal.Transformers;
+import org.gradle.internal.component.external.model.DefaultModuleComponentArtifactMetaData;
+import org.gradle.internal.component.external.model.ModuleComponentArtifactIdentifier;
+import org.gradle.internal.component.model.ComponentArtifactMetaData;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.internal.resolve.resolver.ArtifactResolver;
 import org.gradle.util.CollectionUtils;
 
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class DefaultConfigurationResolver implements ConfigurationResolver {
+    private static final Logger LOGGER = Logging.getLogger(DefaultConfigurationResolver.class);
+
     private final ArtifactDependencyResolver resolver;
     private final RepositoryHandler repositories;
     private final GlobalDependencyResolutionRules metadataHandler;
     private final CacheLockingManager cacheLockingManager;
     private final ResolutionResultsStoreFactory storeFactory;
     private final boolean buildProjectDependencies;
+    private final ArtifactDownloadScheduler artifactDownloadScheduler;
+    private final ResolvedGraphCache resolvedGraphCache;
 
     public DefaultConfigurationResolver(ArtifactDependencyResolver resolver, RepositoryHandler repositories,
                                         GlobalDependencyResolutionRules metadataHandler, CacheLockingManager cacheLockingManager,
-                                        ResolutionResultsStoreFactory storeFactory, boolean buildProjectDependencies) {
+                                        ResolutionResultsStoreFactory storeFactory, boolean buildProjectDependencies,
+                                        ArtifactDownloadScheduler artifactDownloadScheduler, ResolvedGraphCache resolvedGraphCache) {
         this.resolver = resolver;
         this.repositories = repositories;
         this.metadataHandler = metadataHandler;
         this.cacheLockingManager = cacheLockingManager;
         this.storeFactory = storeFactory;
         this.buildProjectDependencies = buildProjectDependencies;
+        this.artifactDownloadScheduler = artifactDownloadScheduler;
+        this.resolvedGraphCache = resolvedGraphCache;
     }
 
     public void resolve(ConfigurationInternal configuration, ResolverResults results) throws ResolveException {
         List<ResolutionAwareRepository> resolutionAwareRepositories = CollectionUtils.collect(repositories, Transformers.cast(ResolutionAwareRepository.class));
         StoreSet stores = storeFactory.createStoreSet();
+        DefaultResolverResults defaultResolverResults = (DefaultResolverResults) results;
 
+        HashValue graphKey = resolvedGraphCache.createKey(configuration, resolutionAwareRepositories, metadataHandler);
+        if (graphKey == null) {
+            resolveGraph(configuration, resolutionAwareRepositories, stores, defaultResolverResults, null);
+            return;
+        }
+
+        CachedResolvedGraph cachedGraph = resolvedGraphCache.get(graphKey, configuration.getResolutionStrategy().getCachePolicy());
+        if (cachedGraph != null) {
+            LOGGER.debug("Using cached resolved graph for {}", configuration);
+            restoreGraph(configuration, resolutionAwareRepositories, stores, defaultResolverResults, cachedGraph);
+            return;
+        }
+
+        ResolvedGraphRecorder recorder = resolvedGraphCache.createRecorder(configuration);
+        resolveGraph(configuration, resolutionAwareRepositories, stores, defaultResolverResults, recorder);
+        CachedResolvedGraph resolvedGraph = recorder.complete();
+        if (resolvedGraph != null) {
+            resolvedGraphCache.store(graphKey, resolvedGraph);
+        }
+    }
+
+    private void resolveGraph(ConfigurationInternal configuration, List<ResolutionAwareRepository> resolutionAwareRepositories, StoreSet stores,
+                              DefaultResolverResults results, @Nullable ResolvedGraphRecorder recorder) {
         BinaryStore oldModelStore = stores.nextBinaryStore();
+        BinaryStore newModelStore = stores.nextBinaryStore();
+        if (recorder != null) {
+            oldModelStore = recorder.recordTransientConfigurationResults(oldModelStore);
+            newModelStore = recorder.recordResolutionResult(newModelStore);
+        }
+
         Store<TransientConfigurationResults> oldModelCache = stores.oldModelCache();
         TransientConfigurationResultsBuilder oldTransientModelBuilder = new TransientConfigurationResultsBuilder(oldModelStore, oldModelCache);
         DefaultResolvedConfigurationBuilder oldModelBuilder = new DefaultResolvedConfigurationBuilder(oldTransientModelBuilder);
         ResolvedConfigurationDependencyGraphVisitor oldModelVisitor = new ResolvedConfigurationDependencyGraphVisitor(oldModelBuilder);
 
-        BinaryStore newModelStore = stores.nextBinaryStore();
         Store<ResolvedComponentResult> newModelCache = stores.newModelCache();
         ResolutionResultBuilder newModelBuilder = new StreamingResolutionResultBuilder(newModelStore, newModelCache);
         DependencyGraphVisitor newModelVisitor = new ResolutionResultDependencyGraphVisitor(newModelBuilder);
@@ -85,16 +145,54 @@ public class DefaultConfigurationResolver implements ConfigurationResolver {
 
         ResolvedArtifactsBuilder artifactsBuilder = new DefaultResolvedArtifactsBuilder();
 
-        DependencyGraphVisitor graphVisitor = new CompositeDependencyGraphVisitor(oldModelVisitor, newModelVisitor, projectModelVisitor);
-        DependencyArtifactsVisitor artifactsVisitor = new CompositeDependencyArtifactsVisitor(oldModelVisitor, artifactsBuilder);
+        DependencyGraphVisitor graphVisitor;
+        DependencyArtifactsVisitor artifactsVisitor;
+        if (recorder != null) {
+            graphVisitor = new CompositeDependencyGraphVisitor(oldModelVisitor, newModelVisitor, projectModelVisitor, recorder);
+            artifactsVisitor = new CompositeDependencyArtifactsVisitor(oldModelVisitor, artifactsBuilder, recorder);
+        } else {
+            graphVisitor = new CompositeDependencyGraphVisitor(oldModelVisitor, newModelVisitor, projectModelVisitor);
+            artifactsVisitor = new CompositeDependencyArtifactsVisitor(oldModelVisitor, artifactsBuilder);
+        }
 
         resolver.resolve(configuration, resolutionAwareRepositories, metadataHandler, graphVisitor, artifactsVisitor);
 
-        DefaultResolverResults defaultResolverResults = (DefaultResolverResults) results;
-        defaultResolverResults.resolved(newModelBuilder.complete(), localComponentsResultBuilder.complete());
+        results.resolved(newModelBuilder.complete(), localComponentsResultBuilder.complete());
 
         ResolvedGraphResults graphResults = oldModelBuilder.complete();
-        defaultResolverResults.retainState(graphResults, artifactsBuilder, oldTransientModelBuilder);
+        results.retainState(graphResults, artifactsBuilder, oldTransientModelBuilder);
+    }
+
+    private void restoreGraph(ConfigurationInternal configuration, List<ResolutionAwareRepository> resolutionAwareRepositories, StoreSet stores,
+                              DefaultResolverResults results, CachedResolvedGraph graph) {
+        TransientConfigurationResultsBuilder oldTransientModelBuilder = new TransientConfigurationResultsBuilder(stores.nextBinaryStore(), stores.oldModelCache());
+        oldTransientModelBuilder.restore(graph.getTransientConfigurationResults());
+        StreamingResolutionResultBuilder newModelBuilder = new StreamingResolutionResultBuilder(stores.nextBinaryStore(), stores.newModelCache());
+
+        // A cached graph contains no local components
+        ResolvedLocalComponentsResult localComponentsResult = new DefaultResolvedLocalComponentsResultBuilder(buildProjectDependencies).complete();
+        results.resolved(newModelBuilder.restore(graph.getResolutionResult()), localComponentsResult);
+
+        List<ModuleDependency> declaredDependencies = ResolvedGraphRecorder.getModuleDependencies(configuration);
+        Map<ResolvedConfigurationIdentifier, ModuleDependency> firstLevelDependencies = new HashMap<ResolvedConfigurationIdentifier, ModuleDependency>();
+        for (Map.Entry<ResolvedConfigurationIdentifier, Integer> entry : graph.getFirstLevelDependencies().entrySet()) {
+            firstLevelDependencies.put(entry.getKey(), declaredDependencies.get(entry.getValue()));
+        }
+        ResolvedGraphResults graphResults = new DefaultResolvedGraphResults(Collections.<UnresolvedDependency>emptySet(), firstLevelDependencies);
+
+        ArtifactResolver artifactResolver = resolver.createArtifactResolver(configuration, resolutionAwareRepositories, metadataHandler);
+        Map<ComponentArtifactIdentifier, ResolvedArtifact> allResolvedArtifacts = new HashMap<ComponentArtifactIdentifier, ResolvedArtifact>();
+        DefaultResolvedArtifactsBuilder artifactsBuilder = new DefaultResolvedArtifactsBuilder();
+        for (CachedResolvedGraph.ArtifactSet artifactSet : graph.getArtifactSets()) {
+            Set<ComponentArtifactMetaData> artifacts = new LinkedHashSet<ComponentArtifactMetaData>(artifactSet.getArtifacts().size());
+            for (ModuleComponentArtifactIdentifier artifact : artifactSet.getArtifacts()) {
+                artifacts.add(new DefaultModuleComponentArtifactMetaData(artifact));
+            }
+            artifactsBuilder.visitArtifacts(null, null, new DefaultArtifactSet(artifactSet.getModuleVersionIdentifier(), artifactSet.getModuleSource(), DefaultModuleResolutionFilter.all(),
+                artifacts, artifactResolver, allResolvedArtifacts, artifactSet.getId()));
+        }
+        artifactsBuilder.finishArtifacts();
+        results.retainState(graphResults, artifactsBuilder, oldTransientModelBuilder);
     }
 
     public void resolveArtifacts(ConfigurationInternal configuration, ResolverResults results) throws ResolveException {
@@ -107,7 +205,7 @@ public class DefaultConfigurationResolver implements ConfigurationResolver {
                 new TransientConfigurationResultsLoader(transientConfigurationResultsBuilder, graphResults, artifactResults);
 
         DefaultLenientConfiguration result = new DefaultLenientConfiguration(
-            configuration, cacheLockingManager, graphResults.getUnresolvedDependencies(), artifactResults, transientConfigurationResultsFactory);
+            configuration, cacheLockingManager, graphResults.getUnresolvedDependencies(), artifactResults, transientConfigurationResultsFactory, artifactDownloadScheduler);
         results.withResolvedConfiguration(new DefaultResolvedConfiguration(result));
     }
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
+import org.gradle.api.Nullable;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the module descriptors read from the persistent meta-data cache in memory for the lifetime of the daemon, so that later builds
+ * do not need to read and decode them again. A descriptor is only reused when the persistent cache entry still refers to the same descriptor hash,
+ * so the persistent cache entry and the cache policy applied to it remain the source of truth.
+ */
+public class CrossBuildModuleDescriptorCache {
+
+    public final static String MAX_SIZE_PROPERTY = "org.gradle.resolution.memorycache.crossbuild.maxsize";
+    private final static int DEFAULT_MAX_SIZE = 2000;
+
+    private final Cache<DescriptorKey, CachedDescriptor> descriptors;
+    private final AtomicInteger hits = new AtomicInteger();
+
+    public CrossBuildModuleDescriptorCache() {
+        this(Integer.getInteger(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE));
+    }
+
+    CrossBuildModuleDescriptorCache(int maxSize) {
+        descriptors = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+    }
+
+    /**
+     * Returns the descriptor for the given component, or null if none is cached for the given descriptor hash.
+     */
+    @Nullable
+    public ModuleDescriptor get(String repositoryId, ModuleComponentIdentifier componentId, BigInteger descriptorHash) {
+        if (isDisabled()) {
+            return null;
+        }
+        CachedDescriptor cached = descriptors.getIfPresent(new DescriptorKey(repositoryId, componentId));
+        if (cached == null || !cached.descriptorHash.equals(descriptorHash)) {
+            return null;
+        }
+        hits.incrementAndGet();
+        return cached.descriptor;
+    }
+
+    public void put(String repositoryId, ModuleComponentIdentifier componentId, BigInteger descriptorHash, ModuleDescriptor descriptor) {
+        if (isDisabled()) {
+            return;
+        }
+        descriptors.put(new DescriptorKey(repositoryId, componentId), new CachedDescriptor(descriptorHash, descriptor));
+    }
+
+    /**
+     * Returns the number of descriptors served from this cache since the last call, and resets the count.
+     */
+    public int resetHitCount() {
+        return hits.getAndSet(0);
+    }
+
+    private static boolean isDisabled() {
+        return "false".equalsIgnoreCase(System.getProperty(InMemoryCachedRepositoryFactory.TOGGLE_PROPERTY));
+    }
+
+    private static class DescriptorKey {
+        private final String repositoryId;
+        private final ModuleComponentIdentifier componentId;
+
+        private DescriptorKey(String repositoryId, ModuleComponentIdentifier componentId) {
+            this.repositoryId = repositoryId;
+            this.componentId = componentId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == null || !(o instanceof DescriptorKey)) {
+                return false;
+            }
+            DescriptorKey other = (DescriptorKey) o;
+            return repositoryId.equals(other.repositoryId) && componentId.equals(other.componentId);
+        }
+
+        @Override
+        public int hashCode() {
+            return repositoryId.hashCode() ^ componentId.hashCode();
+        }
+    }
+
+    private static class CachedDescriptor {
+        private final BigInteger descriptorHash;
+        private final ModuleDescriptor descriptor;
+
+        private CachedDescriptor(BigInteger descriptorHash, ModuleDescriptor descriptor) {
+            this.descriptorHash = descriptorHash;
+            this.descriptor = descriptor;
+        }
+    }
+}
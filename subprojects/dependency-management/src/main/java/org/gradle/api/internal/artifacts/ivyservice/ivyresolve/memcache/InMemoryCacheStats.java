@@ -21,9 +21,10 @@ class InMemoryCacheStats {
     int reposWrapped;
     int metadataServed;
     int artifactsServed;
+    int crossBuildMetadataServed;
     public String toString() {
         return String.format(
-                "Repos cached: %s, cache instances: %s, modules served from cache: %s, artifacts: %s",
-                reposWrapped, cacheInstances, metadataServed, artifactsServed);
+                "Repos cached: %s, cache instances: %s, modules served from cache: %s, artifacts: %s, module descriptors served from previous builds: %s",
+                reposWrapped, cacheInstances, metadataServed, artifactsServed, crossBuildMetadataServed);
     }
 }
@@ -25,7 +25,8 @@ import org.gradle.internal.concurrent.Stoppable;
 import java.util.Map;
 
 /**
- * Caches the dependency metadata (descriptors, artifact files) in memory.
+ * Caches the dependency metadata (descriptors, artifact files) in memory for the duration of a build.
+ * Module descriptors are additionally kept across builds by {@link CrossBuildModuleDescriptorCache}.
  */
 public class InMemoryCachedRepositoryFactory implements Stoppable {
 
@@ -37,6 +38,12 @@ public class InMemoryCachedRepositoryFactory implements Stoppable {
 
     final InMemoryCacheStats stats = new InMemoryCacheStats();
 
+    private final CrossBuildModuleDescriptorCache crossBuildCache;
+
+    public InMemoryCachedRepositoryFactory(CrossBuildModuleDescriptorCache crossBuildCache) {
+        this.crossBuildCache = crossBuildCache;
+    }
+
     public ModuleComponentRepository cached(ModuleComponentRepository input) {
         if ("false".equalsIgnoreCase(System.getProperty(TOGGLE_PROPERTY))) {
             return input;
@@ -57,6 +64,7 @@ public class InMemoryCachedRepositoryFactory implements Stoppable {
 
     public void stop() {
         cachePerRepo.clear();
+        stats.crossBuildMetadataServed = crossBuildCache.resetHitCount();
         LOG.debug("In-memory dependency metadata cache closed. {}", stats);
     }
 }
@@ -30,15 +30,18 @@ import org.gradle.api.internal.component.ArtifactType;
 import org.gradle.internal.component.external.model.DefaultMavenModuleResolveMetaData;
 import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier;
 import org.gradle.internal.resource.local.LocallyAvailableExternalResource;
+import org.gradle.internal.resource.local.LocallyAvailableResource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.SAXException;
 
+import java.io.File;
 import java.io.IOException;
 import java.text.ParseException;
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This based on a copy of org.apache.ivy.plugins.parser.m2.PomModuleDescriptorParser, but now heavily refactored.
@@ -48,6 +51,8 @@ public final class GradlePomModuleDescriptorParser extends AbstractModuleDescrip
     private static final String DEPENDENCY_IMPORT_SCOPE = "import";
     private final VersionSelectorScheme gradleVersionSelectorScheme;
     private final VersionSelectorScheme mavenVersionSelectorScheme;
+    // Parent and imported POMs are shared by many modules, so keep them once parsed. Modules may be parsed concurrently, so only fully resolved POMs are kept
+    private final Map<PomFileKey, PomReader> otherPoms = new ConcurrentHashMap<PomFileKey, PomReader>();
 
     public GradlePomModuleDescriptorParser(VersionSelectorScheme gradleVersionSelectorScheme) {
         this.gradleVersionSelectorScheme = gradleVersionSelectorScheme;
@@ -209,9 +214,46 @@ public final class GradlePomModuleDescriptorParser extends AbstractModuleDescrip
      */
     private PomReader parseOtherPom(DescriptorParseContext parseContext, ModuleComponentIdentifier parentId) throws IOException, SAXException {
         LocallyAvailableExternalResource localResource = parseContext.getMetaDataArtifact(parentId, ArtifactType.MAVEN_POM);
-        PomReader pomReader = new PomReader(localResource);
+        PomFileKey key = new PomFileKey(localResource.getLocalResource());
+        PomReader pomReader = otherPoms.get(key);
+        if (pomReader != null) {
+            return pomReader;
+        }
+        pomReader = new PomReader(localResource);
         GradlePomModuleDescriptorBuilder mdBuilder = new GradlePomModuleDescriptorBuilder(pomReader, gradleVersionSelectorScheme, mavenVersionSelectorScheme);
         doParsePom(parseContext, mdBuilder, pomReader);
+        // Other threads may use the POM once it is published, so resolve the parts that are otherwise resolved lazily
+        pomReader.resolveAll();
+        otherPoms.put(key, pomReader);
         return pomReader;
     }
+
+    private static class PomFileKey {
+        private final File file;
+        private final long lastModified;
+        private final long length;
+
+        PomFileKey(LocallyAvailableResource resource) {
+            this.file = resource.getFile();
+            this.lastModified = resource.getLastModified();
+            this.length = resource.getContentLength();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj == null || obj.getClass() != getClass()) {
+                return false;
+            }
+            PomFileKey other = (PomFileKey) obj;
+            return file.equals(other.file) && lastModified == other.lastModified && length == other.length;
+        }
+
+        @Override
+        public int hashCode() {
+            return file.hashCode() ^ (int) lastModified ^ (int) length;
+        }
+    }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The parts of a POM that are used to build the meta-data of a module, as extracted by {@link PomStreamParser}.
+ * Text values are as declared in the POM, before properties are substituted, and are null for missing elements.
+ * Where the POM declares an element more than once, the first declaration is used.
+ */
+final class PomContent {
+    final String rootElementName;
+    final Coordinates project = new Coordinates();
+    Coordinates parent;
+    Coordinates relocation;
+    String packaging;
+    String url;
+    String description;
+    final List<LicenseContent> licenses = new ArrayList<LicenseContent>();
+    final Map<String, String> properties = new HashMap<String, String>();
+    final List<DependencyContent> dependencies = new ArrayList<DependencyContent>();
+    final List<DependencyContent> dependencyManagement = new ArrayList<DependencyContent>();
+    final List<ProfileContent> profiles = new ArrayList<ProfileContent>();
+
+    PomContent(String rootElementName) {
+        this.rootElementName = rootElementName;
+    }
+
+    static class Coordinates {
+        String groupId;
+        String artifactId;
+        String version;
+    }
+
+    static class LicenseContent {
+        String name;
+        String url;
+    }
+
+    static class DependencyContent extends Coordinates {
+        String scope;
+        String type;
+        String classifier;
+        String optional;
+        final List<Coordinates> exclusions = new ArrayList<Coordinates>();
+    }
+
+    static class ProfileContent {
+        String id;
+        boolean hasActivation;
+        String activeByDefault;
+        String activationPropertyName;
+        final Map<String, String> properties = new HashMap<String, String>();
+        final List<DependencyContent> dependencies = new ArrayList<DependencyContent>();
+        final List<DependencyContent> dependencyManagement = new ArrayList<DependencyContent>();
+    }
+}
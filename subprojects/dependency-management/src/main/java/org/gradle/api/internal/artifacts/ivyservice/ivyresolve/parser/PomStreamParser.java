@@ -0,0 +1,377 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.PomContent.Coordinates;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.PomContent.DependencyContent;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.PomContent.LicenseContent;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.PomContent.ProfileContent;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.PomDomParser.AddDTDFilterInputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLResolver;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a POM in a single pass, keeping only the elements that {@link PomReader} uses and skipping everything else, such as the build section.
+ */
+final class PomStreamParser {
+    private static final String M2_ENTITIES = "m2-entities.ent";
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private PomStreamParser() {}
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        factory.setProperty(XMLInputFactory.IS_VALIDATING, false);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, true);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, true);
+        factory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setXMLResolver(new XMLResolver() {
+            public Object resolveEntity(String publicID, String systemID, String baseURI, String namespace) throws XMLStreamException {
+                if (systemID != null && systemID.endsWith(M2_ENTITIES)) {
+                    return org.apache.ivy.plugins.parser.m2.PomReader.class.getResourceAsStream(M2_ENTITIES);
+                }
+                return null;
+            }
+        });
+        return factory;
+    }
+
+    static PomContent parse(InputStream stream, String systemId) throws IOException, XMLStreamException {
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(systemId, new AddDTDFilterInputStream(stream));
+        try {
+            while (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                // Skip the prolog
+            }
+            PomContent pom = new PomContent(reader.getLocalName());
+            if ("project".equals(pom.rootElementName) || "model".equals(pom.rootElementName)) {
+                readProject(reader, pom);
+            } else {
+                skipElement(reader);
+            }
+            while (reader.hasNext()) {
+                // Check the rest of the document is well-formed
+                reader.next();
+            }
+            return pom;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static void readProject(XMLStreamReader reader, PomContent pom) throws XMLStreamException {
+        boolean seenLicenses = false;
+        boolean seenProperties = false;
+        boolean seenDependencies = false;
+        boolean seenDependencyManagement = false;
+        boolean seenDistributionManagement = false;
+        boolean seenProfiles = false;
+        while (nextChildElement(reader)) {
+            String name = reader.getLocalName();
+            if (readCoordinate(reader, name, pom.project)) {
+                continue;
+            }
+            if ("packaging".equals(name)) {
+                pom.packaging = first(pom.packaging, reader);
+            } else if ("url".equals(name)) {
+                pom.url = first(pom.url, reader);
+            } else if ("description".equals(name)) {
+                pom.description = first(pom.description, reader);
+            } else if ("parent".equals(name) && pom.parent == null) {
+                pom.parent = new Coordinates();
+                readCoordinates(reader, pom.parent);
+            } else if ("licenses".equals(name) && !seenLicenses) {
+                seenLicenses = true;
+                readLicenses(reader, pom.licenses);
+            } else if ("properties".equals(name) && !seenProperties) {
+                seenProperties = true;
+                readProperties(reader, pom.properties);
+            } else if ("dependencies".equals(name) && !seenDependencies) {
+                seenDependencies = true;
+                readDependencies(reader, pom.dependencies);
+            } else if ("dependencyManagement".equals(name) && !seenDependencyManagement) {
+                seenDependencyManagement = true;
+                readDependencyManagement(reader, pom.dependencyManagement);
+            } else if ("distributionManagement".equals(name) && !seenDistributionManagement) {
+                seenDistributionManagement = true;
+                pom.relocation = readRelocation(reader);
+            } else if ("profiles".equals(name) && !seenProfiles) {
+                seenProfiles = true;
+                readProfiles(reader, pom.profiles);
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+
+    private static boolean readCoordinate(XMLStreamReader reader, String name, Coordinates coordinates) throws XMLStreamException {
+        if ("groupId".equals(name)) {
+            coordinates.groupId = first(coordinates.groupId, reader);
+        } else if ("artifactId".equals(name)) {
+            coordinates.artifactId = first(coordinates.artifactId, reader);
+        } else if ("version".equals(name)) {
+            coordinates.version = first(coordinates.version, reader);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private static void readCoordinates(XMLStreamReader reader, Coordinates coordinates) throws XMLStreamException {
+        while (nextChildElement(reader)) {
+            if (!readCoordinate(reader, reader.getLocalName(), coordinates)) {
+                skipElement(reader);
+            }
+        }
+    }
+
+    private static Coordinates readRelocation(XMLStreamReader reader) throws XMLStreamException {
+        Coordinates relocation = null;
+        while (nextChildElement(reader)) {
+            if ("relocation".equals(reader.getLocalName()) && relocation == null) {
+                relocation = new Coordinates();
+                readCoordinates(reader, relocation);
+            } else {
+                skipElement(reader);
+            }
+        }
+        return relocation;
+    }
+
+    private static void readLicenses(XMLStreamReader reader, List<LicenseContent> licenses) throws XMLStreamException {
+        while (nextChildElement(reader)) {
+            if (!"license".equals(reader.getLocalName())) {
+                skipElement(reader);
+                continue;
+            }
+            LicenseContent license = new LicenseContent();
+            while (nextChildElement(reader)) {
+                String name = reader.getLocalName();
+                if ("name".equals(name)) {
+                    license.name = first(license.name, reader);
+                } else if ("url".equals(name)) {
+                    license.url = first(license.url, reader);
+                } else {
+                    skipElement(reader);
+                }
+            }
+            licenses.add(license);
+        }
+    }
+
+    private static void readProperties(XMLStreamReader reader, Map<String, String> properties) throws XMLStreamException {
+        while (nextChildElement(reader)) {
+            String name = reader.getLocalName();
+            properties.put(name, readText(reader));
+        }
+    }
+
+    private static void readDependencyManagement(XMLStreamReader reader, List<DependencyContent> dependencies) throws XMLStreamException {
+        boolean seenDependencies = false;
+        while (nextChildElement(reader)) {
+            if ("dependencies".equals(reader.getLocalName()) && !seenDependencies) {
+                seenDependencies = true;
+                readDependencies(reader, dependencies);
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+
+    private static void readDependencies(XMLStreamReader reader, List<DependencyContent> dependencies) throws XMLStreamException {
+        while (nextChildElement(reader)) {
+            if ("dependency".equals(reader.getLocalName())) {
+                dependencies.add(readDependency(reader));
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+
+    private static DependencyContent readDependency(XMLStreamReader reader) throws XMLStreamException {
+        DependencyContent dependency = new DependencyContent();
+        boolean seenExclusions = false;
+        while (nextChildElement(reader)) {
+            String name = reader.getLocalName();
+            if (readCoordinate(reader, name, dependency)) {
+                continue;
+            }
+            if ("scope".equals(name)) {
+                dependency.scope = first(dependency.scope, reader);
+            } else if ("type".equals(name)) {
+                dependency.type = first(dependency.type, reader);
+            } else if ("classifier".equals(name)) {
+                dependency.classifier = first(dependency.classifier, reader);
+            } else if ("optional".equals(name)) {
+                dependency.optional = first(dependency.optional, reader);
+            } else if ("exclusions".equals(name) && !seenExclusions) {
+                seenExclusions = true;
+                readExclusions(reader, dependency.exclusions);
+            } else {
+                skipElement(reader);
+            }
+        }
+        return dependency;
+    }
+
+    private static void readExclusions(XMLStreamReader reader, List<Coordinates> exclusions) throws XMLStreamException {
+        while (nextChildElement(reader)) {
+            if (!"exclusion".equals(reader.getLocalName())) {
+                skipElement(reader);
+                continue;
+            }
+            Coordinates exclusion = new Coordinates();
+            readCoordinates(reader, exclusion);
+            if (exclusion.groupId != null && exclusion.artifactId != null) {
+                exclusions.add(exclusion);
+            }
+        }
+    }
+
+    private static void readProfiles(XMLStreamReader reader, List<ProfileContent> profiles) throws XMLStreamException {
+        while (nextChildElement(reader)) {
+            if ("profile".equals(reader.getLocalName())) {
+                profiles.add(readProfile(reader));
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+
+    private static ProfileContent readProfile(XMLStreamReader reader) throws XMLStreamException {
+        ProfileContent profile = new ProfileContent();
+        boolean seenProperties = false;
+        boolean seenDependencies = false;
+        boolean seenDependencyManagement = false;
+        while (nextChildElement(reader)) {
+            String name = reader.getLocalName();
+            if ("id".equals(name)) {
+                profile.id = first(profile.id, reader);
+            } else if ("activation".equals(name) && !profile.hasActivation) {
+                profile.hasActivation = true;
+                readActivation(reader, profile);
+            } else if ("properties".equals(name) && !seenProperties) {
+                seenProperties = true;
+                readProperties(reader, profile.properties);
+            } else if ("dependencies".equals(name) && !seenDependencies) {
+                seenDependencies = true;
+                readDependencies(reader, profile.dependencies);
+            } else if ("dependencyManagement".equals(name) && !seenDependencyManagement) {
+                seenDependencyManagement = true;
+                readDependencyManagement(reader, profile.dependencyManagement);
+            } else {
+                skipElement(reader);
+            }
+        }
+        return profile;
+    }
+
+    private static void readActivation(XMLStreamReader reader, ProfileContent profile) throws XMLStreamException {
+        boolean seenProperty = false;
+        while (nextChildElement(reader)) {
+            String name = reader.getLocalName();
+            if ("activeByDefault".equals(name)) {
+                profile.activeByDefault = first(profile.activeByDefault, reader);
+            } else if ("property".equals(name) && !seenProperty) {
+                seenProperty = true;
+                while (nextChildElement(reader)) {
+                    if ("name".equals(reader.getLocalName())) {
+                        profile.activationPropertyName = first(profile.activationPropertyName, reader);
+                    } else {
+                        skipElement(reader);
+                    }
+                }
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+
+    /**
+     * Moves to the start of the next child element of the current element.
+     *
+     * @return false when the end of the current element has been reached instead.
+     */
+    private static boolean nextChildElement(XMLStreamReader reader) throws XMLStreamException {
+        while (true) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            }
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+        }
+    }
+
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static String first(String current, XMLStreamReader reader) throws XMLStreamException {
+        if (current != null) {
+            skipElement(reader);
+            return current;
+        }
+        return readText(reader);
+    }
+
+    /**
+     * Reads the text directly contained by the current element, ignoring the content of any child elements, and moves to the end of the element.
+     */
+    private static String readText(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if (depth == 1) {
+                        text.append(reader.getText());
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return text.toString();
+    }
+}
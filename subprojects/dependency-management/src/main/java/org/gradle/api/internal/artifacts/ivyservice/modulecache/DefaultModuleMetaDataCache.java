@@ -20,6 +20,7 @@ import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
 import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
 import org.gradle.api.internal.artifacts.ivyservice.IvyXmlModuleDescriptorWriter;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleComponentRepository;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache.CrossBuildModuleDescriptorCache;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.IvyXmlModuleDescriptorParser;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.ResolverStrategy;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ComponentIdentifierSerializer;
@@ -35,20 +36,27 @@ import org.gradle.util.BuildCommencedTimeProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.math.BigInteger;
+
 public class DefaultModuleMetaDataCache implements ModuleMetaDataCache {
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultModuleMetaDataCache.class);
 
     private final BuildCommencedTimeProvider timeProvider;
     private final CacheLockingManager cacheLockingManager;
+    private final CrossBuildModuleDescriptorCache crossBuildDescriptorCache;
 
     private final ModuleDescriptorStore moduleDescriptorStore;
+    private final ModuleDescriptorSerializer moduleDescriptorSerializer;
     private PersistentIndexedCache<RevisionKey, ModuleDescriptorCacheEntry> cache;
+    private PersistentIndexedCache<RevisionKey, BinaryModuleDescriptor> descriptorCache;
 
-    public DefaultModuleMetaDataCache(BuildCommencedTimeProvider timeProvider, CacheLockingManager cacheLockingManager, ResolverStrategy resolverStrategy) {
+    public DefaultModuleMetaDataCache(BuildCommencedTimeProvider timeProvider, CacheLockingManager cacheLockingManager, ResolverStrategy resolverStrategy, CrossBuildModuleDescriptorCache crossBuildDescriptorCache) {
         this.timeProvider = timeProvider;
         this.cacheLockingManager = cacheLockingManager;
+        this.crossBuildDescriptorCache = crossBuildDescriptorCache;
 
         moduleDescriptorStore = new ModuleDescriptorStore(new PathKeyFileStore(cacheLockingManager.createMetaDataStore()), new IvyXmlModuleDescriptorWriter(), new IvyXmlModuleDescriptorParser(resolverStrategy));
+        moduleDescriptorSerializer = new ModuleDescriptorSerializer(resolverStrategy);
     }
 
     private PersistentIndexedCache<RevisionKey, ModuleDescriptorCacheEntry> getCache() {
@@ -62,6 +70,13 @@ public class DefaultModuleMetaDataCache implements ModuleMetaDataCache {
         return cacheLockingManager.createCache("module-metadata", new RevisionKeySerializer(), new ModuleDescriptorCacheEntrySerializer());
     }
 
+    private PersistentIndexedCache<RevisionKey, BinaryModuleDescriptor> getDescriptorCache() {
+        if (descriptorCache == null) {
+            descriptorCache = cacheLockingManager.createCache("module-descriptors", new RevisionKeySerializer(), new BinaryModuleDescriptorSerializer(moduleDescriptorSerializer));
+        }
+        return descriptorCache;
+    }
+
     public CachedMetaData getCachedModuleDescriptor(ModuleComponentRepository repository, ModuleComponentIdentifier componentId) {
         ModuleDescriptorCacheEntry entry = getCache().get(createKey(repository, componentId));
         if (entry == null) {
@@ -70,7 +85,7 @@ public class DefaultModuleMetaDataCache implements ModuleMetaDataCache {
         if (entry.isMissing()) {
             return new DefaultCachedMetaData(entry, null, timeProvider);
         }
-        ModuleDescriptor descriptor = moduleDescriptorStore.getModuleDescriptor(repository, componentId);
+        ModuleDescriptor descriptor = getModuleDescriptor(repository, componentId, entry.moduleDescriptorHash);
         if (descriptor == null) {
             // Descriptor file has been deleted - ignore the entry
             return null;
@@ -78,6 +93,28 @@ public class DefaultModuleMetaDataCache implements ModuleMetaDataCache {
         return new DefaultCachedMetaData(entry, entry.createMetaData(componentId, descriptor), timeProvider);
     }
 
+    private ModuleDescriptor getModuleDescriptor(ModuleComponentRepository repository, ModuleComponentIdentifier componentId, BigInteger descriptorHash) {
+        // A previous build in this process may already have decoded the descriptor that the entry refers to
+        ModuleDescriptor descriptor = crossBuildDescriptorCache.get(repository.getId(), componentId, descriptorHash);
+        if (descriptor != null) {
+            return descriptor;
+        }
+        RevisionKey key = createKey(repository, componentId);
+        // The ivy.xml file is shared with other Gradle versions, so only use the binary descriptor when it was written from the same file
+        BinaryModuleDescriptor binaryDescriptor = getDescriptorCache().get(key);
+        if (binaryDescriptor != null && binaryDescriptor.descriptorHash.equals(descriptorHash)) {
+            descriptor = binaryDescriptor.descriptor;
+        } else {
+            descriptor = moduleDescriptorStore.getModuleDescriptor(repository, componentId);
+            if (descriptor == null) {
+                return null;
+            }
+            getDescriptorCache().put(key, new BinaryModuleDescriptor(descriptorHash, descriptor));
+        }
+        crossBuildDescriptorCache.put(repository.getId(), componentId, descriptorHash, descriptor);
+        return descriptor;
+    }
+
     public CachedMetaData cacheMissing(ModuleComponentRepository repository, ModuleComponentIdentifier id) {
         LOGGER.debug("Recording absence of module descriptor in cache: {} [changing = {}]", id, false);
         ModuleDescriptorCacheEntry entry = ModuleDescriptorCacheEntry.forMissingModule(timeProvider.getCurrentTime());
@@ -90,7 +127,10 @@ public class DefaultModuleMetaDataCache implements ModuleMetaDataCache {
         LOGGER.debug("Recording module descriptor in cache: {} [changing = {}]", moduleDescriptor.getModuleRevisionId(), metaData.isChanging());
         LocallyAvailableResource resource = moduleDescriptorStore.putModuleDescriptor(repository, metaData.getComponentId(), moduleDescriptor);
         ModuleDescriptorCacheEntry entry = createEntry(metaData, resource.getSha1());
-        getCache().put(createKey(repository, metaData.getComponentId()), entry);
+        RevisionKey key = createKey(repository, metaData.getComponentId());
+        getDescriptorCache().put(key, new BinaryModuleDescriptor(entry.moduleDescriptorHash, moduleDescriptor));
+        getCache().put(key, entry);
+        crossBuildDescriptorCache.put(repository.getId(), metaData.getComponentId(), entry.moduleDescriptorHash, moduleDescriptor);
         return new DefaultCachedMetaData(entry, null, timeProvider);
     }
 
@@ -140,4 +180,32 @@ public class DefaultModuleMetaDataCache implements ModuleMetaDataCache {
             return new RevisionKey(resolverId, identifier);
         }
     }
+
+    private static class BinaryModuleDescriptor {
+        private final BigInteger descriptorHash;
+        private final ModuleDescriptor descriptor;
+
+        private BinaryModuleDescriptor(BigInteger descriptorHash, ModuleDescriptor descriptor) {
+            this.descriptorHash = descriptorHash;
+            this.descriptor = descriptor;
+        }
+    }
+
+    private static class BinaryModuleDescriptorSerializer implements Serializer<BinaryModuleDescriptor> {
+        private final ModuleDescriptorSerializer descriptorSerializer;
+
+        private BinaryModuleDescriptorSerializer(ModuleDescriptorSerializer descriptorSerializer) {
+            this.descriptorSerializer = descriptorSerializer;
+        }
+
+        public void write(Encoder encoder, BinaryModuleDescriptor value) throws Exception {
+            encoder.writeBinary(value.descriptorHash.toByteArray());
+            descriptorSerializer.write(encoder, value.descriptor);
+        }
+
+        public BinaryModuleDescriptor read(Decoder decoder) throws Exception {
+            BigInteger descriptorHash = new BigInteger(decoder.readBinary());
+            return new BinaryModuleDescriptor(descriptorHash, descriptorSerializer.read(decoder));
+        }
+    }
 }
@@ -0,0 +1,468 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache;
+
+import org.apache.ivy.core.module.descriptor.*;
+import org.apache.ivy.core.module.id.ArtifactId;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.plugins.matcher.PatternMatcher;
+import org.apache.ivy.plugins.parser.xml.XmlModuleDescriptorParser;
+import org.gradle.api.internal.artifacts.ivyservice.IvyUtil;
+import org.gradle.api.internal.artifacts.ivyservice.NamespaceId;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.ResolverStrategy;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.component.external.model.BuildableIvyModuleResolveMetaData;
+import org.gradle.internal.component.model.DefaultIvyArtifactName;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.*;
+
+/**
+ * A binary form of the module descriptors held in the meta-data cache, so that a cached descriptor can be loaded without parsing its ivy.xml file.
+ *
+ * <p>Persists the same information as {@link org.gradle.api.internal.artifacts.ivyservice.IvyXmlModuleDescriptorWriter}, and rebuilds the descriptor
+ * the same way that {@link org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.IvyXmlModuleDescriptorParser} does when reading that file.</p>
+ */
+class ModuleDescriptorSerializer implements Serializer<ModuleDescriptor> {
+    private final ResolverStrategy resolverStrategy;
+    private final Field dependencyConfigField;
+
+    public ModuleDescriptorSerializer(ResolverStrategy resolverStrategy) {
+        this.resolverStrategy = resolverStrategy;
+        try {
+            dependencyConfigField = DefaultDependencyDescriptor.class.getDeclaredField("confs");
+        } catch (NoSuchFieldException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        dependencyConfigField.setAccessible(true);
+    }
+
+    public void write(Encoder encoder, ModuleDescriptor md) throws Exception {
+        if (md.getInheritedDescriptors().length != 0) {
+            throw new UnsupportedOperationException("Extends descriptors not supported.");
+        }
+        writeStringMap(encoder, md.getExtraAttributesNamespaces());
+        writeInfo(encoder, md);
+        writeConfigurations(encoder, md);
+        writeArtifacts(encoder, md);
+        writeDependencies(encoder, md);
+        writeExcludeRules(encoder, md.getAllExcludeRules());
+    }
+
+    public ModuleDescriptor read(Decoder decoder) throws Exception {
+        DefaultModuleDescriptor md = new DefaultModuleDescriptor(XmlModuleDescriptorParser.getInstance(), null);
+        Map<String, String> namespaces = readStringMap(decoder);
+        for (Map.Entry<String, String> entry : namespaces.entrySet()) {
+            md.addExtraAttributeNamespace(entry.getKey(), entry.getValue());
+        }
+        readInfo(decoder, md);
+        readConfigurations(decoder, md);
+        readArtifacts(decoder, md);
+        readDependencies(decoder, md);
+        for (ExcludeRule excludeRule : readExcludeRules(decoder, md)) {
+            md.addExcludeRule(excludeRule);
+        }
+        md.check();
+        return md;
+    }
+
+    private void writeInfo(Encoder encoder, ModuleDescriptor md) throws IOException {
+        ModuleRevisionId moduleRevisionId = md.getModuleRevisionId();
+        ModuleRevisionId resolvedModuleRevisionId = md.getResolvedModuleRevisionId();
+        encoder.writeNullableString(moduleRevisionId.getOrganisation());
+        encoder.writeNullableString(moduleRevisionId.getName());
+        encoder.writeNullableString(resolvedModuleRevisionId.getBranch());
+        encoder.writeNullableString(resolvedModuleRevisionId.getRevision());
+        writeStringMap(encoder, md.getQualifiedExtraAttributes());
+        encoder.writeNullableString(md.getStatus());
+        Date publicationDate = md.getResolvedPublicationDate();
+        encoder.writeBoolean(publicationDate != null);
+        if (publicationDate != null) {
+            // The ivy.xml format only retains the publication date to the second
+            encoder.writeLong(publicationDate.getTime() / 1000 * 1000);
+        }
+        encoder.writeBoolean(md.isDefault());
+
+        License[] licenses = md.getLicenses();
+        encoder.writeSmallInt(licenses.length);
+        for (License license : licenses) {
+            encoder.writeNullableString(license.getName());
+            encoder.writeNullableString(license.getUrl());
+        }
+
+        encoder.writeNullableString(md.getHomePage());
+        String description = md.getDescription();
+        if (description == null && md.getHomePage() == null) {
+            encoder.writeNullableString(null);
+        } else {
+            encoder.writeNullableString(description == null ? "" : description.trim());
+        }
+
+        List<Map.Entry<?, ?>> extraInfo = new ArrayList<Map.Entry<?, ?>>();
+        for (Object entry : md.getExtraInfo().entrySet()) {
+            Map.Entry<?, ?> extraDescr = (Map.Entry<?, ?>) entry;
+            if (extraDescr.getValue() != null && extraDescr.getValue().toString().length() > 0) {
+                extraInfo.add(extraDescr);
+            }
+        }
+        encoder.writeSmallInt(extraInfo.size());
+        for (Map.Entry<?, ?> extraDescr : extraInfo) {
+            if (extraDescr.getKey() instanceof NamespaceId) {
+                NamespaceId id = (NamespaceId) extraDescr.getKey();
+                encoder.writeString(id.getNamespace());
+                encoder.writeString(id.getName());
+            } else {
+                encoder.writeString("");
+                encoder.writeString(extraDescr.getKey().toString());
+            }
+            encoder.writeString(extraDescr.getValue().toString());
+        }
+    }
+
+    private void readInfo(Decoder decoder, DefaultModuleDescriptor md) throws IOException {
+        String org = decoder.readNullableString();
+        String module = decoder.readNullableString();
+        String branch = decoder.readNullableString();
+        String revision = decoder.readNullableString();
+        Map<String, String> extraAttributes = readStringMap(decoder);
+        md.setModuleRevisionId(IvyUtil.createModuleRevisionId(org, module, branch, revision, extraAttributes));
+        String status = decoder.readNullableString();
+        md.setStatus(status == null ? "integration" : status);
+        if (decoder.readBoolean()) {
+            md.setPublicationDate(new Date(decoder.readLong()));
+        }
+        md.setDefault(decoder.readBoolean());
+
+        int licenseCount = decoder.readSmallInt();
+        for (int i = 0; i < licenseCount; i++) {
+            md.addLicense(new License(decoder.readNullableString(), decoder.readNullableString()));
+        }
+
+        String homePage = decoder.readNullableString();
+        if (homePage != null) {
+            md.setHomePage(homePage);
+        }
+        String description = decoder.readNullableString();
+        if (description != null) {
+            md.setDescription(description);
+        }
+
+        int extraInfoCount = decoder.readSmallInt();
+        for (int i = 0; i < extraInfoCount; i++) {
+            NamespaceId id = new NamespaceId(decoder.readString(), decoder.readString());
+            md.getExtraInfo().put(id, decoder.readString());
+        }
+    }
+
+    private void writeConfigurations(Encoder encoder, ModuleDescriptor md) throws IOException {
+        Configuration[] configurations = md.getConfigurations();
+        encoder.writeSmallInt(configurations.length);
+        for (Configuration conf : configurations) {
+            encoder.writeString(conf.getName());
+            encoder.writeString(conf.getVisibility().toString());
+            encoder.writeNullableString(conf.getDescription());
+            writeStrings(encoder, conf.getExtends());
+            encoder.writeBoolean(conf.isTransitive());
+            encoder.writeNullableString(conf.getDeprecated());
+            writeStringMap(encoder, conf.getQualifiedExtraAttributes());
+        }
+    }
+
+    private void readConfigurations(Decoder decoder, DefaultModuleDescriptor md) throws IOException {
+        int count = decoder.readSmallInt();
+        for (int i = 0; i < count; i++) {
+            String name = decoder.readString();
+            Configuration.Visibility visibility = Configuration.Visibility.getVisibility(decoder.readString());
+            String description = decoder.readNullableString();
+            String[] extendsFrom = readStrings(decoder);
+            boolean transitive = decoder.readBoolean();
+            String deprecated = decoder.readNullableString();
+            Configuration configuration = new Configuration(name, visibility, description, extendsFrom.length == 0 ? null : extendsFrom, transitive, deprecated);
+            for (Map.Entry<String, String> entry : readStringMap(decoder).entrySet()) {
+                configuration.setExtraAttribute(entry.getKey(), entry.getValue());
+            }
+            md.addConfiguration(configuration);
+        }
+        if (count == 0) {
+            md.addConfiguration(new Configuration("default"));
+        }
+        for (Configuration configuration : md.getConfigurations()) {
+            configuration.replaceWildcards(md);
+        }
+    }
+
+    private void writeArtifacts(Encoder encoder, ModuleDescriptor md) throws IOException {
+        Artifact[] artifacts = md.getAllArtifacts();
+        encoder.writeSmallInt(artifacts.length);
+        for (Artifact artifact : artifacts) {
+            encoder.writeString(artifact.getName());
+            encoder.writeString(artifact.getType());
+            encoder.writeNullableString(artifact.getExt());
+            writeStrings(encoder, artifact.getConfigurations());
+            writeStringMap(encoder, artifact.getQualifiedExtraAttributes());
+        }
+    }
+
+    private void readArtifacts(Decoder decoder, DefaultModuleDescriptor md) throws IOException {
+        BuildableIvyModuleResolveMetaData metaData = new BuildableIvyModuleResolveMetaData(md);
+        int count = decoder.readSmallInt();
+        for (int i = 0; i < count; i++) {
+            String name = decoder.readString();
+            String type = decoder.readString();
+            String ext = decoder.readNullableString();
+            Set<String> confs = new LinkedHashSet<String>(Arrays.asList(readStrings(decoder)));
+            Map<String, String> extraAttributes = readStringMap(decoder);
+            if (confs.isEmpty()) {
+                confs.addAll(Arrays.asList(md.getConfigurationsNames()));
+            }
+            metaData.addArtifact(new DefaultIvyArtifactName(name, type, ext, extraAttributes), confs);
+        }
+    }
+
+    private void writeDependencies(Encoder encoder, ModuleDescriptor md) throws Exception {
+        DependencyDescriptor[] dependencies = md.getDependencies();
+        encoder.writeSmallInt(dependencies.length);
+        for (DependencyDescriptor dep : dependencies) {
+            ModuleRevisionId revisionId = dep.getDependencyRevisionId();
+            ModuleRevisionId dynamicId = dep.getDynamicConstraintDependencyRevisionId();
+            encoder.writeString(revisionId.getOrganisation());
+            encoder.writeString(revisionId.getName());
+            encoder.writeNullableString(revisionId.getBranch());
+            encoder.writeNullableString(revisionId.getRevision());
+            boolean hasConstraint = !dynamicId.equals(revisionId);
+            encoder.writeBoolean(hasConstraint);
+            if (hasConstraint) {
+                encoder.writeNullableString(dynamicId.getBranch());
+                encoder.writeNullableString(dynamicId.getRevision());
+            }
+            encoder.writeBoolean(dep.isForce());
+            encoder.writeBoolean(dep.isChanging());
+            encoder.writeBoolean(dep.isTransitive());
+            writeStringMap(encoder, dep.getQualifiedExtraAttributes());
+            writeConfMapping(encoder, dep);
+
+            DependencyArtifactDescriptor[] artifacts = dep.getAllDependencyArtifacts();
+            encoder.writeSmallInt(artifacts.length);
+            for (DependencyArtifactDescriptor artifact : artifacts) {
+                encoder.writeString(artifact.getName());
+                encoder.writeString(artifact.getType());
+                encoder.writeNullableString(artifact.getExt());
+                writeStrings(encoder, artifact.getConfigurations());
+                writeStringMap(encoder, artifact.getQualifiedExtraAttributes());
+            }
+
+            IncludeRule[] includeRules = dep.getAllIncludeRules();
+            encoder.writeSmallInt(includeRules.length);
+            for (IncludeRule includeRule : includeRules) {
+                ArtifactId id = includeRule.getId();
+                encoder.writeString(id.getName());
+                encoder.writeString(id.getType());
+                encoder.writeNullableString(id.getExt());
+                writeStrings(encoder, includeRule.getConfigurations());
+                encoder.writeString(includeRule.getMatcher().getName());
+            }
+
+            writeExcludeRules(encoder, dep.getAllExcludeRules());
+        }
+    }
+
+    private void readDependencies(Decoder decoder, DefaultModuleDescriptor md) throws IOException {
+        int count = decoder.readSmallInt();
+        for (int i = 0; i < count; i++) {
+            String org = decoder.readString();
+            String name = decoder.readString();
+            String branch = decoder.readNullableString();
+            String rev = decoder.readNullableString();
+            boolean hasConstraint = decoder.readBoolean();
+            String branchConstraint = hasConstraint ? decoder.readNullableString() : null;
+            String revConstraint = hasConstraint ? decoder.readNullableString() : null;
+            boolean force = decoder.readBoolean();
+            boolean changing = decoder.readBoolean();
+            boolean transitive = decoder.readBoolean();
+            Map<String, String> extraAttributes = readStringMap(decoder);
+
+            ModuleRevisionId revId = IvyUtil.createModuleRevisionId(org, name, branch, rev, extraAttributes);
+            ModuleRevisionId dynamicId;
+            if (!hasConstraint) {
+                dynamicId = IvyUtil.createModuleRevisionId(org, name, branch, rev, extraAttributes, false);
+            } else if (branchConstraint == null) {
+                dynamicId = IvyUtil.createModuleRevisionId(org, name, null, revConstraint, extraAttributes, false);
+            } else {
+                dynamicId = IvyUtil.createModuleRevisionId(org, name, branchConstraint, revConstraint, extraAttributes);
+            }
+            DefaultDependencyDescriptor dd = new DefaultDependencyDescriptor(md, revId, dynamicId, force, changing, transitive);
+            md.addDependency(dd);
+            readConfMapping(decoder, dd);
+
+            int artifactCount = decoder.readSmallInt();
+            for (int j = 0; j < artifactCount; j++) {
+                String artifactName = decoder.readString();
+                String type = decoder.readString();
+                String ext = decoder.readNullableString();
+                String[] confs = readStrings(decoder);
+                DefaultDependencyArtifactDescriptor artifact = new DefaultDependencyArtifactDescriptor(dd, artifactName, type, ext, null, readStringMap(decoder));
+                for (String conf : confsOrAll(confs, md)) {
+                    artifact.addConfiguration(conf);
+                    dd.addDependencyArtifact(conf, artifact);
+                }
+            }
+
+            int includeCount = decoder.readSmallInt();
+            for (int j = 0; j < includeCount; j++) {
+                String artifactName = decoder.readString();
+                String type = decoder.readString();
+                String ext = decoder.readNullableString();
+                String[] confs = readStrings(decoder);
+                PatternMatcher matcher = getPatternMatcher(decoder.readString());
+                ArtifactId aid = new ArtifactId(IvyUtil.createModuleId(PatternMatcher.ANY_EXPRESSION, PatternMatcher.ANY_EXPRESSION), artifactName, type, ext);
+                DefaultIncludeRule includeRule = new DefaultIncludeRule(aid, matcher, new HashMap<String, String>());
+                for (String conf : confsOrAll(confs, md)) {
+                    includeRule.addConfiguration(conf);
+                    dd.addIncludeRule(conf, includeRule);
+                }
+            }
+
+            for (ExcludeRule excludeRule : readExcludeRules(decoder, md)) {
+                for (String conf : excludeRule.getConfigurations()) {
+                    dd.addExcludeRule(conf, excludeRule);
+                }
+            }
+        }
+    }
+
+    private void writeConfMapping(Encoder encoder, DependencyDescriptor dep) throws Exception {
+        String[] modConfs = dep.getModuleConfigurations();
+        encoder.writeSmallInt(modConfs.length);
+        for (String modConf : modConfs) {
+            encoder.writeString(modConf);
+            List<String> depConfs;
+            if (dep instanceof DefaultDependencyDescriptor) {
+                // Use the raw mappings, for the same reasons as IvyXmlModuleDescriptorWriter
+                @SuppressWarnings("unchecked")
+                Map<String, List<String>> configMappings = (Map<String, List<String>>) dependencyConfigField.get(dep);
+                depConfs = configMappings.get(modConf);
+            } else {
+                depConfs = Arrays.asList(dep.getDependencyConfigurations(modConfs));
+            }
+            writeStrings(encoder, depConfs.toArray(new String[0]));
+        }
+    }
+
+    private void readConfMapping(Decoder decoder, DefaultDependencyDescriptor dd) throws IOException {
+        int count = decoder.readSmallInt();
+        for (int i = 0; i < count; i++) {
+            String modConf = decoder.readString();
+            String[] depConfs = readStrings(decoder);
+            if (depConfs.length == 0) {
+                dd.addDependencyConfiguration(modConf, modConf);
+            }
+            for (String depConf : depConfs) {
+                dd.addDependencyConfiguration(modConf, depConf);
+            }
+        }
+        if (count == 0) {
+            dd.addDependencyConfiguration("*", "*");
+        }
+    }
+
+    private void writeExcludeRules(Encoder encoder, ExcludeRule[] excludeRules) throws IOException {
+        encoder.writeSmallInt(excludeRules.length);
+        for (ExcludeRule excludeRule : excludeRules) {
+            ArtifactId id = excludeRule.getId();
+            encoder.writeString(id.getModuleId().getOrganisation());
+            encoder.writeString(id.getModuleId().getName());
+            encoder.writeString(id.getName());
+            encoder.writeString(id.getType());
+            encoder.writeNullableString(id.getExt());
+            writeStrings(encoder, excludeRule.getConfigurations());
+            encoder.writeString(excludeRule.getMatcher().getName());
+        }
+    }
+
+    private List<ExcludeRule> readExcludeRules(Decoder decoder, ModuleDescriptor md) throws IOException {
+        int count = decoder.readSmallInt();
+        List<ExcludeRule> excludeRules = new ArrayList<ExcludeRule>(count);
+        for (int i = 0; i < count; i++) {
+            String org = decoder.readString();
+            String module = decoder.readString();
+            String name = decoder.readString();
+            String type = decoder.readString();
+            String ext = decoder.readNullableString();
+            String[] confs = readStrings(decoder);
+            PatternMatcher matcher = getPatternMatcher(decoder.readString());
+            ArtifactId aid = new ArtifactId(IvyUtil.createModuleId(org, module), name, type, ext);
+            DefaultExcludeRule excludeRule = new DefaultExcludeRule(aid, matcher, new HashMap<String, String>());
+            for (String conf : confsOrAll(confs, md)) {
+                excludeRule.addConfiguration(conf);
+            }
+            excludeRules.add(excludeRule);
+        }
+        return excludeRules;
+    }
+
+    private PatternMatcher getPatternMatcher(String matcherName) {
+        PatternMatcher matcher = resolverStrategy.getPatternMatcher(matcherName);
+        if (matcher == null) {
+            throw new IllegalArgumentException("unknown matcher " + matcherName);
+        }
+        return matcher;
+    }
+
+    private static String[] confsOrAll(String[] confs, ModuleDescriptor md) {
+        return confs.length == 0 ? md.getConfigurationsNames() : confs;
+    }
+
+    private static void writeStrings(Encoder encoder, String[] values) throws IOException {
+        encoder.writeSmallInt(values.length);
+        for (String value : values) {
+            encoder.writeString(value);
+        }
+    }
+
+    private static String[] readStrings(Decoder decoder) throws IOException {
+        String[] values = new String[decoder.readSmallInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = decoder.readString();
+        }
+        return values;
+    }
+
+    private static void writeStringMap(Encoder encoder, Map<?, ?> values) throws IOException {
+        if (values == null) {
+            encoder.writeSmallInt(0);
+            return;
+        }
+        encoder.writeSmallInt(values.size());
+        for (Map.Entry<?, ?> entry : values.entrySet()) {
+            encoder.writeString(entry.getKey().toString());
+            encoder.writeString(entry.getValue().toString());
+        }
+    }
+
+    private static Map<String, String> readStringMap(Decoder decoder) throws IOException {
+        int count = decoder.readSmallInt();
+        Map<String, String> values = new LinkedHashMap<String, String>(count);
+        for (int i = 0; i < count; i++) {
+            values.put(decoder.readString(), decoder.readString());
+        }
+        return values;
+    }
+}
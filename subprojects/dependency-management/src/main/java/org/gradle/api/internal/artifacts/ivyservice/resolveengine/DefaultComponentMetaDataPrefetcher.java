@@ -0,0 +1,122 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine;
+
+import org.apache.ivy.Ivy;
+import org.gradle.api.Action;
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
+import org.gradle.api.internal.artifacts.ivyservice.IvyContextManager;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.ComponentMetaDataPrefetcher;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.StoppableExecutor;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Fetches component meta-data using a fixed number of threads. Each request runs with the artifact cache locked, so cache access
+ * remains serialized, while the remote requests of a batch run concurrently as the cache lock is released during remote access.
+ * A request that fails causes the batch to fail, once all of its requests have completed.
+ */
+public class DefaultComponentMetaDataPrefetcher implements ComponentMetaDataPrefetcher, Stoppable {
+    public static final String MAX_CONCURRENT_REQUESTS_PROPERTY = "org.gradle.resolution.prefetch.maxrequests";
+    private static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 4;
+
+    private final CacheLockingManager cacheLockingManager;
+    private final IvyContextManager ivyContextManager;
+    private final ExecutorFactory executorFactory;
+    private final int maxConcurrentRequests;
+    private StoppableExecutor executor;
+
+    public DefaultComponentMetaDataPrefetcher(ExecutorFactory executorFactory, CacheLockingManager cacheLockingManager, IvyContextManager ivyContextManager) {
+        this(executorFactory, cacheLockingManager, ivyContextManager, Integer.getInteger(MAX_CONCURRENT_REQUESTS_PROPERTY, DEFAULT_MAX_CONCURRENT_REQUESTS));
+    }
+
+    DefaultComponentMetaDataPrefetcher(ExecutorFactory executorFactory, CacheLockingManager cacheLockingManager, IvyContextManager ivyContextManager, int maxConcurrentRequests) {
+        this.executorFactory = executorFactory;
+        this.cacheLockingManager = cacheLockingManager;
+        this.ivyContextManager = ivyContextManager;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    @Override
+    public void prefetch(final List<Runnable> requests) {
+        if (requests.size() < 2 || maxConcurrentRequests < 2) {
+            for (Runnable request : requests) {
+                request.run();
+            }
+            return;
+        }
+
+        final CountDownLatch finished = new CountDownLatch(requests.size());
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final StoppableExecutor executor = getExecutor();
+        for (final Runnable request : requests) {
+            executor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        cacheLockingManager.useCache("Prefetch component meta-data", new Runnable() {
+                            public void run() {
+                                ivyContextManager.withIvy(new Action<Ivy>() {
+                                    public void execute(Ivy ivy) {
+                                        request.run();
+                                    }
+                                });
+                            }
+                        });
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    } finally {
+                        finished.countDown();
+                    }
+                }
+            });
+        }
+
+        // Release the cache lock while waiting, so that the requests can use the cache
+        cacheLockingManager.longRunningOperation(String.format("Prefetch meta-data for %d components", requests.size()), new Runnable() {
+            public void run() {
+                try {
+                    finished.await();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+        });
+        if (failure.get() != null) {
+            throw UncheckedException.throwAsUncheckedException(failure.get());
+        }
+    }
+
+    private synchronized StoppableExecutor getExecutor() {
+        if (executor == null) {
+            executor = executorFactory.create("component meta-data prefetch", maxConcurrentRequests);
+        }
+        return executor;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.stop();
+            executor = null;
+        }
+    }
+}
@@ -200,6 +200,8 @@ public abstract class DefaultModuleResolutionFilter implements ModuleResolutionF
     }
 
     private static abstract class CompositeSpec extends DefaultModuleResolutionFilter {
+        private int hashCode;
+
         abstract Collection<DefaultModuleResolutionFilter> getSpecs();
 
         @Override
@@ -235,7 +237,11 @@ public abstract class DefaultModuleResolutionFilter implements ModuleResolutionF
 
         @Override
         public int hashCode() {
-            return getSpecs().hashCode();
+            // The specs do not change once constructed, and composite specs are hashed frequently when they are interned
+            if (hashCode == 0) {
+                hashCode = getSpecs().hashCode();
+            }
+            return hashCode;
         }
 
         /**
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine;
+
+import org.apache.ivy.core.module.descriptor.ExcludeRule;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interns {@link ModuleResolutionFilter} instances and caches the results of combining them, for the duration of a single resolution.
+ *
+ * <p>Many edges in a dependency graph carry the same exclude rules, so the same combinations of filters are calculated over and over again as the graph is
+ * traversed. Interning means that equal filters are represented by the same instance, so that the results of union, intersection and comparison can be
+ * cached by identity, and so that the identity checks in {@link DefaultModuleResolutionFilter} short-circuit most of the remaining work.</p>
+ *
+ * <p>This class is not thread-safe.</p>
+ */
+public class ModuleResolutionFilterCache {
+    private final Map<ModuleResolutionFilter, ModuleResolutionFilter> filters = new HashMap<ModuleResolutionFilter, ModuleResolutionFilter>();
+    private final Map<FilterPair, ModuleResolutionFilter> unions = new HashMap<FilterPair, ModuleResolutionFilter>();
+    private final Map<FilterPair, ModuleResolutionFilter> intersections = new HashMap<FilterPair, ModuleResolutionFilter>();
+    private final Map<FilterPair, Boolean> sameModules = new HashMap<FilterPair, Boolean>();
+
+    /**
+     * Returns a filter that accepts only those module versions that do not match any of the given exclude rules.
+     */
+    public ModuleResolutionFilter excludeAny(ExcludeRule... excludeRules) {
+        return intern(DefaultModuleResolutionFilter.excludeAny(excludeRules));
+    }
+
+    /**
+     * Returns a filter that accepts only those module versions that do not match any of the given exclude rules.
+     */
+    public ModuleResolutionFilter excludeAny(Collection<ExcludeRule> excludeRules) {
+        return intern(DefaultModuleResolutionFilter.excludeAny(excludeRules));
+    }
+
+    /**
+     * Returns the union of the given filters, as per {@link ModuleResolutionFilter#union(ModuleResolutionFilter)}.
+     */
+    public ModuleResolutionFilter union(ModuleResolutionFilter one, ModuleResolutionFilter two) {
+        if (one == two) {
+            return one;
+        }
+        FilterPair key = new FilterPair(intern(one), intern(two));
+        ModuleResolutionFilter union = unions.get(key);
+        if (union == null) {
+            union = intern(key.one.union(key.two));
+            unions.put(key, union);
+        }
+        return union;
+    }
+
+    /**
+     * Returns the intersection of the given filters, as per {@link ModuleResolutionFilter#intersect(ModuleResolutionFilter)}.
+     */
+    public ModuleResolutionFilter intersect(ModuleResolutionFilter one, ModuleResolutionFilter two) {
+        if (one == two) {
+            return one;
+        }
+        FilterPair key = new FilterPair(intern(one), intern(two));
+        ModuleResolutionFilter intersection = intersections.get(key);
+        if (intersection == null) {
+            intersection = intern(key.one.intersect(key.two));
+            intersections.put(key, intersection);
+        }
+        return intersection;
+    }
+
+    /**
+     * Returns true if the given filters accept the same modules, as per {@link ModuleResolutionFilter#acceptsSameModulesAs(ModuleResolutionFilter)}.
+     */
+    public boolean acceptsSameModules(ModuleResolutionFilter one, ModuleResolutionFilter two) {
+        if (one == two) {
+            return true;
+        }
+        FilterPair key = new FilterPair(intern(one), intern(two));
+        if (key.one == key.two) {
+            return true;
+        }
+        Boolean result = sameModules.get(key);
+        if (result == null) {
+            result = key.one.acceptsSameModulesAs(key.two);
+            sameModules.put(key, result);
+        }
+        return result;
+    }
+
+    private ModuleResolutionFilter intern(ModuleResolutionFilter filter) {
+        ModuleResolutionFilter interned = filters.get(filter);
+        if (interned == null) {
+            filters.put(filter, filter);
+            return filter;
+        }
+        return interned;
+    }
+
+    /**
+     * An ordered pair of interned filters, compared by identity.
+     */
+    private static class FilterPair {
+        private final ModuleResolutionFilter one;
+        private final ModuleResolutionFilter two;
+        private final int hashCode;
+
+        private FilterPair(ModuleResolutionFilter one, ModuleResolutionFilter two) {
+            this.one = one;
+            this.two = two;
+            this.hashCode = 31 * System.identityHashCode(one) + System.identityHashCode(two);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof FilterPair)) {
+                return false;
+            }
+            FilterPair other = (FilterPair) obj;
+            return one == other.one && two == other.two;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
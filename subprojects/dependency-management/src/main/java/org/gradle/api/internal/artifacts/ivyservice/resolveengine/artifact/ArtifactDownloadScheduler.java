@@ -0,0 +1,29 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact;
+
+import org.gradle.api.artifacts.ResolvedArtifact;
+
+import java.util.Collection;
+
+public interface ArtifactDownloadScheduler {
+    /**
+     * Resolves the files of those of the given artifacts that have not been resolved yet, possibly concurrently. Blocks until all files have been resolved.
+     * A failure to resolve a file is not reported here, but when the file of the artifact is requested.
+     */
+    void download(Collection<? extends ResolvedArtifact> artifacts);
+}
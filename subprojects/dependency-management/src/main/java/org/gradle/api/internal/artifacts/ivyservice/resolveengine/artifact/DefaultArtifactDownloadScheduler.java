@@ -0,0 +1,173 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact;
+
+import org.gradle.api.artifacts.ResolvedArtifact;
+import org.gradle.api.internal.artifacts.DefaultResolvedArtifact;
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
+import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.internal.util.NumberUtil;
+import org.gradle.util.Clock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Resolves the files of artifacts that come from a repository, running a fixed number of downloads for each repository at a time.
+ * Each download locks the artifact cache only while it uses the cache, as the lock is released while the file is transferred.
+ */
+public class DefaultArtifactDownloadScheduler implements ArtifactDownloadScheduler, Stoppable {
+    public static final String MAX_CONCURRENT_DOWNLOADS_PROPERTY = "org.gradle.resolution.download.maxperrepository";
+    private static final int DEFAULT_MAX_CONCURRENT_DOWNLOADS = 4;
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultArtifactDownloadScheduler.class);
+
+    private final ExecutorFactory executorFactory;
+    private final CacheLockingManager cacheLockingManager;
+    private final int maxConcurrentDownloads;
+    private StoppableExecutor executor;
+
+    public DefaultArtifactDownloadScheduler(ExecutorFactory executorFactory, CacheLockingManager cacheLockingManager) {
+        this(executorFactory, cacheLockingManager, Integer.getInteger(MAX_CONCURRENT_DOWNLOADS_PROPERTY, DEFAULT_MAX_CONCURRENT_DOWNLOADS));
+    }
+
+    DefaultArtifactDownloadScheduler(ExecutorFactory executorFactory, CacheLockingManager cacheLockingManager, int maxConcurrentDownloads) {
+        this.executorFactory = executorFactory;
+        this.cacheLockingManager = cacheLockingManager;
+        this.maxConcurrentDownloads = maxConcurrentDownloads;
+    }
+
+    @Override
+    public void download(Collection<? extends ResolvedArtifact> artifacts) {
+        if (maxConcurrentDownloads < 2) {
+            return;
+        }
+
+        Map<String, Queue<DefaultResolvedArtifact>> artifactsByRepository = new LinkedHashMap<String, Queue<DefaultResolvedArtifact>>();
+        List<DefaultResolvedArtifact> scheduled = new ArrayList<DefaultResolvedArtifact>();
+        for (ResolvedArtifact artifact : new LinkedHashSet<ResolvedArtifact>(artifacts)) {
+            if (!(artifact instanceof DefaultResolvedArtifact)) {
+                continue;
+            }
+            DefaultResolvedArtifact resolvedArtifact = (DefaultResolvedArtifact) artifact;
+            Factory<File> artifactSource = resolvedArtifact.getArtifactSource();
+            if (!(artifactSource instanceof DefaultArtifactSet.LazyArtifactSource)) {
+                continue;
+            }
+            String repositoryId = ((DefaultArtifactSet.LazyArtifactSource) artifactSource).getRepositoryId();
+            if (repositoryId == null) {
+                continue;
+            }
+            Queue<DefaultResolvedArtifact> queue = artifactsByRepository.get(repositoryId);
+            if (queue == null) {
+                queue = new ConcurrentLinkedQueue<DefaultResolvedArtifact>();
+                artifactsByRepository.put(repositoryId, queue);
+            }
+            queue.add(resolvedArtifact);
+            scheduled.add(resolvedArtifact);
+        }
+        if (scheduled.size() < 2) {
+            return;
+        }
+
+        int workerCount = 0;
+        for (Queue<DefaultResolvedArtifact> queue : artifactsByRepository.values()) {
+            workerCount += Math.min(maxConcurrentDownloads, queue.size());
+        }
+        Clock clock = new Clock();
+        final CountDownLatch finished = new CountDownLatch(workerCount);
+        StoppableExecutor executor = getExecutor();
+        for (Queue<DefaultResolvedArtifact> queue : artifactsByRepository.values()) {
+            for (int i = Math.min(maxConcurrentDownloads, queue.size()); i > 0; i--) {
+                executor.execute(new ArtifactDownloader(queue, finished));
+            }
+        }
+
+        // Release the cache lock while waiting, so that the downloads can use the cache
+        cacheLockingManager.longRunningOperation(String.format("Download %d artifacts", scheduled.size()), new Runnable() {
+            public void run() {
+                try {
+                    finished.await();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+        });
+
+        if (LOGGER.isInfoEnabled()) {
+            int resolved = 0;
+            long totalBytes = 0;
+            for (DefaultResolvedArtifact artifact : scheduled) {
+                if (artifact.isResolved()) {
+                    resolved++;
+                    totalBytes += artifact.getFile().length();
+                }
+            }
+            long timeInMs = Math.max(clock.getTimeInMs(), 1);
+            LOGGER.info("Resolved {} of {} artifact files ({}) from {} repositories in {} ({}/s).",
+                resolved, scheduled.size(), NumberUtil.formatBytes(totalBytes), artifactsByRepository.size(), clock.getTime(), NumberUtil.formatBytes(totalBytes * 1000 / timeInMs));
+        }
+    }
+
+    private synchronized StoppableExecutor getExecutor() {
+        if (executor == null) {
+            executor = executorFactory.create("artifact download");
+        }
+        return executor;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.stop();
+            executor = null;
+        }
+    }
+
+    private static class ArtifactDownloader implements Runnable {
+        private final Queue<DefaultResolvedArtifact> queue;
+        private final CountDownLatch finished;
+
+        ArtifactDownloader(Queue<DefaultResolvedArtifact> queue, CountDownLatch finished) {
+            this.queue = queue;
+            this.finished = finished;
+        }
+
+        public void run() {
+            try {
+                DefaultResolvedArtifact artifact;
+                while ((artifact = queue.poll()) != null) {
+                    try {
+                        artifact.getFile();
+                    } catch (RuntimeException e) {
+                        // The artifact keeps the failure and rethrows it when its file is requested
+                        LOGGER.debug("Could not download {}", artifact, e);
+                    }
+                }
+            } finally {
+                finished.countDown();
+            }
+        }
+    }
+}
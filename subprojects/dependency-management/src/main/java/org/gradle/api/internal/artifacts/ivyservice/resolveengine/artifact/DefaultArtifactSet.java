@@ -21,6 +21,7 @@ import org.gradle.api.artifacts.ResolvedArtifact;
 import org.gradle.api.artifacts.component.ComponentArtifactIdentifier;
 import org.gradle.api.internal.artifacts.DefaultResolvedArtifact;
 import org.gradle.api.internal.artifacts.ivyservice.dynamicversions.DefaultResolvedModuleVersion;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.RepositoryChainModuleSource;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.ModuleResolutionFilter;
 import org.gradle.internal.Factory;
 import org.gradle.internal.component.model.ComponentArtifactMetaData;
@@ -29,6 +30,7 @@ import org.gradle.internal.component.model.ModuleSource;
 import org.gradle.internal.resolve.resolver.ArtifactResolver;
 import org.gradle.internal.resolve.result.DefaultBuildableArtifactResolveResult;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.util.LinkedHashSet;
 import java.util.Map;
@@ -58,14 +60,32 @@ public class DefaultArtifactSet implements ArtifactSet {
         return id;
     }
 
-    public Set<ResolvedArtifact> getArtifacts() {
-        Set<ResolvedArtifact> resolvedArtifacts = new LinkedHashSet<ResolvedArtifact>(artifacts.size());
+    public ModuleVersionIdentifier getModuleVersionIdentifier() {
+        return moduleVersionIdentifier;
+    }
+
+    public ModuleSource getModuleSource() {
+        return moduleSource;
+    }
+
+    /**
+     * Returns the meta-data of the artifacts of this set that are accepted by its selector.
+     */
+    public Set<ComponentArtifactMetaData> getSelectedArtifacts() {
+        Set<ComponentArtifactMetaData> selectedArtifacts = new LinkedHashSet<ComponentArtifactMetaData>(artifacts.size());
         for (ComponentArtifactMetaData artifact : artifacts) {
-            IvyArtifactName artifactName = artifact.getName();
-            if (!selector.acceptArtifact(moduleVersionIdentifier.getModule(), artifactName)) {
-                continue;
+            if (selector.acceptArtifact(moduleVersionIdentifier.getModule(), artifact.getName())) {
+                selectedArtifacts.add(artifact);
             }
+        }
+        return selectedArtifacts;
+    }
 
+    public Set<ResolvedArtifact> getArtifacts() {
+        Set<ComponentArtifactMetaData> selectedArtifacts = getSelectedArtifacts();
+        Set<ResolvedArtifact> resolvedArtifacts = new LinkedHashSet<ResolvedArtifact>(selectedArtifacts.size());
+        for (ComponentArtifactMetaData artifact : selectedArtifacts) {
+            IvyArtifactName artifactName = artifact.getName();
             ResolvedArtifact resolvedArtifact = allResolvedArtifacts.get(artifact.getId());
             if (resolvedArtifact == null) {
                 Factory<File> artifactSource = new LazyArtifactSource(artifact, moduleSource, artifactResolver);
@@ -77,7 +97,7 @@ public class DefaultArtifactSet implements ArtifactSet {
         return resolvedArtifacts;
     }
 
-    private static class LazyArtifactSource implements Factory<File> {
+    static class LazyArtifactSource implements Factory<File> {
         private final ArtifactResolver artifactResolver;
         private final ModuleSource moduleSource;
         private final ComponentArtifactMetaData artifact;
@@ -88,6 +108,14 @@ public class DefaultArtifactSet implements ArtifactSet {
             this.moduleSource = moduleSource;
         }
 
+        /**
+         * Returns the id of the repository that the artifact is resolved from, or null for an artifact that does not come from a repository.
+         */
+        @Nullable
+        String getRepositoryId() {
+            return moduleSource instanceof RepositoryChainModuleSource ? ((RepositoryChainModuleSource) moduleSource).getRepositoryId() : null;
+        }
+
         public File create() {
             DefaultBuildableArtifactResolveResult result = new DefaultBuildableArtifactResolveResult();
             artifactResolver.resolveArtifact(artifact, moduleSource, result);
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph;
+
+import java.util.List;
+
+/**
+ * Fetches the meta-data of a batch of components before the dependency graph traversal requires it.
+ */
+public interface ComponentMetaDataPrefetcher {
+    /**
+     * Runs the given meta-data requests, possibly concurrently. Blocks until all requests have completed.
+     * Each request is responsible for recording its own result and failure.
+     */
+    void prefetch(List<Runnable> requests);
+}
@@ -45,6 +45,7 @@ import org.gradle.internal.resolve.result.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.util.*;
 
 public class DependencyGraphBuilder {
@@ -54,15 +55,23 @@ public class DependencyGraphBuilder {
     private final ResolveContextToComponentResolver moduleResolver;
     private final DependencyToComponentIdResolver idResolver;
     private final ComponentMetaDataResolver metaDataResolver;
+    private final ComponentMetaDataPrefetcher metaDataPrefetcher;
 
     public DependencyGraphBuilder(DependencyToComponentIdResolver componentIdResolver, ComponentMetaDataResolver componentMetaDataResolver,
                                   ResolveContextToComponentResolver resolveContextToComponentResolver, DependencyToConfigurationResolver dependencyToConfigurationResolver,
                                   ConflictHandler conflictHandler) {
+        this(componentIdResolver, componentMetaDataResolver, resolveContextToComponentResolver, dependencyToConfigurationResolver, conflictHandler, null);
+    }
+
+    public DependencyGraphBuilder(DependencyToComponentIdResolver componentIdResolver, ComponentMetaDataResolver componentMetaDataResolver,
+                                  ResolveContextToComponentResolver resolveContextToComponentResolver, DependencyToConfigurationResolver dependencyToConfigurationResolver,
+                                  ConflictHandler conflictHandler, @Nullable ComponentMetaDataPrefetcher metaDataPrefetcher) {
         this.idResolver = componentIdResolver;
         this.metaDataResolver = componentMetaDataResolver;
         this.moduleResolver = resolveContextToComponentResolver;
         this.conflictHandler = conflictHandler;
         this.dependencyToConfigurationResolver = dependencyToConfigurationResolver;
+        this.metaDataPrefetcher = metaDataPrefetcher;
     }
 
     public void resolve(ResolveContext resolveContext, DependencyGraphVisitor modelVisitor) {
@@ -93,6 +102,10 @@ public class DependencyGraphBuilder {
                 dependencies.clear();
                 node.visitOutgoingDependencies(dependencies);
 
+                if (metaDataPrefetcher != null) {
+                    prefetchMetaData(resolveState, dependencies);
+                }
+
                 for (DependencyEdge dependency : dependencies) {
                     LOGGER.debug("Visiting dependency {}", dependency);
 
@@ -154,6 +167,35 @@ public class DependencyGraphBuilder {
         }
     }
 
+    /**
+     * Resolves the given dependencies to component ids, then fetches the meta-data of the components that have not been seen before in one batch.
+     * This does not change the graph, and components whose module already has other versions are left to be resolved on demand, as before.
+     */
+    private void prefetchMetaData(ResolveState resolveState, List<DependencyEdge> dependencies) {
+        Map<ModuleIdentifier, ModuleVersionSelectorResolveState> candidates = new LinkedHashMap<ModuleIdentifier, ModuleVersionSelectorResolveState>();
+        for (DependencyEdge dependency : dependencies) {
+            ModuleVersionSelectorResolveState selector = dependency.selector;
+            if (!selector.requiresMetaData()) {
+                continue;
+            }
+            ModuleIdentifier moduleId = selector.idResolveResult.getModuleVersionId().getModule();
+            ModuleResolveState module = resolveState.modules.get(moduleId);
+            if ((module == null || module.versions.isEmpty()) && !candidates.containsKey(moduleId)) {
+                candidates.put(moduleId, selector);
+            }
+        }
+        if (candidates.size() < 2) {
+            return;
+        }
+
+        LOGGER.debug("Prefetching meta-data for {}", candidates.values());
+        List<Runnable> requests = new ArrayList<Runnable>(candidates.size());
+        for (ModuleVersionSelectorResolveState selector : candidates.values()) {
+            requests.add(selector.createPrefetchRequest());
+        }
+        metaDataPrefetcher.prefetch(requests);
+    }
+
     /**
      * Populates the result from the graph traversal state.
      */
@@ -187,8 +229,10 @@ public class DependencyGraphBuilder {
         private final DependencyMetaData dependencyMetaData;
         private final ResolveState resolveState;
         private final ModuleResolutionFilter resolutionFilter;
-        private final Set<ConfigurationNode> targetConfigurations = new LinkedHashSet<ConfigurationNode>();
+        // The target configurations are distinct nodes of a single module version, so a list is sufficient
+        private final List<ConfigurationNode> targetConfigurations = new ArrayList<ConfigurationNode>(1);
         private ModuleVersionResolveState targetModuleRevision;
+        private ModuleResolutionFilter transitiveFilter;
 
         public DependencyEdge(ConfigurationNode from, DependencyMetaData dependencyMetaData, ModuleResolutionFilter resolutionFilter, ResolveState resolveState) {
             this.from = from;
@@ -267,9 +311,13 @@ public class DependencyGraphBuilder {
         }
 
         public ModuleResolutionFilter getSelector() {
-            Set<String> hierarchy = from.metaData.getHierarchy();
-            ModuleResolutionFilter selector = DefaultModuleResolutionFilter.excludeAny(dependencyMetaData.getExcludeRules(hierarchy));
-            return selector.intersect(resolutionFilter);
+            // The excludes of an edge do not change, and the filter is used each time the target configurations are traversed, so calculate it once
+            if (transitiveFilter == null) {
+                Set<String> hierarchy = from.metaData.getHierarchy();
+                ModuleResolutionFilter selector = resolveState.filters.excludeAny(dependencyMetaData.getExcludeRules(hierarchy));
+                transitiveFilter = resolveState.filters.intersect(selector, resolutionFilter);
+            }
+            return transitiveFilter;
         }
 
         public ComponentSelector getRequested() {
@@ -315,8 +363,8 @@ public class DependencyGraphBuilder {
         private final DependencyToComponentIdResolver idResolver;
         private final ComponentMetaDataResolver metaDataResolver;
         private final DependencyToConfigurationResolver dependencyToConfigurationResolver;
-        private final Set<ConfigurationNode> queued = new HashSet<ConfigurationNode>();
-        private final LinkedList<ConfigurationNode> queue = new LinkedList<ConfigurationNode>();
+        private final Deque<ConfigurationNode> queue = new ArrayDeque<ConfigurationNode>();
+        private final ModuleResolutionFilterCache filters = new ModuleResolutionFilterCache();
 
         public ResolveState(ComponentResolveResult rootResult, String rootConfigurationName, DependencyToComponentIdResolver idResolver,
                             ComponentMetaDataResolver metaDataResolver, DependencyToConfigurationResolver dependencyToConfigurationResolver) {
@@ -348,12 +396,15 @@ public class DependencyGraphBuilder {
         }
 
         public ConfigurationNode getConfigurationNode(ModuleVersionResolveState module, String configurationName) {
-            ResolvedConfigurationIdentifier id = new ResolvedConfigurationIdentifier(module.id, configurationName);
-            ConfigurationNode configuration = nodes.get(id);
-            if (configuration == null) {
-                configuration = new ConfigurationNode(id, module, this);
-                nodes.put(id, configuration);
+            // A module version has only a few configurations, so look for an existing node there rather than creating an id to look it up
+            for (ConfigurationNode configuration : module.configurations) {
+                if (configuration.id.getConfiguration().equals(configurationName)) {
+                    return configuration;
+                }
             }
+            ResolvedConfigurationIdentifier id = new ResolvedConfigurationIdentifier(module.id, configurationName);
+            ConfigurationNode configuration = new ConfigurationNode(id, module, this);
+            nodes.put(id, configuration);
             return configuration;
         }
 
@@ -368,12 +419,12 @@ public class DependencyGraphBuilder {
         }
 
         public ConfigurationNode peek() {
-            return queue.isEmpty() ? null : queue.getFirst();
+            return queue.peekFirst();
         }
 
         public ConfigurationNode pop() {
             ConfigurationNode next = queue.removeFirst();
-            queued.remove(next);
+            next.queued = false;
             return next;
         }
 
@@ -383,7 +434,8 @@ public class DependencyGraphBuilder {
         public void onMoreSelected(ConfigurationNode configuration) {
             // Add to the end of the queue, so that we traverse the graph in breadth-wise order to pick up as many conflicts as
             // possible before attempting to resolve them
-            if (queued.add(configuration)) {
+            if (!configuration.queued) {
+                configuration.queued = true;
                 queue.addLast(configuration);
             }
         }
@@ -393,7 +445,8 @@ public class DependencyGraphBuilder {
          */
         public void onFewerSelected(ConfigurationNode configuration) {
             // Add to the front of the queue, to flush out configurations that are no longer required.
-            if (queued.add(configuration)) {
+            if (!configuration.queued) {
+                configuration.queued = true;
                 queue.addFirst(configuration);
             }
         }
@@ -556,8 +609,11 @@ public class DependencyGraphBuilder {
                 return;
             }
 
-            DefaultBuildableComponentResolveResult result = new DefaultBuildableComponentResolveResult();
-            resolver.resolve(idResolveResult.getId(), DefaultComponentOverrideMetadata.forDependency(firstReference.dependencyMetaData), result);
+            DefaultBuildableComponentResolveResult result = firstReference.takePrefetchedResult();
+            if (result == null) {
+                result = new DefaultBuildableComponentResolveResult();
+                resolver.resolve(idResolveResult.getId(), DefaultComponentOverrideMetadata.forDependency(firstReference.dependencyMetaData), result);
+            }
             if (result.getFailure() != null) {
                 failure = result.getFailure();
                 return;
@@ -610,12 +666,15 @@ public class DependencyGraphBuilder {
     static class ConfigurationNode implements DependencyGraphNode {
         public final ModuleVersionResolveState moduleRevision;
         public final Set<DependencyEdge> incomingEdges = new LinkedHashSet<DependencyEdge>();
-        public final Set<DependencyEdge> outgoingEdges = new LinkedHashSet<DependencyEdge>();
+        // Outgoing edges are only ever added or cleared all together, so do not need to be hashed
+        public final List<DependencyEdge> outgoingEdges = new ArrayList<DependencyEdge>();
         public final ResolvedConfigurationIdentifier id;
 
         private final ConfigurationMetaData metaData;
         private final ResolveState resolveState;
         private ModuleResolutionFilter previousTraversal;
+        private ModuleResolutionFilter excludeFilter;
+        private boolean queued;
 
         private ConfigurationNode(ResolvedConfigurationIdentifier id, ModuleVersionResolveState moduleRevision, ResolveState resolveState) {
             this.id = id;
@@ -651,7 +710,7 @@ public class DependencyGraphBuilder {
         }
 
         @Override
-        public Set<DependencyGraphEdge> getOutgoingEdges() {
+        public Collection<DependencyGraphEdge> getOutgoingEdges() {
             return Cast.uncheckedCast(outgoingEdges);
         }
 
@@ -682,14 +741,8 @@ public class DependencyGraphBuilder {
                 return;
             }
 
-            List<DependencyEdge> transitiveIncoming = new ArrayList<DependencyEdge>();
-            for (DependencyEdge edge : incomingEdges) {
-                if (edge.isTransitive()) {
-                    transitiveIncoming.add(edge);
-                }
-            }
-
-            if (transitiveIncoming.isEmpty() && this != resolveState.root) {
+            ModuleResolutionFilter resolutionFilter = getModuleResolutionFilter();
+            if (resolutionFilter == null) {
                 if (previousTraversal != null) {
                     removeOutgoingEdges();
                 }
@@ -701,9 +754,8 @@ public class DependencyGraphBuilder {
                 return;
             }
 
-            ModuleResolutionFilter resolutionFilter = getModuleResolutionFilter(transitiveIncoming);
             if (previousTraversal != null) {
-                if (previousTraversal.acceptsSameModulesAs(resolutionFilter)) {
+                if (resolveState.filters.acceptsSameModules(previousTraversal, resolutionFilter)) {
                     LOGGER.debug("Changed edges for {} selects same versions as previous traversal. ignoring", this);
                     // Don't need to traverse again, but hang on to the new filter as the set of artifact may have changed
                     previousTraversal = resolutionFilter;
@@ -747,19 +799,29 @@ public class DependencyGraphBuilder {
             return moduleRevision.state == ModuleState.Selected;
         }
 
-        private ModuleResolutionFilter getModuleResolutionFilter(List<DependencyEdge> transitiveEdges) {
-            ModuleResolutionFilter resolutionFilter;
-            if (transitiveEdges.isEmpty()) {
-                resolutionFilter = DefaultModuleResolutionFilter.all();
-            } else {
-                resolutionFilter = transitiveEdges.get(0).getSelector();
-                for (int i = 1; i < transitiveEdges.size(); i++) {
-                    DependencyEdge dependencyEdge = transitiveEdges.get(i);
-                    resolutionFilter = resolutionFilter.union(dependencyEdge.getSelector());
+        /**
+         * Calculates the filter for the outgoing edges of this configuration from its transitive incoming edges.
+         *
+         * @return null when this configuration has no transitive incoming edges, and so has no outgoing edges.
+         */
+        @Nullable
+        private ModuleResolutionFilter getModuleResolutionFilter() {
+            ModuleResolutionFilter resolutionFilter = null;
+            for (DependencyEdge edge : incomingEdges) {
+                if (edge.isTransitive()) {
+                    resolutionFilter = resolutionFilter == null ? edge.getSelector() : resolveState.filters.union(resolutionFilter, edge.getSelector());
+                }
+            }
+            if (resolutionFilter == null) {
+                if (this != resolveState.root) {
+                    return null;
                 }
+                resolutionFilter = DefaultModuleResolutionFilter.all();
             }
-            resolutionFilter = resolutionFilter.intersect(DefaultModuleResolutionFilter.excludeAny(metaData.getExcludeRules()));
-            return resolutionFilter;
+            if (excludeFilter == null) {
+                excludeFilter = resolveState.filters.excludeAny(metaData.getExcludeRules());
+            }
+            return resolveState.filters.intersect(resolutionFilter, excludeFilter);
         }
 
         public void removeOutgoingEdges() {
@@ -824,6 +886,7 @@ public class DependencyGraphBuilder {
         ModuleResolveState targetModule;
         ModuleVersionResolveState targetModuleRevision;
         BuildableComponentIdResolveResult idResolveResult;
+        private volatile DefaultBuildableComponentResolveResult prefetchedResult;
 
         private ModuleVersionSelectorResolveState(DependencyMetaData dependencyMetaData, DependencyToComponentIdResolver resolver, ResolveState resolveState) {
             this.dependencyMetaData = dependencyMetaData;
@@ -860,14 +923,7 @@ public class DependencyGraphBuilder {
             if (targetModuleRevision != null) {
                 return targetModuleRevision;
             }
-            if (failure != null) {
-                return null;
-            }
-
-            idResolveResult = new DefaultBuildableComponentIdResolveResult();
-            resolver.resolve(dependencyMetaData, idResolveResult);
-            if (idResolveResult.getFailure() != null) {
-                failure = idResolveResult.getFailure();
+            if (!resolveId()) {
                 return null;
             }
 
@@ -880,10 +936,67 @@ public class DependencyGraphBuilder {
             return targetModuleRevision;
         }
 
+        /**
+         * Resolves this selector to a component id, without attaching it to the graph.
+         *
+         * @return false if there is a failure to resolve this selector.
+         */
+        private boolean resolveId() {
+            if (failure != null) {
+                return false;
+            }
+            if (idResolveResult == null) {
+                idResolveResult = new DefaultBuildableComponentIdResolveResult();
+                resolver.resolve(dependencyMetaData, idResolveResult);
+                if (idResolveResult.getFailure() != null) {
+                    failure = idResolveResult.getFailure();
+                    return false;
+                }
+            }
+            return true;
+        }
+
         public void restart(ModuleVersionResolveState moduleRevision) {
             this.targetModuleRevision = moduleRevision;
             this.targetModule = moduleRevision.module;
         }
+
+        /**
+         * Returns true when this selector has not been attached to the graph yet, and the meta-data of its target component still needs to be resolved.
+         */
+        boolean requiresMetaData() {
+            return targetModuleRevision == null && resolveId() && idResolveResult.getMetaData() == null && prefetchedResult == null;
+        }
+
+        /**
+         * Creates a request that resolves the meta-data of the target component, for use when the target module version is first resolved.
+         * The request may run on another thread, so does not touch any graph state. When the request fails unexpectedly, the meta-data is
+         * resolved again when it is required.
+         */
+        Runnable createPrefetchRequest() {
+            final ComponentIdentifier componentId = idResolveResult.getId();
+            final ComponentOverrideMetadata componentOverrideMetadata = DefaultComponentOverrideMetadata.forDependency(dependencyMetaData);
+            final ComponentMetaDataResolver metaDataResolver = resolveState.metaDataResolver;
+            return new Runnable() {
+                public void run() {
+                    DefaultBuildableComponentResolveResult result = new DefaultBuildableComponentResolveResult();
+                    try {
+                        metaDataResolver.resolve(componentId, componentOverrideMetadata, result);
+                    } catch (RuntimeException e) {
+                        LOGGER.debug("Could not prefetch meta-data for {}", componentId, e);
+                        return;
+                    }
+                    prefetchedResult = result;
+                }
+            };
+        }
+
+        @Nullable
+        DefaultBuildableComponentResolveResult takePrefetchedResult() {
+            DefaultBuildableComponentResolveResult result = prefetchedResult;
+            prefetchedResult = null;
+            return result;
+        }
     }
 
     private static class DirectDependencyForcingResolver implements ModuleConflictResolver {
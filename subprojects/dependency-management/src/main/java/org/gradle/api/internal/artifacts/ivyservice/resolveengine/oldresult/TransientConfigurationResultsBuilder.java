@@ -79,6 +79,19 @@ public class TransientConfigurationResultsBuilder {
         binaryData = binaryStore.done();
     }
 
+    /**
+     * Uses data written by another builder of this type, instead of the data of a graph resolved by this builder.
+     */
+    public void restore(final byte[] data) {
+        binaryStore.write(new BinaryStore.WriteAction() {
+            public void write(Encoder encoder) throws IOException {
+                encoder.writeBytes(data);
+            }
+        });
+        LOG.debug("Restored resolved configuration data in {}.", binaryStore);
+        binaryData = binaryStore.done();
+    }
+
     public void firstLevelDependency(ResolvedConfigurationIdentifier id) {
         writeId(FIRST_LVL, id);
     }
@@ -69,6 +69,19 @@ public class StreamingResolutionResultBuilder implements ResolutionResultBuilder
         return new DefaultResolutionResult(rootSource);
     }
 
+    /**
+     * Completes the result using data written by another builder of this type, for a graph that was resolved without failures.
+     */
+    public ResolutionResult restore(final byte[] data) {
+        store.write(new BinaryStore.WriteAction() {
+            public void write(Encoder encoder) throws IOException {
+                encoder.writeBytes(data);
+            }
+        });
+        RootFactory rootSource = new RootFactory(store.done(), failures, cache);
+        return new DefaultResolutionResult(rootSource);
+    }
+
     public ResolutionResultBuilder start(final ModuleVersionIdentifier root, final ComponentIdentifier componentIdentifier) {
         store.write(new BinaryStore.WriteAction() {
             public void write(Encoder encoder) throws IOException {
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store;
+
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.internal.artifacts.ResolvedConfigurationIdentifier;
+import org.gradle.internal.component.external.model.ModuleComponentArtifactIdentifier;
+import org.gradle.internal.component.model.ModuleSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The results of resolving the dependency graph of a configuration, in a form that can be reused by a later build.
+ */
+public class CachedResolvedGraph {
+    private final long createTimestamp;
+    private final byte[] resolutionResult;
+    private final byte[] transientConfigurationResults;
+    private final Map<ResolvedConfigurationIdentifier, Integer> firstLevelDependencies;
+    private final List<Component> components;
+    private final List<ArtifactSet> artifactSets;
+
+    public CachedResolvedGraph(long createTimestamp, byte[] resolutionResult, byte[] transientConfigurationResults,
+                               Map<ResolvedConfigurationIdentifier, Integer> firstLevelDependencies, List<Component> components, List<ArtifactSet> artifactSets) {
+        this.createTimestamp = createTimestamp;
+        this.resolutionResult = resolutionResult;
+        this.transientConfigurationResults = transientConfigurationResults;
+        this.firstLevelDependencies = firstLevelDependencies;
+        this.components = components;
+        this.artifactSets = artifactSets;
+    }
+
+    public long getCreateTimestamp() {
+        return createTimestamp;
+    }
+
+    /**
+     * The data written by the {@link org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.StreamingResolutionResultBuilder}.
+     */
+    public byte[] getResolutionResult() {
+        return resolutionResult;
+    }
+
+    /**
+     * The data written by the {@link org.gradle.api.internal.artifacts.ivyservice.resolveengine.oldresult.TransientConfigurationResultsBuilder}.
+     */
+    public byte[] getTransientConfigurationResults() {
+        return transientConfigurationResults;
+    }
+
+    /**
+     * Maps each first level node of the graph to the index of its declared dependency in the dependencies of the configuration.
+     */
+    public Map<ResolvedConfigurationIdentifier, Integer> getFirstLevelDependencies() {
+        return firstLevelDependencies;
+    }
+
+    public List<Component> getComponents() {
+        return components;
+    }
+
+    public List<ArtifactSet> getArtifactSets() {
+        return artifactSets;
+    }
+
+    public static class Component {
+        private final ModuleComponentIdentifier id;
+        private final boolean changing;
+        private final boolean dynamic;
+
+        public Component(ModuleComponentIdentifier id, boolean changing, boolean dynamic) {
+            this.id = id;
+            this.changing = changing;
+            this.dynamic = dynamic;
+        }
+
+        public ModuleComponentIdentifier getId() {
+            return id;
+        }
+
+        public boolean isChanging() {
+            return changing;
+        }
+
+        /**
+         * Returns true when the component was selected using a dynamic version.
+         */
+        public boolean isDynamic() {
+            return dynamic;
+        }
+    }
+
+    public static class ArtifactSet {
+        private final long id;
+        private final ModuleVersionIdentifier moduleVersionIdentifier;
+        private final ModuleSource moduleSource;
+        private final Set<ModuleComponentArtifactIdentifier> artifacts;
+
+        public ArtifactSet(long id, ModuleVersionIdentifier moduleVersionIdentifier, ModuleSource moduleSource, Set<ModuleComponentArtifactIdentifier> artifacts) {
+            this.id = id;
+            this.moduleVersionIdentifier = moduleVersionIdentifier;
+            this.moduleSource = moduleSource;
+            this.artifacts = artifacts;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public ModuleVersionIdentifier getModuleVersionIdentifier() {
+            return moduleVersionIdentifier;
+        }
+
+        public ModuleSource getModuleSource() {
+            return moduleSource;
+        }
+
+        public Set<ModuleComponentArtifactIdentifier> getArtifacts() {
+            return artifacts;
+        }
+    }
+}
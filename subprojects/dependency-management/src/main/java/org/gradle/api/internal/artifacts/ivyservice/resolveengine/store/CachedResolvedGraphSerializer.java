@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store;
+
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.internal.artifacts.ModuleVersionIdentifierSerializer;
+import org.gradle.api.internal.artifacts.ResolvedConfigurationIdentifier;
+import org.gradle.api.internal.artifacts.ResolvedConfigurationIdentifierSerializer;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ComponentIdentifierSerializer;
+import org.gradle.api.internal.artifacts.metadata.ModuleVersionArtifactIdentifierSerializer;
+import org.gradle.internal.component.external.model.ModuleComponentArtifactIdentifier;
+import org.gradle.internal.component.model.ModuleSource;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.DefaultSerializer;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class CachedResolvedGraphSerializer implements Serializer<CachedResolvedGraph> {
+    private final ResolvedConfigurationIdentifierSerializer resolvedConfigurationIdentifierSerializer = new ResolvedConfigurationIdentifierSerializer();
+    private final ComponentIdentifierSerializer componentIdentifierSerializer = new ComponentIdentifierSerializer();
+    private final ModuleVersionIdentifierSerializer moduleVersionIdentifierSerializer = new ModuleVersionIdentifierSerializer();
+    private final ModuleVersionArtifactIdentifierSerializer artifactIdentifierSerializer = new ModuleVersionArtifactIdentifierSerializer();
+    private final DefaultSerializer<ModuleSource> moduleSourceSerializer = new DefaultSerializer<ModuleSource>(ModuleSource.class.getClassLoader());
+
+    public void write(Encoder encoder, CachedResolvedGraph value) throws Exception {
+        encoder.writeLong(value.getCreateTimestamp());
+        encoder.writeBinary(value.getResolutionResult());
+        encoder.writeBinary(value.getTransientConfigurationResults());
+
+        Map<ResolvedConfigurationIdentifier, Integer> firstLevelDependencies = value.getFirstLevelDependencies();
+        encoder.writeSmallInt(firstLevelDependencies.size());
+        for (Map.Entry<ResolvedConfigurationIdentifier, Integer> entry : firstLevelDependencies.entrySet()) {
+            resolvedConfigurationIdentifierSerializer.write(encoder, entry.getKey());
+            encoder.writeSmallInt(entry.getValue());
+        }
+
+        List<CachedResolvedGraph.Component> components = value.getComponents();
+        encoder.writeSmallInt(components.size());
+        for (CachedResolvedGraph.Component component : components) {
+            componentIdentifierSerializer.write(encoder, component.getId());
+            encoder.writeBoolean(component.isChanging());
+            encoder.writeBoolean(component.isDynamic());
+        }
+
+        List<CachedResolvedGraph.ArtifactSet> artifactSets = value.getArtifactSets();
+        encoder.writeSmallInt(artifactSets.size());
+        for (CachedResolvedGraph.ArtifactSet artifactSet : artifactSets) {
+            encoder.writeLong(artifactSet.getId());
+            moduleVersionIdentifierSerializer.write(encoder, artifactSet.getModuleVersionIdentifier());
+            moduleSourceSerializer.write(encoder, artifactSet.getModuleSource());
+            encoder.writeSmallInt(artifactSet.getArtifacts().size());
+            for (ModuleComponentArtifactIdentifier artifact : artifactSet.getArtifacts()) {
+                artifactIdentifierSerializer.write(encoder, artifact);
+            }
+        }
+    }
+
+    public CachedResolvedGraph read(Decoder decoder) throws Exception {
+        long createTimestamp = decoder.readLong();
+        byte[] resolutionResult = decoder.readBinary();
+        byte[] transientConfigurationResults = decoder.readBinary();
+
+        int size = decoder.readSmallInt();
+        Map<ResolvedConfigurationIdentifier, Integer> firstLevelDependencies = new LinkedHashMap<ResolvedConfigurationIdentifier, Integer>(size);
+        for (int i = 0; i < size; i++) {
+            ResolvedConfigurationIdentifier id = resolvedConfigurationIdentifierSerializer.read(decoder);
+            firstLevelDependencies.put(id, decoder.readSmallInt());
+        }
+
+        size = decoder.readSmallInt();
+        List<CachedResolvedGraph.Component> components = new ArrayList<CachedResolvedGraph.Component>(size);
+        for (int i = 0; i < size; i++) {
+            ModuleComponentIdentifier id = (ModuleComponentIdentifier) componentIdentifierSerializer.read(decoder);
+            boolean changing = decoder.readBoolean();
+            boolean dynamic = decoder.readBoolean();
+            components.add(new CachedResolvedGraph.Component(id, changing, dynamic));
+        }
+
+        size = decoder.readSmallInt();
+        List<CachedResolvedGraph.ArtifactSet> artifactSets = new ArrayList<CachedResolvedGraph.ArtifactSet>(size);
+        for (int i = 0; i < size; i++) {
+            long id = decoder.readLong();
+            ModuleVersionIdentifier moduleVersionIdentifier = moduleVersionIdentifierSerializer.read(decoder);
+            ModuleSource moduleSource = moduleSourceSerializer.read(decoder);
+            int artifactCount = decoder.readSmallInt();
+            Set<ModuleComponentArtifactIdentifier> artifacts = new LinkedHashSet<ModuleComponentArtifactIdentifier>(artifactCount);
+            for (int j = 0; j < artifactCount; j++) {
+                artifacts.add(artifactIdentifierSerializer.read(decoder));
+            }
+            artifactSets.add(new CachedResolvedGraph.ArtifactSet(id, moduleVersionIdentifier, moduleSource, artifacts));
+        }
+
+        return new CachedResolvedGraph(createTimestamp, resolutionResult, transientConfigurationResults, firstLevelDependencies, components, artifactSets);
+    }
+}
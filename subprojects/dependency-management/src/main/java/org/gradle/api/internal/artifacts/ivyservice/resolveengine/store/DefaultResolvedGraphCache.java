@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store;
+
+import org.gradle.StartParameter;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier;
+import org.gradle.api.internal.artifacts.GlobalDependencyResolutionRules;
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
+import org.gradle.api.internal.artifacts.configurations.dynamicversion.CachePolicy;
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
+import org.gradle.api.internal.artifacts.ivyservice.dynamicversions.DefaultResolvedModuleVersion;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
+import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.internal.Factory;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.internal.serialize.HashValueSerializer;
+import org.gradle.util.BuildCommencedTimeProvider;
+
+import java.util.Collections;
+import java.util.List;
+
+public class DefaultResolvedGraphCache implements ResolvedGraphCache {
+    private static final Logger LOGGER = Logging.getLogger(DefaultResolvedGraphCache.class);
+
+    private final CacheLockingManager cacheLockingManager;
+    private final BuildCommencedTimeProvider timeProvider;
+    private final StartParameter startParameter;
+    private final VersionSelectorScheme versionSelectorScheme;
+    private final ResolvedGraphCacheKeyFactory keyFactory = new ResolvedGraphCacheKeyFactory();
+    private PersistentIndexedCache<HashValue, CachedResolvedGraph> cache;
+
+    public DefaultResolvedGraphCache(CacheLockingManager cacheLockingManager, BuildCommencedTimeProvider timeProvider, StartParameter startParameter, VersionSelectorScheme versionSelectorScheme) {
+        this.cacheLockingManager = cacheLockingManager;
+        this.timeProvider = timeProvider;
+        this.startParameter = startParameter;
+        this.versionSelectorScheme = versionSelectorScheme;
+    }
+
+    private PersistentIndexedCache<HashValue, CachedResolvedGraph> getCache() {
+        if (cache == null) {
+            cache = cacheLockingManager.createCache("resolved-graphs", new HashValueSerializer(), new CachedResolvedGraphSerializer());
+        }
+        return cache;
+    }
+
+    public HashValue createKey(ConfigurationInternal configuration, List<? extends ResolutionAwareRepository> repositories, GlobalDependencyResolutionRules metadataHandler) {
+        return keyFactory.createKey(configuration, repositories, metadataHandler);
+    }
+
+    public CachedResolvedGraph get(final HashValue key, CachePolicy cachePolicy) {
+        if (startParameter.isRefreshDependencies()) {
+            return null;
+        }
+        CachedResolvedGraph graph = cacheLockingManager.useCache("load resolved graph", new Factory<CachedResolvedGraph>() {
+            public CachedResolvedGraph create() {
+                return getCache().get(key);
+            }
+        });
+        if (graph == null || startParameter.isOffline()) {
+            return graph;
+        }
+        return isExpired(graph, cachePolicy) ? null : graph;
+    }
+
+    private boolean isExpired(CachedResolvedGraph graph, CachePolicy cachePolicy) {
+        long age = timeProvider.getCurrentTime() - graph.getCreateTimestamp();
+        for (CachedResolvedGraph.Component component : graph.getComponents()) {
+            ModuleVersionIdentifier id = DefaultModuleVersionIdentifier.newId(component.getId());
+            if (component.isDynamic() && cachePolicy.mustRefreshVersionList(id.getModule(), Collections.singleton(id), age)) {
+                LOGGER.debug("Cached resolved graph has expired: the versions of {} must be listed again.", id.getModule());
+                return true;
+            }
+            DefaultResolvedModuleVersion resolvedModuleVersion = new DefaultResolvedModuleVersion(id);
+            boolean mustRefresh = component.isChanging()
+                ? cachePolicy.mustRefreshChangingModule(component.getId(), resolvedModuleVersion, age)
+                : cachePolicy.mustRefreshModule(component.getId(), resolvedModuleVersion, age);
+            if (mustRefresh) {
+                LOGGER.debug("Cached resolved graph has expired: the meta-data of {} must be resolved again.", id);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public ResolvedGraphRecorder createRecorder(ConfigurationInternal configuration) {
+        return new ResolvedGraphRecorder(configuration.getDisplayName(), ResolvedGraphRecorder.getModuleDependencies(configuration), versionSelectorScheme, timeProvider.getCurrentTime());
+    }
+
+    public void store(final HashValue key, final CachedResolvedGraph graph) {
+        cacheLockingManager.useCache("store resolved graph", new Runnable() {
+            public void run() {
+                getCache().put(key, graph);
+            }
+        });
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store;
+
+import org.gradle.api.internal.cache.BinaryStore;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.gradle.internal.UncheckedException.throwAsUncheckedException;
+
+/**
+ * A {@link BinaryStore} that keeps a copy of the data written to another store, so that the data can be reused by a later build.
+ */
+class RecordingBinaryStore implements BinaryStore {
+    private final BinaryStore delegate;
+    private final ByteArrayOutputStream recording = new ByteArrayOutputStream();
+    private final KryoBackedEncoder encoder = new KryoBackedEncoder(recording);
+
+    RecordingBinaryStore(BinaryStore delegate) {
+        this.delegate = delegate;
+    }
+
+    public void write(WriteAction write) {
+        delegate.write(write);
+        try {
+            write.write(encoder);
+        } catch (Exception e) {
+            throw throwAsUncheckedException(e);
+        }
+    }
+
+    public BinaryData done() {
+        encoder.flush();
+        return delegate.done();
+    }
+
+    byte[] getRecordedData() {
+        return recording.toByteArray();
+    }
+
+    public String toString() {
+        return delegate.toString();
+    }
+}
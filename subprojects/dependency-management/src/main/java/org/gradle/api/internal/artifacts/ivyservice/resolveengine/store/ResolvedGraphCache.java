@@ -0,0 +1,47 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.internal.artifacts.GlobalDependencyResolutionRules;
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
+import org.gradle.api.internal.artifacts.configurations.dynamicversion.CachePolicy;
+import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository;
+import org.gradle.internal.hash.HashValue;
+
+import java.util.List;
+
+/**
+ * A persistent cache of resolved dependency graphs, keyed by the inputs of the resolution.
+ */
+public interface ResolvedGraphCache {
+    /**
+     * Returns the key for the dependency graph of the given configuration, or null when the graph cannot be cached.
+     */
+    @Nullable
+    HashValue createKey(ConfigurationInternal configuration, List<? extends ResolutionAwareRepository> repositories, GlobalDependencyResolutionRules metadataHandler);
+
+    /**
+     * Returns the graph stored with the given key, or null when there is no such graph or when the cache policy requires that the graph is resolved again.
+     */
+    @Nullable
+    CachedResolvedGraph get(HashValue key, CachePolicy cachePolicy);
+
+    ResolvedGraphRecorder createRecorder(ConfigurationInternal configuration);
+
+    void store(HashValue key, CachedResolvedGraph graph);
+}
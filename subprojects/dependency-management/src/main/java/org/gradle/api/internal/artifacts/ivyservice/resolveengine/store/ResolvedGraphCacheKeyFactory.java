@@ -0,0 +1,210 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.gradle.api.Nullable;
+import org.gradle.api.artifacts.ClientModule;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.DependencyArtifact;
+import org.gradle.api.artifacts.ExcludeRule;
+import org.gradle.api.artifacts.ExternalModuleDependency;
+import org.gradle.api.artifacts.ModuleDependency;
+import org.gradle.api.artifacts.ModuleVersionSelector;
+import org.gradle.api.internal.artifacts.GlobalDependencyResolutionRules;
+import org.gradle.api.internal.artifacts.ModuleInternal;
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
+import org.gradle.api.internal.artifacts.repositories.DefaultIvyArtifactRepository;
+import org.gradle.api.internal.artifacts.repositories.DefaultMavenArtifactRepository;
+import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository;
+import org.gradle.api.internal.artifacts.repositories.resolver.PatternBasedResolver;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.util.GradleVersion;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Calculates a key from everything that is used to resolve the dependency graph of a configuration.
+ * Configurations whose graph depends on something that cannot be hashed, such as a rule or a project dependency, have no key.
+ */
+class ResolvedGraphCacheKeyFactory {
+    private static final byte NULL_VALUE = 0;
+    private static final byte STRING_VALUE = 1;
+
+    @Nullable
+    public HashValue createKey(ConfigurationInternal configuration, List<? extends ResolutionAwareRepository> repositories, GlobalDependencyResolutionRules metadataHandler) {
+        if (metadataHandler.getComponentMetadataProcessor().hasRules() || metadataHandler.getModuleMetadataProcessor().getModuleReplacements().hasReplacements()) {
+            return null;
+        }
+        ResolutionStrategyInternal resolutionStrategy = configuration.getResolutionStrategy();
+        if (resolutionStrategy.getDependencySubstitution().hasRules() || !resolutionStrategy.getComponentSelection().getRules().isEmpty()) {
+            return null;
+        }
+
+        Hasher hasher = Hashing.md5().newHasher();
+        putString(hasher, GradleVersion.current().getVersion());
+
+        ModuleInternal module = configuration.getModule();
+        putString(hasher, module.getGroup());
+        putString(hasher, module.getName());
+        putString(hasher, module.getVersion());
+        putString(hasher, module.getStatus());
+        putString(hasher, module.getProjectPath());
+        putString(hasher, configuration.getName());
+
+        for (Configuration candidate : configuration.getHierarchy()) {
+            putString(hasher, candidate.getName());
+            hasher.putInt(candidate.getDependencies().size());
+            hasher.putBoolean(candidate.isTransitive());
+            putExcludeRules(hasher, candidate.getExcludeRules());
+        }
+
+        // The recorded graph refers to the first level dependencies by their position in this list
+        List<ModuleDependency> dependencies = ResolvedGraphRecorder.getModuleDependencies(configuration);
+        hasher.putInt(dependencies.size());
+        for (ModuleDependency dependency : dependencies) {
+            if (!(dependency instanceof ExternalModuleDependency) || dependency instanceof ClientModule) {
+                return null;
+            }
+            putDependency(hasher, (ExternalModuleDependency) dependency);
+        }
+
+        hasher.putInt(repositories.size());
+        for (ResolutionAwareRepository repository : repositories) {
+            if (!putRepository(hasher, repository)) {
+                return null;
+            }
+        }
+
+        putString(hasher, resolutionStrategy.getConflictResolution().getClass().getName());
+        for (ModuleVersionSelector forcedModule : resolutionStrategy.getForcedModules()) {
+            putString(hasher, forcedModule.getGroup());
+            putString(hasher, forcedModule.getName());
+            putString(hasher, forcedModule.getVersion());
+        }
+
+        return new HashValue(hasher.hash().asBytes());
+    }
+
+    /**
+     * Hashes the configuration that determines where the repository looks for modules, without creating a resolver for it.
+     * Returns false for repositories of an unknown type, and for local repositories whose meta-data is not cached and so may change at any time.
+     */
+    private boolean putRepository(Hasher hasher, ResolutionAwareRepository repository) {
+        if (repository instanceof DefaultMavenArtifactRepository) {
+            DefaultMavenArtifactRepository mavenRepository = (DefaultMavenArtifactRepository) repository;
+            URI url = mavenRepository.getUrl();
+            if (url == null || isLocal(Collections.singleton(url.getScheme()))) {
+                return false;
+            }
+            putString(hasher, "maven");
+            putString(hasher, url.toString());
+            Set<URI> artifactUrls = mavenRepository.getArtifactUrls();
+            hasher.putInt(artifactUrls.size());
+            for (URI artifactUrl : artifactUrls) {
+                putString(hasher, artifactUrl.toString());
+            }
+            return true;
+        }
+        if (repository instanceof DefaultIvyArtifactRepository) {
+            DefaultIvyArtifactRepository ivyRepository = (DefaultIvyArtifactRepository) repository;
+            if (isLocal(ivyRepository.getSchemes())) {
+                return false;
+            }
+            putString(hasher, "ivy");
+            hasher.putBoolean(ivyRepository.getResolve().isDynamicMode());
+            ivyRepository.applyLayout(new PatternHasher(hasher));
+            return true;
+        }
+        return false;
+    }
+
+    private boolean isLocal(Set<String> schemes) {
+        return Collections.singleton("file").containsAll(schemes);
+    }
+
+    private void putDependency(Hasher hasher, ExternalModuleDependency dependency) {
+        putString(hasher, dependency.getGroup());
+        putString(hasher, dependency.getName());
+        putString(hasher, dependency.getVersion());
+        putString(hasher, dependency.getConfiguration());
+        hasher.putBoolean(dependency.isTransitive());
+        hasher.putBoolean(dependency.isForce());
+        hasher.putBoolean(dependency.isChanging());
+        putExcludeRules(hasher, dependency.getExcludeRules());
+        hasher.putInt(dependency.getArtifacts().size());
+        for (DependencyArtifact artifact : dependency.getArtifacts()) {
+            putString(hasher, artifact.getName());
+            putString(hasher, artifact.getType());
+            putString(hasher, artifact.getExtension());
+            putString(hasher, artifact.getClassifier());
+            putString(hasher, artifact.getUrl());
+        }
+    }
+
+    private void putExcludeRules(Hasher hasher, Set<ExcludeRule> excludeRules) {
+        List<String> rules = new ArrayList<String>(excludeRules.size());
+        for (ExcludeRule excludeRule : excludeRules) {
+            rules.add(excludeRule.getGroup() + ":" + excludeRule.getModule());
+        }
+        Collections.sort(rules);
+        hasher.putInt(rules.size());
+        for (String rule : rules) {
+            putString(hasher, rule);
+        }
+    }
+
+    private static void putString(Hasher hasher, @Nullable String value) {
+        if (value == null) {
+            hasher.putByte(NULL_VALUE);
+        } else {
+            hasher.putByte(STRING_VALUE);
+            hasher.putInt(value.length());
+            hasher.putUnencodedChars(value);
+        }
+    }
+
+    private static class PatternHasher implements PatternBasedResolver {
+        private final Hasher hasher;
+
+        PatternHasher(Hasher hasher) {
+            this.hasher = hasher;
+        }
+
+        public void setM2compatible(boolean m2compatible) {
+            hasher.putBoolean(m2compatible);
+        }
+
+        public void addArtifactLocation(URI baseUri, String pattern) {
+            putString(hasher, "artifact");
+            putString(hasher, baseUri == null ? null : baseUri.toString());
+            putString(hasher, pattern);
+        }
+
+        public void addDescriptorLocation(URI baseUri, String pattern) {
+            putString(hasher, "descriptor");
+            putString(hasher, baseUri == null ? null : baseUri.toString());
+            putString(hasher, pattern);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.ModuleDependency;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.internal.artifacts.ResolvedConfigurationIdentifier;
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ArtifactSet;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DefaultArtifactSet;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DependencyArtifactsVisitor;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphEdge;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphNode;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphVisitor;
+import org.gradle.api.internal.cache.BinaryStore;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.component.external.model.DefaultModuleComponentArtifactMetaData;
+import org.gradle.internal.component.external.model.ModuleComponentArtifactIdentifier;
+import org.gradle.internal.component.model.ComponentArtifactMetaData;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Records the results of resolving the dependency graph of a configuration, so that they can be added to the {@link ResolvedGraphCache}.
+ *
+ * <p>Only graphs that resolved without failures and that contain nothing but components from module repositories are recorded.
+ *
+ * <p>First level dependencies are recorded as positions in the list returned by {@link #getModuleDependencies(ConfigurationInternal)}.
+ */
+public class ResolvedGraphRecorder implements DependencyGraphVisitor, DependencyArtifactsVisitor {
+    private static final Logger LOGGER = Logging.getLogger(ResolvedGraphRecorder.class);
+
+    private final String displayName;
+    private final List<ModuleDependency> declaredDependencies;
+    private final VersionSelectorScheme versionSelectorScheme;
+    private final long createTimestamp;
+
+    private RecordingBinaryStore resolutionResultStore;
+    private RecordingBinaryStore transientConfigurationResultsStore;
+    private ResolvedConfigurationIdentifier root;
+    private final Map<ResolvedConfigurationIdentifier, Integer> firstLevelDependencies = new LinkedHashMap<ResolvedConfigurationIdentifier, Integer>();
+    private final Set<ModuleComponentIdentifier> components = new LinkedHashSet<ModuleComponentIdentifier>();
+    private final Set<ModuleComponentIdentifier> changingComponents = new HashSet<ModuleComponentIdentifier>();
+    private final Set<ModuleComponentIdentifier> dynamicComponents = new HashSet<ModuleComponentIdentifier>();
+    private final Map<Long, CachedResolvedGraph.ArtifactSet> artifactSets = new LinkedHashMap<Long, CachedResolvedGraph.ArtifactSet>();
+    private String notCacheableReason;
+
+    public ResolvedGraphRecorder(String displayName, Collection<? extends ModuleDependency> declaredDependencies, VersionSelectorScheme versionSelectorScheme, long createTimestamp) {
+        this.displayName = displayName;
+        this.declaredDependencies = new ArrayList<ModuleDependency>(declaredDependencies);
+        this.versionSelectorScheme = versionSelectorScheme;
+        this.createTimestamp = createTimestamp;
+    }
+
+    /**
+     * Returns the module dependencies declared by the given configuration and the configurations it extends, in the order they are hashed into the key of
+     * the graph. Other dependencies are not part of the graph, so are left out.
+     */
+    public static List<ModuleDependency> getModuleDependencies(ConfigurationInternal configuration) {
+        List<ModuleDependency> dependencies = new ArrayList<ModuleDependency>();
+        for (Configuration candidate : configuration.getHierarchy()) {
+            for (Dependency dependency : candidate.getDependencies()) {
+                if (dependency instanceof ModuleDependency) {
+                    dependencies.add((ModuleDependency) dependency);
+                }
+            }
+        }
+        return dependencies;
+    }
+
+    /**
+     * Returns a store that records the data written by the {@link org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.StreamingResolutionResultBuilder}.
+     */
+    public BinaryStore recordResolutionResult(BinaryStore store) {
+        resolutionResultStore = new RecordingBinaryStore(store);
+        return resolutionResultStore;
+    }
+
+    /**
+     * Returns a store that records the data written by the {@link org.gradle.api.internal.artifacts.ivyservice.resolveengine.oldresult.TransientConfigurationResultsBuilder}.
+     */
+    public BinaryStore recordTransientConfigurationResults(BinaryStore store) {
+        transientConfigurationResultsStore = new RecordingBinaryStore(store);
+        return transientConfigurationResultsStore;
+    }
+
+    public void start(DependencyGraphNode root) {
+        this.root = root.getNodeId();
+    }
+
+    public void visitNode(DependencyGraphNode resolvedConfiguration) {
+        for (DependencyGraphEdge dependency : resolvedConfiguration.getOutgoingEdges()) {
+            if (dependency.getFailure() != null) {
+                notCacheable("could not resolve " + dependency.getRequested().getDisplayName());
+            }
+        }
+        if (resolvedConfiguration.getNodeId().equals(root)) {
+            return;
+        }
+
+        ComponentIdentifier componentId = resolvedConfiguration.getComponentId();
+        if (!(componentId instanceof ModuleComponentIdentifier)) {
+            notCacheable(componentId.getDisplayName() + " is not a module component");
+            return;
+        }
+        ModuleComponentIdentifier moduleComponentId = (ModuleComponentIdentifier) componentId;
+        components.add(moduleComponentId);
+        if (resolvedConfiguration.getMetaData().getComponent().isChanging()) {
+            changingComponents.add(moduleComponentId);
+        }
+    }
+
+    public void visitEdge(DependencyGraphNode resolvedConfiguration) {
+        ComponentIdentifier componentId = resolvedConfiguration.getComponentId();
+        for (DependencyGraphEdge dependency : resolvedConfiguration.getIncomingEdges()) {
+            ComponentSelector requested = dependency.getRequested();
+            if (requested instanceof ModuleComponentSelector && versionSelectorScheme.parseSelector(((ModuleComponentSelector) requested).getVersion()).isDynamic()) {
+                if (componentId instanceof ModuleComponentIdentifier) {
+                    dynamicComponents.add((ModuleComponentIdentifier) componentId);
+                }
+            }
+            if (dependency.getFrom().getNodeId().equals(root)) {
+                int index = indexOf(dependency.getModuleDependency());
+                if (index < 0) {
+                    notCacheable(requested.getDisplayName() + " is not a declared dependency");
+                } else {
+                    firstLevelDependencies.put(resolvedConfiguration.getNodeId(), index);
+                }
+            }
+        }
+    }
+
+    public void finish(DependencyGraphNode root) {
+    }
+
+    public void visitArtifacts(ResolvedConfigurationIdentifier parent, ResolvedConfigurationIdentifier child, ArtifactSet artifacts) {
+        if (artifactSets.containsKey(artifacts.getId())) {
+            return;
+        }
+        if (!(artifacts instanceof DefaultArtifactSet)) {
+            notCacheable("the artifacts of " + child + " cannot be cached");
+            return;
+        }
+        DefaultArtifactSet artifactSet = (DefaultArtifactSet) artifacts;
+        Set<ModuleComponentArtifactIdentifier> artifactIds = new LinkedHashSet<ModuleComponentArtifactIdentifier>();
+        for (ComponentArtifactMetaData artifact : artifactSet.getSelectedArtifacts()) {
+            if (!(artifact instanceof DefaultModuleComponentArtifactMetaData)) {
+                notCacheable("artifact " + artifact.getId().getDisplayName() + " cannot be cached");
+                return;
+            }
+            artifactIds.add(((DefaultModuleComponentArtifactMetaData) artifact).getId());
+        }
+        artifactSets.put(artifacts.getId(), new CachedResolvedGraph.ArtifactSet(artifacts.getId(), artifactSet.getModuleVersionIdentifier(), artifactSet.getModuleSource(), artifactIds));
+    }
+
+    public void finishArtifacts() {
+    }
+
+    /**
+     * Returns the recorded graph, or null when the graph cannot be cached.
+     */
+    @Nullable
+    public CachedResolvedGraph complete() {
+        if (notCacheableReason != null) {
+            LOGGER.debug("Not caching the resolved graph of {}: {}.", displayName, notCacheableReason);
+            return null;
+        }
+        List<CachedResolvedGraph.Component> cachedComponents = new ArrayList<CachedResolvedGraph.Component>(components.size());
+        for (ModuleComponentIdentifier component : components) {
+            cachedComponents.add(new CachedResolvedGraph.Component(component, changingComponents.contains(component), dynamicComponents.contains(component)));
+        }
+        return new CachedResolvedGraph(createTimestamp, resolutionResultStore.getRecordedData(), transientConfigurationResultsStore.getRecordedData(),
+            firstLevelDependencies, cachedComponents, new ArrayList<CachedResolvedGraph.ArtifactSet>(artifactSets.values()));
+    }
+
+    private int indexOf(@Nullable Dependency dependency) {
+        for (int i = 0; i < declaredDependencies.size(); i++) {
+            if (declaredDependencies.get(i) == dependency) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void notCacheable(String reason) {
+        if (notCacheableReason == null) {
+            notCacheableReason = reason;
+        }
+    }
+}
@@ -77,18 +77,29 @@ public class DefaultIvyArtifactRepository extends AbstractAuthenticationSupporte
     }
 
     protected IvyResolver createRealResolver() {
-        URI uri = getUrl();
+        IvyResolver resolver = createResolver(getSchemes());
+        applyLayout(resolver);
+        return resolver;
+    }
 
+    /**
+     * Returns the schemes used by the base url and patterns of this repository.
+     */
+    public Set<String> getSchemes() {
+        URI uri = getUrl();
         Set<String> schemes = new LinkedHashSet<String>();
         layout.addSchemes(uri, schemes);
         additionalPatternsLayout.addSchemes(uri, schemes);
+        return schemes;
+    }
 
-        IvyResolver resolver = createResolver(schemes);
-
+    /**
+     * Applies the layout and additional patterns of this repository to the given resolver.
+     */
+    public void applyLayout(PatternBasedResolver resolver) {
+        URI uri = getUrl();
         layout.apply(uri, resolver);
         additionalPatternsLayout.apply(uri, resolver);
-
-        return resolver;
     }
 
     private IvyResolver createResolver(Set<String> schemes) {
@@ -45,12 +45,14 @@ public class DefaultMavenArtifactRepository extends AbstractAuthenticationSuppor
     private List<Object> additionalUrls = new ArrayList<Object>();
     private final LocallyAvailableResourceFinder<ModuleComponentArtifactMetaData> locallyAvailableResourceFinder;
     private final FileStore<ModuleComponentArtifactMetaData> artifactFileStore;
+    private final FileStore<String> resourcesFileStore;
     private final MetaDataParser<DefaultMavenModuleResolveMetaData> pomParser;
 
     public DefaultMavenArtifactRepository(FileResolver fileResolver, RepositoryTransportFactory transportFactory,
                                           LocallyAvailableResourceFinder<ModuleComponentArtifactMetaData> locallyAvailableResourceFinder,
                                           Instantiator instantiator,
                                           FileStore<ModuleComponentArtifactMetaData> artifactFileStore,
+                                          FileStore<String> resourcesFileStore,
                                           MetaDataParser<DefaultMavenModuleResolveMetaData> pomParser,
                                           AuthenticationContainer authenticationContainer) {
         super(instantiator, authenticationContainer);
@@ -58,6 +60,7 @@ public class DefaultMavenArtifactRepository extends AbstractAuthenticationSuppor
         this.transportFactory = transportFactory;
         this.locallyAvailableResourceFinder = locallyAvailableResourceFinder;
         this.artifactFileStore = artifactFileStore;
+        this.resourcesFileStore = resourcesFileStore;
         this.pomParser = pomParser;
     }
 
@@ -109,7 +112,7 @@ public class DefaultMavenArtifactRepository extends AbstractAuthenticationSuppor
 
     private MavenResolver createResolver(URI rootUri) {
         RepositoryTransport transport = getTransport(rootUri.getScheme());
-        return new MavenResolver(getName(), rootUri, transport, locallyAvailableResourceFinder, artifactFileStore, pomParser);
+        return new MavenResolver(getName(), rootUri, transport, locallyAvailableResourceFinder, artifactFileStore, resourcesFileStore, pomParser);
     }
 
     public MetaDataParser<DefaultMavenModuleResolveMetaData> getPomParser() {
@@ -120,6 +123,10 @@ public class DefaultMavenArtifactRepository extends AbstractAuthenticationSuppor
         return artifactFileStore;
     }
 
+    protected FileStore<String> getResourcesFileStore() {
+        return resourcesFileStore;
+    }
+
     protected RepositoryTransport getTransport(String scheme) {
         return transportFactory.createTransport(scheme, getName(), getConfiguredAuthentication());
     }
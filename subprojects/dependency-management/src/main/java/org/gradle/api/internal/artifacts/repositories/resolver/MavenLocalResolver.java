@@ -38,8 +38,9 @@ public class MavenLocalResolver extends MavenResolver {
     public MavenLocalResolver(String name, URI rootUri, RepositoryTransport transport,
                               LocallyAvailableResourceFinder<ModuleComponentArtifactMetaData> locallyAvailableResourceFinder,
                               FileStore<ModuleComponentArtifactMetaData> artifactFileStore,
+                              FileStore<String> resourcesFileStore,
                               MetaDataParser<DefaultMavenModuleResolveMetaData> pomParser) {
-        super(name, rootUri, transport, locallyAvailableResourceFinder, artifactFileStore, pomParser);
+        super(name, rootUri, transport, locallyAvailableResourceFinder, artifactFileStore, resourcesFileStore, pomParser);
     }
 
     @Override
@@ -22,12 +22,15 @@ import org.gradle.api.resources.MissingResourceException;
 import org.gradle.api.resources.ResourceException;
 import org.gradle.internal.ErroringAction;
 import org.gradle.internal.resource.ExternalResource;
-import org.gradle.internal.resource.transport.ExternalResourceRepository;
+import org.gradle.internal.resource.local.FileStore;
+import org.gradle.internal.resource.local.LocallyAvailableResource;
+import org.gradle.internal.resource.transfer.CacheAwareExternalResourceAccessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -35,10 +38,12 @@ import java.net.URI;
 class MavenMetadataLoader {
     private static final Logger LOGGER = LoggerFactory.getLogger(MavenMetadataLoader.class);
 
-    private final ExternalResourceRepository repository;
+    private final CacheAwareExternalResourceAccessor cacheAwareExternalResourceAccessor;
+    private final FileStore<String> resourcesFileStore;
 
-    public MavenMetadataLoader(ExternalResourceRepository repository) {
-        this.repository = repository;
+    public MavenMetadataLoader(CacheAwareExternalResourceAccessor cacheAwareExternalResourceAccessor, FileStore<String> resourcesFileStore) {
+        this.cacheAwareExternalResourceAccessor = cacheAwareExternalResourceAccessor;
+        this.resourcesFileStore = resourcesFileStore;
     }
 
     public MavenMetadata load(URI metadataLocation) throws ResourceException {
@@ -53,8 +58,12 @@ class MavenMetadataLoader {
         return metadata;
     }
 
-    private void parseMavenMetadataInfo(final URI metadataLocation, final MavenMetadata metadata) {
-        ExternalResource resource = repository.getResource(metadataLocation);
+    private void parseMavenMetadataInfo(final URI metadataLocation, final MavenMetadata metadata) throws IOException {
+        ExternalResource resource = cacheAwareExternalResourceAccessor.getResource(metadataLocation, new CacheAwareExternalResourceAccessor.ResourceFileStore() {
+            public LocallyAvailableResource moveIntoCache(File downloadedResource) {
+                return resourcesFileStore.move(metadataLocation.toString(), downloadedResource);
+            }
+        }, null);
         if (resource == null) {
             throw new MissingResourceException(metadataLocation, String.format("Maven meta-data not available: %s", metadataLocation));
         }
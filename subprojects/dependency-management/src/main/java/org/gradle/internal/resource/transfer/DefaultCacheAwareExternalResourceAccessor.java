@@ -98,10 +98,18 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
                     }
             );
 
+            if (!isUnchanged && !cached.isMissing() && !hasValidators(cached.getExternalResourceMetaData())) {
+                // Nothing to compare against, fall back to the checksum of the cached content
+                HashValue remoteChecksum = remoteMetaData.getSha1();
+                if (remoteChecksum == null) {
+                    remoteChecksum = getResourceSha1(location);
+                }
+                isUnchanged = remoteChecksum != null && remoteChecksum.equals(HashUtil.sha1(cached.getCachedFile()));
+            }
+
             if (isUnchanged) {
                 LOGGER.info("Cached resource {} is up-to-date (lastModified: {}).", location, cached.getExternalLastModified());
-                // TODO - update the index with the new remote meta-data
-                return new DefaultLocallyAvailableExternalResource(location, new DefaultLocallyAvailableResource(cached.getCachedFile()), cached.getExternalResourceMetaData());
+                return refreshCachedResource(location, cached, remoteMetaData);
             }
         }
 
@@ -211,6 +219,22 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
         });
     }
 
+    private static boolean hasValidators(@Nullable ExternalResourceMetaData metaData) {
+        return metaData != null && (metaData.getEtag() != null || metaData.getLastModified() != null);
+    }
+
+    /**
+     * Records the revalidated meta-data against the cached file, so that the entry is considered fresh again.
+     */
+    private LocallyAvailableExternalResource refreshCachedResource(final URI source, final CachedExternalResource cached, final ExternalResourceMetaData remoteMetaData) {
+        return cacheLockingManager.useCache(String.format("Refresh %s", source), new Factory<LocallyAvailableExternalResource>() {
+            public LocallyAvailableExternalResource create() {
+                cachedExternalResourceIndex.store(source.toString(), cached.getCachedFile(), remoteMetaData);
+                return new DefaultLocallyAvailableExternalResource(source, new DefaultLocallyAvailableResource(cached.getCachedFile()), remoteMetaData);
+            }
+        });
+    }
+
     public long getAgeMillis(BuildCommencedTimeProvider timeProvider, CachedExternalResource cached) {
         return timeProvider.getCurrentTime() - cached.getCachedAt();
     }
@@ -44,6 +44,50 @@ class DefaultResolvedArtifactTest extends Specification {
         artifact != differentId
     }
 
+    def "resolves file once"() {
+        def artifact = new DefaultResolvedArtifact(dep("group", "module", "1.0"), Stub(IvyArtifactName), Stub(ComponentArtifactIdentifier), artifactSource)
+        def file = new File("file.jar")
+
+        when:
+        def result = artifact.file
+
+        then:
+        result == file
+        artifact.resolved
+        artifact.artifactSource == null
+        1 * artifactSource.create() >> file
+
+        when:
+        result = artifact.file
+
+        then:
+        result == file
+        0 * artifactSource._
+    }
+
+    def "rethrows failure to resolve file without resolving it again"() {
+        def artifact = new DefaultResolvedArtifact(dep("group", "module", "1.0"), Stub(IvyArtifactName), Stub(ComponentArtifactIdentifier), artifactSource)
+        def failure = new RuntimeException("broken")
+
+        when:
+        artifact.file
+
+        then:
+        def e = thrown(RuntimeException)
+        e == failure
+        !artifact.resolved
+        artifact.artifactSource == null
+        1 * artifactSource.create() >> { throw failure }
+
+        when:
+        artifact.file
+
+        then:
+        e = thrown(RuntimeException)
+        e == failure
+        0 * artifactSource._
+    }
+
     def dep(String group, String moduleName, String version) {
         ResolvedModuleVersion module = Mock()
         _ * module.id >> new DefaultModuleVersionIdentifier(group, moduleName, version)
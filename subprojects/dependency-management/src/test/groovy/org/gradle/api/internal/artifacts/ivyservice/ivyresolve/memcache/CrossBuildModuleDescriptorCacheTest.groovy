@@ -0,0 +1,72 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache
+
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+import spock.lang.Specification
+
+class CrossBuildModuleDescriptorCacheTest extends Specification {
+
+    @Rule SetSystemProperties sysProp = new SetSystemProperties()
+    def cache = new CrossBuildModuleDescriptorCache(2)
+    def componentId = DefaultModuleComponentIdentifier.newId("org", "foo", "1.0")
+    def descriptor = Stub(ModuleDescriptor)
+
+    def "supplies descriptor for the same repository, component and descriptor hash"() {
+        given:
+        cache.put("repo", componentId, BigInteger.ONE, descriptor)
+
+        expect:
+        cache.get("repo", componentId, BigInteger.ONE).is(descriptor)
+        cache.get("repo", DefaultModuleComponentIdentifier.newId("org", "foo", "1.0"), BigInteger.ONE).is(descriptor)
+        cache.get("other", componentId, BigInteger.ONE) == null
+        cache.get("repo", DefaultModuleComponentIdentifier.newId("org", "foo", "2.0"), BigInteger.ONE) == null
+        cache.resetHitCount() == 2
+    }
+
+    def "does not supply descriptor when the persistent entry refers to a different descriptor"() {
+        given:
+        cache.put("repo", componentId, BigInteger.ONE, descriptor)
+
+        expect:
+        cache.get("repo", componentId, BigInteger.TEN) == null
+        cache.resetHitCount() == 0
+    }
+
+    def "evicts descriptors when maximum size is reached"() {
+        given:
+        cache.put("repo", componentId, BigInteger.ONE, descriptor)
+        cache.put("repo", DefaultModuleComponentIdentifier.newId("org", "foo", "2.0"), BigInteger.ONE, descriptor)
+        cache.put("repo", DefaultModuleComponentIdentifier.newId("org", "foo", "3.0"), BigInteger.ONE, descriptor)
+
+        expect:
+        cache.get("repo", componentId, BigInteger.ONE) == null
+    }
+
+    def "can be turned off via system property"() {
+        System.properties.setProperty(InMemoryCachedRepositoryFactory.TOGGLE_PROPERTY, "false")
+
+        when:
+        cache.put("repo", componentId, BigInteger.ONE, descriptor)
+
+        then:
+        cache.get("repo", componentId, BigInteger.ONE) == null
+    }
+}
@@ -16,7 +16,9 @@
 
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache
 
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleComponentRepository
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
 import org.gradle.util.SetSystemProperties
 import org.junit.Rule
 import spock.lang.Specification
@@ -24,7 +26,8 @@ import spock.lang.Specification
 class InMemoryCachedRepositoryFactoryTest extends Specification {
 
     @Rule SetSystemProperties sysProp = new SetSystemProperties()
-    def cache = new InMemoryCachedRepositoryFactory()
+    def crossBuildCache = new CrossBuildModuleDescriptorCache()
+    def cache = new InMemoryCachedRepositoryFactory(crossBuildCache)
 
     def "can be turned off via system property"() {
         System.properties.setProperty(InMemoryCachedRepositoryFactory.TOGGLE_PROPERTY, "false")
@@ -74,4 +77,18 @@ class InMemoryCachedRepositoryFactoryTest extends Specification {
         then:
         cache.cachePerRepo.isEmpty()
     }
+
+    def "reports descriptors served from previous builds on close"() {
+        def componentId = DefaultModuleComponentIdentifier.newId("org", "foo", "1.0")
+        def descriptor = Stub(ModuleDescriptor)
+        crossBuildCache.put("repo", componentId, BigInteger.ONE, descriptor)
+        crossBuildCache.get("repo", componentId, BigInteger.ONE)
+
+        when:
+        cache.stop()
+
+        then:
+        cache.stats.crossBuildMetadataServed == 1
+        crossBuildCache.resetHitCount() == 0
+    }
 }
@@ -309,6 +309,68 @@ class GradlePomModuleDescriptorParserTest extends AbstractGradlePomModuleDescrip
         hasDefaultDependencyArtifact(dep)
     }
 
+    def "parses parent pom once when it is shared by several poms"() {
+        given:
+        def parent = tmpDir.file("parent.xml") << """
+<project>
+    <modelVersion>4.0.0</modelVersion>
+    <groupId>group-one</groupId>
+    <artifactId>parent</artifactId>
+    <version>version-one</version>
+
+    <dependencyManagement>
+        <dependencies>
+            <dependency>
+                <groupId>group-two</groupId>
+                <artifactId>artifact-two</artifactId>
+                <version>1.2</version>
+            </dependency>
+        </dependencies>
+    </dependencyManagement>
+</project>
+"""
+        def parentResource = Spy(DefaultLocallyAvailableExternalResource, constructorArgs: [parent.toURI(), new DefaultLocallyAvailableResource(parent)])
+        def childPom = { String artifactId ->
+            tmpDir.file("${artifactId}.xml") << """
+<project>
+    <modelVersion>4.0.0</modelVersion>
+    <artifactId>${artifactId}</artifactId>
+
+    <parent>
+        <groupId>group-one</groupId>
+        <artifactId>parent</artifactId>
+        <version>version-one</version>
+    </parent>
+
+    <dependencies>
+        <dependency>
+            <groupId>group-two</groupId>
+            <artifactId>artifact-two</artifactId>
+        </dependency>
+    </dependencies>
+</project>
+"""
+        }
+        def pom1 = childPom("artifact-one")
+        def pom2 = childPom("artifact-three")
+
+        and:
+        parseContext.getMetaDataArtifact(_, MAVEN_POM) >> parentResource
+
+        when:
+        def descriptor1 = parser.parseMetaData(parseContext, pom1, true).descriptor
+        def descriptor2 = parser.parseMetaData(parseContext, pom2, true).descriptor
+
+        then:
+        1 * parentResource.withContent(_)
+
+        and:
+        descriptor1.moduleRevisionId == moduleId('group-one', 'artifact-one', 'version-one')
+        descriptor1.dependencies*.dependencyRevisionId == [moduleId('group-two', 'artifact-two', '1.2')]
+        descriptor2.moduleRevisionId == moduleId('group-one', 'artifact-three', 'version-one')
+        descriptor2.dependencies*.dependencyRevisionId == [moduleId('group-two', 'artifact-two', '1.2')]
+    }
+
     def "uses parent pom dependency management section with multiple versions of same dependency"() {
         given:
         def parent = tmpDir.file("parent.xml") << """
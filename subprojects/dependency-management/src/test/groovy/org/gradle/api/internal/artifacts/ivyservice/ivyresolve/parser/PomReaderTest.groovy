@@ -105,6 +105,49 @@ class PomReaderTest extends AbstractPomReaderTest {
         pomReader.relocation == null
     }
 
+    def "parse POM with entities, namespaces and sections that are not used"() {
+        when:
+        pomFile << """<?xml version="1.0" encoding="UTF-8"?>
+<project xmlns="http://maven.apache.org/POM/4.0.0" xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance">
+    <modelVersion>4.0.0</modelVersion>
+    <groupId>group-one</groupId>
+    <artifactId>artifact-one</artifactId>
+    <version>version-one</version>
+    <description><![CDATA[The <first>]]> test&nbsp;artifact &copy;</description>
+    <build>
+        <plugins>
+            <plugin>
+                <groupId>group-two</groupId>
+                <artifactId>plugin-two</artifactId>
+                <dependencies>
+                    <dependency>
+                        <groupId>group-three</groupId>
+                        <artifactId>artifact-three</artifactId>
+                    </dependency>
+                </dependencies>
+            </plugin>
+        </plugins>
+    </build>
+    <dependencies>
+        <dependency>
+            <groupId>group-four</groupId>
+            <artifactId>artifact-four</artifactId>
+            <version>1.0</version>
+        </dependency>
+    </dependencies>
+</project>
+"""
+        pomReader = new PomReader(locallyAvailableExternalResource)
+
+        then:
+        pomReader.groupId == 'group-one'
+        pomReader.artifactId == 'artifact-one'
+        pomReader.version == 'version-one'
+        pomReader.description == 'The <first> test\u00A0artifact \u00A9'
+        pomReader.dependencies.size() == 1
+        assertResolvedPomDependency(new MavenDependencyKey('group-four', 'artifact-four', 'jar', null), '1.0')
+    }
+
     def "use custom properties in POM project coordinates"() {
         when:
         pomFile << """
@@ -880,4 +923,48 @@ class PomReaderTest extends AbstractPomReaderTest {
         pomReader.artifactId == pomReader.parentArtifactId
         pomReader.version == pomReader.parentVersion
     }
+
+    def "resolves dependencies and dependency management up front"() {
+        when:
+        pomFile << """
+<project>
+    <modelVersion>4.0.0</modelVersion>
+    <groupId>group-one</groupId>
+    <artifactId>artifact-one</artifactId>
+    <version>version-one</version>
+
+    <dependencies>
+        <dependency>
+            <groupId>group-two</groupId>
+            <artifactId>artifact-two</artifactId>
+        </dependency>
+    </dependencies>
+    <dependencyManagement>
+        <dependencies>
+            <dependency>
+                <groupId>group-two</groupId>
+                <artifactId>artifact-two</artifactId>
+                <version>version-two</version>
+            </dependency>
+        </dependencies>
+    </dependencyManagement>
+</project>
+"""
+        pomReader = new PomReader(locallyAvailableExternalResource)
+        pomReader.resolveAll()
+        def dependencies = pomReader.dependencies
+        def dependencyMgt = pomReader.dependencyMgt
+
+        then:
+        dependencies.size() == 1
+        dependencyMgt.size() == 1
+        pomReader.dependencies.is(dependencies)
+        pomReader.dependencyMgt.is(dependencyMgt)
+
+        when:
+        pomReader.addImportedDependencyMgts([:])
+
+        then:
+        thrown(IllegalStateException)
+    }
 }
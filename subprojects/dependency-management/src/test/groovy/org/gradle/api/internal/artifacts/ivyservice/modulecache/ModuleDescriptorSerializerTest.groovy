@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache
+
+import org.apache.ivy.core.module.descriptor.*
+import org.apache.ivy.plugins.matcher.ExactPatternMatcher
+import org.apache.ivy.plugins.matcher.GlobPatternMatcher
+import org.gradle.api.internal.artifacts.ivyservice.IvyXmlModuleDescriptorWriter
+import org.gradle.api.internal.artifacts.ivyservice.NamespaceId
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.ResolverStrategy
+import org.gradle.internal.serialize.SerializerSpec
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+
+import static org.gradle.api.internal.artifacts.ivyservice.IvyUtil.createArtifactId
+import static org.gradle.api.internal.artifacts.ivyservice.IvyUtil.createModuleRevisionId
+
+class ModuleDescriptorSerializerTest extends SerializerSpec {
+    @Rule TestNameTestDirectoryProvider temporaryFolder
+    def serializer = new ModuleDescriptorSerializer(new ResolverStrategy())
+    def writer = new IvyXmlModuleDescriptorWriter()
+
+    def "serializes descriptor with the information persisted in ivy.xml"() {
+        given:
+        def md = new DefaultModuleDescriptor(createModuleRevisionId("org.test", "projectA", "branch", "1.2", [buildNr: "815"]), "release", new Date(1345204800000))
+        md.addExtraAttributeNamespace("e", "http://ant.apache.org/ivy/extra")
+        md.addLicense(new License("Apache", "http://www.apache.org/licenses/LICENSE-2.0"))
+        md.homePage = "http://example.org"
+        md.description = "Project A"
+        md.extraInfo.put(new NamespaceId("http://example.org/ns", "note"), "some note")
+        md.addConfiguration(new Configuration("compile"))
+        md.addConfiguration(new Configuration("runtime", Configuration.Visibility.PRIVATE, "runtime conf", ["compile"] as String[], false, "deprecated"))
+        def artifact = new MDArtifact(md, "projectA", "jar", "jar", null, [classifier: "sources"])
+        artifact.addConfiguration("runtime")
+        md.addArtifact("runtime", artifact)
+
+        def dependency = new DefaultDependencyDescriptor(md, createModuleRevisionId("org.test", "projectB", null, "1.0", [:]), createModuleRevisionId("org.test", "projectB", null, "1.+", [:]), true, true, false)
+        dependency.addDependencyConfiguration("compile", "default")
+        dependency.addDependencyConfiguration("runtime", "*")
+        def dependencyArtifact = new DefaultDependencyArtifactDescriptor(dependency, "projectB", "zip", "zip", null, [:])
+        dependencyArtifact.addConfiguration("runtime")
+        dependency.addDependencyArtifact("runtime", dependencyArtifact)
+        def include = new DefaultIncludeRule(createArtifactId("*", "*", "projectB", "zip", "zip"), ExactPatternMatcher.INSTANCE, [:])
+        include.addConfiguration("runtime")
+        dependency.addIncludeRule("runtime", include)
+        def exclude = new DefaultExcludeRule(createArtifactId("org.other", "*", "*", "*", "*"), GlobPatternMatcher.INSTANCE, [:])
+        exclude.addConfiguration("compile")
+        dependency.addExcludeRule("compile", exclude)
+        md.addDependency(dependency)
+
+        def moduleExclude = new DefaultExcludeRule(createArtifactId("org.excluded", "module", "*", "*", "*"), ExactPatternMatcher.INSTANCE, [:])
+        moduleExclude.addConfiguration("runtime")
+        md.addExcludeRule(moduleExclude)
+
+        when:
+        def result = serialize(md, serializer)
+
+        then:
+        result.moduleRevisionId == md.moduleRevisionId
+        result.status == "release"
+        result.configurationsNames == ["compile", "runtime"] as String[]
+        result.dependencies[0].dynamicConstraintDependencyRevisionId.revision == "1.+"
+        result.allExcludeRules[0].matcher == ExactPatternMatcher.INSTANCE
+        ivyXml(result) == ivyXml(md)
+    }
+
+    def "adds default configuration and dependency mapping when none are declared"() {
+        given:
+        def md = new DefaultModuleDescriptor(createModuleRevisionId("org.test", "projectA", "1.2"), "integration", null)
+        md.addDependency(new DefaultDependencyDescriptor(md, createModuleRevisionId("org.test", "projectB", "1.0"), false, false, true))
+
+        when:
+        def result = serialize(md, serializer)
+
+        then:
+        result.configurationsNames == ["default"] as String[]
+        result.dependencies[0].moduleConfigurations == ["*"] as String[]
+        result.status == "integration"
+    }
+
+    private String ivyXml(ModuleDescriptor md) {
+        def file = temporaryFolder.createFile("ivy-${System.identityHashCode(md)}.xml")
+        writer.write(md, file)
+        return file.text
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine
+
+import org.gradle.api.Action
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager
+import org.gradle.api.internal.artifacts.ivyservice.IvyContextManager
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.atomic.AtomicInteger
+
+class DefaultComponentMetaDataPrefetcherTest extends Specification {
+    @Rule
+    SetSystemProperties sysProp = new SetSystemProperties()
+    def executorFactory = new DefaultExecutorFactory()
+    def cacheLockingManager = Stub(CacheLockingManager) {
+        useCache(_, _ as Runnable) >> { String name, Runnable action -> action.run() }
+        longRunningOperation(_, _ as Runnable) >> { String name, Runnable action -> action.run() }
+    }
+    def ivyContextManager = Stub(IvyContextManager) {
+        withIvy(_ as Action) >> { Action action -> action.execute(null) }
+    }
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    def "runs a single request in the calling thread"() {
+        def executorFactory = Mock(ExecutorFactory)
+        def prefetcher = new DefaultComponentMetaDataPrefetcher(executorFactory, cacheLockingManager, ivyContextManager, 4)
+        Thread thread = null
+
+        when:
+        prefetcher.prefetch([{ thread = Thread.currentThread() } as Runnable])
+
+        then:
+        thread == Thread.currentThread()
+        0 * executorFactory._
+    }
+
+    def "runs no more than the maximum number of requests at the same time"() {
+        def prefetcher = new DefaultComponentMetaDataPrefetcher(executorFactory, cacheLockingManager, ivyContextManager, 2)
+        def running = new AtomicInteger()
+        def maxRunning = new AtomicInteger()
+        def completed = new AtomicInteger()
+        def requests = (1..6).collect {
+            { ->
+                def current = running.incrementAndGet()
+                synchronized (maxRunning) {
+                    maxRunning.set(Math.max(maxRunning.get(), current))
+                }
+                Thread.sleep(50)
+                running.decrementAndGet()
+                completed.incrementAndGet()
+            } as Runnable
+        }
+
+        when:
+        prefetcher.prefetch(requests)
+
+        then:
+        completed.get() == 6
+        maxRunning.get() <= 2
+
+        cleanup:
+        prefetcher.stop()
+    }
+
+    def "uses the maximum number of requests given by the system property"() {
+        def executorFactory = Mock(ExecutorFactory)
+        def executor = this.executorFactory.create("test", 3)
+        System.setProperty(DefaultComponentMetaDataPrefetcher.MAX_CONCURRENT_REQUESTS_PROPERTY, "3")
+        def prefetcher = new DefaultComponentMetaDataPrefetcher(executorFactory, cacheLockingManager, ivyContextManager)
+
+        when:
+        prefetcher.prefetch([{} as Runnable, {} as Runnable])
+
+        then:
+        1 * executorFactory.create(_, 3) >> executor
+    }
+
+    def "runs requests in the calling thread when concurrent requests are disabled"() {
+        def executorFactory = Mock(ExecutorFactory)
+        def prefetcher = new DefaultComponentMetaDataPrefetcher(executorFactory, cacheLockingManager, ivyContextManager, 1)
+        def threads = []
+
+        when:
+        prefetcher.prefetch([{ threads << Thread.currentThread() } as Runnable, { threads << Thread.currentThread() } as Runnable])
+
+        then:
+        threads == [Thread.currentThread(), Thread.currentThread()]
+        0 * executorFactory._
+    }
+
+    def "makes the results of all requests visible to the caller once complete"() {
+        def prefetcher = new DefaultComponentMetaDataPrefetcher(executorFactory, cacheLockingManager, ivyContextManager, 4)
+        def results = new String[8]
+        def requests = (0..<8).collect { index ->
+            { ->
+                Thread.sleep(10 * (index % 3))
+                results[index] = "result " + index
+            } as Runnable
+        }
+
+        when:
+        prefetcher.prefetch(requests)
+
+        then:
+        results as List == (0..<8).collect { "result " + it }
+
+        cleanup:
+        prefetcher.stop()
+    }
+
+    def "rethrows the failure of a request once all requests have completed"() {
+        def prefetcher = new DefaultComponentMetaDataPrefetcher(executorFactory, cacheLockingManager, ivyContextManager, 2)
+        def failure = new RuntimeException("broken")
+        def completed = new AtomicInteger()
+        def requests = [
+            { throw failure } as Runnable,
+            { Thread.sleep(50); completed.incrementAndGet() } as Runnable,
+            { completed.incrementAndGet() } as Runnable
+        ]
+
+        when:
+        prefetcher.prefetch(requests)
+
+        then:
+        RuntimeException e = thrown()
+        e == failure
+        completed.get() == 2
+
+        cleanup:
+        prefetcher.stop()
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine
+
+import org.apache.ivy.core.module.descriptor.DefaultExcludeRule
+import org.apache.ivy.plugins.matcher.ExactPatternMatcher
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier
+import org.gradle.api.internal.artifacts.ivyservice.IvyUtil
+import spock.lang.Specification
+
+class ModuleResolutionFilterCacheTest extends Specification {
+    def cache = new ModuleResolutionFilterCache()
+
+    def "interns equal filters"() {
+        def filter1 = cache.excludeAny(excludeRule("org", "module"), excludeRule("org", "other"))
+        def filter2 = cache.excludeAny([excludeRule("org", "other"), excludeRule("org", "module")])
+        def filter3 = cache.excludeAny(excludeRule("org", "module"))
+
+        expect:
+        filter1.is(filter2)
+        !filter1.is(filter3)
+        cache.excludeAny().is(DefaultModuleResolutionFilter.all())
+    }
+
+    def "caches union of filters"() {
+        def filter1 = cache.excludeAny(excludeRule("org", "module"))
+        def filter2 = cache.excludeAny(excludeRule("org", "other"))
+
+        when:
+        def union = cache.union(filter1, filter2)
+
+        then:
+        cache.union(filter1, filter2).is(union)
+        cache.union(cache.excludeAny(excludeRule("org", "module")), cache.excludeAny(excludeRule("org", "other"))).is(union)
+        union.acceptModule(moduleId("org", "module"))
+        union.acceptModule(moduleId("org", "other"))
+        union.acceptsSameModulesAs(filter1.union(filter2))
+    }
+
+    def "caches intersection of filters"() {
+        def filter1 = cache.excludeAny(excludeRule("org", "module"))
+        def filter2 = cache.excludeAny(excludeRule("org", "other"))
+
+        when:
+        def intersection = cache.intersect(filter1, filter2)
+
+        then:
+        cache.intersect(filter1, filter2).is(intersection)
+        !intersection.acceptModule(moduleId("org", "module"))
+        !intersection.acceptModule(moduleId("org", "other"))
+        intersection.acceptModule(moduleId("org", "third"))
+    }
+
+    def "interns the results of combining filters"() {
+        def filter1 = cache.excludeAny(excludeRule("org", "module"))
+        def filter2 = cache.excludeAny(excludeRule("org", "other"))
+        def filter3 = cache.excludeAny(excludeRule("org", "module"), excludeRule("org", "other"))
+
+        expect:
+        cache.intersect(filter1, filter2).is(filter3)
+        cache.intersect(filter2, filter1).is(filter3)
+    }
+
+    def "compares filters"() {
+        def filter1 = cache.excludeAny(excludeRule("org", "module"))
+        def filter2 = cache.excludeAny(excludeRule("org", "other"))
+
+        expect:
+        cache.acceptsSameModules(filter1, filter1)
+        cache.acceptsSameModules(filter1, DefaultModuleResolutionFilter.excludeAny(excludeRule("org", "module")))
+        !cache.acceptsSameModules(filter1, filter2)
+        !cache.acceptsSameModules(filter1, filter2)
+        !cache.acceptsSameModules(filter1, DefaultModuleResolutionFilter.all())
+    }
+
+    def moduleId(String group, String name) {
+        return DefaultModuleIdentifier.newId(group, name)
+    }
+
+    def excludeRule(String org, String module) {
+        new DefaultExcludeRule(IvyUtil.createArtifactId(org, module, "*", "*", "*"), ExactPatternMatcher.INSTANCE, [:])
+    }
+}
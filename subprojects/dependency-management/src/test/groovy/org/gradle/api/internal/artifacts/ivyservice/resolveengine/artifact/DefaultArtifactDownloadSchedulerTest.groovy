@@ -0,0 +1,122 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact
+
+import org.gradle.api.artifacts.ResolvedArtifact
+import org.gradle.api.artifacts.component.ComponentArtifactIdentifier
+import org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier
+import org.gradle.api.internal.artifacts.DefaultResolvedArtifact
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.RepositoryChainModuleSource
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.ModuleResolutionFilter
+import org.gradle.internal.component.model.ComponentArtifactMetaData
+import org.gradle.internal.component.model.DefaultIvyArtifactName
+import org.gradle.internal.component.model.ModuleSource
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.resolve.ArtifactResolveException
+import org.gradle.internal.resolve.resolver.ArtifactResolver
+import org.gradle.internal.resolve.result.BuildableArtifactResolveResult
+import spock.lang.Specification
+
+class DefaultArtifactDownloadSchedulerTest extends Specification {
+    def cacheLockingManager = Mock(CacheLockingManager) {
+        longRunningOperation(_, _ as Runnable) >> { String description, Runnable action -> action.run() }
+    }
+    def artifactResolver = Mock(ArtifactResolver)
+    def scheduler = new DefaultArtifactDownloadScheduler(new DefaultExecutorFactory(), cacheLockingManager, 2)
+
+    def cleanup() {
+        scheduler.stop()
+    }
+
+    def "resolves files of artifacts from repositories"() {
+        given:
+        def repo1 = new RepositoryChainModuleSource("repo1", null)
+        def repo2 = new RepositoryChainModuleSource("repo2", null)
+        def artifacts = artifacts(repo1, "a", "b", "c") + artifacts(repo2, "d")
+
+        when:
+        scheduler.download(artifacts)
+
+        then:
+        4 * artifactResolver.resolveArtifact(_, _, _) >> { ComponentArtifactMetaData artifact, ModuleSource source, BuildableArtifactResolveResult result ->
+            result.resolved(new File(artifact.name.name))
+        }
+        artifacts.every { it.artifactSource == null }
+
+        when:
+        def files = artifacts*.file
+
+        then:
+        0 * artifactResolver._
+        files == [new File("a"), new File("b"), new File("c"), new File("d")]
+    }
+
+    def "does not resolve files of artifacts that do not come from a repository"() {
+        given:
+        def artifacts = artifacts(null, "a", "b")
+
+        when:
+        scheduler.download(artifacts)
+
+        then:
+        0 * artifactResolver._
+        artifacts.every { it.artifactSource != null }
+    }
+
+    def "reports failure to resolve a file when the file is requested without resolving it again"() {
+        given:
+        def failure = new ArtifactResolveException("broken")
+        def artifacts = artifacts(new RepositoryChainModuleSource("repo", null), "a", "b")
+
+        when:
+        scheduler.download(artifacts)
+
+        then:
+        1 * artifactResolver.resolveArtifact({ it.name.name == "a" }, _, _) >> { ComponentArtifactMetaData artifact, ModuleSource source, BuildableArtifactResolveResult result ->
+            result.failed(failure)
+        }
+        1 * artifactResolver.resolveArtifact({ it.name.name == "b" }, _, _) >> { ComponentArtifactMetaData artifact, ModuleSource source, BuildableArtifactResolveResult result ->
+            result.resolved(new File("b"))
+        }
+
+        !artifacts[0].resolved
+        artifacts[1].resolved
+
+        when:
+        artifacts[0].file
+
+        then:
+        0 * artifactResolver._
+        def e = thrown(ArtifactResolveException)
+        e == failure
+    }
+
+    private List<DefaultResolvedArtifact> artifacts(ModuleSource moduleSource, String... names) {
+        def filter = Stub(ModuleResolutionFilter) {
+            acceptArtifact(_, _) >> true
+        }
+        def metaData = names.collect { name ->
+            Stub(ComponentArtifactMetaData) {
+                getId() >> Stub(ComponentArtifactIdentifier)
+                getName() >> new DefaultIvyArtifactName(name, "jar", "jar")
+            }
+        } as LinkedHashSet
+        def artifactSet = new DefaultArtifactSet(DefaultModuleVersionIdentifier.newId("group", "module", "1.0"), moduleSource, filter, metaData, artifactResolver, [:], 0)
+        return artifactSet.artifacts.collect { ResolvedArtifact artifact -> artifact as DefaultResolvedArtifact }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store
+
+import org.gradle.StartParameter
+import org.gradle.api.internal.artifacts.configurations.dynamicversion.CachePolicy
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme
+import org.gradle.cache.PersistentIndexedCache
+import org.gradle.internal.Factory
+import org.gradle.internal.hash.HashValue
+import org.gradle.util.BuildCommencedTimeProvider
+import spock.lang.Specification
+
+import static org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier.newId
+
+class DefaultResolvedGraphCacheTest extends Specification {
+    def persistentCache = Mock(PersistentIndexedCache)
+    def cacheLockingManager = Stub(CacheLockingManager) {
+        createCache(_, _, _) >> persistentCache
+        useCache(_, _ as Factory) >> { String name, Factory factory -> factory.create() }
+        useCache(_, _ as Runnable) >> { String name, Runnable action -> action.run() }
+    }
+    def timeProvider = Stub(BuildCommencedTimeProvider) {
+        getCurrentTime() >> 1500
+    }
+    def startParameter = new StartParameter()
+    def cachePolicy = Mock(CachePolicy)
+    def cache = new DefaultResolvedGraphCache(cacheLockingManager, timeProvider, startParameter, Stub(VersionSelectorScheme))
+    def key = HashValue.parse("1234")
+
+    def "returns cached graph when none of its components must be refreshed"() {
+        def graph = graph(new CachedResolvedGraph.Component(newId("group", "fixed", "1.0"), false, false))
+
+        when:
+        def result = cache.get(key, cachePolicy)
+
+        then:
+        result == graph
+        1 * persistentCache.get(key) >> graph
+        1 * cachePolicy.mustRefreshModule({ it.version == "1.0" }, _, 500) >> false
+        0 * cachePolicy._
+    }
+
+    def "returns null when nothing is cached"() {
+        when:
+        def result = cache.get(key, cachePolicy)
+
+        then:
+        result == null
+        1 * persistentCache.get(key) >> null
+        0 * cachePolicy._
+    }
+
+    def "discards cached graph when a dynamic version must be listed again"() {
+        def graph = graph(new CachedResolvedGraph.Component(newId("group", "dynamic", "1.2"), false, true))
+
+        when:
+        def result = cache.get(key, cachePolicy)
+
+        then:
+        result == null
+        1 * persistentCache.get(key) >> graph
+        1 * cachePolicy.mustRefreshVersionList({ it.name == "dynamic" }, _, 500) >> true
+    }
+
+    def "discards cached graph when a changing module must be refreshed"() {
+        def graph = graph(new CachedResolvedGraph.Component(newId("group", "changing", "1.0-SNAPSHOT"), true, false))
+
+        when:
+        def result = cache.get(key, cachePolicy)
+
+        then:
+        result == null
+        1 * persistentCache.get(key) >> graph
+        1 * cachePolicy.mustRefreshChangingModule({ it.module == "changing" }, _, 500) >> true
+    }
+
+    def "does not check expiry when offline"() {
+        def graph = graph(new CachedResolvedGraph.Component(newId("group", "changing", "1.0-SNAPSHOT"), true, false))
+        startParameter.offline = true
+
+        when:
+        def result = cache.get(key, cachePolicy)
+
+        then:
+        result == graph
+        1 * persistentCache.get(key) >> graph
+        0 * cachePolicy._
+    }
+
+    def "ignores cached graph when dependencies are refreshed"() {
+        startParameter.refreshDependencies = true
+
+        when:
+        def result = cache.get(key, cachePolicy)
+
+        then:
+        result == null
+        0 * persistentCache._
+    }
+
+    def "stores graph in persistent cache"() {
+        def graph = graph()
+
+        when:
+        cache.store(key, graph)
+
+        then:
+        1 * persistentCache.put(key, graph)
+    }
+
+    private static CachedResolvedGraph graph(CachedResolvedGraph.Component... components) {
+        return new CachedResolvedGraph(1000, new byte[0], new byte[0], [:], components as List, [])
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store
+
+import org.gradle.api.internal.artifacts.ComponentMetadataProcessor
+import org.gradle.api.internal.artifacts.ComponentModuleMetadataProcessor
+import org.gradle.api.internal.artifacts.GlobalDependencyResolutionRules
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal
+import org.gradle.api.internal.artifacts.dsl.ModuleReplacementsData
+import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.internal.hash.HashValue
+import org.gradle.util.TestUtil
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class ResolvedGraphCacheKeyFactoryTest extends Specification {
+    def project = TestUtil.createRootProject()
+    def factory = new ResolvedGraphCacheKeyFactory()
+
+    def setup() {
+        project.configurations.create("parent")
+        project.configurations.create("compile").extendsFrom(project.configurations.parent)
+        project.repositories.maven {
+            name "first"
+            url "http://first.example.com/maven"
+        }
+        project.repositories.ivy {
+            name "second"
+            url "http://second.example.com/ivy"
+        }
+        project.dependencies.add("compile", "org:foo:1.0")
+        project.dependencies.add("parent", "org:bar:1.0")
+    }
+
+    def "key does not change when nothing changes"() {
+        expect:
+        key() != null
+        key() == key()
+    }
+
+    def "key does not create resolvers for the repositories"() {
+        def repository = Mock(ResolutionAwareRepository)
+
+        when:
+        def key = factory.createKey(compile, [repository], GlobalDependencyResolutionRules.NO_OP)
+
+        then:
+        key == null
+        0 * repository._
+    }
+
+    @Unroll
+    def "key changes when #change"() {
+        def original = key()
+
+        when:
+        action(project)
+
+        then:
+        key() != null
+        key() != original
+
+        where:
+        change                                  | action
+        "a dependency is added"                 | { ProjectInternal p -> p.dependencies.add("compile", "org:baz:1.0") }
+        "a dependency is added to a parent"     | { ProjectInternal p -> p.dependencies.add("parent", "org:baz:1.0") }
+        "a dependency version changes"          | { ProjectInternal p -> p.configurations.compile.dependencies.clear(); p.dependencies.add("compile", "org:foo:1.1") }
+        "a dependency is made non-transitive"   | { ProjectInternal p -> p.configurations.compile.dependencies.iterator().next().transitive = false }
+        "a dependency configuration changes"    | { ProjectInternal p -> p.configurations.compile.dependencies.clear(); p.dependencies.add("compile", [group: "org", name: "foo", version: "1.0", configuration: "runtime"]) }
+        "a dependency artifact is added"        | { ProjectInternal p -> p.configurations.compile.dependencies.iterator().next().artifact { it.name = "foo"; it.classifier = "sources" } }
+        "a file dependency is added"            | { ProjectInternal p -> p.dependencies.add("compile", p.files("lib.jar")) }
+        "a dependency exclude is added"         | { ProjectInternal p -> p.configurations.compile.dependencies.iterator().next().exclude(group: "org", module: "excluded") }
+        "a configuration exclude is added"      | { ProjectInternal p -> p.configurations.compile.exclude(group: "org", module: "excluded") }
+        "a parent exclude is added"             | { ProjectInternal p -> p.configurations.parent.exclude(group: "org", module: "excluded") }
+        "the configuration is non-transitive"   | { ProjectInternal p -> p.configurations.compile.transitive = false }
+        "a repository is added"                 | { ProjectInternal p -> p.repositories.maven { url "http://third.example.com/maven" } }
+        "a repository is removed"               | { ProjectInternal p -> p.repositories.remove(p.repositories.getByName("second")) }
+        "the repository order changes"          | { ProjectInternal p -> def first = p.repositories.getByName("first"); p.repositories.remove(first); p.repositories.add(first) }
+        "a maven repository url changes"        | { ProjectInternal p -> p.repositories.getByName("first").url = "http://other.example.com/maven" }
+        "a maven artifact url is added"         | { ProjectInternal p -> p.repositories.getByName("first").artifactUrls("http://artifacts.example.com/maven") }
+        "an ivy repository url changes"         | { ProjectInternal p -> p.repositories.getByName("second").url = "http://other.example.com/ivy" }
+        "an ivy repository layout changes"      | { ProjectInternal p -> p.repositories.getByName("second").layout("maven") }
+        "an ivy pattern is added"               | { ProjectInternal p -> p.repositories.getByName("second").artifactPattern("http://second.example.com/[module]/[artifact].[ext]") }
+        "ivy dynamic mode is enabled"           | { ProjectInternal p -> p.repositories.getByName("second").resolve.dynamicMode = true }
+        "a module is forced"                    | { ProjectInternal p -> p.configurations.compile.resolutionStrategy.force("org:foo:1.2") }
+        "the conflict resolution changes"       | { ProjectInternal p -> p.configurations.compile.resolutionStrategy.failOnVersionConflict() }
+    }
+
+    @Unroll
+    def "has no key when #change"() {
+        expect:
+        key() != null
+
+        when:
+        action(project)
+
+        then:
+        key() == null
+
+        where:
+        change                                  | action
+        "a project dependency is added"         | { ProjectInternal p -> p.dependencies.add("compile", p) }
+        "a client module is added"              | { ProjectInternal p -> p.dependencies.add("compile", p.dependencies.module("org:client:1.0")) }
+        "a substitution rule is added"          | { ProjectInternal p -> p.configurations.compile.resolutionStrategy.dependencySubstitution.all {} }
+        "an eachDependency rule is added"       | { ProjectInternal p -> p.configurations.compile.resolutionStrategy.eachDependency {} }
+        "a component selection rule is added"   | { ProjectInternal p -> p.configurations.compile.resolutionStrategy.componentSelection.all {} }
+        "the local maven repository is added"   | { ProjectInternal p -> p.repositories.mavenLocal() }
+        "a file maven repository is added"      | { ProjectInternal p -> p.repositories.maven { url p.file("maven-repo") } }
+        "a file ivy repository is added"        | { ProjectInternal p -> p.repositories.ivy { url p.file("ivy-repo") } }
+        "a file ivy pattern is added"           | { ProjectInternal p -> p.repositories.ivy { artifactPattern p.file("ivy-repo").absolutePath + "/[module]/[artifact].[ext]" } }
+        "a flat dir repository is added"        | { ProjectInternal p -> p.repositories.flatDir { dirs "libs" } }
+    }
+
+    def "has no key when there are component meta-data rules"() {
+        def rules = Stub(GlobalDependencyResolutionRules) {
+            getComponentMetadataProcessor() >> Stub(ComponentMetadataProcessor) {
+                hasRules() >> true
+            }
+            getModuleMetadataProcessor() >> ComponentModuleMetadataProcessor.NO_OP
+        }
+
+        expect:
+        factory.createKey(compile, repositories, rules) == null
+    }
+
+    def "has no key when there are module replacements"() {
+        def rules = Stub(GlobalDependencyResolutionRules) {
+            getComponentMetadataProcessor() >> ComponentMetadataProcessor.NO_OP
+            getModuleMetadataProcessor() >> Stub(ComponentModuleMetadataProcessor) {
+                getModuleReplacements() >> Stub(ModuleReplacementsData) {
+                    hasReplacements() >> true
+                }
+            }
+        }
+
+        expect:
+        factory.createKey(compile, repositories, rules) == null
+    }
+
+    private HashValue key() {
+        return factory.createKey(compile, repositories, GlobalDependencyResolutionRules.NO_OP)
+    }
+
+    private ConfigurationInternal getCompile() {
+        return project.configurations.compile as ConfigurationInternal
+    }
+
+    private List<ResolutionAwareRepository> getRepositories() {
+        return project.repositories.collect { it as ResolutionAwareRepository }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store
+
+import org.gradle.api.artifacts.Configuration
+import org.gradle.api.artifacts.DependencySet
+import org.gradle.api.artifacts.ExternalModuleDependency
+import org.gradle.api.artifacts.FileCollectionDependency
+import org.gradle.api.artifacts.ProjectDependency
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal
+import spock.lang.Specification
+
+class ResolvedGraphRecorderTest extends Specification {
+    def "module dependencies leave out other dependencies and follow the configuration hierarchy"() {
+        def first = Stub(ExternalModuleDependency)
+        def second = Stub(ProjectDependency)
+        def third = Stub(ExternalModuleDependency)
+        def parent = configuration([third, Stub(FileCollectionDependency)])
+        def child = Stub(ConfigurationInternal)
+        def childDependencies = dependencySet([Stub(FileCollectionDependency), first, second])
+        child.getHierarchy() >> ([child, parent] as LinkedHashSet)
+        child.getDependencies() >> childDependencies
+
+        expect:
+        ResolvedGraphRecorder.getModuleDependencies(child) == [first, second, third]
+    }
+
+    private Configuration configuration(List dependencies) {
+        def set = dependencySet(dependencies)
+        return Stub(Configuration) {
+            getDependencies() >> set
+        }
+    }
+
+    private DependencySet dependencySet(List dependencies) {
+        return Stub(DependencySet) {
+            iterator() >> { dependencies.iterator() }
+        }
+    }
+}
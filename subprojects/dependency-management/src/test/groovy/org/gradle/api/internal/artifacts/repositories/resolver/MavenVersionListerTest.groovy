@@ -25,27 +25,29 @@ import org.gradle.api.resources.ResourceException
 import org.gradle.internal.UncheckedException
 import org.gradle.internal.component.model.DefaultIvyArtifactName
 import org.gradle.internal.resolve.result.DefaultResourceAwareResolveResult
-import org.gradle.internal.resource.ExternalResource
-import org.gradle.internal.resource.transport.ExternalResourceRepository
+import org.gradle.internal.resource.local.FileStore
+import org.gradle.internal.resource.local.LocallyAvailableExternalResource
+import org.gradle.internal.resource.local.LocallyAvailableResource
+import org.gradle.internal.resource.transfer.CacheAwareExternalResourceAccessor
 import org.xml.sax.SAXParseException
 import spock.lang.Specification
 
 class MavenVersionListerTest extends Specification {
-    def repo = Mock(ExternalResourceRepository)
     def moduleRevisionId = IvyUtil.createModuleRevisionId("org.acme", "testproject", "1.0")
     def module = new DefaultModuleIdentifier("org.acme", "testproject")
     def result = new DefaultResourceAwareResolveResult()
     def moduleVersion = new DefaultModuleVersionIdentifier(module, "1.0")
     def artifact = new DefaultIvyArtifactName("testproject", "jar", "jar")
 
-    def repository = Mock(ExternalResourceRepository)
+    def repository = Mock(CacheAwareExternalResourceAccessor)
+    def resourcesFileStore = Mock(FileStore)
     def pattern = pattern("testRepo/" + MavenPattern.M2_PATTERN)
     def metaDataResource = new URI('testRepo/org/acme/testproject/maven-metadata.xml')
 
-    final MavenVersionLister lister = new MavenVersionLister(repository)
+    final MavenVersionLister lister = new MavenVersionLister(new MavenMetadataLoader(repository, resourcesFileStore))
 
     def "visit parses maven-metadata.xml"() {
-        ExternalResource resource = Mock()
+        LocallyAvailableExternalResource resource = Mock()
 
         when:
         def versions = []
@@ -57,7 +59,7 @@ class MavenVersionListerTest extends Specification {
         result.attempted == [metaDataResource.toString()]
 
         and:
-        1 * repository.getResource(metaDataResource) >> resource
+        1 * repository.getResource(metaDataResource, _, null) >> resource
         1 * resource.withContent(_) >> { Action action -> action.execute(new ByteArrayInputStream("""
 <metadata>
     <versioning>
@@ -74,8 +76,8 @@ class MavenVersionListerTest extends Specification {
     }
 
     def "visit builds union of versions"() {
-        ExternalResource resource1 = Mock()
-        ExternalResource resource2 = Mock()
+        LocallyAvailableExternalResource resource1 = Mock()
+        LocallyAvailableExternalResource resource2 = Mock()
         def pattern1 = pattern("prefix1/" + MavenPattern.M2_PATTERN)
         def pattern2 = pattern("prefix2/" + MavenPattern.M2_PATTERN)
         def location1 = new URI('prefix1/org/acme/testproject/maven-metadata.xml')
@@ -92,7 +94,7 @@ class MavenVersionListerTest extends Specification {
         result.attempted == [location1.toString(), location2.toString()]
 
         and:
-        1 * repository.getResource(location1) >> resource1
+        1 * repository.getResource(location1, _, null) >> resource1
         1 * resource1.withContent(_) >> { Action action -> action.execute(new ByteArrayInputStream("""
 <metadata>
     <versioning>
@@ -103,7 +105,7 @@ class MavenVersionListerTest extends Specification {
     </versioning>
 </metadata>""".bytes))
         }
-        1 * repository.getResource(location2) >> resource2
+        1 * repository.getResource(location2, _, null) >> resource2
         1 * resource2.withContent(_) >> { Action action -> action.execute(new ByteArrayInputStream("""
 <metadata>
     <versioning>
@@ -117,7 +119,7 @@ class MavenVersionListerTest extends Specification {
     }
 
     def "visit ignores duplicate patterns"() {
-        ExternalResource resource = Mock()
+        LocallyAvailableExternalResource resource = Mock()
 
         when:
         def versions = []
@@ -130,7 +132,7 @@ class MavenVersionListerTest extends Specification {
         result.attempted == [metaDataResource.toString()]
 
         and:
-        1 * repository.getResource(metaDataResource) >> resource
+        1 * repository.getResource(metaDataResource, _, null) >> resource
         1 * resource.withContent(_) >> { Action action -> action.execute(new ByteArrayInputStream("""
 <metadata>
     <versioning>
@@ -159,12 +161,12 @@ class MavenVersionListerTest extends Specification {
         result.attempted == [metaDataResource.toString()]
 
         and:
-        1 * repository.getResource(metaDataResource) >> null
+        1 * repository.getResource(metaDataResource, _, null) >> null
         0 * repository._
     }
 
     def "visit throws ResourceException when maven-metadata cannot be parsed"() {
-        ExternalResource resource = Mock()
+        LocallyAvailableExternalResource resource = Mock()
 
         when:
         def versionList = lister.newVisitor(module, [], result)
@@ -181,7 +183,7 @@ class MavenVersionListerTest extends Specification {
 
         and:
         1 * resource.close()
-        1 * repository.getResource(metaDataResource) >> resource;
+        1 * repository.getResource(metaDataResource, _, null) >> resource;
         1 * resource.withContent(_) >> { Action action -> action.execute(new ByteArrayInputStream("yo".bytes)) }
         0 * repository._
     }
@@ -202,10 +204,29 @@ class MavenVersionListerTest extends Specification {
         result.attempted == [metaDataResource.toString()]
 
         and:
-        1 * repository.getResource(metaDataResource) >> { throw failure }
+        1 * repository.getResource(metaDataResource, _, null) >> { throw failure }
         0 * repository._
     }
 
+    def "visit stores downloaded maven-metadata in the resources file store"() {
+        def downloaded = new File("maven-metadata.xml")
+        def cached = Stub(LocallyAvailableResource)
+
+        when:
+        def versionList = lister.newVisitor(module, [], result)
+        versionList.visit(pattern, artifact)
+
+        then:
+        thrown(MissingResourceException)
+
+        and:
+        1 * repository.getResource(metaDataResource, _, null) >> { URI location, CacheAwareExternalResourceAccessor.ResourceFileStore fileStore, candidates ->
+            assert fileStore.moveIntoCache(downloaded) == cached
+            return null
+        }
+        1 * resourcesFileStore.move(metaDataResource.toString(), downloaded) >> cached
+    }
+
     def pattern(String pattern) {
         return new M2ResourcePattern(pattern)
     }
@@ -148,6 +148,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         def cached = Mock(CachedExternalResource)
         def candidate = tempDir.createFile("candidate-file")
         def sha1 = HashUtil.createHash(candidate, "sha1")
+        cachedFile << "cached content"
         def fileStore = Mock(CacheAwareExternalResourceAccessor.ResourceFileStore)
         def cachedMetaData = Mock(ExternalResourceMetaData)
         def remoteMetaData = Mock(ExternalResourceMetaData)
@@ -167,6 +168,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         timeProvider.currentTime >> 24000L
         cached.cachedAt >> 23999L
         cached.externalResourceMetaData >> cachedMetaData
+        cached.missing >> false
         1 * repository.getResourceMetaData(uri) >> remoteMetaData
         localCandidates.none >> false
         remoteMetaData.sha1 >> sha1
@@ -286,6 +288,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         def candidate = tempDir.createFile("candidate-file")
         def sha1 = HashUtil.createHash(candidate, "sha1")
         candidate << "some extra stuff"
+        cachedFile << "cached content"
         def fileStore = Mock(CacheAwareExternalResourceAccessor.ResourceFileStore)
         def cachedMetaData = Mock(ExternalResourceMetaData)
         def remoteMetaData = Mock(ExternalResourceMetaData)
@@ -306,6 +309,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         timeProvider.currentTime >> 24000L
         cached.cachedAt >> 23999L
         cached.externalResourceMetaData >> cachedMetaData
+        cached.missing >> false
         1 * repository.getResourceMetaData(uri) >> remoteMetaData
         localCandidates.none >> false
         remoteMetaData.sha1 >> sha1
@@ -332,4 +336,80 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         1 * index.store("scheme:thing", cachedFile, remoteMetaData)
         0 * _._
     }
+
+    def "refreshes index entry when cached resource has expired but is unchanged"() {
+        given:
+        def cached = Mock(CachedExternalResource)
+        def fileStore = Mock(CacheAwareExternalResourceAccessor.ResourceFileStore)
+        def cachedMetaData = Mock(ExternalResourceMetaData)
+        def remoteMetaData = Mock(ExternalResourceMetaData)
+        def uri = new URI("scheme:thing")
+
+        when:
+        def result = cache.getResource(uri, fileStore, null)
+
+        then:
+        result.localResource.file == cachedFile
+        result.metaData == remoteMetaData
+
+        and:
+        1 * index.lookup("scheme:thing") >> cached
+        timeProvider.currentTime >> 24000L
+        cached.cachedAt >> 23999L
+        cached.externalResourceMetaData >> cachedMetaData
+        cached.missing >> false
+        cached.cachedFile >> cachedFile
+        1 * repository.getResourceMetaData(uri) >> remoteMetaData
+        cached.externalLastModified >> null
+        cachedMetaData.etag >> "abc"
+        cachedMetaData.lastModified >> null
+        remoteMetaData.etag >> "abc"
+        1 * cacheLockingManager.useCache(_, _) >> { String description, org.gradle.internal.Factory factory ->
+            return factory.create()
+        }
+        1 * index.store("scheme:thing", cachedFile, remoteMetaData)
+        0 * _._
+    }
+
+    def "reuses cached resource when it has no validators but its sha1 matches the remote sha1"() {
+        given:
+        def cached = Mock(CachedExternalResource)
+        cachedFile << "cached content"
+        def sha1 = HashUtil.createHash(cachedFile, "sha1")
+        def fileStore = Mock(CacheAwareExternalResourceAccessor.ResourceFileStore)
+        def cachedMetaData = Mock(ExternalResourceMetaData)
+        def remoteMetaData = Mock(ExternalResourceMetaData)
+        def remoteSha1 = Mock(ExternalResource)
+        def uri = new URI("scheme:thing")
+
+        when:
+        def result = cache.getResource(uri, fileStore, null)
+
+        then:
+        result.localResource.file == cachedFile
+        result.metaData == remoteMetaData
+
+        and:
+        1 * index.lookup("scheme:thing") >> cached
+        timeProvider.currentTime >> 24000L
+        cached.cachedAt >> 23999L
+        cached.externalResourceMetaData >> cachedMetaData
+        cached.missing >> false
+        cached.cachedFile >> cachedFile
+        1 * repository.getResourceMetaData(uri) >> remoteMetaData
+        cachedMetaData.etag >> null
+        cachedMetaData.lastModified >> null
+        remoteMetaData.sha1 >> null
+        1 * repository.getResource(new URI("scheme:thing.sha1")) >> remoteSha1
+        1 * remoteSha1.withContent(_) >> { Transformer t ->
+            t.transform(new ByteArrayInputStream(sha1.asZeroPaddedHexString(40).bytes))
+        }
+        1 * remoteSha1.close()
+        cached.externalLastModified >> null
+        1 * cacheLockingManager.useCache(_, _) >> { String description, org.gradle.internal.Factory factory ->
+            return factory.create()
+        }
+        1 * index.store("scheme:thing", cachedFile, remoteMetaData)
+        0 * _._
+    }
 }
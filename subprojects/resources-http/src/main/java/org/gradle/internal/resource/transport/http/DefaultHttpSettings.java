@@ -23,6 +23,7 @@ import java.util.Collection;
 public class DefaultHttpSettings implements HttpSettings {
     private final HttpProxySettings proxySettings = new JavaSystemPropertiesHttpProxySettings();
     private final HttpProxySettings secureProxySettings = new JavaSystemPropertiesSecureHttpProxySettings();
+    private final HttpConnectionPoolSettings connectionPoolSettings = new JavaSystemPropertiesConnectionPoolSettings();
     private final Collection<Authentication> authenticationSettings;
     private final SslContextFactory sslContextFactory;
 
@@ -54,4 +55,9 @@ public class DefaultHttpSettings implements HttpSettings {
     public SslContextFactory getSslContextFactory() {
         return sslContextFactory;
     }
+
+    @Override
+    public HttpConnectionPoolSettings getConnectionPoolSettings() {
+        return connectionPoolSettings;
+    }
 }
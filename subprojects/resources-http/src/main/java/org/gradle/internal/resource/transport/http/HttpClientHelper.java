@@ -16,14 +16,18 @@
 
 package org.gradle.internal.resource.transport.http;
 
+import org.apache.http.HttpHost;
 import org.apache.http.HttpResponse;
+import org.apache.http.auth.AuthScheme;
+import org.apache.http.client.AuthCache;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpHead;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.BasicAuthCache;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.util.EntityUtils;
 import org.gradle.api.UncheckedIOException;
 import org.slf4j.Logger;
@@ -31,6 +35,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Provides some convenience and unified logging.
@@ -39,11 +44,19 @@ public class HttpClientHelper implements Closeable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpClientHelper.class);
     private CloseableHttpClient client;
-    private final BasicHttpContext httpContext = new BasicHttpContext();
+    private PoolingHttpClientConnectionManager connectionManager;
+    private long lastIdleConnectionCheck;
+    private final AuthCache authCache = new SynchronizedAuthCache(new BasicAuthCache());
     private final HttpSettings settings;
+    private final HttpClientStatistics statistics;
 
     public HttpClientHelper(HttpSettings settings) {
+        this(settings, new HttpClientStatistics());
+    }
+
+    public HttpClientHelper(HttpSettings settings, HttpClientStatistics statistics) {
         this.settings = settings;
+        this.statistics = statistics;
     }
 
     public HttpResponse performRawHead(String source) {
@@ -96,8 +109,9 @@ public class HttpClientHelper implements Closeable {
     }
 
     public HttpResponse performHttpRequest(HttpRequestBase request) throws IOException {
-        // Without this, HTTP Client prohibits multiple redirects to the same location within the same context
-        httpContext.removeAttribute(HttpClientContext.REDIRECT_LOCATIONS);
+        // Requests may be made concurrently, so each has its own context. Only the authentication established with a host is shared between requests
+        HttpClientContext httpContext = HttpClientContext.create();
+        httpContext.setAuthCache(authCache);
         LOGGER.debug("Performing HTTP {}: {}", request.getMethod(), request.getURI());
         return getClient().execute(request, httpContext);
     }
@@ -118,18 +132,64 @@ public class HttpClientHelper implements Closeable {
 
     private synchronized CloseableHttpClient getClient() {
         if (client == null) {
+            HttpClientConfigurer configurer = new HttpClientConfigurer(settings);
+            connectionManager = configurer.createConnectionManager();
+            lastIdleConnectionCheck = System.currentTimeMillis();
             HttpClientBuilder builder = HttpClientBuilder.create();
+            builder.setConnectionManager(connectionManager);
+            builder.setRequestExecutor(new StatisticsRecordingRequestExecutor(statistics));
             builder.setRedirectStrategy(new AlwaysRedirectRedirectStrategy());
-            new HttpClientConfigurer(settings).configure(builder);
+            configurer.configure(builder);
             this.client = builder.build();
+        } else {
+            closeIdleConnections();
         }
         return client;
     }
 
+    private void closeIdleConnections() {
+        long idleTimeout = settings.getConnectionPoolSettings().getIdleConnectionTimeout();
+        long now = System.currentTimeMillis();
+        if (now - lastIdleConnectionCheck < idleTimeout) {
+            return;
+        }
+        lastIdleConnectionCheck = now;
+        connectionManager.closeExpiredConnections();
+        connectionManager.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+    }
+
     @Override
     public synchronized void close() throws IOException {
         if (client != null) {
             client.close();
         }
     }
+
+    private static class SynchronizedAuthCache implements AuthCache {
+        private final AuthCache delegate;
+
+        SynchronizedAuthCache(AuthCache delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public synchronized void put(HttpHost host, AuthScheme authScheme) {
+            delegate.put(host, authScheme);
+        }
+
+        @Override
+        public synchronized AuthScheme get(HttpHost host) {
+            return delegate.get(host);
+        }
+
+        @Override
+        public synchronized void remove(HttpHost host) {
+            delegate.remove(host);
+        }
+
+        @Override
+        public synchronized void clear() {
+            delegate.clear();
+        }
+    }
 }
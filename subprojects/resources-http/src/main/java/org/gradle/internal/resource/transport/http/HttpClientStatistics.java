@@ -0,0 +1,120 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http;
+
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects statistics about the HTTP requests made by a set of clients, grouped by the host that the requests were sent to.
+ */
+public class HttpClientStatistics {
+    private final Map<String, HostStatistics> hosts = new TreeMap<String, HostStatistics>();
+
+    public synchronized HostStatistics forHost(String host) {
+        HostStatistics statistics = hosts.get(host);
+        if (statistics == null) {
+            statistics = new HostStatistics(host);
+            hosts.put(host, statistics);
+        }
+        return statistics;
+    }
+
+    public synchronized List<HostStatistics> getHosts() {
+        return new ArrayList<HostStatistics>(hosts.values());
+    }
+
+    public void report(Logger logger) {
+        for (HostStatistics host : getHosts()) {
+            logger.info("{}", host);
+        }
+    }
+
+    public static class HostStatistics {
+        private final String host;
+        private final AtomicLong bytesReceived = new AtomicLong();
+        private int requests;
+        private int reusedConnections;
+        private long[] latencies = new long[16];
+
+        HostStatistics(String host) {
+            this.host = host;
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public synchronized void requestCompleted(long latencyNanos, boolean connectionReused) {
+            if (requests == latencies.length) {
+                latencies = Arrays.copyOf(latencies, requests * 2);
+            }
+            latencies[requests++] = latencyNanos;
+            if (connectionReused) {
+                reusedConnections++;
+            }
+        }
+
+        public void bytesReceived(long count) {
+            bytesReceived.addAndGet(count);
+        }
+
+        public synchronized int getRequests() {
+            return requests;
+        }
+
+        public synchronized int getOpenedConnections() {
+            return requests - reusedConnections;
+        }
+
+        public synchronized int getReusedConnections() {
+            return reusedConnections;
+        }
+
+        public long getBytesReceived() {
+            return bytesReceived.get();
+        }
+
+        /**
+         * Returns the given percentile of the time taken to receive the response headers, in milliseconds.
+         */
+        public synchronized long getLatencyPercentile(int percentile) {
+            if (requests == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(latencies, requests);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percentile / 100.0 * requests);
+            return TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(rank, 1) - 1]);
+        }
+
+        @Override
+        public synchronized String toString() {
+            int reusePercentage = requests == 0 ? 0 : reusedConnections * 100 / requests;
+            return String.format("HTTP requests to %s: %d requests, %d bytes received, %d connections opened, %d requests on reused connections (%d%%), latency p50 %d ms, p90 %d ms, p99 %d ms.",
+                host, requests, getBytesReceived(), getOpenedConnections(), reusedConnections, reusePercentage,
+                getLatencyPercentile(50), getLatencyPercentile(90), getLatencyPercentile(99));
+        }
+    }
+}
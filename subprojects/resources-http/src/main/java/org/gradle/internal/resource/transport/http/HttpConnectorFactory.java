@@ -17,20 +17,43 @@
 package org.gradle.internal.resource.transport.http;
 
 import com.google.common.collect.Sets;
+import org.gradle.api.artifacts.repositories.PasswordCredentials;
 import org.gradle.authentication.Authentication;
 import org.gradle.authentication.http.BasicAuthentication;
 import org.gradle.authentication.http.DigestAuthentication;
 import org.gradle.internal.authentication.AllSchemesAuthentication;
+import org.gradle.internal.authentication.AuthenticationInternal;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.resource.connector.ResourceConnectorFactory;
 import org.gradle.internal.resource.connector.ResourceConnectorSpecification;
 import org.gradle.internal.resource.transfer.DefaultExternalResourceConnector;
 import org.gradle.internal.resource.transfer.ExternalResourceConnector;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
-public class HttpConnectorFactory implements ResourceConnectorFactory {
+/**
+ * Creates the connectors for HTTP repositories used by a build. Reports statistics about the requests made by the connectors and closes their
+ * connections when the build completes.
+ *
+ * <p>Connectors with the same authentication and proxy settings share a client and its pool of connections, as a repository is usually resolved
+ * through several connectors during a build.</p>
+ */
+public class HttpConnectorFactory implements ResourceConnectorFactory, Stoppable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpConnectorFactory.class);
+
     private SslContextFactory sslContextFactory;
+    private final HttpClientStatistics statistics = new HttpClientStatistics();
+    private final Map<List<Object>, HttpClientHelper> clients = new LinkedHashMap<List<Object>, HttpClientHelper>();
 
     public HttpConnectorFactory(SslContextFactory sslContextFactory) {
         this.sslContextFactory = sslContextFactory;
@@ -52,10 +75,74 @@ public class HttpConnectorFactory implements ResourceConnectorFactory {
 
     @Override
     public ExternalResourceConnector createResourceConnector(ResourceConnectorSpecification connectionDetails) {
-        HttpClientHelper http = new HttpClientHelper(new DefaultHttpSettings(connectionDetails.getAuthentications(), sslContextFactory));
+        HttpClientHelper http = getClient(connectionDetails.getAuthentications());
         HttpResourceAccessor accessor = new HttpResourceAccessor(http);
         HttpResourceLister lister = new HttpResourceLister(accessor);
         HttpResourceUploader uploader = new HttpResourceUploader(http);
         return new DefaultExternalResourceConnector(accessor, lister, uploader);
     }
+
+    private HttpClientHelper getClient(Collection<Authentication> authentications) {
+        DefaultHttpSettings settings = new DefaultHttpSettings(authentications, sslContextFactory);
+        List<Object> key = clientKey(settings);
+        synchronized (clients) {
+            HttpClientHelper client = clients.get(key);
+            if (client == null) {
+                client = new HttpClientHelper(settings, statistics);
+                clients.put(key, client);
+            }
+            return client;
+        }
+    }
+
+    /**
+     * Returns the settings that a client is configured with when it is created.
+     */
+    private static List<Object> clientKey(HttpSettings settings) {
+        List<Object> key = new ArrayList<Object>();
+        for (Authentication authentication : settings.getAuthenticationSettings()) {
+            key.add(authentication.getClass());
+            addCredentials(key, ((AuthenticationInternal) authentication).getCredentials());
+        }
+        for (HttpProxySettings proxySettings : new HttpProxySettings[]{settings.getProxySettings(), settings.getSecureProxySettings()}) {
+            HttpProxySettings.HttpProxy proxy = proxySettings.getProxy();
+            if (proxy == null) {
+                key.add(null);
+            } else {
+                key.add(proxy.host);
+                key.add(proxy.port);
+                addCredentials(key, proxy.credentials);
+            }
+        }
+        return key;
+    }
+
+    private static void addCredentials(List<Object> key, Object credentials) {
+        if (credentials instanceof PasswordCredentials) {
+            PasswordCredentials passwordCredentials = (PasswordCredentials) credentials;
+            key.add(passwordCredentials.getUsername());
+            key.add(passwordCredentials.getPassword());
+        } else {
+            key.add(credentials);
+        }
+    }
+
+    int getClientCount() {
+        synchronized (clients) {
+            return clients.size();
+        }
+    }
+
+    HttpClientStatistics getStatistics() {
+        return statistics;
+    }
+
+    @Override
+    public void stop() {
+        statistics.report(LOGGER);
+        synchronized (clients) {
+            CompositeStoppable.stoppable(clients.values()).stop();
+            clients.clear();
+        }
+    }
 }
@@ -35,6 +35,7 @@ public class HttpResourcesPluginServiceRegistry implements PluginServiceRegistry
 
     public void registerBuildServices(ServiceRegistration registration) {
         registration.addProvider(new AuthenticationSchemeAction());
+        registration.addProvider(new BuildScopeServices());
     }
 
     public void registerGradleServices(ServiceRegistration registration) {
@@ -47,7 +48,9 @@ public class HttpResourcesPluginServiceRegistry implements PluginServiceRegistry
         SslContextFactory createSslContextFactory() {
             return new DefaultSslContextFactory();
         }
+    }
 
+    private static class BuildScopeServices {
         ResourceConnectorFactory createHttpConnectorFactory(SslContextFactory sslContextFactory) {
             return new HttpConnectorFactory(sslContextFactory);
         }
@@ -28,4 +28,6 @@ public interface HttpSettings {
     Collection<Authentication> getAuthenticationSettings();
 
     SslContextFactory getSslContextFactory();
+
+    HttpConnectionPoolSettings getConnectionPoolSettings();
 }
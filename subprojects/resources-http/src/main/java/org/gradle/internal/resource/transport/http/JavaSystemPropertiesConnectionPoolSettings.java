@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http;
+
+public class JavaSystemPropertiesConnectionPoolSettings implements HttpConnectionPoolSettings {
+    public static final String MAX_CONNECTIONS_PER_ROUTE_PROPERTY = "org.gradle.http.connectionpool.maxperroute";
+    public static final String MAX_CONNECTIONS_PROPERTY = "org.gradle.http.connectionpool.maxtotal";
+    public static final String IDLE_CONNECTION_TIMEOUT_PROPERTY = "org.gradle.http.connectionpool.idletimeout";
+    private static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 20;
+    private static final int DEFAULT_MAX_CONNECTIONS = 100;
+    private static final long DEFAULT_IDLE_CONNECTION_TIMEOUT = 30000;
+
+    private final int maxConnectionsPerRoute;
+    private final int maxConnections;
+    private final long idleConnectionTimeout;
+
+    public JavaSystemPropertiesConnectionPoolSettings() {
+        this.maxConnectionsPerRoute = Math.max(1, Integer.getInteger(MAX_CONNECTIONS_PER_ROUTE_PROPERTY, DEFAULT_MAX_CONNECTIONS_PER_ROUTE));
+        this.maxConnections = Math.max(maxConnectionsPerRoute, Integer.getInteger(MAX_CONNECTIONS_PROPERTY, DEFAULT_MAX_CONNECTIONS));
+        this.idleConnectionTimeout = Long.getLong(IDLE_CONNECTION_TIMEOUT_PROPERTY, DEFAULT_IDLE_CONNECTION_TIMEOUT);
+    }
+
+    @Override
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    @Override
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    @Override
+    public long getIdleConnectionTimeout() {
+        return idleConnectionTimeout;
+    }
+}
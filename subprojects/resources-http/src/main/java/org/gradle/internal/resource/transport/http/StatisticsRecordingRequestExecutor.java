@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpRequestWrapper;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+/**
+ * Records the latency, connection reuse and received bytes of each request sent over a connection.
+ */
+class StatisticsRecordingRequestExecutor extends HttpRequestExecutor {
+    private final HttpClientStatistics statistics;
+
+    StatisticsRecordingRequestExecutor(HttpClientStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @Override
+    public HttpResponse execute(HttpRequest request, HttpClientConnection conn, HttpContext context) throws IOException, HttpException {
+        if ("CONNECT".equals(request.getRequestLine().getMethod())) {
+            return super.execute(request, conn, context);
+        }
+        long start = System.nanoTime();
+        HttpResponse response = super.execute(request, conn, context);
+        long latency = System.nanoTime() - start;
+
+        // The request count includes the request just sent, so any earlier request means the connection was kept alive and reused
+        boolean reused = conn.getMetrics().getRequestCount() > 1;
+        HttpClientStatistics.HostStatistics host = statistics.forHost(getHost(request, context));
+        host.requestCompleted(latency, reused);
+
+        HttpEntity entity = response.getEntity();
+        if (entity != null) {
+            response.setEntity(new CountingEntity(entity, host));
+        }
+        return response;
+    }
+
+    private static String getHost(HttpRequest request, HttpContext context) {
+        if (request instanceof HttpRequestWrapper && ((HttpRequestWrapper) request).getOriginal() instanceof HttpUriRequest) {
+            URI uri = ((HttpUriRequest) ((HttpRequestWrapper) request).getOriginal()).getURI();
+            if (uri.getHost() != null) {
+                return uri.getPort() < 0 ? uri.getScheme() + "://" + uri.getHost() : uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort();
+            }
+        }
+        return String.valueOf(HttpCoreContext.adapt(context).getTargetHost());
+    }
+
+    private static class CountingEntity extends HttpEntityWrapper {
+        private final HttpClientStatistics.HostStatistics host;
+
+        CountingEntity(HttpEntity wrappedEntity, HttpClientStatistics.HostStatistics host) {
+            super(wrappedEntity);
+            this.host = host;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return new FilterInputStream(super.getContent()) {
+                @Override
+                public int read() throws IOException {
+                    int result = super.read();
+                    if (result >= 0) {
+                        host.bytesReceived(1);
+                    }
+                    return result;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int count = super.read(b, off, len);
+                    if (count > 0) {
+                        host.bytesReceived(count);
+                    }
+                    return count;
+                }
+            };
+        }
+    }
+}
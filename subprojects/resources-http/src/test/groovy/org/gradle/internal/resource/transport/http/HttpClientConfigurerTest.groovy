@@ -110,4 +110,22 @@ public class HttpClientConfigurerTest extends Specification {
         then:
         httpClientBuilder.userAgent == UriTextResource.userAgentString
     }
+
+    def "creates pooled connection manager"() {
+        httpSettings.sslContextFactory >> sslContextFactory
+        httpSettings.connectionPoolSettings >> Stub(HttpConnectionPoolSettings) {
+            getMaxConnectionsPerRoute() >> 12
+            getMaxConnections() >> 40
+        }
+
+        when:
+        def connectionManager = configurer.createConnectionManager()
+
+        then:
+        connectionManager.defaultMaxPerRoute == 12
+        connectionManager.maxTotal == 40
+
+        cleanup:
+        connectionManager?.close()
+    }
 }
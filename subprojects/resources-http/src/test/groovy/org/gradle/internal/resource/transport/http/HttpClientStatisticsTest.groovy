@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http
+
+import org.slf4j.Logger
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class HttpClientStatisticsTest extends Specification {
+    def statistics = new HttpClientStatistics()
+
+    def "groups statistics by host"() {
+        when:
+        statistics.forHost("https://repo.example.com").requestCompleted(1000, false)
+        statistics.forHost("https://repo.example.com").requestCompleted(1000, true)
+        statistics.forHost("https://repo.example.com").requestCompleted(1000, true)
+        statistics.forHost("http://other.example.com").requestCompleted(1000, false)
+        statistics.forHost("http://other.example.com").bytesReceived(100)
+        statistics.forHost("http://other.example.com").bytesReceived(23)
+
+        then:
+        statistics.hosts.host == ["http://other.example.com", "https://repo.example.com"]
+
+        def other = statistics.hosts[0]
+        other.requests == 1
+        other.openedConnections == 1
+        other.reusedConnections == 0
+        other.bytesReceived == 123
+
+        def repo = statistics.hosts[1]
+        repo.requests == 3
+        repo.openedConnections == 1
+        repo.reusedConnections == 2
+        repo.bytesReceived == 0
+    }
+
+    def "calculates latency percentiles"() {
+        def host = statistics.forHost("https://repo.example.com")
+
+        when:
+        (1..100).reverse().each { host.requestCompleted(TimeUnit.MILLISECONDS.toNanos(it), true) }
+
+        then:
+        host.getLatencyPercentile(50) == 50
+        host.getLatencyPercentile(90) == 90
+        host.getLatencyPercentile(99) == 99
+        host.getLatencyPercentile(100) == 100
+    }
+
+    def "has no latency when no requests have been made"() {
+        expect:
+        statistics.forHost("https://repo.example.com").getLatencyPercentile(50) == 0
+    }
+
+    def "reports each host"() {
+        def logger = Mock(Logger)
+        def host = statistics.forHost("https://repo.example.com")
+        host.requestCompleted(TimeUnit.MILLISECONDS.toNanos(10), false)
+        host.requestCompleted(TimeUnit.MILLISECONDS.toNanos(20), true)
+        host.bytesReceived(2048)
+
+        when:
+        statistics.report(logger)
+
+        then:
+        1 * logger.info("{}", host)
+        0 * logger._
+
+        and:
+        host.toString() == "HTTP requests to https://repo.example.com: 2 requests, 2048 bytes received, 1 connections opened, 1 requests on reused connections (50%), latency p50 10 ms, p90 20 ms, p99 20 ms."
+    }
+}
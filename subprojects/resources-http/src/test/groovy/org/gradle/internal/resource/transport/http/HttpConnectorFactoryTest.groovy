@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.resource.transport.http
+
+import org.gradle.api.internal.artifacts.repositories.DefaultPasswordCredentials
+import org.gradle.authentication.Authentication
+import org.gradle.internal.authentication.DefaultBasicAuthentication
+import org.gradle.internal.resource.connector.ResourceConnectorSpecification
+import spock.lang.Specification
+
+class HttpConnectorFactoryTest extends Specification {
+    def factory = new HttpConnectorFactory(Stub(SslContextFactory))
+
+    def "connectors with the same settings share a client"() {
+        when:
+        factory.createResourceConnector(spec())
+        factory.createResourceConnector(spec())
+        factory.createResourceConnector(spec(basic("user", "password")))
+        factory.createResourceConnector(spec(basic("user", "password")))
+
+        then:
+        factory.clientCount == 2
+    }
+
+    def "connectors with different credentials use different clients"() {
+        when:
+        factory.createResourceConnector(spec(basic("user", "password")))
+        factory.createResourceConnector(spec(basic("user", "other")))
+        factory.createResourceConnector(spec(basic("other", "password")))
+
+        then:
+        factory.clientCount == 3
+    }
+
+    def "discards clients when stopped"() {
+        given:
+        factory.createResourceConnector(spec())
+
+        when:
+        factory.stop()
+
+        then:
+        factory.clientCount == 0
+    }
+
+    private ResourceConnectorSpecification spec(Authentication... authentications) {
+        def list = authentications as List
+        return Stub(ResourceConnectorSpecification) {
+            getAuthentications() >> list
+        }
+    }
+
+    private static Authentication basic(String username, String password) {
+        def authentication = new DefaultBasicAuthentication("basic")
+        authentication.credentials = new DefaultPasswordCredentials(username, password)
+        return authentication
+    }
+}
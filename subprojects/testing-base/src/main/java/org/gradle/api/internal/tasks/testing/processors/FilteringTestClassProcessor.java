@@ -0,0 +1,53 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.processors;
+
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.specs.Spec;
+
+/**
+ * Passes on only the test classes that satisfy the given spec.
+ */
+public class FilteringTestClassProcessor implements TestClassProcessor {
+    private final TestClassProcessor processor;
+    private final Spec<? super TestClassRunInfo> spec;
+
+    public FilteringTestClassProcessor(TestClassProcessor processor, Spec<? super TestClassRunInfo> spec) {
+        this.processor = processor;
+        this.spec = spec;
+    }
+
+    @Override
+    public void startProcessing(TestResultProcessor resultProcessor) {
+        processor.startProcessing(resultProcessor);
+    }
+
+    @Override
+    public void processTestClass(TestClassRunInfo testClass) {
+        if (spec.isSatisfiedBy(testClass)) {
+            processor.processTestClass(testClass);
+        }
+    }
+
+    @Override
+    public void stop() {
+        processor.stop();
+    }
+}
@@ -28,17 +28,22 @@ import org.gradle.internal.dispatch.DispatchException;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * Manages a set of parallel TestClassProcessors. Uses a simple round-robin algorithm to assign test classes to
- * processors.
+ * Manages a set of parallel TestClassProcessors. Test classes are handed to an idle processor when there is one, and are otherwise queued.
+ * A processor takes the next queued test class as soon as it has finished with its current one, so that a processor that receives a few slow
+ * test classes does not hold up the others.
  */
 public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     private final int maxProcessors;
     private final Factory<TestClassProcessor> factory;
     private final ActorFactory actorFactory;
+    private final Queue<TestClassRunInfo> pending = new ConcurrentLinkedQueue<TestClassRunInfo>();
     private TestResultProcessor resultProcessor;
-    private int pos;
+    private List<PullingTestClassProcessor> workers = new ArrayList<PullingTestClassProcessor>();
     private List<TestClassProcessor> processors = new ArrayList<TestClassProcessor>();
     private List<Actor> actors = new ArrayList<Actor>();
     private Actor resultProcessorActor;
@@ -57,19 +62,39 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
 
     @Override
     public void processTestClass(TestClassRunInfo testClass) {
-        TestClassProcessor processor;
-        if (processors.size() < maxProcessors) {
-            processor = factory.create();
-            Actor actor = actorFactory.createActor(processor);
-            processor = actor.getProxy(TestClassProcessor.class);
+        for (PullingTestClassProcessor worker : workers) {
+            if (worker.claim()) {
+                worker.asyncProcessor.processTestClass(testClass);
+                return;
+            }
+        }
+        if (workers.size() < maxProcessors) {
+            PullingTestClassProcessor worker = new PullingTestClassProcessor(factory.create(), pending);
+            Actor actor = actorFactory.createActor(worker);
+            worker.asyncProcessor = actor.getProxy(TestClassProcessor.class);
             actors.add(actor);
-            processors.add(processor);
-            processor.startProcessing(resultProcessor);
-        } else {
-            processor = processors.get(pos);
-            pos = (pos + 1) % processors.size();
+            workers.add(worker);
+            processors.add(worker.asyncProcessor);
+            worker.asyncProcessor.startProcessing(resultProcessor);
+            worker.claim();
+            worker.asyncProcessor.processTestClass(testClass);
+            return;
+        }
+        pending.add(testClass);
+        // A processor may have become idle while the test class was being queued
+        for (PullingTestClassProcessor worker : workers) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            if (worker.claim()) {
+                TestClassRunInfo next = pending.poll();
+                if (next == null) {
+                    worker.release();
+                    return;
+                }
+                worker.asyncProcessor.processTestClass(next);
+            }
         }
-        processor.processTestClass(testClass);
     }
 
     @Override
@@ -80,4 +105,61 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
             throw UncheckedException.throwAsUncheckedException(e.getCause());
         }
     }
+
+    /**
+     * Runs on the actor thread of a processor. Processes the given test class and then keeps taking queued test classes until the queue is empty.
+     */
+    private static class PullingTestClassProcessor implements TestClassProcessor {
+        private final TestClassProcessor processor;
+        private final Queue<TestClassRunInfo> pending;
+        private final AtomicBoolean busy = new AtomicBoolean();
+        private TestClassProcessor asyncProcessor;
+
+        PullingTestClassProcessor(TestClassProcessor processor, Queue<TestClassRunInfo> pending) {
+            this.processor = processor;
+            this.pending = pending;
+        }
+
+        boolean claim() {
+            return busy.compareAndSet(false, true);
+        }
+
+        void release() {
+            busy.set(false);
+        }
+
+        @Override
+        public void startProcessing(TestResultProcessor resultProcessor) {
+            processor.startProcessing(resultProcessor);
+        }
+
+        @Override
+        public void processTestClass(TestClassRunInfo testClass) {
+            TestClassRunInfo next = testClass;
+            while (next != null) {
+                try {
+                    processor.processTestClass(next);
+                } catch (RuntimeException e) {
+                    release();
+                    throw e;
+                }
+                next = pending.poll();
+                if (next == null) {
+                    release();
+                    // A test class may have been queued while this processor was still busy
+                    if (!pending.isEmpty() && claim()) {
+                        next = pending.poll();
+                        if (next == null) {
+                            release();
+                        }
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void stop() {
+            processor.stop();
+        }
+    }
 }
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.processors;
+
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Collects all test classes and passes them on in the given order when stopped. Test classes that the order does not distinguish keep the
+ * order they were received in.
+ */
+public class SortingTestClassProcessor implements TestClassProcessor {
+    private final TestClassProcessor processor;
+    private final Comparator<? super TestClassRunInfo> order;
+    private final List<TestClassRunInfo> testClasses = new ArrayList<TestClassRunInfo>();
+
+    public SortingTestClassProcessor(TestClassProcessor processor, Comparator<? super TestClassRunInfo> order) {
+        this.processor = processor;
+        this.order = order;
+    }
+
+    @Override
+    public void startProcessing(TestResultProcessor resultProcessor) {
+        processor.startProcessing(resultProcessor);
+    }
+
+    @Override
+    public void processTestClass(TestClassRunInfo testClass) {
+        testClasses.add(testClass);
+    }
+
+    @Override
+    public void stop() {
+        try {
+            Collections.sort(testClasses, order);
+            for (TestClassRunInfo testClass : testClasses) {
+                processor.processTestClass(testClass);
+            }
+        } finally {
+            testClasses.clear();
+            processor.stop();
+        }
+    }
+}
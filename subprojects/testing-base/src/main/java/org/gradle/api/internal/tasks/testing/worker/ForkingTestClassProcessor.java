@@ -22,17 +22,33 @@ import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.dispatch.StreamCompletion;
 import org.gradle.internal.remote.ObjectConnection;
 import org.gradle.process.JavaForkOptions;
+import org.gradle.process.internal.JavaExecHandleBuilder;
 import org.gradle.process.internal.worker.WorkerProcess;
 import org.gradle.process.internal.worker.WorkerProcessBuilder;
 import org.gradle.process.internal.worker.WorkerProcessFactory;
 import org.gradle.util.CollectionUtils;
 
 import java.io.File;
+import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
+/**
+ * Runs test classes in a forked worker process. {@link #processTestClass(TestClassRunInfo)} blocks until the worker has finished with the test class,
+ * so that the caller can decide which worker should receive the next test class.
+ *
+ * <p>When given a {@link TestWorkerProcessPool}, takes a worker process from the pool instead of starting one, and hands it back to the pool when stopped.
+ * A reused worker process has the jars of the test classpath on its system ClassPath, and loads the remaining entries, typically the class directories
+ * that change between test executions, with a new ClassLoader for each test execution. The jars are part of the key a worker is reused by.</p>
+ */
 public class ForkingTestClassProcessor implements TestClassProcessor {
     private final WorkerProcessFactory workerFactory;
     private final WorkerTestClassProcessorFactory processorFactory;
@@ -40,17 +56,25 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
     private final Iterable<File> classPath;
     private final Action<WorkerProcessBuilder> buildConfigAction;
     private final ModuleRegistry moduleRegistry;
+    private final TestWorkerProcessPool workerPool;
     private RemoteTestClassProcessor remoteProcessor;
     private WorkerProcess workerProcess;
+    private ReusableTestWorkerProcess reusableWorker;
     private TestResultProcessor resultProcessor;
+    final WorkerProgress workerProgress = new WorkerProgress();
 
     public ForkingTestClassProcessor(WorkerProcessFactory workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, ModuleRegistry moduleRegistry) {
+        this(workerFactory, processorFactory, options, classPath, buildConfigAction, moduleRegistry, null);
+    }
+
+    public ForkingTestClassProcessor(WorkerProcessFactory workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, ModuleRegistry moduleRegistry, TestWorkerProcessPool workerPool) {
         this.workerFactory = workerFactory;
         this.processorFactory = processorFactory;
         this.options = options;
         this.classPath = classPath;
         this.buildConfigAction = buildConfigAction;
         this.moduleRegistry = moduleRegistry;
+        this.workerPool = workerPool;
     }
 
     @Override
@@ -61,18 +85,17 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
     @Override
     public void processTestClass(TestClassRunInfo testClass) {
         if (remoteProcessor == null) {
-            remoteProcessor = forkProcess();
+            remoteProcessor = workerPool == null ? forkProcess() : reserveReusableProcess();
         }
 
+        workerProgress.testClassSent();
         remoteProcessor.processTestClass(testClass);
+        workerProgress.waitForTestClasses();
     }
 
     RemoteTestClassProcessor forkProcess() {
-        WorkerProcessBuilder builder = workerFactory.create(new TestWorker(processorFactory));
-        builder.setBaseName("Gradle Test Executor");
-        builder.setImplementationClasspath(getTestWorkerImplementationClasspath());
+        WorkerProcessBuilder builder = createWorkerProcessBuilder(new TestWorker(processorFactory));
         builder.applicationClasspath(classPath);
-        options.copyTo(builder.getJavaCommand());
         buildConfigAction.execute(builder);
 
         workerProcess = builder.build();
@@ -81,12 +104,61 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
         ObjectConnection connection = workerProcess.getConnection();
         connection.useParameterSerializers(TestEventSerializer.create());
         connection.addIncoming(TestResultProcessor.class, resultProcessor);
+        connection.addIncoming(TestClassProcessedListener.class, workerProgress);
         RemoteTestClassProcessor remoteProcessor = connection.addOutgoing(RemoteTestClassProcessor.class);
         connection.connect();
         remoteProcessor.startProcessing();
         return remoteProcessor;
     }
 
+    RemoteTestClassProcessor reserveReusableProcess() {
+        Set<File> workerClasspath = new LinkedHashSet<File>();
+        List<URL> sessionClasspath = new ArrayList<URL>();
+        List<String> workerClasspathState = new ArrayList<String>();
+        for (File file : classPath) {
+            if (file.isFile()) {
+                workerClasspath.add(file);
+                workerClasspathState.add(file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified());
+            } else {
+                sessionClasspath.add(toURL(file));
+            }
+        }
+
+        WorkerProcessBuilder builder = createWorkerProcessBuilder(new TestWorker());
+        builder.applicationClasspath(workerClasspath);
+        buildConfigAction.execute(builder);
+
+        JavaExecHandleBuilder javaCommand = builder.getJavaCommand();
+        Object key = Arrays.asList(javaCommand.getExecutable(), javaCommand.getAllJvmArgs(), javaCommand.getWorkingDir(), javaCommand.getEnvironment(),
+            workerClasspathState, builder.getSharedPackages(), builder.getLogLevel());
+        reusableWorker = workerPool.reserveIdleWorker(key);
+        if (reusableWorker == null) {
+            WorkerProcess workerProcess = builder.build();
+            workerProcess.start();
+            reusableWorker = new ReusableTestWorkerProcess(key, workerProcess);
+        }
+
+        RemoteTestClassProcessor remoteProcessor = reusableWorker.startSession(processorFactory, sessionClasspath, resultProcessor, workerProgress);
+        remoteProcessor.startProcessing();
+        return remoteProcessor;
+    }
+
+    private WorkerProcessBuilder createWorkerProcessBuilder(TestWorker worker) {
+        WorkerProcessBuilder builder = workerFactory.create(worker);
+        builder.setBaseName("Gradle Test Executor");
+        builder.setImplementationClasspath(getTestWorkerImplementationClasspath());
+        options.copyTo(builder.getJavaCommand());
+        return builder;
+    }
+
+    private static URL toURL(File file) {
+        try {
+            return file.toURI().toURL();
+        } catch (MalformedURLException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
     List<URL> getTestWorkerImplementationClasspath() {
         return CollectionUtils.flattenCollections(URL.class,
             moduleRegistry.getModule("gradle-core").getImplementationClasspath().getAsURLs(),
@@ -109,9 +181,47 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
 
     @Override
     public void stop() {
-        if (remoteProcessor != null) {
+        if (reusableWorker != null) {
+            try {
+                reusableWorker.endSession();
+            } finally {
+                workerPool.release(reusableWorker);
+            }
+        } else if (remoteProcessor != null) {
             remoteProcessor.stop();
             workerProcess.waitForStop();
         }
     }
+
+    static class WorkerProgress implements TestClassProcessedListener, StreamCompletion {
+        private int outstanding;
+        private boolean finished;
+
+        synchronized void testClassSent() {
+            outstanding++;
+        }
+
+        @Override
+        public synchronized void testClassProcessed(TestClassRunInfo testClass) {
+            outstanding--;
+            notifyAll();
+        }
+
+        @Override
+        public synchronized void endStream() {
+            // The worker has stopped or crashed, there is nothing more to wait for
+            finished = true;
+            notifyAll();
+        }
+
+        synchronized void waitForTestClasses() {
+            while (outstanding > 0 && !finished) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+        }
+    }
 }
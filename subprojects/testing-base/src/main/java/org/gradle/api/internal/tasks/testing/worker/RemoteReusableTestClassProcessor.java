@@ -0,0 +1,39 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+
+import java.net.URL;
+import java.util.List;
+
+/**
+ * A {@link RemoteTestClassProcessor} in a worker process that is reused by several test executions. Each test execution is a session, started
+ * with {@link #startSession(WorkerTestClassProcessorFactory, List)} and finished with {@link #endSession()}. {@link #stop()} stops the worker process.
+ */
+public interface RemoteReusableTestClassProcessor extends RemoteTestClassProcessor {
+    /**
+     * Creates the test class processor for a session, loading test classes from a new ClassLoader for the given classpath. Does not block.
+     */
+    void startSession(WorkerTestClassProcessorFactory processorFactory, List<URL> applicationClasspath);
+
+    /**
+     * Stops the test class processor of the current session and resets the worker for the next session. Does not block.
+     */
+    void endSession();
+}
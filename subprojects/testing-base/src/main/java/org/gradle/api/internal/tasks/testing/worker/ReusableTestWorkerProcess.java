@@ -0,0 +1,194 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.dispatch.StreamCompletion;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.process.internal.worker.WorkerProcess;
+
+import java.net.URL;
+import java.util.List;
+
+/**
+ * A started test worker process that runs the test classes of one test execution at a time, and that can be handed back to a {@link TestWorkerProcessPool}
+ * for use by a later test execution.
+ */
+public class ReusableTestWorkerProcess implements Stoppable {
+    private final Object key;
+    private final WorkerProcess workerProcess;
+    private final SessionDispatch sessionDispatch = new SessionDispatch();
+    private final RemoteReusableTestClassProcessor remoteProcessor;
+
+    /**
+     * Connects to the given worker process, which must have been started with a reusable {@link TestWorker}.
+     */
+    public ReusableTestWorkerProcess(Object key, WorkerProcess workerProcess) {
+        this.key = key;
+        this.workerProcess = workerProcess;
+        ObjectConnection connection = workerProcess.getConnection();
+        connection.useParameterSerializers(TestEventSerializer.create());
+        connection.addIncoming(TestWorkerSessionListener.class, sessionDispatch);
+        remoteProcessor = connection.addOutgoing(RemoteReusableTestClassProcessor.class);
+        connection.connect();
+    }
+
+    public Object getKey() {
+        return key;
+    }
+
+    /**
+     * Returns true when the worker process has stopped or could not be reset after a session, and so cannot be reused.
+     */
+    public boolean isStopped() {
+        return !sessionDispatch.isReusable();
+    }
+
+    /**
+     * Starts a session, sending the test events of the session to the given processor and listener. Does not block.
+     */
+    RemoteTestClassProcessor startSession(WorkerTestClassProcessorFactory processorFactory, List<URL> applicationClasspath,
+                                          TestResultProcessor resultProcessor, ForkingTestClassProcessor.WorkerProgress workerProgress) {
+        sessionDispatch.start(resultProcessor, workerProgress);
+        remoteProcessor.startSession(processorFactory, applicationClasspath);
+        return remoteProcessor;
+    }
+
+    /**
+     * Ends the current session, blocking until the worker has sent all test events of the session. Fails when the worker process has crashed.
+     * When the worker could not be reset after the session, {@link #isStopped()} returns true so that the pool stops the worker instead of keeping it.
+     */
+    void endSession() {
+        remoteProcessor.endSession();
+        sessionDispatch.waitForEnd();
+        if (sessionDispatch.isFinished()) {
+            workerProcess.waitForStop();
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (!sessionDispatch.isFinished()) {
+            remoteProcessor.stop();
+        }
+        workerProcess.waitForStop();
+    }
+
+    @Override
+    public String toString() {
+        return workerProcess.toString();
+    }
+
+    /**
+     * Forwards the events received from the worker to the current session.
+     */
+    private static class SessionDispatch implements TestWorkerSessionListener, StreamCompletion {
+        private TestResultProcessor resultProcessor;
+        private ForkingTestClassProcessor.WorkerProgress workerProgress;
+        private boolean running;
+        private boolean finished;
+        private boolean reusable = true;
+
+        synchronized void start(TestResultProcessor resultProcessor, ForkingTestClassProcessor.WorkerProgress workerProgress) {
+            this.resultProcessor = resultProcessor;
+            this.workerProgress = workerProgress;
+            running = true;
+        }
+
+        synchronized void waitForEnd() {
+            while (running && !finished) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+            resultProcessor = null;
+            workerProgress = null;
+        }
+
+        synchronized boolean isFinished() {
+            return finished;
+        }
+
+        synchronized boolean isReusable() {
+            return reusable && !finished;
+        }
+
+        private synchronized TestResultProcessor getResultProcessor() {
+            return resultProcessor;
+        }
+
+        @Override
+        public void started(TestDescriptorInternal test, TestStartEvent event) {
+            getResultProcessor().started(test, event);
+        }
+
+        @Override
+        public void completed(Object testId, TestCompleteEvent event) {
+            getResultProcessor().completed(testId, event);
+        }
+
+        @Override
+        public void output(Object testId, TestOutputEvent event) {
+            getResultProcessor().output(testId, event);
+        }
+
+        @Override
+        public void failure(Object testId, Throwable result) {
+            getResultProcessor().failure(testId, result);
+        }
+
+        @Override
+        public void testClassProcessed(TestClassRunInfo testClass) {
+            ForkingTestClassProcessor.WorkerProgress progress;
+            synchronized (this) {
+                progress = workerProgress;
+            }
+            progress.testClassProcessed(testClass);
+        }
+
+        @Override
+        public synchronized void sessionEnded(boolean reusable) {
+            running = false;
+            this.reusable &= reusable;
+            notifyAll();
+        }
+
+        @Override
+        public void endStream() {
+            ForkingTestClassProcessor.WorkerProgress progress;
+            synchronized (this) {
+                finished = true;
+                notifyAll();
+                progress = workerProgress;
+            }
+            if (progress != null) {
+                progress.endStream();
+            }
+        }
+    }
+}
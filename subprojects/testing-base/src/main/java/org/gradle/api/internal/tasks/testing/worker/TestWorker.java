@@ -24,6 +24,7 @@ import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
 import org.gradle.internal.TimeProvider;
 import org.gradle.internal.TrueTimeProvider;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.concurrent.DefaultExecutorFactory;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.id.CompositeIdGenerator;
@@ -40,20 +41,43 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+import java.util.Properties;
 import java.util.concurrent.CountDownLatch;
 
-public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClassProcessor, Serializable {
+/**
+ * Runs test classes in a worker process. A worker created with a {@link WorkerTestClassProcessorFactory} runs the test classes of a single
+ * test execution, loaded by the application ClassLoader of the worker process. A worker created without one is reusable: it receives the
+ * processor factory and test classpath of each test execution through {@link RemoteReusableTestClassProcessor#startSession}.
+ */
+public class TestWorker implements Action<WorkerProcessContext>, RemoteReusableTestClassProcessor, Serializable {
     private static final Logger LOGGER = LoggerFactory.getLogger(TestWorker.class);
     public static final String WORKER_ID_SYS_PROPERTY = "org.gradle.test.worker";
     private final WorkerTestClassProcessorFactory factory;
     private CountDownLatch completed;
     private TestClassProcessor processor;
     private TestResultProcessor resultProcessor;
+    private TestClassProcessedListener processedListener;
+    private TestWorkerSessionListener sessionListener;
+    private WorkerProcessContext workerProcessContext;
+    private ServiceRegistry testServices;
+    private URLClassLoader sessionClassLoader;
+    private Properties systemProperties;
+    private SecurityManager securityManager;
 
     public TestWorker(WorkerTestClassProcessorFactory factory) {
         this.factory = factory;
     }
 
+    /**
+     * Creates a reusable worker.
+     */
+    public TestWorker() {
+        this(null);
+    }
+
     @Override
     public void execute(final WorkerProcessContext workerProcessContext) {
         LOGGER.info("{} started executing tests.", workerProcessContext.getDisplayName());
@@ -80,20 +104,83 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
     }
 
     private void startReceivingTests(WorkerProcessContext workerProcessContext, ServiceRegistry testServices) {
+        this.workerProcessContext = workerProcessContext;
+        this.testServices = testServices;
+
+        ObjectConnection serverConnection = workerProcessContext.getServerConnection();
+        serverConnection.useParameterSerializers(TestEventSerializer.create());
+        if (factory == null) {
+            this.sessionListener = serverConnection.addOutgoing(TestWorkerSessionListener.class);
+            this.resultProcessor = sessionListener;
+            this.processedListener = sessionListener;
+            serverConnection.addIncoming(RemoteReusableTestClassProcessor.class, this);
+        } else {
+            processor = createProcessor(factory, workerProcessContext.getApplicationClassLoader());
+            this.resultProcessor = serverConnection.addOutgoing(TestResultProcessor.class);
+            this.processedListener = serverConnection.addOutgoing(TestClassProcessedListener.class);
+            serverConnection.addIncoming(RemoteTestClassProcessor.class, this);
+        }
+        serverConnection.connect();
+    }
+
+    private TestClassProcessor createProcessor(WorkerTestClassProcessorFactory factory, ClassLoader applicationClassLoader) {
         TestClassProcessor targetProcessor = factory.create(testServices);
         IdGenerator<Object> idGenerator = testServices.get(IdGenerator.class);
 
         targetProcessor = new WorkerTestClassProcessor(targetProcessor, idGenerator.generateId(),
                 workerProcessContext.getDisplayName(), testServices.get(TimeProvider.class));
         ContextClassLoaderProxy<TestClassProcessor> proxy = new ContextClassLoaderProxy<TestClassProcessor>(
-                TestClassProcessor.class, targetProcessor, workerProcessContext.getApplicationClassLoader());
-        processor = proxy.getSource();
+                TestClassProcessor.class, targetProcessor, applicationClassLoader);
+        return proxy.getSource();
+    }
 
-        ObjectConnection serverConnection = workerProcessContext.getServerConnection();
-        serverConnection.useParameterSerializers(TestEventSerializer.create());
-        this.resultProcessor = serverConnection.addOutgoing(TestResultProcessor.class);
-        serverConnection.addIncoming(RemoteTestClassProcessor.class, this);
-        serverConnection.connect();
+    @Override
+    public void startSession(WorkerTestClassProcessorFactory processorFactory, List<URL> applicationClasspath) {
+        Thread.currentThread().setName("Test worker");
+        systemProperties = new Properties();
+        systemProperties.putAll(System.getProperties());
+        securityManager = System.getSecurityManager();
+        sessionClassLoader = new URLClassLoader(applicationClasspath.toArray(new URL[0]), workerProcessContext.getApplicationClassLoader());
+        processor = createProcessor(processorFactory, sessionClassLoader);
+    }
+
+    @Override
+    public void endSession() {
+        Thread.currentThread().setName("Test worker");
+        boolean reusable = false;
+        try {
+            try {
+                processor.stop();
+            } finally {
+                processor = null;
+                reusable = resetSession();
+            }
+        } finally {
+            sessionListener.sessionEnded(reusable);
+        }
+    }
+
+    /**
+     * Undoes what the tests might have changed, so that the next session starts from the same state.
+     *
+     * @return false when the state could not be reset, in which case the worker must not be reused.
+     */
+    private boolean resetSession() {
+        Thread.interrupted();
+        try {
+            // Restore the security manager first, as one installed by the tests may prevent the other changes
+            System.setSecurityManager(securityManager);
+            System.setProperties(systemProperties);
+            return true;
+        } catch (SecurityException e) {
+            LOGGER.info("Could not reset {} after executing tests, it will not be reused.", workerProcessContext.getDisplayName(), e);
+            return false;
+        } finally {
+            securityManager = null;
+            systemProperties = null;
+            CompositeStoppable.stoppable(sessionClassLoader).stop();
+            sessionClassLoader = null;
+        }
     }
 
     @Override
@@ -110,6 +197,7 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
         } finally {
             // Clean the interrupted status
             Thread.interrupted();
+            processedListener.testClassProcessed(testClass);
         }
     }
 
@@ -117,7 +205,9 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
     public void stop() {
         Thread.currentThread().setName("Test worker");
         try {
-            processor.stop();
+            if (processor != null) {
+                processor.stop();
+            }
         } finally {
             completed.countDown();
         }
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.Stoppable;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Keeps test worker processes alive between test executions, so that a later test execution with the same worker configuration can reuse a
+ * warm JVM instead of starting a new one. Lives as long as the Gradle process, so that the workers are reused across builds by the daemon.
+ */
+public class TestWorkerProcessPool implements Stoppable {
+    public static final String MAX_IDLE_WORKERS_PROPERTY = "org.gradle.test.worker.pool.maxidle";
+    private static final Logger LOGGER = Logging.getLogger(TestWorkerProcessPool.class);
+
+    private final Object lock = new Object();
+    private final List<ReusableTestWorkerProcess> idleWorkers = new ArrayList<ReusableTestWorkerProcess>();
+    private final int maxIdleWorkers;
+    private boolean stopped;
+
+    public TestWorkerProcessPool() {
+        this(Integer.getInteger(MAX_IDLE_WORKERS_PROPERTY, Runtime.getRuntime().availableProcessors()));
+    }
+
+    TestWorkerProcessPool(int maxIdleWorkers) {
+        this.maxIdleWorkers = maxIdleWorkers;
+    }
+
+    /**
+     * Takes an idle worker with the given key out of the pool.
+     *
+     * @return the worker, or null when there is no such worker.
+     */
+    public ReusableTestWorkerProcess reserveIdleWorker(Object key) {
+        List<ReusableTestWorkerProcess> discarded = new ArrayList<ReusableTestWorkerProcess>();
+        try {
+            synchronized (lock) {
+                Iterator<ReusableTestWorkerProcess> iterator = idleWorkers.iterator();
+                while (iterator.hasNext()) {
+                    ReusableTestWorkerProcess candidate = iterator.next();
+                    if (candidate.isStopped()) {
+                        iterator.remove();
+                        discarded.add(candidate);
+                    } else if (candidate.getKey().equals(key)) {
+                        iterator.remove();
+                        LOGGER.info("Reusing test worker {}.", candidate);
+                        return candidate;
+                    }
+                }
+                return null;
+            }
+        } finally {
+            stopQuietly(discarded);
+        }
+    }
+
+    /**
+     * Hands a worker back to the pool once its session has ended. When the pool is full, the worker that has been idle the longest is stopped.
+     */
+    public void release(ReusableTestWorkerProcess worker) {
+        List<ReusableTestWorkerProcess> discarded = new ArrayList<ReusableTestWorkerProcess>();
+        synchronized (lock) {
+            if (stopped || worker.isStopped()) {
+                discarded.add(worker);
+            } else {
+                idleWorkers.add(worker);
+                while (idleWorkers.size() > maxIdleWorkers) {
+                    discarded.add(idleWorkers.remove(0));
+                }
+            }
+        }
+        stopQuietly(discarded);
+    }
+
+    private void stopQuietly(List<ReusableTestWorkerProcess> workers) {
+        for (ReusableTestWorkerProcess worker : workers) {
+            try {
+                worker.stop();
+            } catch (Exception e) {
+                LOGGER.debug("Could not stop test worker {}.", worker, e);
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        List<ReusableTestWorkerProcess> workers;
+        synchronized (lock) {
+            stopped = true;
+            workers = new ArrayList<ReusableTestWorkerProcess>(idleWorkers);
+            idleWorkers.clear();
+        }
+        LOGGER.debug("Stopping {} idle test worker(s).", workers.size());
+        CompositeStoppable.stoppable(workers).stop();
+    }
+}
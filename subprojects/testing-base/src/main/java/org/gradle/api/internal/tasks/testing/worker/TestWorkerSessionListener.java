@@ -0,0 +1,33 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+
+/**
+ * Receives the events of a reusable test worker. The events are sent over a single channel, so that the end of a session is received after
+ * all test events of the session.
+ */
+public interface TestWorkerSessionListener extends TestResultProcessor, TestClassProcessedListener {
+    /**
+     * Called when a session has ended.
+     *
+     * @param reusable false when the worker could not be reset after the session, and so must not run another session.
+     */
+    void sessionEnded(boolean reusable);
+}
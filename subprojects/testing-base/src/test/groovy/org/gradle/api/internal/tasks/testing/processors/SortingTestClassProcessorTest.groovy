@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.processors
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.internal.Factory
+import org.gradle.internal.actor.Actor
+import org.gradle.internal.actor.ActorFactory
+import spock.lang.Specification
+
+class SortingTestClassProcessorTest extends Specification {
+    def delegate = Mock(TestClassProcessor)
+    def resultProcessor = Mock(TestResultProcessor)
+    def order = { TestClassRunInfo a, TestClassRunInfo b -> rank(a) <=> rank(b) } as Comparator
+
+    def "passes on test classes in the given order when stopped"() {
+        def processor = new SortingTestClassProcessor(delegate, order)
+        def fast = new DefaultTestClassRunInfo("Fast")
+        def other = new DefaultTestClassRunInfo("Other")
+        def failed = new DefaultTestClassRunInfo("Failed")
+
+        when:
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(fast)
+        processor.processTestClass(other)
+        processor.processTestClass(failed)
+
+        then:
+        1 * delegate.startProcessing(resultProcessor)
+        0 * delegate._
+
+        when:
+        processor.stop()
+
+        then:
+        1 * delegate.processTestClass(failed)
+
+        then:
+        1 * delegate.processTestClass(fast)
+
+        then:
+        1 * delegate.processTestClass(other)
+
+        then:
+        1 * delegate.stop()
+    }
+
+    def "runs the test class that failed first with a single fork, even when it is scanned last"() {
+        def forked = Mock(TestClassProcessor)
+        def factory = Stub(Factory) {
+            create() >> forked
+        }
+        def actorFactory = Stub(ActorFactory) {
+            createActor(_) >> { Object target ->
+                Stub(Actor) {
+                    getProxy(_) >> target
+                }
+            }
+        }
+        def processor = new SortingTestClassProcessor(new MaxNParallelTestClassProcessor(1, factory, actorFactory), order)
+        def fast = new DefaultTestClassRunInfo("Fast")
+        def failed = new DefaultTestClassRunInfo("Failed")
+
+        when:
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(fast)
+        processor.processTestClass(failed)
+        processor.stop()
+
+        then:
+        1 * forked.processTestClass(failed)
+
+        then:
+        1 * forked.processTestClass(fast)
+    }
+
+    private static int rank(TestClassRunInfo testClass) {
+        switch (testClass.testClassName) {
+            case "Failed": return 0
+            case "Fast": return 1
+            default: return 2
+        }
+    }
+}
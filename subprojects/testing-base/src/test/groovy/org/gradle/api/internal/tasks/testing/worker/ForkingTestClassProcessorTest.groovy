@@ -24,13 +24,18 @@ import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory
 import org.gradle.internal.classpath.ClassPath
 import org.gradle.internal.remote.ObjectConnection
 import org.gradle.process.JavaForkOptions
+import org.gradle.process.internal.JavaExecHandleBuilder
 import org.gradle.process.internal.worker.WorkerProcess
 import org.gradle.process.internal.worker.WorkerProcessBuilder
 import org.gradle.process.internal.worker.WorkerProcessFactory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
 import spock.lang.Specification
 import spock.lang.Subject
 
 class ForkingTestClassProcessorTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
 
     WorkerProcessFactory workerProcessFactory = Mock(WorkerProcessFactory)
     WorkerProcessBuilder workerProcessBuilder = Mock(WorkerProcessBuilder)
@@ -50,11 +55,43 @@ class ForkingTestClassProcessorTest extends Specification {
 
         then:
         1 * processor.forkProcess() >> remoteProcessor
-        1 * remoteProcessor.processTestClass(test1)
-        1 * remoteProcessor.processTestClass(test2)
+        1 * remoteProcessor.processTestClass(test1) >> { processor.workerProgress.testClassProcessed(test1) }
+        1 * remoteProcessor.processTestClass(test2) >> { processor.workerProgress.testClassProcessed(test2) }
         0 * remoteProcessor._
     }
 
+    def "waits for worker to finish with a test class"() {
+        def test = Mock(TestClassRunInfo)
+        def remoteProcessor = Mock(RemoteTestClassProcessor)
+        processor.forkProcess() >> remoteProcessor
+        remoteProcessor.processTestClass(test) >> {
+            Thread.start {
+                sleep(100)
+                processor.workerProgress.testClassProcessed(test)
+            }
+        }
+
+        when:
+        def start = System.currentTimeMillis()
+        processor.processTestClass(test)
+
+        then:
+        System.currentTimeMillis() - start >= 100
+    }
+
+    def "stops waiting when the worker goes away"() {
+        def test = Mock(TestClassRunInfo)
+        def remoteProcessor = Mock(RemoteTestClassProcessor)
+        processor.forkProcess() >> remoteProcessor
+        remoteProcessor.processTestClass(test) >> { processor.workerProgress.endStream() }
+
+        when:
+        processor.processTestClass(test)
+
+        then:
+        noExceptionThrown()
+    }
+
     def "starts process with a limited implementation classpath"() {
         setup:
         1 * workerProcessFactory.create(_) >> workerProcessBuilder
@@ -70,6 +107,94 @@ class ForkingTestClassProcessorTest extends Specification {
         1 * workerProcessBuilder.setImplementationClasspath(_) >> { assert it[0].size() == 15 }
     }
 
+    def "takes a reusable worker process from the pool and hands it back when stopped"() {
+        def pool = new TestWorkerProcessPool(2)
+        def processorFactory = Mock(WorkerTestClassProcessorFactory)
+        def classesDir = tmpDir.createDir("classes")
+        def jar = tmpDir.createFile("lib.jar")
+        def classPath = [classesDir, jar]
+        def test = Mock(TestClassRunInfo)
+        def connection = Mock(ObjectConnection)
+        def remoteProcessor = Mock(RemoteReusableTestClassProcessor)
+        TestWorkerSessionListener sessionListener = null
+        moduleRegistry.getModule(_) >> { module(it[0]) }
+        moduleRegistry.getExternalModule(_) >> { module(it[0]) }
+        workerProcessBuilder.javaCommand >> Mock(JavaExecHandleBuilder)
+        workerProcess.connection >> connection
+        connection.addIncoming(TestWorkerSessionListener, _) >> { sessionListener = it[1] }
+        connection.addOutgoing(RemoteReusableTestClassProcessor) >> remoteProcessor
+        remoteProcessor.processTestClass(test) >> { sessionListener.testClassProcessed(test) }
+        remoteProcessor.endSession() >> { sessionListener.sessionEnded(true) }
+
+        when:
+        def first = new ForkingTestClassProcessor(workerProcessFactory, processorFactory, Mock(JavaForkOptions), classPath, Mock(Action), moduleRegistry, pool)
+        first.processTestClass(test)
+        first.stop()
+
+        then:
+        1 * workerProcessFactory.create({ it instanceof TestWorker }) >> workerProcessBuilder
+        1 * workerProcessBuilder.applicationClasspath([jar] as Set)
+        1 * workerProcessBuilder.build() >> workerProcess
+        1 * workerProcess.start()
+        1 * remoteProcessor.startSession(processorFactory, [classesDir.toURI().toURL()])
+        1 * remoteProcessor.startProcessing()
+        1 * remoteProcessor.endSession()
+        0 * remoteProcessor.stop()
+
+        when:
+        def second = new ForkingTestClassProcessor(workerProcessFactory, processorFactory, Mock(JavaForkOptions), classPath, Mock(Action), moduleRegistry, pool)
+        second.processTestClass(test)
+        second.stop()
+
+        then:
+        1 * workerProcessFactory.create(_) >> workerProcessBuilder
+        0 * workerProcessBuilder.build()
+        1 * remoteProcessor.startSession(processorFactory, [classesDir.toURI().toURL()])
+        1 * remoteProcessor.endSession()
+
+        when:
+        pool.stop()
+
+        then:
+        1 * remoteProcessor.stop()
+        1 * workerProcess.waitForStop()
+    }
+
+    def "stops a reusable worker process that could not be reset after its session"() {
+        def pool = new TestWorkerProcessPool(2)
+        def processorFactory = Mock(WorkerTestClassProcessorFactory)
+        def test = Mock(TestClassRunInfo)
+        def connection = Mock(ObjectConnection)
+        def remoteProcessor = Mock(RemoteReusableTestClassProcessor)
+        TestWorkerSessionListener sessionListener = null
+        moduleRegistry.getModule(_) >> { module(it[0]) }
+        moduleRegistry.getExternalModule(_) >> { module(it[0]) }
+        workerProcessFactory.create(_) >> workerProcessBuilder
+        workerProcessBuilder.javaCommand >> Mock(JavaExecHandleBuilder)
+        workerProcess.connection >> connection
+        connection.addIncoming(TestWorkerSessionListener, _) >> { sessionListener = it[1] }
+        connection.addOutgoing(RemoteReusableTestClassProcessor) >> remoteProcessor
+        remoteProcessor.processTestClass(test) >> { sessionListener.testClassProcessed(test) }
+        remoteProcessor.endSession() >> { sessionListener.sessionEnded(false) }
+
+        when:
+        def first = new ForkingTestClassProcessor(workerProcessFactory, processorFactory, Mock(JavaForkOptions), [], Mock(Action), moduleRegistry, pool)
+        first.processTestClass(test)
+        first.stop()
+
+        then:
+        1 * workerProcessBuilder.build() >> workerProcess
+        1 * remoteProcessor.stop()
+        1 * workerProcess.waitForStop()
+
+        when:
+        def second = new ForkingTestClassProcessor(workerProcessFactory, processorFactory, Mock(JavaForkOptions), [], Mock(Action), moduleRegistry, pool)
+        second.processTestClass(test)
+
+        then:
+        1 * workerProcessBuilder.build() >> workerProcess
+    }
+
     def module(String module) {
         return Stub(Module) {
             _ * getImplementationClasspath() >> {
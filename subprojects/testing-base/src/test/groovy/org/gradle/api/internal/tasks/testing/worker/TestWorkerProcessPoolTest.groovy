@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import spock.lang.Specification
+
+class TestWorkerProcessPoolTest extends Specification {
+    def pool = new TestWorkerProcessPool(2)
+
+    def "reserves idle worker with matching key"() {
+        def worker1 = worker("a")
+        def worker2 = worker("b")
+        pool.release(worker1)
+        pool.release(worker2)
+
+        expect:
+        pool.reserveIdleWorker("b") == worker2
+        pool.reserveIdleWorker("b") == null
+        pool.reserveIdleWorker("c") == null
+        pool.reserveIdleWorker("a") == worker1
+    }
+
+    def "stops the longest idle worker when the pool is full"() {
+        def worker1 = worker("a")
+        def worker2 = worker("a")
+        def worker3 = worker("a")
+
+        when:
+        pool.release(worker1)
+        pool.release(worker2)
+        pool.release(worker3)
+
+        then:
+        1 * worker1.stop()
+        0 * worker2.stop()
+        0 * worker3.stop()
+
+        and:
+        pool.reserveIdleWorker("a") == worker2
+    }
+
+    def "discards workers whose process has stopped"() {
+        def worker = worker("a")
+        pool.release(worker)
+
+        when:
+        def reserved = pool.reserveIdleWorker("a")
+
+        then:
+        _ * worker.stopped >> true
+        1 * worker.stop()
+        reserved == null
+    }
+
+    def "stops idle workers when stopped and workers released afterwards"() {
+        def idle = worker("a")
+        def busy = worker("a")
+        pool.release(idle)
+
+        when:
+        pool.stop()
+
+        then:
+        1 * idle.stop()
+
+        when:
+        pool.release(busy)
+
+        then:
+        1 * busy.stop()
+        pool.reserveIdleWorker("a") == null
+    }
+
+    private ReusableTestWorkerProcess worker(String key) {
+        def worker = Mock(ReusableTestWorkerProcess)
+        _ * worker.key >> key
+        return worker
+    }
+}
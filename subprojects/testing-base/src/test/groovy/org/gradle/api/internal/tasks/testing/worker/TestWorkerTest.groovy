@@ -27,6 +27,8 @@ import org.gradle.test.fixtures.concurrent.ConcurrentSpec
 import org.gradle.util.SetSystemProperties
 import org.junit.Rule
 
+import java.security.Permission
+
 public class TestWorkerTest extends ConcurrentSpec {
     @Rule SetSystemProperties properties = new SetSystemProperties()
     def workerContext = Mock(WorkerProcessContext)
@@ -35,6 +37,7 @@ public class TestWorkerTest extends ConcurrentSpec {
     def processor = Mock(TestClassProcessor)
     def test = Mock(TestClassRunInfo)
     def resultProcessor = Mock(TestResultProcessor)
+    def processedListener = Mock(TestClassProcessedListener)
     def worker = new TestWorker(factory)
 
     def setup() {
@@ -56,6 +59,7 @@ public class TestWorkerTest extends ConcurrentSpec {
         and:
         1 * factory.create(_) >> processor
         1 * connection.addOutgoing(TestResultProcessor) >> resultProcessor
+        1 * connection.addOutgoing(TestClassProcessedListener) >> processedListener
         1 * connection.addIncoming(RemoteTestClassProcessor, worker)
         1 * connection.useParameterSerializers(_)
         1 * connection.connect() >> {
@@ -69,6 +73,123 @@ public class TestWorkerTest extends ConcurrentSpec {
         }
         1 * processor.startProcessing(_)
         1 * processor.processTestClass(test)
+        1 * processedListener.testClassProcessed(test)
         1 * processor.stop()
     }
+
+    def reusableWorkerCreatesTestProcessorForEachSessionAndResetsSystemPropertiesAfterwards() {
+        def reusableWorker = new TestWorker()
+        def sessionListener = Mock(TestWorkerSessionListener)
+        def sessionClassLoader = null
+
+        when:
+        async {
+            reusableWorker.execute(workerContext)
+        }
+
+        then:
+        System.getProperty("from.test") == null
+
+        and:
+        1 * connection.addOutgoing(TestWorkerSessionListener) >> sessionListener
+        1 * connection.addIncoming(RemoteReusableTestClassProcessor, reusableWorker)
+        1 * connection.useParameterSerializers(_)
+        1 * connection.connect() >> {
+            start {
+                reusableWorker.startSession(factory, [])
+                reusableWorker.startProcessing()
+                reusableWorker.processTestClass(test)
+                reusableWorker.endSession()
+                reusableWorker.startSession(factory, [])
+                reusableWorker.endSession()
+                reusableWorker.stop()
+            }
+        }
+        2 * factory.create(_) >> processor
+        1 * processor.startProcessing(_)
+        1 * processor.processTestClass(test) >> {
+            sessionClassLoader = Thread.currentThread().contextClassLoader
+            System.setProperty("from.test", "value")
+        }
+        1 * sessionListener.testClassProcessed(test)
+        2 * processor.stop()
+        2 * sessionListener.sessionEnded(true)
+        sessionClassLoader instanceof URLClassLoader
+    }
+
+    def reusableWorkerRestoresSecurityManagerAfterSession() {
+        def reusableWorker = new TestWorker()
+        def sessionListener = Mock(TestWorkerSessionListener)
+        def securityManager = null
+
+        when:
+        async {
+            reusableWorker.execute(workerContext)
+        }
+
+        then:
+        securityManager == null
+
+        and:
+        1 * connection.addOutgoing(TestWorkerSessionListener) >> sessionListener
+        1 * connection.connect() >> {
+            start {
+                reusableWorker.startSession(factory, [])
+                reusableWorker.startProcessing()
+                reusableWorker.processTestClass(test)
+                reusableWorker.endSession()
+                securityManager = System.securityManager
+                reusableWorker.stop()
+            }
+        }
+        1 * factory.create(_) >> processor
+        1 * processor.processTestClass(test) >> {
+            System.securityManager = new PermissiveSecurityManager()
+        }
+        1 * sessionListener.sessionEnded(true)
+    }
+
+    def reusableWorkerIsNotReusedWhenSecurityManagerCannotBeRestored() {
+        def reusableWorker = new TestWorker()
+        def sessionListener = Mock(TestWorkerSessionListener)
+        def securityManager = new PermissiveSecurityManager(denyReset: true)
+
+        when:
+        async {
+            reusableWorker.execute(workerContext)
+        }
+
+        then:
+        1 * connection.addOutgoing(TestWorkerSessionListener) >> sessionListener
+        1 * connection.connect() >> {
+            start {
+                reusableWorker.startSession(factory, [])
+                reusableWorker.startProcessing()
+                reusableWorker.processTestClass(test)
+                reusableWorker.endSession()
+                securityManager.denyReset = false
+                reusableWorker.stop()
+            }
+        }
+        1 * factory.create(_) >> processor
+        1 * processor.processTestClass(test) >> {
+            System.securityManager = securityManager
+        }
+        1 * sessionListener.sessionEnded(false)
+
+        cleanup:
+        securityManager.denyReset = false
+        System.securityManager = null
+    }
+
+    static class PermissiveSecurityManager extends SecurityManager {
+        volatile boolean denyReset
+
+        @Override
+        void checkPermission(Permission permission) {
+            if (denyReset && permission.name == "setSecurityManager") {
+                throw new SecurityException("Cannot replace the security manager.")
+            }
+        }
+    }
 }
@@ -19,13 +19,18 @@ package org.gradle.api.internal.tasks.testing.detection;
 import org.gradle.api.file.FileTree;
 import org.gradle.api.internal.classpath.ModuleRegistry;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestFramework;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.api.internal.tasks.testing.processors.FilteringTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.MaxNParallelTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.RestartEveryNTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.processors.SortingTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.TestMainAction;
 import org.gradle.api.internal.tasks.testing.worker.ForkingTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.worker.TestWorkerProcessPool;
+import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.testing.Test;
 import org.gradle.internal.Factory;
 import org.gradle.internal.TrueTimeProvider;
@@ -33,6 +38,8 @@ import org.gradle.internal.progress.OperationIdGenerator;
 import org.gradle.internal.actor.ActorFactory;
 import org.gradle.process.internal.worker.WorkerProcessFactory;
 
+import java.util.Comparator;
+
 /**
  * The default test class scanner factory.
  */
@@ -40,21 +47,40 @@ public class DefaultTestExecuter implements TestExecuter {
     private final WorkerProcessFactory workerFactory;
     private final ActorFactory actorFactory;
     private final ModuleRegistry moduleRegistry;
+    private final TestWorkerProcessPool workerPool;
+    private final Comparator<? super TestClassRunInfo> testClassOrder;
+    private final Spec<? super TestClassRunInfo> testClassSpec;
 
     public DefaultTestExecuter(WorkerProcessFactory workerFactory, ActorFactory actorFactory, ModuleRegistry moduleRegistry) {
+        this(workerFactory, actorFactory, moduleRegistry, null, null, null);
+    }
+
+    /**
+     * @param workerPool The pool to take test worker processes from and hand them back to, or null to start a new worker process for each test execution.
+     * Not used when the test task restarts its worker processes with {@link Test#getForkEvery()}.
+     * @param testClassOrder The order in which to execute the test classes, or null to execute them in the order they are found.
+     * @param testClassSpec The test classes to execute, or null to execute all test classes found.
+     */
+    public DefaultTestExecuter(WorkerProcessFactory workerFactory, ActorFactory actorFactory, ModuleRegistry moduleRegistry, TestWorkerProcessPool workerPool,
+                               Comparator<? super TestClassRunInfo> testClassOrder, Spec<? super TestClassRunInfo> testClassSpec) {
         this.workerFactory = workerFactory;
         this.actorFactory = actorFactory;
         this.moduleRegistry = moduleRegistry;
+        this.workerPool = workerPool;
+        this.testClassOrder = testClassOrder;
+        this.testClassSpec = testClassSpec;
     }
 
     @Override
     public void execute(final Test testTask, TestResultProcessor testResultProcessor) {
         final TestFramework testFramework = testTask.getTestFramework();
         final WorkerTestClassProcessorFactory testInstanceFactory = testFramework.getProcessorFactory();
+        // A worker process that has reached the forkEvery limit must be stopped rather than handed back to the pool
+        final TestWorkerProcessPool workerPool = testTask.getForkEvery() > 0 ? null : this.workerPool;
         final Factory<TestClassProcessor> forkingProcessorFactory = new Factory<TestClassProcessor>() {
             public TestClassProcessor create() {
                 return new ForkingTestClassProcessor(workerFactory, testInstanceFactory, testTask,
-                    testTask.getClasspath(), testFramework.getWorkerConfigurationAction(), moduleRegistry);
+                    testTask.getClasspath(), testFramework.getWorkerConfigurationAction(), moduleRegistry, workerPool);
             }
         };
         Factory<TestClassProcessor> reforkingProcessorFactory = new Factory<TestClassProcessor>() {
@@ -65,6 +91,13 @@ public class DefaultTestExecuter implements TestExecuter {
 
         TestClassProcessor processor = new MaxNParallelTestClassProcessor(testTask.getMaxParallelForks(),
             reforkingProcessorFactory, actorFactory);
+        if (testClassOrder != null) {
+            // All test classes must be known before the first is handed out, so that the first ones run are in the given order
+            processor = new SortingTestClassProcessor(processor, testClassOrder);
+        }
+        if (testClassSpec != null) {
+            processor = new FilteringTestClassProcessor(processor, testClassSpec);
+        }
 
         final FileTree testClassFiles = testTask.getCandidateClassFiles();
 
@@ -0,0 +1,301 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.file.EmptyFileVisitor;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.internal.file.collections.DirectoryFileTree;
+import org.gradle.api.internal.hash.DefaultHasher;
+import org.gradle.api.internal.hash.Hasher;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.CachingClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysis;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisCache;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.DefaultClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependentsAccumulator;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysis;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
+import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.specs.Specs;
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.FlushableEncoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.util.Clock;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Selects the test classes affected by the changes to the test runtime classpath since the previous execution of a test task.
+ *
+ * <p>The class files in the directories of the classpath are compared with those seen by the previous execution, and the test classes that
+ * are changed or that transitively depend on a changed class are selected, using the class dependency analysis of the incremental Java
+ * compiler. Test classes that failed in the previous execution are always selected. All test classes are selected when the analysis cannot
+ * tell which ones are affected: when there is no previous execution, when the test configuration, a jar or a resource has changed, when a
+ * changed class may affect any class (for example, because it declares constants), or when nothing has changed at all.</p>
+ */
+public class TestImpactAnalysis {
+    private static final Logger LOGGER = Logging.getLogger(TestImpactAnalysis.class);
+    private static final int STATE_VERSION = 1;
+
+    private final File stateFile;
+    private final ClassAnalysisCache classAnalysisCache;
+    private final Hasher hasher = new DefaultHasher();
+    private Map<String, ClasspathFile> files;
+    private HashValue configuration;
+
+    public TestImpactAnalysis(File stateFile, ClassAnalysisCache classAnalysisCache) {
+        this.stateFile = stateFile;
+        this.classAnalysisCache = classAnalysisCache;
+    }
+
+    /**
+     * Determines the test classes to execute.
+     *
+     * @param displayName The display name of the test task, used for logging.
+     * @param classpath The test runtime classpath.
+     * @param configuration A hash of the configuration of the test task that affects all tests, such as the test framework options and JVM arguments.
+     */
+    public Spec<TestClassRunInfo> selectTestClasses(String displayName, Iterable<File> classpath, HashValue configuration) {
+        Clock clock = new Clock();
+        this.configuration = configuration;
+        this.files = snapshot(classpath);
+
+        State previous = readState();
+        String fullRunCause;
+        final Set<String> selected = new HashSet<String>();
+        if (previous == null) {
+            fullRunCause = "there is no state from a previous execution";
+        } else if (!previous.configuration.equals(configuration)) {
+            fullRunCause = "the test configuration has changed";
+        } else {
+            fullRunCause = selectAffectedTestClasses(previous, selected);
+        }
+
+        if (fullRunCause != null) {
+            LOGGER.lifecycle("{} - running all tests because {}. Analysis took {}.", displayName, fullRunCause, clock.getTime());
+            return Specs.satisfyAll();
+        }
+        selected.addAll(previous.failedTestClasses);
+        LOGGER.lifecycle("{} - running only the test classes affected by changes since the previous execution. Analysis took {}.", displayName, clock.getTime());
+        return new Spec<TestClassRunInfo>() {
+            @Override
+            public boolean isSatisfiedBy(TestClassRunInfo testClass) {
+                return selected.contains(outerClassName(testClass.getTestClassName()));
+            }
+        };
+    }
+
+    /**
+     * Collects the affected test classes into the given set.
+     *
+     * @return the reason why all test classes must run instead, or null.
+     */
+    private String selectAffectedTestClasses(State previous, Set<String> selected) {
+        Set<String> changedClasses = new HashSet<String>();
+        Set<String> paths = new HashSet<String>(files.keySet());
+        paths.addAll(previous.files.keySet());
+        for (String path : paths) {
+            ClasspathFile current = files.get(path);
+            ClasspathFile old = previous.files.get(path);
+            if (current != null && old != null && current.hash.equals(old.hash)) {
+                continue;
+            }
+            String className = current != null ? current.className : old.className;
+            if (className == null) {
+                return String.format("%s has changed", path);
+            }
+            changedClasses.add(className);
+        }
+        if (changedClasses.isEmpty()) {
+            return "no classes have changed since the previous execution";
+        }
+
+        ClassSetAnalysis analysis = analyzeClasses();
+        for (String changedClass : changedClasses) {
+            if (analysis.isDependencyToAll(changedClass)) {
+                return String.format("a change to %s may affect any class", changedClass);
+            }
+        }
+        DependentsSet dependents = analysis.getRelevantDependents(changedClasses);
+        if (dependents.isDependencyToAll()) {
+            return "a changed class may affect any class";
+        }
+        for (String className : changedClasses) {
+            selected.add(outerClassName(className));
+        }
+        for (String className : dependents.getDependentClasses()) {
+            selected.add(outerClassName(className));
+        }
+        return null;
+    }
+
+    private ClassSetAnalysis analyzeClasses() {
+        final Map<File, HashValue> hashes = new HashMap<File, HashValue>();
+        for (ClasspathFile file : files.values()) {
+            if (file.className != null) {
+                hashes.put(file.file, file.hash);
+            }
+        }
+        ClassDependenciesAnalyzer analyzer = new CachingClassDependenciesAnalyzer(new DefaultClassDependenciesAnalyzer(), new Hasher() {
+            @Override
+            public HashValue hash(File file) {
+                return hashes.get(file);
+            }
+        }, classAnalysisCache);
+        ClassDependentsAccumulator accumulator = new ClassDependentsAccumulator("");
+        for (ClasspathFile file : files.values()) {
+            if (file.className != null) {
+                ClassAnalysis classAnalysis = analyzer.getClassAnalysis(file.className, file.file);
+                accumulator.addClass(file.className, classAnalysis.isDependencyToAll(), classAnalysis.getClassDependencies());
+            }
+        }
+        return new ClassSetAnalysis(new ClassSetAnalysisData(accumulator.getDependentsMap()));
+    }
+
+    private Map<String, ClasspathFile> snapshot(Iterable<File> classpath) {
+        final Map<String, ClasspathFile> files = new LinkedHashMap<String, ClasspathFile>();
+        for (File entry : classpath) {
+            if (entry.isDirectory()) {
+                new DirectoryFileTree(entry).visit(new EmptyFileVisitor() {
+                    @Override
+                    public void visitFile(FileVisitDetails fileDetails) {
+                        File file = fileDetails.getFile();
+                        String path = fileDetails.getPath();
+                        String className = path.endsWith(".class") ? path.substring(0, path.length() - ".class".length()).replace('/', '.') : null;
+                        files.put(file.getAbsolutePath(), new ClasspathFile(file, className, hasher.hash(file)));
+                    }
+                });
+            } else if (entry.isFile()) {
+                // Any change to a jar causes all tests to run, so there is no need to look at its content
+                HashValue hash = HashUtil.sha1((entry.length() + ":" + entry.lastModified()).getBytes());
+                files.put(entry.getAbsolutePath(), new ClasspathFile(entry, null, hash));
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Records the analyzed classpath as the state for the next execution, along with the test classes that failed. Should only be called
+     * when all selected test classes have been executed.
+     */
+    public void recordExecution(Collection<String> failedTestClasses) {
+        stateFile.getParentFile().mkdirs();
+        try {
+            OutputStream outputStream = new FileOutputStream(stateFile);
+            try {
+                FlushableEncoder encoder = new KryoBackedEncoder(outputStream);
+                encoder.writeSmallInt(STATE_VERSION);
+                encoder.writeBinary(configuration.asByteArray());
+                encoder.writeSmallInt(files.size());
+                for (ClasspathFile file : files.values()) {
+                    encoder.writeString(file.file.getAbsolutePath());
+                    encoder.writeNullableString(file.className);
+                    encoder.writeBinary(file.hash.asByteArray());
+                }
+                encoder.writeSmallInt(failedTestClasses.size());
+                for (String failedTestClass : failedTestClasses) {
+                    encoder.writeString(outerClassName(failedTestClass));
+                }
+                encoder.flush();
+            } finally {
+                outputStream.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private State readState() {
+        if (!stateFile.isFile()) {
+            return null;
+        }
+        try {
+            InputStream inputStream = new FileInputStream(stateFile);
+            try {
+                Decoder decoder = new KryoBackedDecoder(inputStream);
+                if (decoder.readSmallInt() != STATE_VERSION) {
+                    return null;
+                }
+                State state = new State(new HashValue(decoder.readBinary()));
+                int fileCount = decoder.readSmallInt();
+                for (int i = 0; i < fileCount; i++) {
+                    File file = new File(decoder.readString());
+                    String className = decoder.readNullableString();
+                    HashValue hash = new HashValue(decoder.readBinary());
+                    state.files.put(file.getAbsolutePath(), new ClasspathFile(file, className, hash));
+                }
+                int failedCount = decoder.readSmallInt();
+                for (int i = 0; i < failedCount; i++) {
+                    state.failedTestClasses.add(decoder.readString());
+                }
+                return state;
+            } finally {
+                inputStream.close();
+            }
+        } catch (Exception e) {
+            LOGGER.info("Could not read test impact analysis state from {}. Ignoring it.", stateFile, e);
+            return null;
+        }
+    }
+
+    private static String outerClassName(String className) {
+        int index = className.indexOf('$');
+        return index < 0 ? className : className.substring(0, index);
+    }
+
+    private static class ClasspathFile {
+        private final File file;
+        private final String className;
+        private final HashValue hash;
+
+        ClasspathFile(File file, String className, HashValue hash) {
+            this.file = file;
+            this.className = className;
+            this.hash = hash;
+        }
+    }
+
+    private static class State {
+        private final HashValue configuration;
+        private final Map<String, ClasspathFile> files = new HashMap<String, ClasspathFile>();
+        private final Set<String> failedTestClasses = new HashSet<String>();
+
+        State(HashValue configuration) {
+            this.configuration = configuration;
+        }
+    }
+}
@@ -17,6 +17,7 @@ package org.gradle.api.internal.tasks.testing.junit.report;
 
 import org.gradle.api.Action;
 import org.gradle.api.GradleException;
+import org.gradle.api.internal.tasks.testing.junit.result.GeneratedReportFiles;
 import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
 import org.gradle.api.internal.tasks.testing.junit.result.TestFailure;
 import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult;
@@ -33,16 +34,28 @@ import org.gradle.util.Clock;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.gradle.api.tasks.testing.TestResult.ResultType.SKIPPED;
 
 public class DefaultTestReport implements TestReporter {
     private final BuildOperationProcessor buildOperationProcessor;
+    private final File stateFile;
     private final static Logger LOG = Logging.getLogger(DefaultTestReport.class);
 
     public DefaultTestReport(BuildOperationProcessor buildOperationProcessor) {
+        this(buildOperationProcessor, null);
+    }
+
+    /**
+     * @param stateFile The file in which to remember the results from which the class pages were generated, so that the pages of unchanged
+     * results are not generated again. When null, all pages are generated.
+     */
+    public DefaultTestReport(BuildOperationProcessor buildOperationProcessor, File stateFile) {
         this.buildOperationProcessor = buildOperationProcessor;
+        this.stateFile = stateFile;
     }
 
     @Override
@@ -50,16 +63,31 @@ public class DefaultTestReport implements TestReporter {
         LOG.info("Generating HTML test report...");
 
         Clock clock = new Clock();
-        AllTestResults model = loadModelFromProvider(resultsProvider);
-        generateFiles(model, resultsProvider, reportDir);
+        GeneratedReportFiles generatedFiles = stateFile == null ? null : new GeneratedReportFiles(stateFile, "html").read();
+        Set<ClassTestResults> upToDateClasses = new HashSet<ClassTestResults>();
+        AllTestResults model = loadModelFromProvider(resultsProvider, reportDir, generatedFiles, upToDateClasses);
+        generateFiles(model, resultsProvider, reportDir, upToDateClasses);
+        if (generatedFiles != null) {
+            generatedFiles.write();
+        }
         LOG.info("Finished generating test html results ({}) into: {}", clock.getTime(), reportDir);
     }
 
-    private AllTestResults loadModelFromProvider(TestResultsProvider resultsProvider) {
+    private AllTestResults loadModelFromProvider(TestResultsProvider resultsProvider, final File reportDir, final GeneratedReportFiles generatedFiles, final Set<ClassTestResults> upToDateClasses) {
         final AllTestResults model = new AllTestResults();
+        final Set<ClassTestResults> visitedClasses = new HashSet<ClassTestResults>();
         resultsProvider.visitClasses(new Action<TestClassResult>() {
             public void execute(TestClassResult classResult) {
-                model.addTestClass(classResult.getId(), classResult.getClassName());
+                ClassTestResults classResults = model.addTestClass(classResult.getId(), classResult.getClassName());
+                if (generatedFiles != null) {
+                    // A page that combines the results of several executions of the same class is always generated
+                    boolean upToDate = generatedFiles.isUpToDate(new File(reportDir, classResults.getBaseUrl()), classResult);
+                    if (visitedClasses.add(classResults) && upToDate) {
+                        upToDateClasses.add(classResults);
+                    } else {
+                        upToDateClasses.remove(classResults);
+                    }
+                }
                 List<TestMethodResult> collectedResults = classResult.getResults();
                 for (TestMethodResult collectedResult : collectedResults) {
                     final TestResult testResult = model.addTest(classResult.getId(), classResult.getClassName(), collectedResult.getName(), collectedResult.getDuration());
@@ -77,7 +105,7 @@ public class DefaultTestReport implements TestReporter {
         return model;
     }
 
-    private void generateFiles(AllTestResults model, final TestResultsProvider resultsProvider, File reportDir) {
+    private void generateFiles(AllTestResults model, final TestResultsProvider resultsProvider, File reportDir, final Set<ClassTestResults> upToDateClasses) {
         try {
             HtmlReportRenderer htmlRenderer = new HtmlReportRenderer();
             htmlRenderer.render(model, new ReportRenderer<AllTestResults, HtmlReportBuilder>() {
@@ -90,6 +118,9 @@ public class DefaultTestReport implements TestReporter {
                             for (PackageTestResults packageResults : model.getPackages()) {
                                 queue.add(generator(packageResults.getBaseUrl(), packageResults, new PackagePageRenderer(), output));
                                 for (ClassTestResults classResults : packageResults.getClasses()) {
+                                    if (upToDateClasses.contains(classResults)) {
+                                        continue;
+                                    }
                                     queue.add(generator(classResults.getBaseUrl(), classResults, new ClassPageRenderer(resultsProvider), output));
                                 }
                             }
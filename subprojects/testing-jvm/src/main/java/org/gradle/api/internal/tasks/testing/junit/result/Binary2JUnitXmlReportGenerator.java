@@ -36,19 +36,33 @@ public class Binary2JUnitXmlReportGenerator {
 
     private final File testResultsDir;
     private final TestResultsProvider testResultsProvider;
+    private final File stateFile;
+    private final String configuration;
     private JUnitXmlResultWriter xmlWriter;
     private final BuildOperationProcessor buildOperationProcessor;
     private final static Logger LOG = Logging.getLogger(Binary2JUnitXmlReportGenerator.class);
 
     public Binary2JUnitXmlReportGenerator(File testResultsDir, TestResultsProvider testResultsProvider, TestOutputAssociation outputAssociation, BuildOperationProcessor buildOperationProcessor) {
+        this(testResultsDir, testResultsProvider, outputAssociation, buildOperationProcessor, null);
+    }
+
+    /**
+     * @param stateFile The file in which to remember the results from which the report files were generated, so that the report files of unchanged
+     * results are not generated again. When null, all report files are generated.
+     */
+    public Binary2JUnitXmlReportGenerator(File testResultsDir, TestResultsProvider testResultsProvider, TestOutputAssociation outputAssociation, BuildOperationProcessor buildOperationProcessor, File stateFile) {
         this.testResultsDir = testResultsDir;
         this.testResultsProvider = testResultsProvider;
-        this.xmlWriter = new JUnitXmlResultWriter(getHostname(), testResultsProvider, outputAssociation);
+        String hostname = getHostname();
+        this.xmlWriter = new JUnitXmlResultWriter(hostname, testResultsProvider, outputAssociation);
         this.buildOperationProcessor = buildOperationProcessor;
+        this.stateFile = stateFile;
+        this.configuration = hostname + ":" + outputAssociation;
     }
 
     public void generate() {
         Clock clock = new Clock();
+        final GeneratedReportFiles generatedFiles = stateFile == null ? null : new GeneratedReportFiles(stateFile, configuration).read();
 
         buildOperationProcessor.run(new Action<BuildOperationQueue<JUnitXmlReportFileGenerator>>() {
             @Override
@@ -56,12 +70,19 @@ public class Binary2JUnitXmlReportGenerator {
                 testResultsProvider.visitClasses(new Action<TestClassResult>() {
                     public void execute(final TestClassResult result) {
                         final File reportFile = new File(testResultsDir, getReportFileName(result));
+                        if (generatedFiles != null && generatedFiles.isUpToDate(reportFile, result)) {
+                            return;
+                        }
                         queue.add(new JUnitXmlReportFileGenerator(result, reportFile, xmlWriter));
                     }
                 });
             }
         });
 
+        if (generatedFiles != null) {
+            generatedFiles.write();
+        }
+
         LOG.info("Finished generating test XML results ({}) into: {}", clock.getTime(), testResultsDir);
     }
 
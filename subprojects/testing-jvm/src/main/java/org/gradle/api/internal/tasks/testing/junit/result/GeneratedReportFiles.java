@@ -0,0 +1,158 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.junit.result;
+
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.FlushableEncoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.util.GradleVersion;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The test class results from which the files of a report were generated, kept across report generations so that a file generated from a
+ * test class result that has not changed since is not generated again.
+ *
+ * <p>A test class result is identified by its content, including the start and end times of its tests, which also identify the output of the
+ * tests. The state is discarded when it was written by another Gradle version or for another report configuration.</p>
+ */
+public class GeneratedReportFiles {
+    private static final Logger LOGGER = Logging.getLogger(GeneratedReportFiles.class);
+    private static final int STATE_VERSION = 1;
+
+    private final File stateFile;
+    private final String configuration;
+    private final Map<String, HashValue> previous = new HashMap<String, HashValue>();
+    private final Map<String, HashValue> current = new HashMap<String, HashValue>();
+
+    /**
+     * @param configuration Describes the configuration of the report that affects the content of the generated files.
+     */
+    public GeneratedReportFiles(File stateFile, String configuration) {
+        this.stateFile = stateFile;
+        this.configuration = GradleVersion.current().getVersion() + ":" + configuration;
+    }
+
+    /**
+     * Loads the state from disk, then removes it so that no stale state is left behind when the report generation fails.
+     * A missing or unreadable state is treated as empty.
+     */
+    public GeneratedReportFiles read() {
+        previous.clear();
+        current.clear();
+        if (!stateFile.isFile()) {
+            return this;
+        }
+        try {
+            InputStream inputStream = new FileInputStream(stateFile);
+            try {
+                Decoder decoder = new KryoBackedDecoder(inputStream);
+                if (decoder.readSmallInt() == STATE_VERSION && decoder.readString().equals(configuration)) {
+                    int count = decoder.readSmallInt();
+                    for (int i = 0; i < count; i++) {
+                        String path = decoder.readString();
+                        previous.put(path, new HashValue(decoder.readBinary()));
+                    }
+                }
+            } finally {
+                inputStream.close();
+            }
+        } catch (Exception e) {
+            LOGGER.info("Could not read report state from {}. Ignoring it.", stateFile, e);
+            previous.clear();
+        }
+        stateFile.delete();
+        return this;
+    }
+
+    /**
+     * Records that the given report file is generated from the given result, and returns whether the file is already up-to-date,
+     * that is, whether it exists and was generated from the same result last time.
+     */
+    public boolean isUpToDate(File reportFile, TestClassResult result) {
+        String path = reportFile.getAbsolutePath();
+        HashValue fingerprint = fingerprint(result);
+        current.put(path, fingerprint);
+        return fingerprint.equals(previous.get(path)) && reportFile.isFile();
+    }
+
+    /**
+     * Writes the state to disk. Should only be called once all report files have been generated.
+     */
+    public void write() {
+        stateFile.getParentFile().mkdirs();
+        try {
+            OutputStream outputStream = new FileOutputStream(stateFile);
+            try {
+                FlushableEncoder encoder = new KryoBackedEncoder(outputStream);
+                encoder.writeSmallInt(STATE_VERSION);
+                encoder.writeString(configuration);
+                encoder.writeSmallInt(current.size());
+                for (Map.Entry<String, HashValue> entry : current.entrySet()) {
+                    encoder.writeString(entry.getKey());
+                    encoder.writeBinary(entry.getValue().asByteArray());
+                }
+                encoder.flush();
+            } finally {
+                outputStream.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static HashValue fingerprint(TestClassResult result) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        KryoBackedEncoder encoder = new KryoBackedEncoder(bytes);
+        encoder.writeString(result.getClassName());
+        encoder.writeLong(result.getStartTime());
+        encoder.writeSmallInt(result.getResults().size());
+        for (TestMethodResult methodResult : result.getResults()) {
+            write(methodResult, encoder);
+        }
+        encoder.flush();
+        return HashUtil.sha1(bytes.toByteArray());
+    }
+
+    private static void write(TestMethodResult methodResult, KryoBackedEncoder encoder) {
+        encoder.writeString(methodResult.getName());
+        encoder.writeNullableString(methodResult.getResultType() == null ? null : methodResult.getResultType().name());
+        encoder.writeLong(methodResult.getDuration());
+        encoder.writeLong(methodResult.getEndTime());
+        encoder.writeSmallInt(methodResult.getFailures().size());
+        for (TestFailure failure : methodResult.getFailures()) {
+            encoder.writeNullableString(failure.getMessage());
+            encoder.writeNullableString(failure.getStackTrace());
+            encoder.writeNullableString(failure.getExceptionType());
+        }
+    }
+}
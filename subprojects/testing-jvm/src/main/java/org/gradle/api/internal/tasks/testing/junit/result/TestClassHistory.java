@@ -0,0 +1,172 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.junit.result;
+
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.FlushableEncoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * The duration and outcome of each test class the last time it was executed, kept across runs of a test task.
+ * Used to execute the test classes that failed last time first, and the remaining test classes longest first.
+ *
+ * <p>Test classes that have not been executed for a number of runs, for example because they have been deleted, are dropped from the history.</p>
+ */
+public class TestClassHistory {
+    private static final Logger LOGGER = Logging.getLogger(TestClassHistory.class);
+    private static final int HISTORY_VERSION = 2;
+    static final int MAX_RUNS_WITHOUT_EXECUTION = 10;
+
+    private final File historyFile;
+    private final Map<String, TestClassExecution> executions = new HashMap<String, TestClassExecution>();
+    private long run;
+
+    public TestClassHistory(File historyFile) {
+        this.historyFile = historyFile;
+    }
+
+    /**
+     * Loads the history from disk. A missing or unreadable history is treated as empty.
+     */
+    public TestClassHistory read() {
+        executions.clear();
+        run = 0;
+        if (!historyFile.isFile() || historyFile.length() == 0) {
+            return this;
+        }
+        try {
+            InputStream inputStream = new FileInputStream(historyFile);
+            try {
+                Decoder decoder = new KryoBackedDecoder(inputStream);
+                if (decoder.readSmallInt() != HISTORY_VERSION) {
+                    return this;
+                }
+                run = decoder.readSmallLong();
+                int count = decoder.readSmallInt();
+                for (int i = 0; i < count; i++) {
+                    String className = decoder.readString();
+                    long duration = decoder.readSmallLong();
+                    boolean failed = decoder.readBoolean();
+                    long lastRun = decoder.readSmallLong();
+                    executions.put(className, new TestClassExecution(duration, failed, lastRun));
+                }
+            } finally {
+                inputStream.close();
+            }
+        } catch (Exception e) {
+            LOGGER.info("Could not read test class history from {}. Ignoring it.", historyFile, e);
+            executions.clear();
+            run = 0;
+        }
+        return this;
+    }
+
+    /**
+     * Records the given results, replacing any earlier execution of the same test classes, and writes the history to disk.
+     */
+    public void update(Collection<TestClassResult> results) {
+        run++;
+        for (TestClassResult result : results) {
+            executions.put(result.getClassName(), new TestClassExecution(result.getDuration(), result.getFailuresCount() > 0, run));
+        }
+        Iterator<TestClassExecution> iterator = executions.values().iterator();
+        while (iterator.hasNext()) {
+            if (run - iterator.next().lastRun >= MAX_RUNS_WITHOUT_EXECUTION) {
+                iterator.remove();
+            }
+        }
+        historyFile.getParentFile().mkdirs();
+        try {
+            OutputStream outputStream = new FileOutputStream(historyFile);
+            try {
+                FlushableEncoder encoder = new KryoBackedEncoder(outputStream);
+                encoder.writeSmallInt(HISTORY_VERSION);
+                encoder.writeSmallLong(run);
+                encoder.writeSmallInt(executions.size());
+                for (Map.Entry<String, TestClassExecution> entry : executions.entrySet()) {
+                    encoder.writeString(entry.getKey());
+                    encoder.writeSmallLong(entry.getValue().duration);
+                    encoder.writeBoolean(entry.getValue().failed);
+                    encoder.writeSmallLong(entry.getValue().lastRun);
+                }
+                encoder.flush();
+            } finally {
+                outputStream.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the order in which to execute test classes: classes that failed last time, then classes with no history, then the remaining classes longest first.
+     */
+    public Comparator<TestClassRunInfo> getExecutionOrder() {
+        final Map<String, TestClassExecution> executions = new HashMap<String, TestClassExecution>(this.executions);
+        return new Comparator<TestClassRunInfo>() {
+            @Override
+            public int compare(TestClassRunInfo left, TestClassRunInfo right) {
+                TestClassExecution leftExecution = executions.get(left.getTestClassName());
+                TestClassExecution rightExecution = executions.get(right.getTestClassName());
+                int result = rank(leftExecution) - rank(rightExecution);
+                if (result != 0 || leftExecution == null) {
+                    return result;
+                }
+                long leftDuration = leftExecution.duration;
+                long rightDuration = rightExecution.duration;
+                return leftDuration > rightDuration ? -1 : leftDuration == rightDuration ? 0 : 1;
+            }
+
+            private int rank(TestClassExecution execution) {
+                if (execution == null) {
+                    return 1;
+                }
+                return execution.failed ? 0 : 2;
+            }
+        };
+    }
+
+    private static class TestClassExecution {
+        private final long duration;
+        private final boolean failed;
+        private final long lastRun;
+
+        TestClassExecution(long duration, boolean failed, long lastRun) {
+            this.duration = duration;
+            this.failed = failed;
+            this.lastRun = lastRun;
+        }
+    }
+}
@@ -20,6 +20,7 @@ import groovy.lang.Closure;
 import org.gradle.api.Action;
 import org.gradle.api.GradleException;
 import org.gradle.api.Incubating;
+import org.gradle.api.UncheckedIOException;
 import org.gradle.api.file.*;
 import org.gradle.api.internal.ConventionTask;
 import org.gradle.api.internal.classpath.ModuleRegistry;
@@ -27,14 +28,17 @@ import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.file.FileTreeElementComparator;
 import org.gradle.api.internal.file.FileTreeElementHasher;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
+import org.gradle.api.internal.tasks.compile.incremental.cache.GeneralCompileCaches;
 import org.gradle.api.internal.tasks.options.Option;
 import org.gradle.api.internal.tasks.testing.DefaultTestTaskReports;
 import org.gradle.api.internal.tasks.testing.NoMatchingTestsReporter;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestFramework;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.detection.DefaultTestExecuter;
 import org.gradle.api.internal.tasks.testing.detection.TestExecuter;
 import org.gradle.api.internal.tasks.testing.filter.DefaultTestFilter;
+import org.gradle.api.internal.tasks.testing.impact.TestImpactAnalysis;
 import org.gradle.api.internal.tasks.testing.junit.JUnitTestFramework;
 import org.gradle.api.internal.tasks.testing.junit.report.DefaultTestReport;
 import org.gradle.api.internal.tasks.testing.junit.report.TestReporter;
@@ -44,6 +48,7 @@ import org.gradle.api.internal.tasks.testing.results.StateTrackingTestResultProc
 import org.gradle.api.internal.tasks.testing.results.TestListenerAdapter;
 import org.gradle.api.internal.tasks.testing.results.TestListenerInternal;
 import org.gradle.api.internal.tasks.testing.testng.TestNGTestFramework;
+import org.gradle.api.internal.tasks.testing.worker.TestWorkerProcessPool;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.reporting.DirectoryReport;
 import org.gradle.api.reporting.Reporting;
@@ -55,6 +60,8 @@ import org.gradle.api.tasks.util.PatternFilterable;
 import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.event.ListenerBroadcast;
 import org.gradle.internal.event.ListenerManager;
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.internal.hash.HashValue;
 import org.gradle.internal.operations.BuildOperationProcessor;
 import org.gradle.internal.reflect.Instantiator;
 import org.gradle.listener.ClosureBackedMethodInvocationDispatch;
@@ -69,7 +76,10 @@ import org.gradle.process.internal.worker.WorkerProcessFactory;
 import org.gradle.util.ConfigureUtil;
 
 import javax.inject.Inject;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.util.*;
 import java.util.concurrent.Callable;
 
@@ -140,6 +150,9 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
     private boolean scanForTestClasses = true;
     private long forkEvery;
     private int maxParallelForks = 1;
+    private boolean reorderTestClasses;
+    private boolean reuseTestWorkers;
+    private boolean runOnlyAffectedTests;
     private TestReporter testReporter;
 
     @Nested
@@ -180,6 +193,16 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         throw new UnsupportedOperationException();
     }
 
+    @Inject
+    protected TestWorkerProcessPool getTestWorkerProcessPool() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Inject
+    protected GeneralCompileCaches getGeneralCompileCaches() {
+        throw new UnsupportedOperationException();
+    }
+
     @Inject
     protected ClassLoaderCache getClassLoaderCache() {
         throw new UnsupportedOperationException();
@@ -568,8 +591,23 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
 
         TestResultProcessor resultProcessor = new StateTrackingTestResultProcessor(testListenerInternalBroadcaster.getSource());
 
+        TestClassHistory testClassHistory = null;
+        if (reorderTestClasses) {
+            testClassHistory = new TestClassHistory(new File(getTemporaryDir(), "class-history.bin")).read();
+        }
+
+        TestImpactAnalysis testImpactAnalysis = null;
+        Spec<TestClassRunInfo> testClassSpec = null;
+        if (runOnlyAffectedTests) {
+            testImpactAnalysis = new TestImpactAnalysis(new File(getTemporaryDir(), "impact-analysis.bin"), getGeneralCompileCaches().getClassAnalysisCache());
+            testClassSpec = testImpactAnalysis.selectTestClasses(toString(), getClasspath(), getTestConfigurationHash());
+        }
+
         if (testExecuter == null) {
-            testExecuter = new DefaultTestExecuter(getProcessBuilderFactory(), getActorFactory(), getModuleRegistry());
+            testExecuter = new DefaultTestExecuter(getProcessBuilderFactory(), getActorFactory(), getModuleRegistry(),
+                reuseTestWorkers ? getTestWorkerProcessPool() : null,
+                testClassHistory == null ? null : testClassHistory.getExecutionOrder(),
+                testClassSpec);
         }
 
         try {
@@ -583,12 +621,24 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         }
 
         new TestResultSerializer(binaryResultsDir).write(results.values());
+        if (testClassHistory != null) {
+            testClassHistory.update(results.values());
+        }
+        if (testImpactAnalysis != null) {
+            List<String> failedTestClasses = new ArrayList<String>();
+            for (TestClassResult result : results.values()) {
+                if (result.getFailuresCount() > 0) {
+                    failedTestClasses.add(result.getClassName());
+                }
+            }
+            testImpactAnalysis.recordExecution(failedTestClasses);
+        }
 
         TestResultsProvider testResultsProvider = new InMemoryTestResultsProvider(results.values(), testOutputStore);
 
         try {
             if (testReporter == null) {
-                testReporter = new DefaultTestReport(getBuildOperationProcessor());
+                testReporter = new DefaultTestReport(getBuildOperationProcessor(), new File(getTemporaryDir(), "html-report.bin"));
             }
 
             JUnitXmlReport junitXml = reports.getJunitXml();
@@ -596,7 +646,8 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
                 TestOutputAssociation outputAssociation = junitXml.isOutputPerTestCase()
                         ? TestOutputAssociation.WITH_TESTCASE
                         : TestOutputAssociation.WITH_SUITE;
-                Binary2JUnitXmlReportGenerator binary2JUnitXmlReportGenerator = new Binary2JUnitXmlReportGenerator(junitXml.getDestination(), testResultsProvider, outputAssociation, getBuildOperationProcessor());
+                Binary2JUnitXmlReportGenerator binary2JUnitXmlReportGenerator = new Binary2JUnitXmlReportGenerator(junitXml.getDestination(), testResultsProvider, outputAssociation, getBuildOperationProcessor(),
+                    new File(getTemporaryDir(), "junit-xml-report.bin"));
                 binary2JUnitXmlReportGenerator.generate();
             }
 
@@ -617,6 +668,26 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         }
     }
 
+    /**
+     * Returns a hash of the configuration that affects all tests, used to decide whether the tests affected by a change can be selected.
+     */
+    private HashValue getTestConfigurationHash() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            ObjectOutputStream outputStream = new ObjectOutputStream(bytes);
+            outputStream.writeObject(getTestFramework().getProcessorFactory());
+            outputStream.writeObject(new ArrayList<String>(getAllJvmArgs()));
+            outputStream.writeObject(String.valueOf(getEnvironment()));
+            outputStream.writeObject(new ArrayList<String>(getIncludes()));
+            outputStream.writeObject(new ArrayList<String>(getExcludes()));
+            outputStream.writeBoolean(isScanForTestClasses());
+            outputStream.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return HashUtil.sha1(bytes.toByteArray());
+    }
+
     /**
      * Registers a test listener with this task. Consider also the following handy methods for quicker hooking into test execution: {@link #beforeTest(groovy.lang.Closure)}, {@link
      * #afterTest(groovy.lang.Closure)}, {@link #beforeSuite(groovy.lang.Closure)}, {@link #afterSuite(groovy.lang.Closure)} <p> This listener will NOT be notified of tests executed by other tasks. To
@@ -1070,6 +1141,79 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         this.maxParallelForks = maxParallelForks;
     }
 
+    /**
+     * Specifies whether test classes are executed in an order based on their previous execution. When {@code true}, the test classes that failed in the
+     * previous execution of this task are executed first, followed by any test classes that have not been executed before, and then the remaining test
+     * classes with the slowest first. This surfaces failures early and keeps parallel test processes evenly loaded. When {@code false} test classes are
+     * executed in the order they are found. The default value is {@code false}.
+     */
+    @Incubating
+    public boolean isReorderTestClasses() {
+        return reorderTestClasses;
+    }
+
+    /**
+     * Specifies whether test classes are executed in an order based on their previous execution.
+     *
+     * @see #isReorderTestClasses()
+     */
+    @Incubating
+    public void setReorderTestClasses(boolean reorderTestClasses) {
+        this.reorderTestClasses = reorderTestClasses;
+    }
+
+    /**
+     * Specifies whether forked test processes are kept alive after the tests have been executed, so that later executions of this or another test
+     * task with the same fork options can reuse them instead of starting a new JVM. When using the Gradle daemon, the processes are kept across
+     * builds. The default value is {@code false}.
+     *
+     * <p>A reused test process has the jar files of the test classpath on its system ClassPath, and is only reused while these jar files are
+     * unchanged. The other entries of the test classpath, such as the directories containing the compiled test classes, are loaded using a new
+     * ClassLoader each time the process is reused. System properties and the security manager are reset between executions. Other JVM-wide state
+     * changed by the tests, such as static state of classes loaded from the jar files, is not reset.</p>
+     *
+     * <p>Test processes are not reused when {@link #getForkEvery()} is set, as the processes are then restarted after the given number of test
+     * classes.</p>
+     */
+    @Incubating
+    public boolean isReuseTestWorkers() {
+        return reuseTestWorkers;
+    }
+
+    /**
+     * Specifies whether forked test processes are kept alive and reused by later test executions.
+     *
+     * @see #isReuseTestWorkers()
+     */
+    @Incubating
+    public void setReuseTestWorkers(boolean reuseTestWorkers) {
+        this.reuseTestWorkers = reuseTestWorkers;
+    }
+
+    /**
+     * Specifies whether only the test classes affected by the changes since the previous execution of this task are executed. When {@code true},
+     * the classes in the directories of the test runtime classpath are compared with those of the previous execution, and only the test classes
+     * that changed, that depend on a changed class directly or transitively, or that failed in the previous execution are executed. All test
+     * classes are executed when this cannot be determined safely, for example when there is no previous execution, when a jar or a resource on
+     * the test runtime classpath has changed, or when the test configuration has changed. The default value is {@code false}.
+     *
+     * <p>Dependencies that are not visible in the byte code, such as classes loaded by reflection, are not taken into account.</p>
+     */
+    @Incubating
+    public boolean isRunOnlyAffectedTests() {
+        return runOnlyAffectedTests;
+    }
+
+    /**
+     * Specifies whether only the test classes affected by the changes since the previous execution of this task are executed.
+     *
+     * @see #isRunOnlyAffectedTests()
+     */
+    @Incubating
+    public void setRunOnlyAffectedTests(boolean runOnlyAffectedTests) {
+        this.runOnlyAffectedTests = runOnlyAffectedTests;
+    }
+
     /**
      * Returns the classes files to scan for test classes.
      *
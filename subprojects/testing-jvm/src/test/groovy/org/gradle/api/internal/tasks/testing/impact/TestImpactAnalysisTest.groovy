@@ -0,0 +1,154 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.impact
+
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisCache
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
+import org.gradle.internal.hash.HashUtil
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Opcodes
+import spock.lang.Specification
+
+class TestImpactAnalysisTest extends Specification {
+    @Rule
+    private TestNameTestDirectoryProvider tmp = new TestNameTestDirectoryProvider()
+
+    def stateFile = tmp.file("state/impact-analysis.bin")
+    def classesDir = tmp.createDir("classes")
+    def classpath = [classesDir]
+    def configuration = HashUtil.sha1("config".bytes)
+    def cache = Stub(ClassAnalysisCache) {
+        get(_, _) >> { key, factory -> factory.create() }
+    }
+
+    def setup() {
+        writeClass("Base")
+        writeClass("Dependent", "Base")
+        writeClass("Dependent\$Inner", "Base")
+        writeClass("BaseTest", "Dependent")
+        writeClass("OtherTest")
+        classesDir.file("resource.txt").text = "content"
+    }
+
+    def "runs all tests when there is no previous execution"() {
+        expect:
+        selected() == ["Base", "Dependent", "BaseTest", "OtherTest"]
+    }
+
+    def "runs the tests that transitively depend on a changed class"() {
+        given:
+        execute()
+        writeClass("Base", "java/lang/Object", 1)
+
+        expect:
+        selected() == ["Base", "Dependent", "BaseTest"]
+    }
+
+    def "selects the outer class of a changed nested class"() {
+        given:
+        execute()
+        writeClass("Dependent\$Inner", "Base", 1)
+
+        expect:
+        selected() == ["Dependent"]
+    }
+
+    def "runs the tests that failed in the previous execution"() {
+        given:
+        execute(["OtherTest"])
+        writeClass("BaseTest", "Dependent", 1)
+
+        expect:
+        selected() == ["BaseTest", "OtherTest"]
+    }
+
+    def "runs the tests that depend on a removed class"() {
+        given:
+        execute()
+        classesDir.file("org/gradle/sample/Dependent.class").delete()
+
+        expect:
+        selected() == ["Dependent", "BaseTest"]
+    }
+
+    def "runs all tests when nothing has changed"() {
+        given:
+        execute()
+
+        expect:
+        selected() == ["Base", "Dependent", "BaseTest", "OtherTest"]
+    }
+
+    def "runs all tests when the test configuration has changed"() {
+        given:
+        execute()
+        writeClass("Base", "java/lang/Object", 1)
+        configuration = HashUtil.sha1("other".bytes)
+
+        expect:
+        selected() == ["Base", "Dependent", "BaseTest", "OtherTest"]
+    }
+
+    def "runs all tests when a resource or a jar has changed"() {
+        given:
+        def jar = tmp.file("lib.jar")
+        jar.text = "jar"
+        classpath << jar
+        execute()
+        writeClass("Base", "java/lang/Object", 1)
+        change.call(classesDir, jar)
+
+        expect:
+        selected() == ["Base", "Dependent", "BaseTest", "OtherTest"]
+
+        where:
+        change << [
+            { classes, jar -> classes.file("resource.txt").text = "changed" },
+            { classes, jar -> jar.text = "changed content" }
+        ]
+    }
+
+    def "ignores state that cannot be read"() {
+        given:
+        stateFile.text = "broken"
+
+        expect:
+        selected() == ["Base", "Dependent", "BaseTest", "OtherTest"]
+    }
+
+    private void execute(List<String> failedTestClasses = []) {
+        def analysis = new TestImpactAnalysis(stateFile, cache)
+        analysis.selectTestClasses("test", classpath, configuration)
+        analysis.recordExecution(failedTestClasses)
+    }
+
+    private List<String> selected() {
+        def spec = new TestImpactAnalysis(stateFile, cache).selectTestClasses("test", classpath, configuration)
+        return ["Base", "Dependent", "BaseTest", "OtherTest"].findAll { spec.isSatisfiedBy(new DefaultTestClassRunInfo("org.gradle.sample." + it)) }
+    }
+
+    private void writeClass(String name, String superName = "java/lang/Object", int version = 0) {
+        def writer = new ClassWriter(0)
+        writer.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC, "org/gradle/sample/" + name, null, superName.startsWith("java/") ? superName : "org/gradle/sample/" + superName, null)
+        writer.visitField(Opcodes.ACC_PRIVATE, "field" + version, "I", null, null).visitEnd()
+        writer.visitEnd()
+        classesDir.file("org/gradle/sample/${name}.class").bytes = writer.toByteArray()
+    }
+}
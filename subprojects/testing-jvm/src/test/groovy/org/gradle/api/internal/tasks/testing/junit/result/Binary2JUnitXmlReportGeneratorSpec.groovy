@@ -69,6 +69,48 @@ class Binary2JUnitXmlReportGeneratorSpec extends Specification {
         numThreads << [ 1, 4 ]
     }
 
+    def "does not write results again for unchanged test classes"() {
+        def stateFile = temp.file("state/junit-xml-report.bin")
+        def fooTest = new TestClassResult(1, 'FooTest', 100)
+            .add(new TestMethodResult(1, "foo"))
+        def barTest = new TestClassResult(2, 'BarTest', 100)
+            .add(new TestMethodResult(2, "bar"))
+        def changedBarTest = new TestClassResult(2, 'BarTest', 200)
+            .add(new TestMethodResult(2, "bar"))
+
+        def results = [fooTest, barTest]
+        resultsProvider.visitClasses(_) >> { Action action ->
+            results.each { action.execute(it) }
+        }
+        buildOperationProcessor = new DefaultBuildOperationProcessor(new DefaultBuildOperationQueueFactory(), new DefaultExecutorFactory(), 1)
+        def xmlWriter = Mock(JUnitXmlResultWriter)
+
+        when:
+        generator = new Binary2JUnitXmlReportGenerator(temp.testDirectory, resultsProvider, TestOutputAssociation.WITH_SUITE, buildOperationProcessor, stateFile)
+        generator.xmlWriter = xmlWriter
+        generator.generate()
+
+        then:
+        1 * xmlWriter.write(fooTest, _)
+        1 * xmlWriter.write(barTest, _)
+
+        when:
+        results = [fooTest, changedBarTest]
+        generator.generate()
+
+        then:
+        1 * xmlWriter.write(changedBarTest, _)
+        0 * xmlWriter._
+
+        when:
+        temp.file("TEST-FooTest.xml").delete()
+        generator.generate()
+
+        then:
+        1 * xmlWriter.write(fooTest, _)
+        0 * xmlWriter._
+    }
+
     def "adds context information to the failure if something goes wrong"() {
         generator = generatorWithMaxThreads(1)
 
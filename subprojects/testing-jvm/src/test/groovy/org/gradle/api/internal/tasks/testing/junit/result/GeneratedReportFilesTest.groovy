@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.junit.result
+
+import org.gradle.api.tasks.testing.TestResult
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class GeneratedReportFilesTest extends Specification {
+    @Rule
+    private TestNameTestDirectoryProvider tmp = new TestNameTestDirectoryProvider()
+
+    def stateFile = tmp.file("state/report.bin")
+    def reportFile = tmp.createFile("report/Foo.html")
+
+    def "report file is up-to-date when generated from the same result"() {
+        given:
+        generated(result(100, "message"))
+
+        expect:
+        new GeneratedReportFiles(stateFile, "config").read().isUpToDate(reportFile, result(100, "message"))
+    }
+
+    def "report file is out-of-date when the result has changed"() {
+        given:
+        generated(result(100, "message"))
+
+        expect:
+        !new GeneratedReportFiles(stateFile, "config").read().isUpToDate(reportFile, changed)
+
+        where:
+        changed << [result(200, "message"), result(100, "other message")]
+    }
+
+    def "report file is out-of-date when it no longer exists"() {
+        given:
+        generated(result(100, "message"))
+        reportFile.delete()
+
+        expect:
+        !new GeneratedReportFiles(stateFile, "config").read().isUpToDate(reportFile, result(100, "message"))
+    }
+
+    def "report file is out-of-date when the report configuration has changed"() {
+        given:
+        generated(result(100, "message"))
+
+        expect:
+        !new GeneratedReportFiles(stateFile, "other").read().isUpToDate(reportFile, result(100, "message"))
+    }
+
+    def "state is discarded until the report has been generated"() {
+        given:
+        generated(result(100, "message"))
+        new GeneratedReportFiles(stateFile, "config").read()
+
+        expect:
+        !stateFile.exists()
+        !new GeneratedReportFiles(stateFile, "config").read().isUpToDate(reportFile, result(100, "message"))
+    }
+
+    def "ignores state that cannot be read"() {
+        given:
+        stateFile.text = "broken"
+
+        expect:
+        !new GeneratedReportFiles(stateFile, "config").read().isUpToDate(reportFile, result(100, "message"))
+    }
+
+    private void generated(TestClassResult result) {
+        def files = new GeneratedReportFiles(stateFile, "config").read()
+        files.isUpToDate(reportFile, result)
+        files.write()
+    }
+
+    private static TestClassResult result(long startTime, String message) {
+        return new TestClassResult(1, "Foo", startTime)
+            .add(new TestMethodResult(1, "foo", TestResult.ResultType.FAILURE, 20, startTime + 20).addFailure(message, "trace", "java.lang.AssertionError"))
+    }
+}
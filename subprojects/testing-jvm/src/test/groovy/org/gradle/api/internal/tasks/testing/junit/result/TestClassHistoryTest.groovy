@@ -0,0 +1,104 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.junit.result
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
+import org.gradle.api.tasks.testing.TestResult
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class TestClassHistoryTest extends Specification {
+    @Rule
+    private TestNameTestDirectoryProvider tmp = new TestNameTestDirectoryProvider()
+
+    def historyFile = tmp.file("history/class-history.bin")
+
+    def "orders failed classes first, then new classes, then remaining classes longest first"() {
+        given:
+        new TestClassHistory(historyFile).read().update([
+            result(1, "Fast", 10, TestResult.ResultType.SUCCESS),
+            result(2, "Slow", 500, TestResult.ResultType.SUCCESS),
+            result(3, "Broken", 20, TestResult.ResultType.FAILURE)
+        ])
+
+        when:
+        def order = new TestClassHistory(historyFile).read().executionOrder
+
+        then:
+        sort(order, "Fast", "New", "Slow", "Broken") == ["Broken", "New", "Slow", "Fast"]
+    }
+
+    def "keeps history of classes that were not executed by the latest run"() {
+        given:
+        new TestClassHistory(historyFile).read().update([result(1, "Slow", 500, TestResult.ResultType.SUCCESS), result(2, "Fast", 10, TestResult.ResultType.FAILURE)])
+        new TestClassHistory(historyFile).read().update([result(1, "Fast", 10, TestResult.ResultType.SUCCESS)])
+
+        when:
+        def order = new TestClassHistory(historyFile).read().executionOrder
+
+        then:
+        sort(order, "Fast", "Slow") == ["Slow", "Fast"]
+    }
+
+    def "drops classes that have not been executed for a number of runs"() {
+        given:
+        new TestClassHistory(historyFile).read().update([result(1, "Deleted", 500, TestResult.ResultType.SUCCESS), result(2, "Kept", 10, TestResult.ResultType.SUCCESS)])
+
+        when:
+        (TestClassHistory.MAX_RUNS_WITHOUT_EXECUTION - 1).times {
+            new TestClassHistory(historyFile).read().update([result(1, "Kept", 10, TestResult.ResultType.SUCCESS)])
+        }
+
+        then:
+        sort(new TestClassHistory(historyFile).read().executionOrder, "Deleted", "New") == ["New", "Deleted"]
+
+        when:
+        new TestClassHistory(historyFile).read().update([result(1, "Kept", 10, TestResult.ResultType.SUCCESS)])
+
+        then:
+        sort(new TestClassHistory(historyFile).read().executionOrder, "Deleted", "New") == ["Deleted", "New"]
+        sort(new TestClassHistory(historyFile).read().executionOrder, "Kept", "New") == ["New", "Kept"]
+    }
+
+    def "treats missing or unreadable history as empty"() {
+        when:
+        def order = new TestClassHistory(historyFile).read().executionOrder
+
+        then:
+        sort(order, "B", "A") == ["B", "A"]
+
+        when:
+        historyFile.text = "not a history"
+        order = new TestClassHistory(historyFile).read().executionOrder
+
+        then:
+        sort(order, "B", "A") == ["B", "A"]
+    }
+
+    private static TestClassResult result(long id, String className, long duration, TestResult.ResultType resultType) {
+        def result = new TestClassResult(id, className, 1000)
+        result.add(new TestMethodResult(1, "test", resultType, duration, 1000 + duration))
+        return result
+    }
+
+    private static List<String> sort(Comparator order, String... classNames) {
+        def testClasses = classNames.collect { new DefaultTestClassRunInfo(it) }
+        Collections.sort(testClasses, order)
+        return testClasses*.testClassName
+    }
+}